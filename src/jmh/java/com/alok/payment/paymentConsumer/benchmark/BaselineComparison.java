@@ -0,0 +1,106 @@
+package com.alok.payment.paymentConsumer.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files benchmark by benchmark
+ *
+ * The primary score regresses when throughput drops, or time per operation grows, by more
+ * than the threshold. Normalized allocation ({@code gc.alloc.rate.norm}) regresses when it
+ * grows by more than the threshold and by at least one small object per operation, so
+ * near-zero allocations do not flag on noise.
+ */
+final class BaselineComparison {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+    private static final double MIN_ALLOCATION_DELTA_BYTES = 16;
+
+    private final List<Row> rows;
+
+    private BaselineComparison(List<Row> rows) {
+        this.rows = rows;
+    }
+
+    static BaselineComparison compare(Path baselineFile, Path currentFile, double thresholdPercent) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = new HashMap<>();
+        for (JsonNode result : objectMapper.readTree(baselineFile.toFile())) {
+            baseline.put(key(result), result);
+        }
+
+        List<Row> rows = new ArrayList<>();
+        for (JsonNode current : objectMapper.readTree(currentFile.toFile())) {
+            String key = key(current);
+            JsonNode previous = baseline.get(key);
+            boolean higherIsBetter = "thrpt".equals(current.path("mode").asText());
+
+            JsonNode primary = current.path("primaryMetric");
+            Double before = previous == null ? null : previous.path("primaryMetric").path("score").asDouble();
+            rows.add(Row.of(key, primary.path("scoreUnit").asText(), before, primary.path("score").asDouble(),
+                    higherIsBetter, thresholdPercent, 0));
+
+            JsonNode allocation = current.path("secondaryMetrics").path(ALLOCATION);
+            if (!allocation.isMissingNode()) {
+                JsonNode previousAllocation = previous == null ? null
+                        : previous.path("secondaryMetrics").path(ALLOCATION).path("score");
+                Double beforeBytes = previousAllocation == null || previousAllocation.isMissingNode()
+                        ? null : previousAllocation.asDouble();
+                rows.add(Row.of(key + " " + ALLOCATION, allocation.path("scoreUnit").asText(), beforeBytes,
+                        allocation.path("score").asDouble(), false, thresholdPercent, MIN_ALLOCATION_DELTA_BYTES));
+            }
+        }
+        return new BaselineComparison(rows);
+    }
+
+    boolean hasRegressions() {
+        return rows.stream().anyMatch(Row::regressed);
+    }
+
+    void print(PrintStream out) {
+        int width = rows.stream().mapToInt(row -> row.name().length()).max().orElse(9);
+        out.println();
+        out.println("Comparison with baseline:");
+        out.printf("%-" + width + "s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Row row : rows) {
+            String change = row.baseline() == null ? "new" : String.format("%+.1f%%", row.changePercent());
+            out.printf("%-" + width + "s %14.3f %14.3f %9s %s%s%n", row.name(),
+                    row.baseline() == null ? Double.NaN : row.baseline(), row.current(), change, row.unit(),
+                    row.regressed() ? "  REGRESSION" : "");
+        }
+        long regressions = rows.stream().filter(Row::regressed).count();
+        out.println(regressions == 0 ? "No regressions against the baseline"
+                : regressions + " regression(s) against the baseline");
+    }
+
+    private static String key(JsonNode result) {
+        StringBuilder key = new StringBuilder(result.path("benchmark").asText())
+                .append(" [").append(result.path("mode").asText()).append(']');
+        result.path("params").properties()
+                .forEach(param -> key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+        return key.toString();
+    }
+
+    private record Row(String name, String unit, Double baseline, double current, double changePercent,
+                       boolean regressed) {
+
+        static Row of(String name, String unit, Double baseline, double current, boolean higherIsBetter,
+                      double thresholdPercent, double minimumDelta) {
+            if (baseline == null || baseline == 0) {
+                return new Row(name, unit, baseline, current, 0, false);
+            }
+            double changePercent = (current - baseline) / baseline * 100;
+            double worsePercent = higherIsBetter ? -changePercent : changePercent;
+            boolean regressed = worsePercent > thresholdPercent && Math.abs(current - baseline) >= minimumDelta;
+            return new Row(name, unit, baseline, current, changePercent, regressed);
+        }
+    }
+}
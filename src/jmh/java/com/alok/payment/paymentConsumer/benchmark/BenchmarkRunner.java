@@ -0,0 +1,57 @@
+package com.alok.payment.paymentConsumer.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs the benchmarks with the GC profiler and writes JSON results; when a baseline result
+ * file is given, compares against it and exits non-zero on a regression
+ *
+ * Settings come from system properties, set by the {@code benchmark} Maven profile:
+ * {@code jmh.include} (benchmark regex), {@code jmh.result} (result file), {@code jmh.baseline}
+ * (earlier result file to compare with), {@code jmh.threshold} (allowed regression in percent)
+ * and {@code jmh.quick} (one short fork for a smoke run).
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String include = System.getProperty("jmh.include", ".*");
+        Path result = Path.of(System.getProperty("jmh.result", "target/jmh/results.json"));
+        String baseline = System.getProperty("jmh.baseline", "");
+        double threshold = Double.parseDouble(System.getProperty("jmh.threshold", "10"));
+
+        Files.createDirectories(result.toAbsolutePath().getParent());
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString())
+                .jvmArgsAppend("-Dlogback.configurationFile=logback-benchmark.xml");
+        if (Boolean.getBoolean("jmh.quick")) {
+            options.forks(1)
+                    .warmupIterations(1)
+                    .warmupTime(TimeValue.seconds(1))
+                    .measurementIterations(2)
+                    .measurementTime(TimeValue.seconds(1));
+        }
+        new Runner(options.build()).run();
+
+        if (!baseline.isBlank()) {
+            BaselineComparison comparison = BaselineComparison.compare(Path.of(baseline), result, threshold);
+            comparison.print(System.out);
+            if (comparison.hasRegressions()) {
+                System.exit(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.config.ExternalServicesProperties;
+import com.alok.payment.paymentConsumer.model.Beneficiary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-process beneficiaries service answering from a fixed set of active beneficiaries
+ */
+public class StubBeneficiariesClient extends BeneficiariesClient {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private final String toAccount;
+
+    /**
+     * @param toAccount Account number every stub beneficiary pays into
+     */
+    public StubBeneficiariesClient(String toAccount) {
+        super(null, "http://beneficiaries.stub", "/api/v1/beneficiaries",
+                new ExternalServicesProperties(), new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+        this.toAccount = toAccount;
+    }
+
+    @Override
+    public List<Beneficiary> getBeneficiaries(String customerId, String accountNumber) {
+        List<Beneficiary> beneficiaries = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            beneficiaries.add(beneficiary(id, customerId, accountNumber, toAccount));
+        }
+        return beneficiaries;
+    }
+
+    @Override
+    public Beneficiary getBeneficiaryById(Long beneficiaryId, String customerId) {
+        return beneficiary(beneficiaryId, customerId, null, toAccount);
+    }
+
+    /**
+     * Active beneficiary with every field populated
+     */
+    public static Beneficiary beneficiary(Long id, String customerId, String accountNumber, String toAccount) {
+        return new Beneficiary(id, customerId, accountNumber, "Beneficiary " + id, toAccount,
+                "BANK0001", "Benchmark Bank", "EXTERNAL", "ACTIVE", CREATED_AT, CREATED_AT);
+    }
+}
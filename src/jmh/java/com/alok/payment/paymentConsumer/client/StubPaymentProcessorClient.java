@@ -0,0 +1,37 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.config.ExternalServicesProperties;
+import com.alok.payment.paymentConsumer.dto.PaymentProcessorRequest;
+import com.alok.payment.paymentConsumer.dto.PaymentResponse;
+import com.alok.payment.paymentConsumer.model.PaymentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process payment processor that completes every payment without network I/O,
+ * so benchmarks measure only the consumer's own work
+ */
+public class StubPaymentProcessorClient extends PaymentProcessorClient {
+
+    private final AtomicLong transactions = new AtomicLong();
+
+    public StubPaymentProcessorClient() {
+        super(null, "http://payment-processor.stub", "/api/payments",
+                new ExternalServicesProperties(), new SimpleMeterRegistry(), ObservationRegistry.NOOP,
+                new WireFormatNegotiator(new ExternalServicesProperties().getPaymentProcessor(), List.of()));
+    }
+
+    @Override
+    public PaymentResponse processPayment(PaymentProcessorRequest paymentRequest) {
+        return new PaymentResponse("TXN-" + transactions.incrementAndGet(), PaymentStatus.COMPLETED,
+                "Payment completed");
+    }
+
+    @Override
+    public PaymentResponse getPaymentStatus(String transactionId) {
+        return new PaymentResponse(transactionId, PaymentStatus.COMPLETED, "Payment completed");
+    }
+}
@@ -0,0 +1,93 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.model.Beneficiary;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Beneficiary lists as the beneficiaries service sends them, encoded and decoded in each
+ * wire format {@link WireFormatNegotiator} can agree on; setup logs the size of the
+ * encoded list
+ *
+ * Smile comes from the benchmark profile only; the application negotiates CBOR.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(WireFormatBenchmark.class);
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"10", "100", "1000"})
+    private int beneficiaries;
+
+    private ObjectMapper objectMapper;
+    private JavaType beneficiaryListType;
+    private List<Beneficiary> list;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile();
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+        objectMapper = builder
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        beneficiaryListType = objectMapper.getTypeFactory().constructCollectionType(List.class, Beneficiary.class);
+
+        // Distinct accounts and creation times, as a customer's real list has
+        LocalDateTime createdAt = LocalDateTime.of(2024, 6, 1, 9, 30, 12, 345_000_000);
+        list = new ArrayList<>();
+        for (long id = 1; id <= beneficiaries; id++) {
+            LocalDateTime created = createdAt.plusHours(id * 7).plusNanos(id * 1_000_000);
+            list.add(new Beneficiary(id, "CUST001", "ACC001", "Beneficiary " + id,
+                    String.format("GB%020d", id * 7919), "BANK" + (id % 50), "Bank " + (id % 50),
+                    id % 4 == 0 ? "INTERNAL" : "EXTERNAL", "ACTIVE", created, created.plusDays(id % 30)));
+        }
+        encoded = objectMapper.writeValueAsBytes(list);
+        log.info("{}, {} beneficiaries: {} bytes", format, beneficiaries, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return objectMapper.writeValueAsBytes(list);
+    }
+
+    @Benchmark
+    public List<Beneficiary> decode() throws IOException {
+        return objectMapper.readValue(encoded, beneficiaryListType);
+    }
+}
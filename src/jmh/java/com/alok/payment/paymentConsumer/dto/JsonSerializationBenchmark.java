@@ -0,0 +1,163 @@
+package com.alok.payment.paymentConsumer.dto;
+
+import com.alok.payment.paymentConsumer.client.StubBeneficiariesClient;
+import com.alok.payment.paymentConsumer.config.CachedLocalDateTimeSerializer;
+import com.alok.payment.paymentConsumer.model.Account;
+import com.alok.payment.paymentConsumer.model.Beneficiary;
+import com.alok.payment.paymentConsumer.model.PaymentStatus;
+import com.alok.payment.paymentConsumer.model.PaymentType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding and decoding of the payloads on the payment path, with the ObjectMapper
+ * configured the way {@code spring.jackson} configures the application's
+ *
+ * {@code modules=default} binds the payloads through reflection with JavaTimeModule's
+ * timestamps; {@code modules=application} adds the Blackbird module and cached LocalDateTime
+ * serializer {@code JacksonConfig} registers. Both run on platform threads with Jackson's
+ * thread-local buffers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"default", "application"})
+    private String modules;
+
+    private ObjectMapper objectMapper;
+    private JavaType beneficiaryListType;
+    private PaymentRequest paymentRequest;
+    private PaymentResponse paymentResponse;
+    private List<Beneficiary> beneficiaries;
+    private Account account;
+    private byte[] paymentRequestJson;
+    private byte[] paymentResponseJson;
+    private byte[] beneficiariesJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (modules.equals("application")) {
+            builder.modulesToInstall(new BlackbirdModule(), new SimpleModule("CachedLocalDateTime")
+                    .addSerializer(LocalDateTime.class, CachedLocalDateTimeSerializer.INSTANCE));
+        }
+        objectMapper = builder.build();
+        beneficiaryListType = objectMapper.getTypeFactory().constructCollectionType(List.class, Beneficiary.class);
+
+        paymentRequest = new PaymentRequest("CUST001", "ACC001", "ACC002", new BigDecimal("125.50"), "USD",
+                PaymentType.DOMESTIC_TRANSFER);
+        paymentRequest.setDescription("Invoice 2025-0042");
+        paymentRequest.setBeneficiaryId(1L);
+
+        paymentResponse = new PaymentResponse("TXN-7f3c9a2e", PaymentStatus.COMPLETED, "Payment completed");
+        paymentResponse.setFromAccount("ACC001");
+        paymentResponse.setToAccount("ACC002");
+        paymentResponse.setAmount(new BigDecimal("125.50"));
+        paymentResponse.setCurrency("USD");
+        paymentResponse.setPaymentType(PaymentType.DOMESTIC_TRANSFER);
+
+        beneficiaries = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            beneficiaries.add(StubBeneficiariesClient.beneficiary(id, "CUST001", "ACC001", "ACC00" + id));
+        }
+        account = new Account("CUST001", "ACC001", "SAVINGS", new BigDecimal("10000.00"), "USD", "ACTIVE");
+        account.setCustomerName("John Doe");
+        account.setEmail("john.doe@example.com");
+
+        paymentRequestJson = objectMapper.writeValueAsBytes(paymentRequest);
+        paymentResponseJson = objectMapper.writeValueAsBytes(paymentResponse);
+        beneficiariesJson = objectMapper.writeValueAsBytes(beneficiaries);
+    }
+
+    @Benchmark
+    public byte[] writePaymentRequest() throws IOException {
+        return objectMapper.writeValueAsBytes(paymentRequest);
+    }
+
+    @Benchmark
+    public PaymentRequest readPaymentRequest() throws IOException {
+        return objectMapper.readValue(paymentRequestJson, PaymentRequest.class);
+    }
+
+    /**
+     * Processor request as the service sends it: mapped from the payment request, then written
+     */
+    @Benchmark
+    public byte[] writePaymentProcessorRequest() throws IOException {
+        return objectMapper.writeValueAsBytes(PaymentProcessorRequest.from(paymentRequest));
+    }
+
+    /**
+     * The same request built as the {@code HashMap} the service used to send, for comparison
+     */
+    @Benchmark
+    public byte[] writePaymentProcessorRequestMap() throws IOException {
+        Map<String, Object> request = new HashMap<>();
+        request.put("fromAccount", paymentRequest.getFromAccount());
+        request.put("toAccount", paymentRequest.getToAccount());
+        request.put("amount", paymentRequest.getAmount());
+        request.put("currency", paymentRequest.getCurrency());
+        request.put("paymentType", paymentRequest.getPaymentType().toString());
+        if (paymentRequest.getDescription() != null) {
+            request.put("description", paymentRequest.getDescription());
+        }
+        return objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public byte[] writePaymentResponse() throws IOException {
+        return objectMapper.writeValueAsBytes(paymentResponse);
+    }
+
+    @Benchmark
+    public PaymentResponse readPaymentResponse() throws IOException {
+        return objectMapper.readValue(paymentResponseJson, PaymentResponse.class);
+    }
+
+    @Benchmark
+    public byte[] writeAccount() throws IOException {
+        return objectMapper.writeValueAsBytes(account);
+    }
+
+    @Benchmark
+    public byte[] writeBeneficiaries() throws IOException {
+        return objectMapper.writeValueAsBytes(beneficiaries);
+    }
+
+    @Benchmark
+    public List<Beneficiary> readBeneficiaries() throws IOException {
+        return objectMapper.readValue(beneficiariesJson, beneficiaryListType);
+    }
+}
@@ -0,0 +1,57 @@
+package com.alok.payment.paymentConsumer.exception;
+
+import com.alok.payment.paymentConsumer.dto.ErrorResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Error paths from throwing the exception to the error body the handler returns
+ * Each invocation creates its exception, as a failing request would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GlobalExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        handler = new GlobalExceptionHandler();
+        request = new MockHttpServletRequest("POST", "/api/v1/consumer/payments");
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> resourceNotFound() {
+        return handler.handleResourceNotFoundException(
+                new ResourceNotFoundException("Account not found for customer: CUST999"), request);
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> paymentProcessing() {
+        return handler.handlePaymentProcessingException(
+                new PaymentProcessingException("Insufficient balance"), request);
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> serviceUnavailable() {
+        return handler.handleServiceUnavailableException(
+                new ServiceUnavailableException("Payment Processor", "Circuit breaker is open"), request);
+    }
+}
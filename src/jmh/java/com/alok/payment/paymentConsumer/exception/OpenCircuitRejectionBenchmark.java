@@ -0,0 +1,90 @@
+package com.alok.payment.paymentConsumer.exception;
+
+import com.alok.payment.paymentConsumer.dto.ErrorResponse;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Request rejected by an open circuit: the circuit breaker refuses the call, the client
+ * fallback turns the rejection into a ServiceUnavailableException and the handler answers 503
+ *
+ * The rejection happens {@code callDepth} frames down, roughly where a controller call
+ * reaches the client through the servlet container, Spring MVC and the client proxies;
+ * stack traces cost in proportion to that depth. {@code stackTraces=true} is the behaviour
+ * before rejections and fallbacks skipped their stack traces.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpenCircuitRejectionBenchmark {
+
+    @Param({"false", "true"})
+    public boolean stackTraces;
+
+    @Param({"150"})
+    public int callDepth;
+
+    private Supplier<String> protectedCall;
+    private GlobalExceptionHandler handler;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        CircuitBreaker circuitBreaker = CircuitBreaker.of("paymentProcessorService", CircuitBreakerConfig.custom()
+                .writableStackTraceEnabled(stackTraces)
+                .build());
+        circuitBreaker.transitionToForcedOpenState();
+        protectedCall = circuitBreaker.decorateSupplier(() -> "never called");
+        handler = new GlobalExceptionHandler();
+        request = new MockHttpServletRequest("GET", "/api/v1/consumer/payments/TXN-1/status");
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> rejectedRequest() {
+        try {
+            return callAt(callDepth);
+        } catch (ServiceUnavailableException ex) {
+            return handler.handleServiceUnavailableException(ex, request);
+        }
+    }
+
+    private ResponseEntity<ErrorResponse> callAt(int depth) {
+        if (depth > 0) {
+            return callAt(depth - 1);
+        }
+        try {
+            protectedCall.get();
+            throw new IllegalStateException("Circuit breaker is not open");
+        } catch (CallNotPermittedException ex) {
+            throw fallback(ex);
+        }
+    }
+
+    private ServiceUnavailableException fallback(CallNotPermittedException ex) {
+        return stackTraces
+                ? new ServiceUnavailableException("Payment Processor",
+                        "Payment processor service is currently unavailable", ex)
+                : ServiceUnavailableException.withoutStackTrace("Payment Processor",
+                        "Payment processor service is currently unavailable", ex);
+    }
+}
@@ -0,0 +1,50 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.config.AccountStoreProperties;
+import com.alok.payment.paymentConsumer.model.Account;
+import com.alok.payment.paymentConsumer.repository.InMemoryAccountStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot-account lookups served from the account cache
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountServiceBenchmark {
+
+    private AccountService accountService;
+
+    @Setup
+    public void setUp() {
+        accountService = new AccountService(InMemoryAccountStore.withDemoAccounts(), new AccountStoreProperties(),
+                new SimpleMeterRegistry());
+        accountService.getAccountByCustomerId("CUST001");
+        accountService.getAccountByAccountNumber("ACC002");
+    }
+
+    @Benchmark
+    public Account getAccountByCustomerId() {
+        return accountService.getAccountByCustomerId("CUST001");
+    }
+
+    @Benchmark
+    public Account getAccountByAccountNumber() {
+        return accountService.getAccountByAccountNumber("ACC002");
+    }
+}
@@ -0,0 +1,119 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.client.DownstreamCallExecutor;
+import com.alok.payment.paymentConsumer.client.DownstreamCallMetrics;
+import com.alok.payment.paymentConsumer.client.StubBeneficiariesClient;
+import com.alok.payment.paymentConsumer.client.StubPaymentProcessorClient;
+import com.alok.payment.paymentConsumer.config.AccountStoreProperties;
+import com.alok.payment.paymentConsumer.config.BeneficiaryCacheProperties;
+import com.alok.payment.paymentConsumer.config.PaymentStatusCacheProperties;
+import com.alok.payment.paymentConsumer.dto.PaymentRequest;
+import com.alok.payment.paymentConsumer.dto.PaymentResponse;
+import com.alok.payment.paymentConsumer.model.Account;
+import com.alok.payment.paymentConsumer.model.PaymentStatus;
+import com.alok.payment.paymentConsumer.model.PaymentType;
+import com.alok.payment.paymentConsumer.repository.InMemoryAccountStore;
+import com.alok.payment.paymentConsumer.service.PaymentStageMetrics.Stage;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the per-stage and downstream latency histograms, recorded into the Prometheus
+ * registry the application exports
+ *
+ * {@code recordStages} is the instrumentation of one payment on its own: five stage marks
+ * and six histogram updates. {@code processPayment} is the stubbed payment of
+ * {@link PaymentConsumerServiceBenchmark} with the histograms on, and with
+ * {@code instrumented=false} turned into no-op meters by a deny filter, as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentStageMetricsBenchmark {
+
+    private static final String CUSTOMER_ID = "BENCH001";
+    private static final String FROM_ACCOUNT = "BENCH-ACC001";
+    private static final String TO_ACCOUNT = "ACC002";
+
+    @Param({"true", "false"})
+    public boolean instrumented;
+
+    private PaymentStageMetrics stageMetrics;
+    private PaymentValidationStage validationStage;
+    private PaymentConsumerService paymentConsumerService;
+    private PaymentRequest paymentRequest;
+
+    @Setup
+    public void setUp() {
+        PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        if (!instrumented) {
+            meterRegistry.config()
+                    .meterFilter(MeterFilter.denyNameStartsWith("payment.pipeline.stage"))
+                    .meterFilter(MeterFilter.denyNameStartsWith("payment.downstream.call"));
+        }
+        stageMetrics = new PaymentStageMetrics(meterRegistry);
+
+        InMemoryAccountStore accountStore = InMemoryAccountStore.withDemoAccounts();
+        // Large enough that completed payments never drain it during a run
+        accountStore.save(new Account(CUSTOMER_ID, FROM_ACCOUNT, "CHECKING",
+                new BigDecimal("1000000000000000.00"), "USD", "ACTIVE"));
+        AccountService accountService = new AccountService(accountStore, new AccountStoreProperties(), meterRegistry);
+        DownstreamCallExecutor downstreamCalls = new DownstreamCallExecutor(TimeLimiterRegistry.ofDefaults(),
+                new DownstreamCallMetrics(meterRegistry), false);
+        BeneficiaryCache beneficiaryCache = new BeneficiaryCache(new StubBeneficiariesClient(TO_ACCOUNT),
+                downstreamCalls, new BeneficiaryCacheProperties(), meterRegistry);
+        validationStage = new PaymentValidationStage(accountService, beneficiaryCache, meterRegistry);
+        paymentConsumerService = new PaymentConsumerService(beneficiaryCache, new StubPaymentProcessorClient(),
+                accountService, downstreamCalls, validationStage,
+                new PaymentStatusCache(new PaymentStatusCacheProperties(), Jackson2ObjectMapperBuilder.json().build(),
+                        meterRegistry),
+                stageMetrics, meterRegistry);
+
+        paymentRequest = new PaymentRequest(CUSTOMER_ID, FROM_ACCOUNT, TO_ACCOUNT, new BigDecimal("25.00"), "USD",
+                PaymentType.DOMESTIC_TRANSFER);
+        paymentRequest.setDescription("Benchmark payment");
+        paymentRequest.setBeneficiaryId(1L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validationStage.destroy();
+    }
+
+    @Benchmark
+    public void recordStages() {
+        PaymentStageMetrics.Recording recording = stageMetrics.start(PaymentType.DOMESTIC_TRANSFER);
+        recording.stage(Stage.VALIDATION);
+        recording.stage(Stage.REQUEST_BUILDING);
+        recording.stage(Stage.BALANCE_HOLD);
+        recording.stage(Stage.PROCESSOR_CALL);
+        recording.stage(Stage.SETTLEMENT);
+        recording.finish(PaymentStatus.COMPLETED);
+    }
+
+    @Benchmark
+    public PaymentResponse processPayment() {
+        return paymentConsumerService.processPayment(paymentRequest);
+    }
+}
@@ -0,0 +1,208 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.config.ExternalServicesProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Adaptive limit on the concurrent calls to one downstream, gradient style
+ *
+ * A call here is one HTTP attempt, so retry back-offs and fallbacks never count towards its
+ * response time. Every successful call compares its response time with a long-term average. While the
+ * downstream answers within {@code rtt-tolerance} times that average the limit grows by
+ * about its square root; once calls queue up and slow down, the gradient drops below one
+ * and the limit shrinks in proportion. Timeouts and transport failures cut the limit by a
+ * tenth. Calls beyond the limit are rejected immediately instead of piling up on threads
+ * and connections, which keeps latency near the knee of the downstream's curve.
+ *
+ * Published as {@code downstream.concurrency.limit}, {@code downstream.concurrency.inflight}
+ * and {@code downstream.concurrency.rejected}, tagged with the Resilience4j instance name.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double DROP_BACKOFF = 0.9;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final double longRttFactor;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+    private volatile double limit;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(String name, ExternalServicesProperties.ConcurrencyLimit settings,
+                                      MeterRegistry meterRegistry) {
+        this(name, settings, meterRegistry, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(String name, ExternalServicesProperties.ConcurrencyLimit settings,
+                               MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        if (settings.getMinLimit() < 1 || settings.getMaxLimit() < settings.getMinLimit()) {
+            throw new IllegalArgumentException("Concurrency limit bounds must satisfy 1 <= min <= max: "
+                    + settings.getMinLimit() + ".." + settings.getMaxLimit());
+        }
+        this.minLimit = settings.getMinLimit();
+        this.maxLimit = settings.getMaxLimit();
+        this.rttTolerance = settings.getRttTolerance();
+        this.smoothing = settings.getSmoothing();
+        this.longRttFactor = 2.0 / (settings.getLongWindow() + 1);
+        this.nanoClock = nanoClock;
+        this.limit = Math.clamp(settings.getInitialLimit(), minLimit, maxLimit);
+
+        Gauge.builder("downstream.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit on concurrent calls")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("downstream.concurrency.inflight", inFlight, AtomicInteger::get)
+                .description("Calls currently in flight")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("downstream.concurrency.rejected")
+                .description("Calls rejected because the concurrency limit was reached")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Take a slot for one call
+     *
+     * @return Permit to release once the call is over, or null if the limit is reached
+     */
+    public Permit tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return null;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return new Permit(nanoClock.getAsLong(), current + 1);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Whether a failed call says the downstream is overloaded: it timed out or could not be
+     * reached. Error statuses, unreadable bodies and cancelled calls do not.
+     */
+    static boolean isDrop(Throwable failure) {
+        Throwable cause = AsyncDownstreamCallExecutor.unwrap(failure);
+        if (cause instanceof TimeoutException || cause instanceof SocketTimeoutException) {
+            return true;
+        }
+        // Interrupted by a cancelled caller or hedge rather than by the downstream
+        return cause instanceof IOException && !(cause instanceof InterruptedIOException);
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        } else {
+            longRttNanos += (rttNanos - longRttNanos) * longRttFactor;
+        }
+        // After an overload the average lags far behind; let it catch up with recovered response times
+        if (longRttNanos > 2.0 * rttNanos) {
+            longRttNanos *= 0.95;
+        }
+        // A call that did not use the current limit says nothing about whether it could grow
+        if (inFlightAtStart < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.clamp(rttTolerance * longRttNanos / Math.max(1, rttNanos), MIN_GRADIENT, 1.0);
+        double target = limit * gradient + Math.sqrt(limit);
+        update(limit * (1 - smoothing) + target * smoothing);
+    }
+
+    private synchronized void onDrop() {
+        update(limit * DROP_BACKOFF);
+    }
+
+    private void update(double newLimit) {
+        limit = Math.clamp(newLimit, minLimit, maxLimit);
+    }
+
+    /**
+     * Slot of one call; exactly one of the outcome methods must be called
+     */
+    public final class Permit {
+
+        private final long startNanos;
+        private final int inFlightAtStart;
+        private boolean released;
+
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * The downstream answered; its response time adjusts the limit
+         */
+        public void success() {
+            if (release()) {
+                onSample(nanoClock.getAsLong() - startNanos, inFlightAtStart);
+            }
+        }
+
+        /**
+         * The downstream timed out or could not be reached; the limit backs off
+         */
+        public void dropped() {
+            if (release()) {
+                onDrop();
+            }
+        }
+
+        /**
+         * The call ended for a reason unrelated to the downstream's capacity
+         */
+        public void ignore() {
+            release();
+        }
+
+        /**
+         * Release the permit by how the call ended
+         *
+         * @param failure Failure of the call, or null if the downstream answered, whatever its status
+         */
+        public void complete(Throwable failure) {
+            if (failure == null) {
+                success();
+            } else if (isDrop(failure)) {
+                dropped();
+            } else {
+                ignore();
+            }
+        }
+
+        private boolean release() {
+            if (released) {
+                return false;
+            }
+            released = true;
+            inFlight.decrementAndGet();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.config.ExternalServicesProperties;
+import com.alok.payment.paymentConsumer.model.Beneficiary;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.OpenTelemetry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking client for Beneficiaries API
+ * Same contract as {@link BeneficiariesClient}, with circuit breaker, retry and
+ * time limiter applied through {@link AsyncDownstreamCallExecutor}
+ */
+@Service
+public class AsyncBeneficiariesClient {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncBeneficiariesClient.class);
+
+    private static final String INSTANCE_NAME = "beneficiariesService";
+    private static final String SERVICE_NAME = "Beneficiaries";
+
+    private final JsonHttpExchange http;
+    private final AsyncDownstreamCallExecutor downstreamCalls;
+    private final String beneficiariesUrl;
+    private final JavaType beneficiaryType;
+    private final JavaType beneficiaryListType;
+
+    public AsyncBeneficiariesClient(
+            @Qualifier("beneficiariesAsyncHttpClient") HttpClient httpClient,
+            ObjectMapper objectMapper,
+            AsyncDownstreamCallExecutor downstreamCalls,
+            ExternalServicesProperties properties,
+            OpenTelemetry openTelemetry,
+            @Value("${external.services.beneficiaries.url:http://localhost:8080}") String beneficiariesServiceUrl,
+            @Value("${external.services.beneficiaries.base-path:/api/v1/beneficiaries}") String beneficiariesBasePath) {
+        this.http = new JsonHttpExchange(httpClient, objectMapper, properties.getBeneficiaries().getReadTimeout(),
+                openTelemetry);
+        this.downstreamCalls = downstreamCalls;
+        this.beneficiariesUrl = beneficiariesServiceUrl + beneficiariesBasePath;
+        this.beneficiaryType = http.type(Beneficiary.class);
+        this.beneficiaryListType = http.listType(Beneficiary.class);
+    }
+
+    /**
+     * Get beneficiaries for a customer
+     *
+     * @param customerId Customer ID
+     * @param accountNumber Account number (optional)
+     * @return List of beneficiaries
+     */
+    public CompletableFuture<List<Beneficiary>> getBeneficiaries(String customerId, String accountNumber) {
+        if (customerId == null || customerId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Customer ID cannot be null or empty");
+        }
+
+        log.debug("Fetching beneficiaries for customer: {}, account: {}", customerId, accountNumber);
+
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(beneficiariesUrl)
+                .queryParam("customerId", customerId);
+        if (accountNumber != null && !accountNumber.trim().isEmpty()) {
+            builder.queryParam("accountNumber", accountNumber);
+        }
+        URI uri = builder.encode().build().toUri();
+
+        return downstreamCalls.<List<Beneficiary>>execute(INSTANCE_NAME, SERVICE_NAME,
+                        () -> http.get(uri, beneficiaryListType))
+                .thenApply(beneficiaries -> {
+                    if (beneficiaries == null) {
+                        log.warn("Received null response from beneficiaries service");
+                        return Collections.emptyList();
+                    }
+
+                    log.debug("Successfully retrieved {} beneficiaries", beneficiaries.size());
+                    return beneficiaries;
+                });
+    }
+
+    /**
+     * Get a specific beneficiary by ID
+     *
+     * @param beneficiaryId Beneficiary ID
+     * @param customerId Customer ID
+     * @return Beneficiary details or null if the service answered without one
+     */
+    public CompletableFuture<Beneficiary> getBeneficiaryById(Long beneficiaryId, String customerId) {
+        if (beneficiaryId == null) {
+            throw new IllegalArgumentException("Beneficiary ID cannot be null");
+        }
+        if (customerId == null || customerId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Customer ID cannot be null or empty");
+        }
+
+        log.debug("Fetching beneficiary ID: {} for customer: {}", beneficiaryId, customerId);
+
+        URI uri = UriComponentsBuilder.fromUriString(beneficiariesUrl + "/" + beneficiaryId)
+                .queryParam("customerId", customerId)
+                .encode()
+                .build()
+                .toUri();
+
+        return downstreamCalls.<Beneficiary>execute(INSTANCE_NAME, SERVICE_NAME,
+                        () -> http.get(uri, beneficiaryType))
+                .thenApply(beneficiary -> {
+                    if (beneficiary == null) {
+                        log.warn("Received null response for beneficiary ID: {}", beneficiaryId);
+                    } else {
+                        log.debug("Successfully retrieved beneficiary ID: {}", beneficiaryId);
+                    }
+                    return beneficiary;
+                });
+    }
+}
@@ -0,0 +1,205 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.exception.RateLimitedLogger;
+import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
+import com.alok.payment.paymentConsumer.tracing.CurrentTrace;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Executes asynchronous downstream calls under the Resilience4j instance of the downstream
+ *
+ * Each attempt is bounded by the {@code timelimiter} configuration, which cancels its
+ * request when it runs out, and passes the circuit breaker; failed attempts are retried according to the {@code retry} configuration, as the
+ * annotations do for the blocking clients. Timeouts and retry back-offs are scheduled, so no
+ * thread waits for the downstream. Transport failures, timeouts and open circuits complete
+ * the returned future with a {@link ServiceUnavailableException}. Each attempt takes a slot
+ * of the downstream's adaptive concurrency limit, inside the retry and circuit breaker, and
+ * fails with one without being sent when there is none. Submissions, which are not idempotent,
+ * are not time limited and never cancelled; the request timeout of the exchange bounds them.
+ * Every call is timed by {@link DownstreamCallMetrics}. Attempts are started under the
+ * caller's trace, also when a retry starts them on the scheduler thread, so each HTTP
+ * attempt is a client span of the caller's span.
+ */
+@Component
+public class AsyncDownstreamCallExecutor implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncDownstreamCallExecutor.class);
+    private static final RateLimitedLogger failureLog = new RateLimitedLogger(log);
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final RetryRegistry retryRegistry;
+    private final TimeLimiterRegistry timeLimiterRegistry;
+    private final DownstreamConcurrencyLimits concurrencyLimits;
+    private final DownstreamCallMetrics callMetrics;
+    private final ScheduledExecutorService scheduler;
+
+    @Autowired
+    public AsyncDownstreamCallExecutor(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            RetryRegistry retryRegistry,
+            TimeLimiterRegistry timeLimiterRegistry,
+            DownstreamConcurrencyLimits concurrencyLimits,
+            DownstreamCallMetrics callMetrics) {
+        this(circuitBreakerRegistry, retryRegistry, timeLimiterRegistry, concurrencyLimits, callMetrics,
+                Executors.newSingleThreadScheduledExecutor(
+                        Thread.ofPlatform().name("downstream-scheduler").daemon().factory()));
+    }
+
+    AsyncDownstreamCallExecutor(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            RetryRegistry retryRegistry,
+            TimeLimiterRegistry timeLimiterRegistry,
+            DownstreamConcurrencyLimits concurrencyLimits,
+            DownstreamCallMetrics callMetrics,
+            ScheduledExecutorService scheduler) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.retryRegistry = retryRegistry;
+        this.timeLimiterRegistry = timeLimiterRegistry;
+        this.concurrencyLimits = concurrencyLimits;
+        this.callMetrics = callMetrics;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Execute an asynchronous downstream call
+     *
+     * @param instanceName Resilience4j instance name (e.g. paymentProcessorService)
+     * @param serviceName Display name of the downstream used in error responses
+     * @param call Client invocation, started once per attempt
+     * @return Result of the call
+     */
+    public <T> CompletableFuture<T> execute(String instanceName, String serviceName,
+                                            Supplier<CompletionStage<T>> call) {
+        return execute(instanceName, serviceName, call, true);
+    }
+
+    /**
+     * Execute an asynchronous downstream call that must not be abandoned once sent, such as a
+     * payment submission; its attempts are neither time limited nor cancelled
+     *
+     * @param instanceName Resilience4j instance name (e.g. paymentProcessorService)
+     * @param serviceName Display name of the downstream used in error responses
+     * @param call Client invocation, started once per attempt
+     * @return Result of the call
+     */
+    public <T> CompletableFuture<T> executeSubmission(String instanceName, String serviceName,
+                                                      Supplier<CompletionStage<T>> call) {
+        return execute(instanceName, serviceName, call, false);
+    }
+
+    private <T> CompletableFuture<T> execute(String instanceName, String serviceName,
+                                             Supplier<CompletionStage<T>> call, boolean timeLimited) {
+        long start = System.nanoTime();
+        // Retries start on the scheduler thread; each attempt is sent under the caller's trace
+        Supplier<CompletionStage<T>> traced = CurrentTrace.wrap(call);
+        TimeLimiter timeLimiter = timeLimiterRegistry.timeLimiter(instanceName);
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(instanceName);
+        Retry retry = retryRegistry.retry(instanceName);
+
+        Supplier<CompletionStage<T>> limited = () -> {
+            AdaptiveConcurrencyLimiter.Permit permit;
+            try {
+                permit = concurrencyLimits.acquire(instanceName, serviceName);
+            } catch (ServiceUnavailableException ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+            CompletableFuture<T> sent;
+            try {
+                sent = traced.get().toCompletableFuture();
+            } catch (RuntimeException | Error ex) {
+                if (permit != null) {
+                    permit.ignore();
+                }
+                throw ex;
+            }
+            if (!timeLimited) {
+                return sent.whenComplete((value, error) -> {
+                    if (permit != null) {
+                        permit.complete(error);
+                    }
+                });
+            }
+            // The limiter fails the future it is given on timeout, so it gets a copy and the
+            // attempt itself is cancelled, which ends its request along with its slot
+            return timeLimiter.decorateCompletionStage(scheduler, sent::copy).get().whenComplete((value, error) -> {
+                if (permit != null) {
+                    permit.complete(error);
+                }
+                if (unwrap(error) instanceof TimeoutException) {
+                    sent.cancel(true);
+                }
+            });
+        };
+        // Same nesting as the annotations: retry around circuit breaker around time limiter
+        Supplier<CompletionStage<T>> attempt = CircuitBreaker.decorateCompletionStage(circuitBreaker, limited);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Retry.decorateCompletionStage(retry, scheduler, attempt).get().whenComplete((value, error) -> {
+            if (error == null) {
+                callMetrics.record(instanceName, start, null);
+                result.complete(value);
+            } else {
+                Throwable translated = translate(serviceName, timeLimiter, error);
+                callMetrics.record(instanceName, start, translated);
+                result.completeExceptionally(translated);
+            }
+        });
+        return result;
+    }
+
+    private static Throwable translate(String serviceName, TimeLimiter timeLimiter, Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof TimeoutException) {
+            failureLog.error("{} call timed out after {}", serviceName,
+                    timeLimiter.getTimeLimiterConfig().getTimeoutDuration());
+            return ServiceUnavailableException.withoutStackTrace(serviceName,
+                    serviceName + " service did not respond in time", cause);
+        }
+        if (cause instanceof CallNotPermittedException) {
+            failureLog.error("{} call not permitted: {}", serviceName, cause.getMessage());
+            return ServiceUnavailableException.withoutStackTrace(serviceName,
+                    serviceName + " service is currently unavailable", cause);
+        }
+        if (cause instanceof IOException || cause instanceof RestClientException) {
+            failureLog.error("Error calling {} service: {}", serviceName, cause.getMessage());
+            return ServiceUnavailableException.withoutStackTrace(serviceName,
+                    "Failed to call " + serviceName + " service: " + cause.getMessage(), cause);
+        }
+        return cause;
+    }
+
+    static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
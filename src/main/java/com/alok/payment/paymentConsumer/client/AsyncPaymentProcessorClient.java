@@ -0,0 +1,110 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.config.ExternalServicesProperties;
+import com.alok.payment.paymentConsumer.dto.PaymentProcessorRequest;
+import com.alok.payment.paymentConsumer.dto.PaymentResponse;
+import com.alok.payment.paymentConsumer.exception.PaymentProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.OpenTelemetry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking client for Payment Processor API
+ * Same contract as {@link PaymentProcessorClient}, with circuit breaker, retry and, for
+ * status reads, time limiter applied through {@link AsyncDownstreamCallExecutor}
+ */
+@Service
+public class AsyncPaymentProcessorClient {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncPaymentProcessorClient.class);
+
+    private static final String INSTANCE_NAME = "paymentProcessorService";
+    private static final String SERVICE_NAME = "Payment Processor";
+
+    private final JsonHttpExchange http;
+    private final AsyncDownstreamCallExecutor downstreamCalls;
+    private final String paymentsUrl;
+    private final JavaType paymentResponseType;
+
+    public AsyncPaymentProcessorClient(
+            @Qualifier("paymentProcessorAsyncHttpClient") HttpClient httpClient,
+            ObjectMapper objectMapper,
+            AsyncDownstreamCallExecutor downstreamCalls,
+            ExternalServicesProperties properties,
+            OpenTelemetry openTelemetry,
+            @Value("${external.services.payment-processor.url:http://localhost:8081}") String paymentProcessorServiceUrl,
+            @Value("${external.services.payment-processor.base-path:/api/payments}") String paymentProcessorBasePath) {
+        this.http = new JsonHttpExchange(httpClient, objectMapper, properties.getPaymentProcessor().getReadTimeout(),
+                openTelemetry);
+        this.downstreamCalls = downstreamCalls;
+        this.paymentsUrl = paymentProcessorServiceUrl + paymentProcessorBasePath;
+        this.paymentResponseType = http.type(PaymentResponse.class);
+    }
+
+    /**
+     * Process payment
+     *
+     * @param paymentRequest Payment request details
+     * @return Payment response
+     */
+    public CompletableFuture<PaymentResponse> processPayment(PaymentProcessorRequest paymentRequest) {
+        if (paymentRequest == null) {
+            throw new IllegalArgumentException("Payment request cannot be null");
+        }
+
+        log.debug("Processing payment from {} to {} for amount {}",
+                paymentRequest.fromAccount(),
+                paymentRequest.toAccount(),
+                paymentRequest.amount());
+
+        URI uri = URI.create(paymentsUrl);
+        return downstreamCalls.<PaymentResponse>executeSubmission(INSTANCE_NAME, SERVICE_NAME,
+                        () -> http.post(uri, paymentRequest, paymentResponseType))
+                .thenApply(paymentResponse -> {
+                    if (paymentResponse == null) {
+                        log.error("Received null response from payment processor service");
+                        throw new PaymentProcessingException("Payment processor returned null response");
+                    }
+
+                    log.debug("Payment processed with status: {} and transaction ID: {}",
+                            paymentResponse.getStatus(),
+                            paymentResponse.getTransactionId());
+                    return paymentResponse;
+                });
+    }
+
+    /**
+     * Get payment status
+     *
+     * @param transactionId Transaction ID
+     * @return Payment response with status, or null if the processor answered without one
+     */
+    public CompletableFuture<PaymentResponse> getPaymentStatus(String transactionId) {
+        if (transactionId == null || transactionId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Transaction ID cannot be null or empty");
+        }
+
+        log.debug("Fetching payment status for transaction: {}", transactionId);
+
+        URI uri = URI.create(paymentsUrl + "/" + transactionId);
+        return downstreamCalls.<PaymentResponse>execute(INSTANCE_NAME, SERVICE_NAME,
+                        () -> http.get(uri, paymentResponseType))
+                .thenApply(paymentResponse -> {
+                    if (paymentResponse == null) {
+                        log.warn("Received null response for transaction ID: {}", transactionId);
+                    } else {
+                        log.debug("Successfully retrieved status for transaction: {}", transactionId);
+                    }
+                    return paymentResponse;
+                });
+    }
+}
@@ -1,11 +1,17 @@
 package com.alok.payment.paymentConsumer.client;
 
+import com.alok.payment.paymentConsumer.config.ExternalServicesProperties;
+import com.alok.payment.paymentConsumer.exception.RateLimitedLogger;
 import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
 import com.alok.payment.paymentConsumer.model.Beneficiary;
+import com.alok.payment.paymentConsumer.tracing.CurrentTrace;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
@@ -26,18 +32,27 @@ import java.util.List;
 public class BeneficiariesClient {
     
     private static final Logger log = LoggerFactory.getLogger(BeneficiariesClient.class);
+    private static final RateLimitedLogger failureLog = new RateLimitedLogger(log);
     
     private final RestTemplate restTemplate;
     private final String beneficiariesServiceUrl;
     private final String beneficiariesBasePath;
+    private final RequestHedger listHedger;
+    private final ObservationRegistry observationRegistry;
     
     public BeneficiariesClient(
-            RestTemplate restTemplate,
+            @Qualifier("beneficiariesRestTemplate") RestTemplate restTemplate,
             @Value("${external.services.beneficiaries.url:http://localhost:8080}") String beneficiariesServiceUrl,
-            @Value("${external.services.beneficiaries.base-path:/api/v1/beneficiaries}") String beneficiariesBasePath) {
+            @Value("${external.services.beneficiaries.base-path:/api/v1/beneficiaries}") String beneficiariesBasePath,
+            ExternalServicesProperties properties,
+            MeterRegistry meterRegistry,
+            ObservationRegistry observationRegistry) {
         this.restTemplate = restTemplate;
+        this.observationRegistry = observationRegistry;
         this.beneficiariesServiceUrl = beneficiariesServiceUrl;
         this.beneficiariesBasePath = beneficiariesBasePath;
+        this.listHedger = new RequestHedger("beneficiaries", "getBeneficiaries",
+                properties.getBeneficiaries().getHedging(), meterRegistry);
     }
     
     /**
@@ -54,7 +69,7 @@ public class BeneficiariesClient {
             throw new IllegalArgumentException("Customer ID cannot be null or empty");
         }
         
-        log.info("Fetching beneficiaries for customer: {}, account: {}", customerId, accountNumber);
+        log.debug("Fetching beneficiaries for customer: {}, account: {}", customerId, accountNumber);
         
         try {
             String url = beneficiariesServiceUrl + beneficiariesBasePath;
@@ -66,12 +81,14 @@ public class BeneficiariesClient {
                 builder.queryParam("accountNumber", accountNumber);
             }
             
-            ResponseEntity<List<Beneficiary>> response = restTemplate.exchange(
-                    builder.toUriString(),
+            // Idempotent read: a slow answer may be hedged with a second request
+            String uri = builder.toUriString();
+            ResponseEntity<List<Beneficiary>> response = listHedger.execute(() -> restTemplate.exchange(
+                    uri,
                     HttpMethod.GET,
                     null,
                     new ParameterizedTypeReference<List<Beneficiary>>() {}
-            );
+            ));
             
             List<Beneficiary> beneficiaries = response.getBody();
             
@@ -80,12 +97,12 @@ public class BeneficiariesClient {
                 return Collections.emptyList();
             }
             
-            log.info("Successfully retrieved {} beneficiaries", beneficiaries.size());
+            log.debug("Successfully retrieved {} beneficiaries", beneficiaries.size());
             return beneficiaries;
             
         } catch (RestClientException ex) {
-            log.error("Error calling beneficiaries service: {}", ex.getMessage(), ex);
-            throw new ServiceUnavailableException("Beneficiaries", 
+            failureLog.error("Error calling beneficiaries service: {}", ex.getMessage());
+            throw ServiceUnavailableException.withoutStackTrace("Beneficiaries", 
                     "Failed to retrieve beneficiaries: " + ex.getMessage(), ex);
         }
     }
@@ -107,7 +124,7 @@ public class BeneficiariesClient {
             throw new IllegalArgumentException("Customer ID cannot be null or empty");
         }
         
-        log.info("Fetching beneficiary ID: {} for customer: {}", beneficiaryId, customerId);
+        log.debug("Fetching beneficiary ID: {} for customer: {}", beneficiaryId, customerId);
         
         try {
             String url = beneficiariesServiceUrl + beneficiariesBasePath + "/" + beneficiaryId;
@@ -129,12 +146,12 @@ public class BeneficiariesClient {
                 return null;
             }
             
-            log.info("Successfully retrieved beneficiary ID: {}", beneficiaryId);
+            log.debug("Successfully retrieved beneficiary ID: {}", beneficiaryId);
             return beneficiary;
             
         } catch (RestClientException ex) {
-            log.error("Error calling beneficiaries service for ID {}: {}", beneficiaryId, ex.getMessage(), ex);
-            throw new ServiceUnavailableException("Beneficiaries", 
+            failureLog.error("Error calling beneficiaries service for ID {}: {}", beneficiaryId, ex.getMessage());
+            throw ServiceUnavailableException.withoutStackTrace("Beneficiaries", 
                     "Failed to retrieve beneficiary: " + ex.getMessage(), ex);
         }
     }
@@ -143,8 +160,9 @@ public class BeneficiariesClient {
      * Fallback method when beneficiaries service is unavailable
      */
     private List<Beneficiary> getBeneficiariesFallback(String customerId, String accountNumber, Throwable throwable) {
-        log.error("Fallback triggered for getBeneficiaries due to: {}", throwable.getMessage());
-        throw new ServiceUnavailableException("Beneficiaries", 
+        failureLog.error("Fallback triggered for getBeneficiaries due to: {}", throwable.getMessage());
+        CurrentTrace.fallback(observationRegistry, "getBeneficiaries", throwable);
+        throw ServiceUnavailableException.withoutStackTrace("Beneficiaries", 
                 "Beneficiaries service is currently unavailable", throwable);
     }
     
@@ -152,8 +170,9 @@ public class BeneficiariesClient {
      * Fallback method when beneficiary by ID call fails
      */
     private Beneficiary getBeneficiaryByIdFallback(Long beneficiaryId, String customerId, Throwable throwable) {
-        log.error("Fallback triggered for getBeneficiaryById due to: {}", throwable.getMessage());
-        throw new ServiceUnavailableException("Beneficiaries", 
+        failureLog.error("Fallback triggered for getBeneficiaryById due to: {}", throwable.getMessage());
+        CurrentTrace.fallback(observationRegistry, "getBeneficiaryById", throwable);
+        throw ServiceUnavailableException.withoutStackTrace("Beneficiaries", 
                 "Beneficiaries service is currently unavailable", throwable);
     }
 }
@@ -0,0 +1,111 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Takes a slot of the downstream's adaptive concurrency limit for each HTTP exchange of a
+ * {@code RestTemplate}
+ *
+ * The interceptor runs once per exchange, inside the retry and circuit breaker of the client,
+ * so the limit sees the response time of each attempt and never a back-off or a fallback.
+ * The slot is held until the response is closed, i.e. until its body has been read, and only
+ * non-5xx answers are sampled: a downstream failing fast must not look like one with room to
+ * spare. An exchange beyond the limit fails with a {@link ServiceUnavailableException}
+ * without being sent; I/O failures and timeouts of an exchange make the limit back off.
+ */
+public class ConcurrencyLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    private final DownstreamConcurrencyLimits concurrencyLimits;
+    private final String instanceName;
+    private final String serviceName;
+
+    /**
+     * @param instanceName Resilience4j instance name of the downstream (e.g. paymentProcessorService)
+     * @param serviceName Display name of the downstream used in error responses
+     */
+    public ConcurrencyLimitInterceptor(DownstreamConcurrencyLimits concurrencyLimits, String instanceName,
+                                       String serviceName) {
+        this.concurrencyLimits = concurrencyLimits;
+        this.instanceName = instanceName;
+        this.serviceName = serviceName;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimits.acquire(instanceName, serviceName);
+        if (permit == null) {
+            return execution.execute(request, body);
+        }
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException | Error ex) {
+            permit.complete(ex);
+            throw ex;
+        }
+        try {
+            if (response.getStatusCode().is5xxServerError()) {
+                permit.ignore();
+                return response;
+            }
+        } catch (IOException | RuntimeException | Error ex) {
+            permit.ignore();
+            response.close();
+            throw ex;
+        }
+        return new PermitReleasingResponse(response, permit);
+    }
+
+    /**
+     * Response that samples the permit once it is closed
+     */
+    private static final class PermitReleasingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final AdaptiveConcurrencyLimiter.Permit permit;
+
+        PermitReleasingResponse(ClientHttpResponse delegate, AdaptiveConcurrencyLimiter.Permit permit) {
+            this.delegate = delegate;
+            this.permit = permit;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                permit.success();
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.exception.RateLimitedLogger;
+import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
+import com.alok.payment.paymentConsumer.tracing.CurrentTrace;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Executes downstream client calls according to the configured execution mode
+ *
+ * With {@code spring.threads.virtual.enabled=true} every call runs on its own virtual thread
+ * under the Resilience4j time limiter of the matching instance, so the {@code timelimiter}
+ * configuration is enforced on top of the {@code @CircuitBreaker}/{@code @Retry} annotations
+ * of the client. In platform mode calls run inline on the caller thread, as before.
+ * Submissions, which are not idempotent, always run inline: interrupting one could abandon
+ * a request the downstream already received, and a time limit shorter than the client's
+ * retry budget would turn a retried success into a failure the caller submits again.
+ * The adaptive concurrency limit of the downstream is taken per HTTP attempt by the
+ * {@link ConcurrencyLimitInterceptor} of its RestTemplate, not here. Every call is timed by
+ * {@link DownstreamCallMetrics}; a call moved to a virtual thread takes the current trace
+ * along, so its HTTP attempts are client spans of the caller's span.
+ */
+@Component
+public class DownstreamCallExecutor implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(DownstreamCallExecutor.class);
+    private static final RateLimitedLogger failureLog = new RateLimitedLogger(log);
+
+    private final TimeLimiterRegistry timeLimiterRegistry;
+    private final DownstreamCallMetrics callMetrics;
+    private final ExecutorService virtualThreadExecutor;
+
+    public DownstreamCallExecutor(
+            TimeLimiterRegistry timeLimiterRegistry,
+            DownstreamCallMetrics callMetrics,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled) {
+        this.timeLimiterRegistry = timeLimiterRegistry;
+        this.callMetrics = callMetrics;
+        this.virtualThreadExecutor = virtualThreadsEnabled ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        log.info("Downstream calls execute on {} threads", virtualThreadsEnabled ? "virtual" : "caller");
+    }
+
+    /**
+     * Execute a downstream call
+     *
+     * @param instanceName Resilience4j instance name (e.g. paymentProcessorService)
+     * @param serviceName Display name of the downstream used in error responses
+     * @param call Client invocation
+     * @return Result of the call
+     */
+    public <T> T execute(String instanceName, String serviceName, Supplier<T> call) {
+        return execute(instanceName, serviceName, call, true);
+    }
+
+    /**
+     * Execute a downstream call that must not be abandoned once sent, such as a payment submission
+     * It runs on the caller thread without the time limiter, so only the client's connect and
+     * read timeouts and its retries bound it, and it is never interrupted.
+     *
+     * @param instanceName Resilience4j instance name (e.g. paymentProcessorService)
+     * @param serviceName Display name of the downstream used in error responses
+     * @param call Client invocation
+     * @return Result of the call
+     */
+    public <T> T executeSubmission(String instanceName, String serviceName, Supplier<T> call) {
+        return execute(instanceName, serviceName, call, false);
+    }
+
+    private <T> T execute(String instanceName, String serviceName, Supplier<T> call, boolean timeLimited) {
+        long start = System.nanoTime();
+        try {
+            T result = timeLimited ? invoke(instanceName, serviceName, call) : call.get();
+            callMetrics.record(instanceName, start, null);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            callMetrics.record(instanceName, start, ex);
+            throw ex;
+        }
+    }
+
+    private <T> T invoke(String instanceName, String serviceName, Supplier<T> call) {
+        if (virtualThreadExecutor == null) {
+            return call.get();
+        }
+
+        TimeLimiter timeLimiter = timeLimiterRegistry.timeLimiter(instanceName);
+        Future<T> future = virtualThreadExecutor.submit(CurrentTrace.wrap(call)::get);
+        try {
+            return timeLimiter.executeFutureSupplier(() -> future);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (TimeoutException ex) {
+            failureLog.error("{} call timed out after {}", serviceName,
+                    timeLimiter.getTimeLimiterConfig().getTimeoutDuration());
+            throw ServiceUnavailableException.withoutStackTrace(serviceName,
+                    serviceName + " service did not respond in time", ex);
+        } catch (InterruptedException ex) {
+            // Caller was cancelled, so the downstream call is no longer needed either
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw ServiceUnavailableException.withoutStackTrace(serviceName,
+                    "Interrupted while waiting for " + serviceName + " service", ex);
+        } catch (Exception ex) {
+            throw new ServiceUnavailableException(serviceName,
+                    "Failed to call " + serviceName + " service: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Whether calls are executed on virtual threads
+     */
+    public boolean isVirtualThreadMode() {
+        return virtualThreadExecutor != null;
+    }
+
+    @Override
+    public void destroy() {
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of downstream calls, as the {@code payment.downstream.call} histogram timer
+ *
+ * Tagged by {@code downstream} and {@code outcome}: {@code success}, {@code unavailable} for
+ * calls ending in a {@link ServiceUnavailableException} (timeouts, open circuits, transport
+ * failures, concurrency rejections) and {@code error} for anything else. A call is timed
+ * across its retries and back-offs, as the payment waiting on it sees it.
+ */
+@Component
+public class DownstreamCallMetrics {
+
+    // Resilience4j instance names to the downstream tag used by the other downstream meters
+    private static final Map<String, String> DOWNSTREAMS = Map.of(
+            "paymentProcessorService", "payment-processor",
+            "beneficiariesService", "beneficiaries");
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Timer[]> timers = new ConcurrentHashMap<>();
+
+    public DownstreamCallMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Record a finished downstream call
+     *
+     * @param instanceName Resilience4j instance name of the downstream
+     * @param startNanos {@link System#nanoTime()} when the call started
+     * @param error Failure of the call, or null if it succeeded
+     */
+    public void record(String instanceName, long startNanos, Throwable error) {
+        int outcome = error == null ? 0 : error instanceof ServiceUnavailableException ? 1 : 2;
+        timers.computeIfAbsent(instanceName, this::register)[outcome]
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer[] register(String instanceName) {
+        String downstream = downstream(instanceName);
+        return new Timer[] {
+                register(downstream, "success"),
+                register(downstream, "unavailable"),
+                register(downstream, "error")
+        };
+    }
+
+    private Timer register(String downstream, String outcome) {
+        return Timer.builder("payment.downstream.call")
+                .description("Time spent on downstream calls, retries included")
+                .tag("downstream", downstream)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Downstream tag of a Resilience4j instance
+     */
+    static String downstream(String instanceName) {
+        return DOWNSTREAMS.getOrDefault(instanceName, instanceName);
+    }
+}
@@ -0,0 +1,69 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.config.ExternalServicesProperties;
+import com.alok.payment.paymentConsumer.exception.RateLimitedLogger;
+import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Adaptive concurrency limiters of the downstreams, by Resilience4j instance name
+ *
+ * Shared by the RestTemplate interceptors and the asynchronous call executor, so both
+ * client flavours count against the same limit of a downstream.
+ */
+@Component
+public class DownstreamConcurrencyLimits {
+
+    private static final Logger log = LoggerFactory.getLogger(DownstreamConcurrencyLimits.class);
+    private static final RateLimitedLogger failureLog = new RateLimitedLogger(log);
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new HashMap<>();
+
+    public DownstreamConcurrencyLimits(ExternalServicesProperties properties, MeterRegistry meterRegistry) {
+        register("beneficiariesService", properties.getBeneficiaries(), meterRegistry);
+        register("paymentProcessorService", properties.getPaymentProcessor(), meterRegistry);
+    }
+
+    /**
+     * Take a slot for a call to a downstream
+     *
+     * @param instanceName Resilience4j instance name (e.g. paymentProcessorService)
+     * @param serviceName Display name of the downstream used in error responses
+     * @return Permit to release once the call is over, or null if the downstream is not limited
+     * @throws ServiceUnavailableException if the downstream is at its concurrency limit
+     */
+    public AdaptiveConcurrencyLimiter.Permit acquire(String instanceName, String serviceName) {
+        AdaptiveConcurrencyLimiter limiter = limiters.get(instanceName);
+        if (limiter == null) {
+            return null;
+        }
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            failureLog.warn("{} call rejected at concurrency limit {}", serviceName, limiter.getLimit());
+            throw ServiceUnavailableException.notSent(serviceName,
+                    serviceName + " service is at its concurrency limit");
+        }
+        return permit;
+    }
+
+    /**
+     * Limiter of a downstream, or null if it is not limited
+     */
+    public AdaptiveConcurrencyLimiter limiter(String instanceName) {
+        return limiters.get(instanceName);
+    }
+
+    private void register(String instanceName, ExternalServicesProperties.Downstream settings,
+                          MeterRegistry meterRegistry) {
+        if (settings.getConcurrencyLimit().isEnabled()) {
+            limiters.put(instanceName,
+                    new AdaptiveConcurrencyLimiter(instanceName, settings.getConcurrencyLimit(), meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+
+/**
+ * Tells failed downstream calls that certainly had no effect from those whose outcome is unknown
+ *
+ * A call certainly failed when it was turned away before it was sent (open circuit, full
+ * concurrency limit, no connection) or the downstream refused it with a 4xx answer. Any
+ * other failure, such as a read timeout, a time limiter giving up or a 5xx, may come after
+ * the downstream has acted on the request, so for a payment it must be treated as possibly
+ * processed.
+ */
+public final class DownstreamFailures {
+
+    private DownstreamFailures() {
+    }
+
+    /**
+     * Whether a failed call certainly did not take effect downstream
+     *
+     * @param failure Failure of the call, possibly wrapped
+     * @return True if nothing was sent or the downstream refused the request
+     */
+    public static boolean isDefiniteFailure(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ServiceUnavailableException unavailable && unavailable.isNotSent()
+                    || cause instanceof CallNotPermittedException
+                    || cause instanceof HttpClientErrorException
+                    || isConnectFailure(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isConnectFailure(Throwable cause) {
+        return cause instanceof ConnectException
+                || cause instanceof NoRouteToHostException
+                || cause instanceof UnknownHostException
+                || cause instanceof HttpConnectTimeoutException
+                || cause instanceof ConnectTimeoutException;
+    }
+}
@@ -0,0 +1,52 @@
+package com.alok.payment.paymentConsumer.client;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Circuit breaker state and retry attempts of each downstream, tagged like the other
+ * downstream meters
+ *
+ * {@code payment.downstream.circuit.state} is a gauge of the state's order (0 closed,
+ * 1 open, 2 half-open, then the disabled and forced states), so one series per downstream
+ * can be graphed next to {@code payment.downstream.call}. {@code payment.downstream.retry.attempts}
+ * counts the retries made, whichever client path made them. Instances created after startup
+ * are picked up as they are added to the registries.
+ */
+@Component
+public class DownstreamResilienceMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public DownstreamResilienceMetrics(CircuitBreakerRegistry circuitBreakerRegistry,
+                                       RetryRegistry retryRegistry,
+                                       MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        circuitBreakerRegistry.getAllCircuitBreakers().forEach(this::bind);
+        circuitBreakerRegistry.getEventPublisher().onEntryAdded(event -> bind(event.getAddedEntry()));
+        retryRegistry.getAllRetries().forEach(this::bind);
+        retryRegistry.getEventPublisher().onEntryAdded(event -> bind(event.getAddedEntry()));
+    }
+
+    private void bind(CircuitBreaker circuitBreaker) {
+        Gauge.builder("payment.downstream.circuit.state", circuitBreaker,
+                        breaker -> breaker.getState().getOrder())
+                .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .tag("downstream", DownstreamCallMetrics.downstream(circuitBreaker.getName()))
+                .register(meterRegistry);
+    }
+
+    private void bind(Retry retry) {
+        Counter attempts = Counter.builder("payment.downstream.retry.attempts")
+                .description("Retries of downstream calls")
+                .tag("downstream", DownstreamCallMetrics.downstream(retry.getName()))
+                .register(meterRegistry);
+        retry.getEventPublisher().onRetry(event -> attempts.increment());
+    }
+}
@@ -0,0 +1,156 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking JSON requests over the JDK {@link HttpClient}
+ *
+ * Error statuses fail the future with the same {@link HttpClientErrorException} and
+ * {@link HttpServerErrorException} a {@code RestTemplate} throws, so the Resilience4j
+ * record and retry rules apply to both client flavours alike. Futures fail with the
+ * unwrapped cause rather than a {@code CompletionException}; cancelling one aborts its
+ * exchange. The JDK client is not observed by Spring, so each exchange is traced here as a
+ * client span of the current span and propagated with the configured propagators.
+ */
+final class JsonHttpExchange {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+    private final Tracer tracer;
+    private final TextMapPropagator propagator;
+
+    JsonHttpExchange(HttpClient httpClient, ObjectMapper objectMapper, Duration timeout, OpenTelemetry openTelemetry) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.tracer = openTelemetry.getTracer(JsonHttpExchange.class.getName());
+        this.propagator = openTelemetry.getPropagators().getTextMapPropagator();
+    }
+
+    <T> CompletableFuture<T> get(URI uri, JavaType responseType) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .GET();
+        return exchange(request, "GET", uri, responseType);
+    }
+
+    <T> CompletableFuture<T> post(URI uri, Object body, JavaType responseType) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (IOException ex) {
+            return CompletableFuture.failedFuture(new RestClientException("Failed to write request body", ex));
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json));
+        return exchange(request, "POST", uri, responseType);
+    }
+
+    JavaType type(Class<?> type) {
+        return objectMapper.constructType(type);
+    }
+
+    JavaType listType(Class<?> elementType) {
+        return objectMapper.getTypeFactory().constructCollectionType(List.class, elementType);
+    }
+
+    /**
+     * Send the request as a client span of the current span, which the {@code traceparent}
+     * header points at; each attempt of a retried call is a span of its own
+     */
+    private <T> CompletableFuture<T> exchange(HttpRequest.Builder request, String method, URI uri,
+                                              JavaType responseType) {
+        Span span = tracer.spanBuilder("HTTP " + method)
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute("http.request.method", method)
+                .setAttribute("url.full", uri.toString())
+                .setAttribute("server.address", String.valueOf(uri.getHost()))
+                .startSpan();
+        propagator.inject(Context.current().with(span), request, HttpRequest.Builder::header);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture<HttpResponse<byte[]>> sending = httpClient.sendAsync(request.build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        // Cancelling the result, as a timed out attempt is, aborts the exchange
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                sending.cancel(true);
+            }
+        });
+        sending.whenComplete((response, error) -> {
+            if (error != null) {
+                Throwable cause = AsyncDownstreamCallExecutor.unwrap(error);
+                span.recordException(cause);
+                span.setStatus(StatusCode.ERROR, String.valueOf(cause.getMessage()));
+                span.end();
+                result.completeExceptionally(cause);
+                return;
+            }
+            span.setAttribute("http.response.status_code", response.statusCode());
+            if (response.statusCode() >= 500) {
+                span.setStatus(StatusCode.ERROR, "HTTP " + response.statusCode());
+            }
+            span.end();
+            try {
+                result.complete(read(response, responseType));
+            } catch (RuntimeException ex) {
+                result.completeExceptionally(ex);
+            }
+        });
+        return result;
+    }
+
+    private <T> T read(HttpResponse<byte[]> response, JavaType responseType) {
+        HttpStatusCode status = HttpStatusCode.valueOf(response.statusCode());
+        byte[] body = response.body();
+        if (status.is4xxClientError()) {
+            throw HttpClientErrorException.create(status, "", headers(response), body, StandardCharsets.UTF_8);
+        }
+        if (status.isError()) {
+            throw HttpServerErrorException.create(status, "", headers(response), body, StandardCharsets.UTF_8);
+        }
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(body, responseType);
+        } catch (IOException ex) {
+            throw new RestClientException("Failed to read " + responseType.getRawClass().getSimpleName()
+                    + " response: " + ex.getMessage(), ex);
+        }
+    }
+
+    private static HttpHeaders headers(HttpResponse<?> response) {
+        HttpHeaders headers = new HttpHeaders();
+        response.headers().map().forEach(headers::addAll);
+        return headers;
+    }
+}
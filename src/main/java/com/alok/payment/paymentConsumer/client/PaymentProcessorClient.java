@@ -1,19 +1,27 @@
 package com.alok.payment.paymentConsumer.client;
 
+import com.alok.payment.paymentConsumer.config.ExternalServicesProperties;
+import com.alok.payment.paymentConsumer.dto.PaymentProcessorRequest;
 import com.alok.payment.paymentConsumer.dto.PaymentResponse;
 import com.alok.payment.paymentConsumer.exception.PaymentProcessingException;
+import com.alok.payment.paymentConsumer.exception.RateLimitedLogger;
 import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
 import com.alok.payment.paymentConsumer.model.PaymentStatus;
+import com.alok.payment.paymentConsumer.tracing.CurrentTrace;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
@@ -27,18 +35,31 @@ import java.util.Map;
 public class PaymentProcessorClient {
     
     private static final Logger log = LoggerFactory.getLogger(PaymentProcessorClient.class);
+    private static final RateLimitedLogger failureLog = new RateLimitedLogger(log);
     
     private final RestTemplate restTemplate;
     private final String paymentProcessorServiceUrl;
     private final String paymentProcessorBasePath;
+    private final RequestHedger statusHedger;
+    private final WireFormatNegotiator wireFormat;
+    private final ObservationRegistry observationRegistry;
     
     public PaymentProcessorClient(
-            RestTemplate restTemplate,
+            @Qualifier("paymentProcessorRestTemplate") RestTemplate restTemplate,
             @Value("${external.services.payment-processor.url:http://localhost:8081}") String paymentProcessorServiceUrl,
-            @Value("${external.services.payment-processor.base-path:/api/payments}") String paymentProcessorBasePath) {
+            @Value("${external.services.payment-processor.base-path:/api/payments}") String paymentProcessorBasePath,
+            ExternalServicesProperties properties,
+            MeterRegistry meterRegistry,
+            ObservationRegistry observationRegistry,
+            @Qualifier("paymentProcessorWireFormat") WireFormatNegotiator wireFormat) {
         this.restTemplate = restTemplate;
+        this.wireFormat = wireFormat;
+        this.observationRegistry = observationRegistry;
         this.paymentProcessorServiceUrl = paymentProcessorServiceUrl;
         this.paymentProcessorBasePath = paymentProcessorBasePath;
+        // Status reads only; submitting a payment is not idempotent and is never hedged
+        this.statusHedger = new RequestHedger("payment-processor", "getPaymentStatus",
+                properties.getPaymentProcessor().getHedging(), meterRegistry);
     }
     
     /**
@@ -49,40 +70,52 @@ public class PaymentProcessorClient {
      */
     @CircuitBreaker(name = "paymentProcessorService", fallbackMethod = "processPaymentFallback")
     @Retry(name = "paymentProcessorService")
-    public PaymentResponse processPayment(Map<String, Object> paymentRequest) {
+    public PaymentResponse processPayment(PaymentProcessorRequest paymentRequest) {
         if (paymentRequest == null) {
             throw new IllegalArgumentException("Payment request cannot be null");
         }
         
-        // Validate required fields
-        if (!paymentRequest.containsKey("fromAccount") || paymentRequest.get("fromAccount") == null) {
-            throw new IllegalArgumentException("From account is required");
-        }
-        if (!paymentRequest.containsKey("toAccount") || paymentRequest.get("toAccount") == null) {
-            throw new IllegalArgumentException("To account is required");
-        }
-        if (!paymentRequest.containsKey("amount") || paymentRequest.get("amount") == null) {
-            throw new IllegalArgumentException("Amount is required");
+        return submitPayment(paymentRequest);
+    }
+    
+    /**
+     * Process payment given as an untyped map, for callers predating {@link PaymentProcessorRequest}
+     * 
+     * @param paymentRequest Payment request details
+     * @return Payment response
+     */
+    @CircuitBreaker(name = "paymentProcessorService", fallbackMethod = "processPaymentFallback")
+    @Retry(name = "paymentProcessorService")
+    public PaymentResponse processPayment(Map<String, Object> paymentRequest) {
+        if (paymentRequest == null) {
+            throw new IllegalArgumentException("Payment request cannot be null");
         }
         
-        log.info("Processing payment from {} to {} for amount {}", 
-                paymentRequest.get("fromAccount"), 
-                paymentRequest.get("toAccount"), 
-                paymentRequest.get("amount"));
+        // Validates the required fields
+        return submitPayment(PaymentProcessorRequest.fromMap(paymentRequest));
+    }
+    
+    private PaymentResponse submitPayment(PaymentProcessorRequest paymentRequest) {
+        log.debug("Processing payment from {} to {} for amount {}", 
+                paymentRequest.fromAccount(), 
+                paymentRequest.toAccount(), 
+                paymentRequest.amount());
         
         try {
             String url = paymentProcessorServiceUrl + paymentProcessorBasePath;
+            MediaType contentType = wireFormat.requestContentType();
             
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            
-            HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(paymentRequest, headers);
-            
-            ResponseEntity<PaymentResponse> response = restTemplate.postForEntity(
-                    url,
-                    requestEntity,
-                    PaymentResponse.class
-            );
+            ResponseEntity<PaymentResponse> response;
+            try {
+                response = post(url, paymentRequest, contentType);
+            } catch (HttpClientErrorException.UnsupportedMediaType ex) {
+                if (!wireFormat.isBinary(contentType)) {
+                    throw ex;
+                }
+                // The processor no longer takes the binary format it answered in; the negotiator is back on JSON
+                log.debug("Payment processor rejected {} request body, resending as JSON", contentType);
+                response = post(url, paymentRequest, MediaType.APPLICATION_JSON);
+            }
             
             PaymentResponse paymentResponse = response.getBody();
             
@@ -91,19 +124,33 @@ public class PaymentProcessorClient {
                 throw new PaymentProcessingException("Payment processor returned null response");
             }
             
-            log.info("Payment processed with status: {} and transaction ID: {}", 
+            log.debug("Payment processed with status: {} and transaction ID: {}", 
                     paymentResponse.getStatus(), 
                     paymentResponse.getTransactionId());
             
             return paymentResponse;
             
         } catch (RestClientException ex) {
-            log.error("Error calling payment processor service: {}", ex.getMessage(), ex);
-            throw new ServiceUnavailableException("Payment Processor", 
+            failureLog.error("Error calling payment processor service: {}", ex.getMessage());
+            throw ServiceUnavailableException.withoutStackTrace("Payment Processor", 
                     "Failed to process payment: " + ex.getMessage(), ex);
         }
     }
     
+    private ResponseEntity<PaymentResponse> post(String url, PaymentProcessorRequest paymentRequest,
+                                                 MediaType contentType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        
+        HttpEntity<PaymentProcessorRequest> requestEntity = new HttpEntity<>(paymentRequest, headers);
+        
+        return restTemplate.postForEntity(
+                url,
+                requestEntity,
+                PaymentResponse.class
+        );
+    }
+    
     /**
      * Get payment status with circuit breaker protection
      * 
@@ -117,15 +164,15 @@ public class PaymentProcessorClient {
             throw new IllegalArgumentException("Transaction ID cannot be null or empty");
         }
         
-        log.info("Fetching payment status for transaction: {}", transactionId);
+        log.debug("Fetching payment status for transaction: {}", transactionId);
         
         try {
             String url = paymentProcessorServiceUrl + paymentProcessorBasePath + "/" + transactionId;
             
-            ResponseEntity<PaymentResponse> response = restTemplate.getForEntity(
+            ResponseEntity<PaymentResponse> response = statusHedger.execute(() -> restTemplate.getForEntity(
                     url,
                     PaymentResponse.class
-            );
+            ));
             
             PaymentResponse paymentResponse = response.getBody();
             
@@ -134,22 +181,33 @@ public class PaymentProcessorClient {
                 return null;
             }
             
-            log.info("Successfully retrieved status for transaction: {}", transactionId);
+            log.debug("Successfully retrieved status for transaction: {}", transactionId);
             return paymentResponse;
             
         } catch (RestClientException ex) {
-            log.error("Error calling payment processor service for transaction {}: {}", 
-                    transactionId, ex.getMessage(), ex);
-            throw new ServiceUnavailableException("Payment Processor", 
+            failureLog.error("Error calling payment processor service for transaction {}: {}", 
+                    transactionId, ex.getMessage());
+            throw ServiceUnavailableException.withoutStackTrace("Payment Processor", 
                     "Failed to retrieve payment status: " + ex.getMessage(), ex);
         }
     }
     
+    /**
+     * Fallback method when payment processing fails
+     */
+    private PaymentResponse processPaymentFallback(PaymentProcessorRequest paymentRequest, Throwable throwable) {
+        failureLog.error("Fallback triggered for processPayment due to: {}", throwable.getMessage());
+        CurrentTrace.fallback(observationRegistry, "processPayment", throwable);
+        throw ServiceUnavailableException.withoutStackTrace("Payment Processor", 
+                "Payment processor service is currently unavailable", throwable);
+    }
+    
     /**
      * Fallback method when payment processing fails
      */
     private PaymentResponse processPaymentFallback(Map<String, Object> paymentRequest, Throwable throwable) {
-        log.error("Fallback triggered for processPayment due to: {}", throwable.getMessage());
+        failureLog.error("Fallback triggered for processPayment due to: {}", throwable.getMessage());
+        CurrentTrace.fallback(observationRegistry, "processPayment", throwable);
         
         PaymentResponse fallbackResponse = new PaymentResponse();
         fallbackResponse.setStatus(PaymentStatus.FAILED);
@@ -161,7 +219,7 @@ public class PaymentProcessorClient {
             fallbackResponse.setToAccount((String) paymentRequest.get("toAccount"));
         }
         
-        throw new ServiceUnavailableException("Payment Processor", 
+        throw ServiceUnavailableException.withoutStackTrace("Payment Processor", 
                 "Payment processor service is currently unavailable", throwable);
     }
     
@@ -169,8 +227,9 @@ public class PaymentProcessorClient {
      * Fallback method when payment status retrieval fails
      */
     private PaymentResponse getPaymentStatusFallback(String transactionId, Throwable throwable) {
-        log.error("Fallback triggered for getPaymentStatus due to: {}", throwable.getMessage());
-        throw new ServiceUnavailableException("Payment Processor", 
+        failureLog.error("Fallback triggered for getPaymentStatus due to: {}", throwable.getMessage());
+        CurrentTrace.fallback(observationRegistry, "getPaymentStatus", throwable);
+        throw ServiceUnavailableException.withoutStackTrace("Payment Processor", 
                 "Payment processor service is currently unavailable", throwable);
     }
 }
@@ -0,0 +1,89 @@
+package com.alok.payment.paymentConsumer.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight deduplication of identical concurrent downstream reads
+ *
+ * The first caller for a key performs the call; callers arriving while it is in flight
+ * wait for the same result, or the same exception. Wrap it around the client proxy so
+ * the circuit breaker and retry see the shared call exactly once.
+ */
+public class RequestCoalescer<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    public RequestCoalescer(String downstream, String operation, MeterRegistry meterRegistry) {
+        this.coalesced = Counter.builder("downstream.requests.coalesced")
+                .description("Reads that joined an identical in-flight downstream call")
+                .tag("downstream", downstream)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Execute the call, or join the identical call already in flight
+     *
+     * @param key Identity of the read
+     * @param call Downstream call
+     * @return Shared result of the call
+     */
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> leader = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        try {
+            V result = call.get();
+            leader.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            leader.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    /**
+     * Number of distinct calls currently in flight
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Wait for a shared result, rethrowing the original exception of a failed call
+     */
+    public static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Shared downstream call failed", cause);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            CancellationException cancelled = new CancellationException("Interrupted while waiting for shared call");
+            cancelled.initCause(ex);
+            throw cancelled;
+        }
+    }
+}
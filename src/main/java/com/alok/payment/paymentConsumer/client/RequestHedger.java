@@ -0,0 +1,213 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.config.ExternalServicesProperties;
+import com.alok.payment.paymentConsumer.tracing.CurrentTrace;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Hedging of an idempotent downstream read
+ *
+ * The read runs on a virtual thread. If it has not answered within the configured percentile
+ * of recent response times, an identical second attempt is sent; the first successful answer
+ * wins and the other attempt is interrupted, which aborts its blocking socket read. Hedges are
+ * paid for from a budget that grows by {@code budget-percent} of a hedge with every read, so
+ * they stay below that share of the traffic even when the downstream slows down as a whole.
+ * The percentile is taken over the first attempt of every read, whether it wins or not; when
+ * it loses and is interrupted, the time it had taken so far stands in as a lower bound, so
+ * slow reads rescued by a hedge still count as slow.
+ *
+ * Wrap it around the raw exchange inside the client, so the circuit breaker and retry see one
+ * call however many attempts it took. Only for reads: never hedge a call that changes state.
+ * Hedges are counted as {@code downstream.requests.hedged{outcome=fired|won|budget_exhausted}},
+ * separate from the Resilience4j retry metrics.
+ */
+public class RequestHedger {
+
+    private static final int SAMPLES = 1024;
+    private static final int RECOMPUTE_EVERY = 64;
+    // Budget is kept in thousandths of a hedge; it starts empty and saves up at most ten hedges
+    private static final long HEDGE_COST = 1_000;
+    private static final long MAX_BUDGET = 10 * HEDGE_COST;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long budgetPerRead;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicLongArray latencies = new AtomicLongArray(SAMPLES);
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong budget = new AtomicLong();
+    private volatile long delayNanos;
+
+    private final Counter fired;
+    private final Counter won;
+    private final Counter budgetExhausted;
+
+    public RequestHedger(String downstream, String operation, ExternalServicesProperties.Hedging settings,
+                         MeterRegistry meterRegistry) {
+        if (settings.getPercentile() <= 0 || settings.getPercentile() >= 1) {
+            throw new IllegalArgumentException("Hedging percentile must be between 0 and 1: " + settings.getPercentile());
+        }
+        this.enabled = settings.isEnabled();
+        this.percentile = settings.getPercentile();
+        this.minDelayNanos = settings.getMinDelay().toNanos();
+        this.budgetPerRead = Math.round(settings.getBudgetPercent() / 100 * HEDGE_COST);
+        this.delayNanos = Math.max(settings.getInitialDelay().toNanos(), minDelayNanos);
+
+        this.fired = hedgeCounter(meterRegistry, downstream, operation, "fired");
+        this.won = hedgeCounter(meterRegistry, downstream, operation, "won");
+        this.budgetExhausted = hedgeCounter(meterRegistry, downstream, operation, "budget_exhausted");
+        Gauge.builder("downstream.requests.hedge.delay", this, hedger -> hedger.delayNanos / 1_000_000.0)
+                .description("Time after which an unanswered read is hedged")
+                .baseUnit("milliseconds")
+                .tag("downstream", downstream)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Execute the read, hedging it if it is slow
+     *
+     * @param call Downstream read
+     * @return Result of the first attempt to answer successfully, or the failure of the last one
+     */
+    public <V> V execute(Supplier<V> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        depositBudget();
+
+        // Attempts run on their own threads, under the caller's span
+        Supplier<V> traced = CurrentTrace.wrap(call);
+        CompletionService<V> attempts = new ExecutorCompletionService<>(executor);
+        List<Future<V>> running = new ArrayList<>(2);
+        try {
+            running.add(attempts.submit(() -> timed(traced)));
+            Future<V> answered = attempts.poll(delayNanos, TimeUnit.NANOSECONDS);
+            if (answered == null) {
+                if (withdrawBudget()) {
+                    fired.increment();
+                    running.add(attempts.submit(traced::get));
+                } else {
+                    budgetExhausted.increment();
+                }
+                answered = attempts.take();
+                if (answered.state() == Future.State.FAILED && running.size() > 1) {
+                    // The other attempt may still succeed
+                    answered = attempts.take();
+                }
+            }
+            if (running.size() > 1 && answered == running.get(1) && answered.state() == Future.State.SUCCESS) {
+                won.increment();
+            }
+            return result(answered);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            CancellationException cancelled = new CancellationException("Interrupted while waiting for hedged call");
+            cancelled.initCause(ex);
+            throw cancelled;
+        } finally {
+            // No-op for completed attempts; interrupts the losing one
+            running.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    /**
+     * Current hedging delay
+     */
+    public long delay(TimeUnit unit) {
+        return unit.convert(delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Run the first attempt of a read, recording how long it took however it ended
+     */
+    private <V> V timed(Supplier<V> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Keep the latest response times in a ring and periodically re-derive the delay from them
+     */
+    private void record(long latencyNanos) {
+        long count = recorded.incrementAndGet();
+        latencies.set((int) ((count - 1) % SAMPLES), latencyNanos);
+        if (count % RECOMPUTE_EVERY == 0) {
+            int size = (int) Math.min(count, SAMPLES);
+            long[] sorted = new long[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = latencies.get(i);
+            }
+            Arrays.sort(sorted);
+            long observed = sorted[(int) Math.min(size - 1, Math.ceil(percentile * size) - 1)];
+            delayNanos = Math.max(observed, minDelayNanos);
+        }
+    }
+
+    private void depositBudget() {
+        budget.accumulateAndGet(budgetPerRead, (current, deposit) -> Math.min(MAX_BUDGET, current + deposit));
+    }
+
+    private boolean withdrawBudget() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < HEDGE_COST) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - HEDGE_COST));
+        return true;
+    }
+
+    private static <V> V result(Future<V> attempt) {
+        try {
+            return attempt.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Hedged downstream call failed", cause);
+        } catch (InterruptedException ex) {
+            // Only reached for completed attempts, which do not block
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while reading hedged call result");
+        }
+    }
+
+    private static Counter hedgeCounter(MeterRegistry meterRegistry, String downstream, String operation,
+                                        String outcome) {
+        return Counter.builder("downstream.requests.hedged")
+                .description("Hedged reads: attempts fired, hedges that answered first, hedges denied by the budget")
+                .tag("downstream", downstream)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,153 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.config.ExternalServicesProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.HttpMessageConverter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Negotiates a binary encoding (CBOR or Smile) with one downstream, falling back to JSON
+ *
+ * Binary formats are offered only when the RestTemplate has a message converter for them:
+ * CBOR through the converter of {@code JacksonConfig}, built on the application's mapper
+ * settings, and Smile through the one Spring registers when jackson-dataformat-smile is on
+ * the classpath. Responses are then asked for in binary first, with JSON at a lower preference,
+ * so a downstream without binary support keeps answering JSON.
+ *
+ * Request bodies follow what the downstream's POST answers show it takes: binary once a POST
+ * is answered in a binary format, JSON when one is answered in JSON, and JSON after it
+ * rejects a binary body with 415. Answers to other methods, such as status reads, never
+ * change it. What was learnt expires after {@code binaryEncodingTtl}, so bodies go back to
+ * JSON until the next POST answer and a rejected binary format is tried again.
+ */
+public class WireFormatNegotiator implements ClientHttpRequestInterceptor {
+
+    /**
+     * Binary formats in order of preference
+     */
+    static final List<MediaType> BINARY_TYPES = List.of(
+            MediaType.parseMediaType("application/cbor"),
+            MediaType.parseMediaType("application/x-jackson-smile"));
+
+    private static final String FALLBACK_QUALITY = "0.5";
+    private static final Capability UNKNOWN = new Capability(MediaType.APPLICATION_JSON, false, 0);
+
+    private final List<MediaType> binaryTypes;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private volatile Capability capability = UNKNOWN;
+
+    /**
+     * @param downstream Settings of the downstream; JSON is always used when binary encoding is off
+     * @param converters Message converters of the downstream's RestTemplate
+     */
+    public WireFormatNegotiator(ExternalServicesProperties.Downstream downstream,
+                                List<HttpMessageConverter<?>> converters) {
+        this(downstream, converters, System::nanoTime);
+    }
+
+    WireFormatNegotiator(ExternalServicesProperties.Downstream downstream, List<HttpMessageConverter<?>> converters,
+                         LongSupplier nanoClock) {
+        List<MediaType> supported = new ArrayList<>();
+        if (downstream.isBinaryEncoding()) {
+            for (MediaType type : BINARY_TYPES) {
+                if (converters.stream().anyMatch(converter -> converter.getSupportedMediaTypes().contains(type))) {
+                    supported.add(type);
+                }
+            }
+        }
+        this.binaryTypes = List.copyOf(supported);
+        this.ttlNanos = downstream.getBinaryEncodingTtl().toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Content type to send request bodies in: binary while the downstream's POST answers say it takes it
+     */
+    public MediaType requestContentType() {
+        return current().requestContentType();
+    }
+
+    public boolean isBinary(MediaType type) {
+        return type != null && binaryTypes.stream().anyMatch(binary -> binary.equalsTypeAndSubtype(type));
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (binaryTypes.isEmpty()) {
+            return execution.execute(request, body);
+        }
+        HttpHeaders headers = request.getHeaders();
+        headers.setAccept(preferBinary(headers.getAccept()));
+        ClientHttpResponse response = execution.execute(request, body);
+        if (HttpMethod.POST.equals(request.getMethod())) {
+            learn(headers.getContentType(), response.getStatusCode(), response.getHeaders().getContentType());
+        }
+        return response;
+    }
+
+    private void learn(MediaType sent, HttpStatusCode status, MediaType received) {
+        if (status.isSameCodeAs(HttpStatus.UNSUPPORTED_MEDIA_TYPE)) {
+            if (isBinary(sent)) {
+                capability = new Capability(MediaType.APPLICATION_JSON, true, nanoClock.getAsLong() + ttlNanos);
+            }
+        } else if (status.is2xxSuccessful() && !current().binaryRejected()) {
+            if (isBinary(received)) {
+                capability = new Capability(new MediaType(received.getType(), received.getSubtype()), false,
+                        nanoClock.getAsLong() + ttlNanos);
+            } else if (received != null && received.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                capability = UNKNOWN;
+            }
+        }
+    }
+
+    private Capability current() {
+        Capability known = capability;
+        return known == UNKNOWN || nanoClock.getAsLong() - known.expiresAt() < 0 ? known : UNKNOWN;
+    }
+
+    /**
+     * The accepted types with the binary ones this negotiator supports first and the others
+     * at a lower quality; unchanged when no binary type is accepted, as for plain text responses
+     */
+    private List<MediaType> preferBinary(List<MediaType> accepted) {
+        List<MediaType> binary = new ArrayList<>();
+        for (MediaType type : binaryTypes) {
+            if (accepted.stream().anyMatch(type::equalsTypeAndSubtype)) {
+                binary.add(type);
+            }
+        }
+        if (binary.isEmpty()) {
+            return accepted;
+        }
+        List<MediaType> preferred = new ArrayList<>(binary);
+        for (MediaType type : accepted) {
+            if (!isBinary(type)) {
+                preferred.add(new MediaType(type, Map.of("q", FALLBACK_QUALITY)));
+            }
+        }
+        return preferred;
+    }
+
+    /**
+     * What the downstream's POST answers showed about request bodies, trusted until {@code expiresAt}
+     *
+     * @param binaryRejected Whether a binary body was rejected, so binary answers are ignored until it expires
+     */
+    private record Capability(MediaType requestContentType, boolean binaryRejected, long expiresAt) {
+    }
+}
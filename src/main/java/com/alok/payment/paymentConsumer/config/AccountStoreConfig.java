@@ -0,0 +1,30 @@
+package com.alok.payment.paymentConsumer.config;
+
+import com.alok.payment.paymentConsumer.repository.AccountStore;
+import com.alok.payment.paymentConsumer.repository.InMemoryAccountStore;
+import com.alok.payment.paymentConsumer.repository.JdbcAccountStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+/**
+ * Selects the account store from {@code accounts.store.type}
+ */
+@Configuration
+@EnableConfigurationProperties(AccountStoreProperties.class)
+public class AccountStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "accounts.store", name = "type", havingValue = "jdbc", matchIfMissing = true)
+    public AccountStore jdbcAccountStore(JdbcClient jdbcClient) {
+        return new JdbcAccountStore(jdbcClient);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "accounts.store", name = "type", havingValue = "memory")
+    public AccountStore inMemoryAccountStore() {
+        return InMemoryAccountStore.withDemoAccounts();
+    }
+}
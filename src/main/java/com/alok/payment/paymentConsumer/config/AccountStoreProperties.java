@@ -0,0 +1,99 @@
+package com.alok.payment.paymentConsumer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the account store, its in-process cache and balance holds under {@code accounts.store}
+ */
+@ConfigurationProperties(prefix = "accounts.store")
+public class AccountStoreProperties {
+
+    private Type type = Type.JDBC;
+    private final Cache cache = new Cache();
+    private final Holds holds = new Holds();
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Holds getHolds() {
+        return holds;
+    }
+
+    public enum Type {
+        /**
+         * The {@code accounts} table of the configured DataSource
+         */
+        JDBC,
+        /**
+         * Demo accounts held on the heap, for local runs without a database
+         */
+        MEMORY
+    }
+
+    /**
+     * Hot-account cache in front of the store
+     */
+    public static class Cache {
+
+        private long maximumAccounts = 50_000;
+        private Duration expireAfterWrite = Duration.ofSeconds(60);
+
+        public long getMaximumAccounts() {
+            return maximumAccounts;
+        }
+
+        public void setMaximumAccounts(long maximumAccounts) {
+            this.maximumAccounts = maximumAccounts;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+    }
+
+    /**
+     * Holds placed on available balance while a payment is with the processor
+     */
+    public static class Holds {
+
+        /**
+         * How long a hold may stay unsettled before it expires and its amount is available again
+         */
+        private Duration timeout = Duration.ofMinutes(2);
+        /**
+         * How often expired holds are swept; sweeps run on the reserving caller
+         */
+        private Duration sweepInterval = Duration.ofSeconds(30);
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public Duration getSweepInterval() {
+            return sweepInterval;
+        }
+
+        public void setSweepInterval(Duration sweepInterval) {
+            this.sweepInterval = sweepInterval;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.alok.payment.paymentConsumer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the read-through beneficiary cache under {@code external.services.beneficiaries.cache}
+ */
+@ConfigurationProperties(prefix = "external.services.beneficiaries.cache")
+public class BeneficiaryCacheProperties {
+
+    private boolean enabled = true;
+    private long maximumLists = 10_000;
+    private long maximumBeneficiaries = 50_000;
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+    private Duration refreshAfterWrite = Duration.ofMinutes(2);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumLists() {
+        return maximumLists;
+    }
+
+    public void setMaximumLists(long maximumLists) {
+        this.maximumLists = maximumLists;
+    }
+
+    public long getMaximumBeneficiaries() {
+        return maximumBeneficiaries;
+    }
+
+    public void setMaximumBeneficiaries(long maximumBeneficiaries) {
+        this.maximumBeneficiaries = maximumBeneficiaries;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+    public Duration getRefreshAfterWrite() {
+        return refreshAfterWrite;
+    }
+
+    public void setRefreshAfterWrite(Duration refreshAfterWrite) {
+        this.refreshAfterWrite = refreshAfterWrite;
+    }
+}
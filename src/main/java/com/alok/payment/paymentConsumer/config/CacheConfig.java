@@ -0,0 +1,13 @@
+package com.alok.payment.paymentConsumer.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for in-process caches
+ */
+@Configuration
+@EnableConfigurationProperties({BeneficiaryCacheProperties.class, IdempotencyProperties.class,
+        PaymentStatusCacheProperties.class, ResponseCacheProperties.class})
+public class CacheConfig {
+}
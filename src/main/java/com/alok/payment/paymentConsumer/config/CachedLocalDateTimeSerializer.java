@@ -0,0 +1,103 @@
+package com.alok.payment.paymentConsumer.config;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * JavaTimeModule's LocalDateTime serializer, reusing the text of the last second written
+ *
+ * Most timestamps in responses are "now", so consecutive ones share everything but the
+ * fraction; the date and time of day are formatted once per second instead of through a
+ * DateTimeFormatter every time. The output is the same ISO text. Timestamps written as
+ * arrays, custom {@code @JsonFormat} patterns and years outside 0000-9999 go to the
+ * JavaTimeModule serializer unchanged.
+ */
+public class CachedLocalDateTimeSerializer extends LocalDateTimeSerializer {
+
+    public static final CachedLocalDateTimeSerializer INSTANCE = new CachedLocalDateTimeSerializer();
+
+    private static final int SECOND_LENGTH = 19;
+
+    private static volatile Second lastSecond = new Second(Long.MIN_VALUE, null);
+
+    protected CachedLocalDateTimeSerializer() {
+    }
+
+    protected CachedLocalDateTimeSerializer(CachedLocalDateTimeSerializer base, Boolean useTimestamp,
+            Boolean useNanoseconds, DateTimeFormatter formatter) {
+        super(base, useTimestamp, useNanoseconds, formatter);
+    }
+
+    @Override
+    protected LocalDateTimeSerializer withFormat(Boolean useTimestamp, DateTimeFormatter formatter,
+            JsonFormat.Shape shape) {
+        return new CachedLocalDateTimeSerializer(this, useTimestamp, _useNanoseconds, formatter);
+    }
+
+    @Override
+    protected LocalDateTimeSerializer withFeatures(Boolean writeZoneId, Boolean writeNanoseconds) {
+        return new CachedLocalDateTimeSerializer(this, _useTimestamp, writeNanoseconds, _formatter);
+    }
+
+    @Override
+    public void serialize(LocalDateTime value, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        if (_formatter != null || value.getYear() < 0 || value.getYear() > 9999 || useTimestamp(provider)) {
+            super.serialize(value, generator, provider);
+            return;
+        }
+        long epochSecond = value.toLocalDate().toEpochDay() * 86_400 + value.toLocalTime().toSecondOfDay();
+        Second second = lastSecond;
+        if (second.epochSecond() != epochSecond) {
+            second = new Second(epochSecond, formatSecond(value));
+            lastSecond = second;
+        }
+        int nanos = value.getNano();
+        if (nanos == 0) {
+            generator.writeString(second.text(), 0, SECOND_LENGTH);
+            return;
+        }
+        // Fraction as ISO_LOCAL_TIME prints it: as many digits as needed, no trailing zeros
+        char[] text = new char[SECOND_LENGTH + 10];
+        System.arraycopy(second.text(), 0, text, 0, SECOND_LENGTH);
+        text[SECOND_LENGTH] = '.';
+        int length = SECOND_LENGTH + 1;
+        for (int divisor = 100_000_000; nanos > 0; divisor /= 10) {
+            text[length++] = (char) ('0' + nanos / divisor);
+            nanos %= divisor;
+        }
+        generator.writeString(text, 0, length);
+    }
+
+    private static char[] formatSecond(LocalDateTime value) {
+        char[] text = new char[SECOND_LENGTH];
+        digits(text, 0, value.getYear(), 4);
+        text[4] = '-';
+        digits(text, 5, value.getMonthValue(), 2);
+        text[7] = '-';
+        digits(text, 8, value.getDayOfMonth(), 2);
+        text[10] = 'T';
+        digits(text, 11, value.getHour(), 2);
+        text[13] = ':';
+        digits(text, 14, value.getMinute(), 2);
+        text[16] = ':';
+        digits(text, 17, value.getSecond(), 2);
+        return text;
+    }
+
+    private static void digits(char[] text, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private record Second(long epochSecond, char[] text) {
+    }
+}
@@ -0,0 +1,295 @@
+package com.alok.payment.paymentConsumer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * HTTP transport settings for the downstream services under {@code external.services}
+ * Each downstream gets its own connection pool so a slow service cannot exhaust
+ * the connections of the other one
+ */
+@ConfigurationProperties(prefix = "external.services")
+public class ExternalServicesProperties {
+
+    private final Downstream beneficiaries = new Downstream();
+    private final Downstream paymentProcessor = new Downstream();
+
+    public Downstream getBeneficiaries() {
+        return beneficiaries;
+    }
+
+    public Downstream getPaymentProcessor() {
+        return paymentProcessor;
+    }
+
+    /**
+     * Wire protocol used towards a downstream
+     */
+    public enum HttpProtocol {
+        /** Pooled keep-alive connections (Apache HttpClient 5) */
+        HTTP_1_1,
+        /** Multiplexed HTTP/2 (JDK HttpClient, h2 via ALPN or h2c upgrade) */
+        HTTP_2
+    }
+
+    /**
+     * Transport settings for a single downstream service
+     */
+    public static class Downstream {
+
+        private HttpProtocol protocol = HttpProtocol.HTTP_1_1;
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration readTimeout = Duration.ofSeconds(10);
+        private boolean binaryEncoding = true;
+        private Duration binaryEncodingTtl = Duration.ofMinutes(5);
+        private final Pool pool = new Pool();
+        private final Hedging hedging = new Hedging();
+        private final ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+
+        public HttpProtocol getProtocol() {
+            return protocol;
+        }
+
+        public void setProtocol(HttpProtocol protocol) {
+            this.protocol = protocol;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        /**
+         * Whether to negotiate CBOR or Smile with the downstream when their codecs are on the classpath
+         */
+        public boolean isBinaryEncoding() {
+            return binaryEncoding;
+        }
+
+        public void setBinaryEncoding(boolean binaryEncoding) {
+            this.binaryEncoding = binaryEncoding;
+        }
+
+        /**
+         * How long the request body format learnt from the downstream's answers is kept; a
+         * binary format it rejected is tried again after this
+         */
+        public Duration getBinaryEncodingTtl() {
+            return binaryEncodingTtl;
+        }
+
+        public void setBinaryEncodingTtl(Duration binaryEncodingTtl) {
+            this.binaryEncodingTtl = binaryEncodingTtl;
+        }
+
+        public Pool getPool() {
+            return pool;
+        }
+
+        public Hedging getHedging() {
+            return hedging;
+        }
+
+        public ConcurrencyLimit getConcurrencyLimit() {
+            return concurrencyLimit;
+        }
+    }
+
+    /**
+     * Connection pool settings, only used with {@link HttpProtocol#HTTP_1_1}
+     */
+    public static class Pool {
+
+        private int maxTotal = 200;
+        private int maxPerRoute = 100;
+        private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+        private Duration idleEviction = Duration.ofSeconds(30);
+        private Duration timeToLive = Duration.ofMinutes(5);
+        private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+        public int getMaxTotal() {
+            return maxTotal;
+        }
+
+        public void setMaxTotal(int maxTotal) {
+            this.maxTotal = maxTotal;
+        }
+
+        public int getMaxPerRoute() {
+            return maxPerRoute;
+        }
+
+        public void setMaxPerRoute(int maxPerRoute) {
+            this.maxPerRoute = maxPerRoute;
+        }
+
+        public Duration getConnectionRequestTimeout() {
+            return connectionRequestTimeout;
+        }
+
+        public void setConnectionRequestTimeout(Duration connectionRequestTimeout) {
+            this.connectionRequestTimeout = connectionRequestTimeout;
+        }
+
+        public Duration getIdleEviction() {
+            return idleEviction;
+        }
+
+        public void setIdleEviction(Duration idleEviction) {
+            this.idleEviction = idleEviction;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public Duration getValidateAfterInactivity() {
+            return validateAfterInactivity;
+        }
+
+        public void setValidateAfterInactivity(Duration validateAfterInactivity) {
+            this.validateAfterInactivity = validateAfterInactivity;
+        }
+    }
+
+    /**
+     * Hedging of idempotent reads: a second attempt is sent when the first has not answered
+     * within the given percentile of recent response times
+     */
+    public static class Hedging {
+
+        private boolean enabled = false;
+        private double percentile = 0.95;
+        private Duration initialDelay = Duration.ofMillis(100);
+        private Duration minDelay = Duration.ofMillis(10);
+        private double budgetPercent = 5;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public Duration getInitialDelay() {
+            return initialDelay;
+        }
+
+        public void setInitialDelay(Duration initialDelay) {
+            this.initialDelay = initialDelay;
+        }
+
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+
+        public double getBudgetPercent() {
+            return budgetPercent;
+        }
+
+        public void setBudgetPercent(double budgetPercent) {
+            this.budgetPercent = budgetPercent;
+        }
+    }
+
+    /**
+     * Adaptive limit on concurrent calls to a downstream
+     * The limit follows the ratio of the long-term to the current response time, so it
+     * shrinks as soon as the downstream queues requests and grows back when it recovers
+     */
+    public static class ConcurrencyLimit {
+
+        private boolean enabled = true;
+        private int initialLimit = 20;
+        private int minLimit = 5;
+        private int maxLimit = 200;
+        private double rttTolerance = 2.0;
+        private double smoothing = 0.2;
+        private int longWindow = 600;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getRttTolerance() {
+            return rttTolerance;
+        }
+
+        public void setRttTolerance(double rttTolerance) {
+            this.rttTolerance = rttTolerance;
+        }
+
+        public double getSmoothing() {
+            return smoothing;
+        }
+
+        public void setSmoothing(double smoothing) {
+            this.smoothing = smoothing;
+        }
+
+        public int getLongWindow() {
+            return longWindow;
+        }
+
+        public void setLongWindow(int longWindow) {
+            this.longWindow = longWindow;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.alok.payment.paymentConsumer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for the payment idempotency-key store under {@code payments.idempotency}
+ */
+@ConfigurationProperties(prefix = "payments.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+    private long maximumKeys = 100_000;
+    private Duration ttl = Duration.ofHours(24);
+    private final Disk disk = new Disk();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumKeys() {
+        return maximumKeys;
+    }
+
+    public void setMaximumKeys(long maximumKeys) {
+        this.maximumKeys = maximumKeys;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Disk getDisk() {
+        return disk;
+    }
+
+    /**
+     * Optional on-disk copy of completed keys, so replays survive restarts and memory eviction
+     */
+    public static class Disk {
+
+        private boolean enabled = false;
+        private Path directory = Path.of("data", "idempotency");
+        private Duration purgeInterval = Duration.ofMinutes(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Path getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(Path directory) {
+            this.directory = directory;
+        }
+
+        public Duration getPurgeInterval() {
+            return purgeInterval;
+        }
+
+        public void setPurgeInterval(Duration purgeInterval) {
+            this.purgeInterval = purgeInterval;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.alok.payment.paymentConsumer.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Configuration for the application's ObjectMapper, which also backs the REST clients' message converters
+ *
+ * Boot registers every {@link Module} bean with the mapper after the well-known modules, so
+ * Blackbird replaces reflective property access with generated accessors for all payloads and
+ * the cached LocalDateTime serializer takes over from JavaTimeModule's.
+ *
+ * Jackson recycles its read and write buffers per thread by default, which works well for the
+ * pooled platform threads serving requests. With virtual threads every request runs on a new
+ * thread, so the buffers would be allocated and dropped per request; they are recycled through
+ * a shared bounded pool instead. The pool's lock costs more than the thread-local lookup, so it
+ * is only used then.
+ *
+ * CBOR is only spoken with the downstreams. Their RestTemplates encode it with a mapper from the
+ * same builder, so it follows {@code spring.jackson.*} and the modules above. The API stays
+ * JSON: the CBOR converter Spring MVC registers because the format is on the classpath is
+ * removed from its converters.
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Buffers kept for reuse, enough for the requests being encoded or decoded at once
+     */
+    static final int RECYCLED_BUFFERS = 256;
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    public Module cachedLocalDateTimeModule() {
+        return new SimpleModule("CachedLocalDateTime")
+                .addSerializer(LocalDateTime.class, CachedLocalDateTimeSerializer.INSTANCE);
+    }
+
+    @Bean
+    public WebMvcConfigurer jsonOnlyApiConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter);
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    public Jackson2ObjectMapperBuilderCustomizer recycledBuffersCustomizer() {
+        return builder -> builder.factory(JsonFactory.builder()
+                .recyclerPool(JsonRecyclerPools.newBoundedPool(RECYCLED_BUFFERS))
+                .build());
+    }
+
+    /**
+     * CBOR converter with the application's mapper settings and modules, for the downstream RestTemplates
+     *
+     * @param builder Boot-configured builder; a fresh copy, as its factory is swapped for CBOR's
+     * @param virtualThreadsEnabled Whether buffers are recycled through a shared pool
+     */
+    static MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder,
+                                                                           boolean virtualThreadsEnabled) {
+        CBORFactory factory = virtualThreadsEnabled
+                ? CBORFactory.builder().recyclerPool(JsonRecyclerPools.newBoundedPool(RECYCLED_BUFFERS)).build()
+                : new CBORFactory();
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(factory).build());
+    }
+}
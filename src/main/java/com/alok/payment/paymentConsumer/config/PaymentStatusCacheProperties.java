@@ -0,0 +1,108 @@
+package com.alok.payment.paymentConsumer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for the payment status cache under {@code payments.status-cache}
+ */
+@ConfigurationProperties(prefix = "payments.status-cache")
+public class PaymentStatusCacheProperties {
+
+    private boolean enabled = true;
+    private long maximumTerminal = 100_000;
+    private Duration terminalTtl = Duration.ofHours(24);
+    private long maximumPending = 50_000;
+    private Duration pendingTtl = Duration.ofSeconds(1);
+    private final Spill spill = new Spill();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumTerminal() {
+        return maximumTerminal;
+    }
+
+    public void setMaximumTerminal(long maximumTerminal) {
+        this.maximumTerminal = maximumTerminal;
+    }
+
+    public Duration getTerminalTtl() {
+        return terminalTtl;
+    }
+
+    public void setTerminalTtl(Duration terminalTtl) {
+        this.terminalTtl = terminalTtl;
+    }
+
+    public long getMaximumPending() {
+        return maximumPending;
+    }
+
+    public void setMaximumPending(long maximumPending) {
+        this.maximumPending = maximumPending;
+    }
+
+    public Duration getPendingTtl() {
+        return pendingTtl;
+    }
+
+    public void setPendingTtl(Duration pendingTtl) {
+        this.pendingTtl = pendingTtl;
+    }
+
+    public Spill getSpill() {
+        return spill;
+    }
+
+    /**
+     * Optional memory-mapped file receiving terminal statuses evicted from memory
+     */
+    public static class Spill {
+
+        private boolean enabled = false;
+        private Path file = Path.of("data", "payment-status.spill");
+        private DataSize size = DataSize.ofMegabytes(64);
+        private long maximumEntries = 1_000_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public void setFile(Path file) {
+            this.file = file;
+        }
+
+        public DataSize getSize() {
+            return size;
+        }
+
+        public void setSize(DataSize size) {
+            this.size = size;
+        }
+
+        public long getMaximumEntries() {
+            return maximumEntries;
+        }
+
+        public void setMaximumEntries(long maximumEntries) {
+            this.maximumEntries = maximumEntries;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.alok.payment.paymentConsumer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the cache of encoded account and beneficiary responses under {@code api.response-cache}
+ */
+@ConfigurationProperties(prefix = "api.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+    private long maximumEntries = 50_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumEntries() {
+        return maximumEntries;
+    }
+
+    public void setMaximumEntries(long maximumEntries) {
+        this.maximumEntries = maximumEntries;
+    }
+}
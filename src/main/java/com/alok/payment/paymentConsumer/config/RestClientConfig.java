@@ -1,27 +1,207 @@
 package com.alok.payment.paymentConsumer.config;
 
+import com.alok.payment.paymentConsumer.client.ConcurrencyLimitInterceptor;
+import com.alok.payment.paymentConsumer.client.DownstreamConcurrencyLimits;
+import com.alok.payment.paymentConsumer.client.WireFormatNegotiator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.client.RestTemplate;
 
-import java.time.Duration;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Configuration for REST clients
+ * Each downstream gets a dedicated RestTemplate backed by its own keep-alive connection pool,
+ * negotiating its wire format and holding
+ * each exchange to the downstream's adaptive concurrency limit. Their CBOR converter is built
+ * from the application's Jackson builder and exists only here, not in the API. Being built by the
+ * {@link RestTemplateBuilder}, they are observed, so every exchange, retries and hedges
+ * included, is a client span of the current trace and sends it on in {@code traceparent}.
  */
 @Configuration
+@EnableConfigurationProperties(ExternalServicesProperties.class)
 public class RestClientConfig {
-    
+
     @Value("${spring.application.name:paymentConsumer}")
     private String applicationName;
-    
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Bean
+    public ClientHttpRequestFactory beneficiariesRequestFactory(
+            ExternalServicesProperties properties, MeterRegistry meterRegistry) {
+        return createRequestFactory("beneficiaries", properties.getBeneficiaries(), meterRegistry);
+    }
+
+    @Bean
+    public ClientHttpRequestFactory paymentProcessorRequestFactory(
+            ExternalServicesProperties properties, MeterRegistry meterRegistry) {
+        return createRequestFactory("payment-processor", properties.getPaymentProcessor(), meterRegistry);
+    }
+
+    @Bean
+    public WireFormatNegotiator beneficiariesWireFormat(ExternalServicesProperties properties,
+            HttpMessageConverters messageConverters, Jackson2ObjectMapperBuilder jacksonBuilder) {
+        return new WireFormatNegotiator(properties.getBeneficiaries(),
+                downstreamConverters(messageConverters, jacksonBuilder));
+    }
+
+    @Bean
+    public WireFormatNegotiator paymentProcessorWireFormat(ExternalServicesProperties properties,
+            HttpMessageConverters messageConverters, Jackson2ObjectMapperBuilder jacksonBuilder) {
+        return new WireFormatNegotiator(properties.getPaymentProcessor(),
+                downstreamConverters(messageConverters, jacksonBuilder));
+    }
+
+    @Bean
+    public RestTemplate beneficiariesRestTemplate(
+            RestTemplateBuilder builder,
+            @Qualifier("beneficiariesRequestFactory") ClientHttpRequestFactory requestFactory,
+            @Qualifier("beneficiariesWireFormat") WireFormatNegotiator wireFormat,
+            DownstreamConcurrencyLimits concurrencyLimits,
+            HttpMessageConverters messageConverters,
+            Jackson2ObjectMapperBuilder jacksonBuilder) {
+        return builder
+                .requestFactory(() -> requestFactory)
+                .messageConverters(downstreamConverters(messageConverters, jacksonBuilder))
+                .additionalInterceptors(wireFormat,
+                        new ConcurrencyLimitInterceptor(concurrencyLimits, "beneficiariesService", "Beneficiaries"))
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+    public RestTemplate paymentProcessorRestTemplate(
+            RestTemplateBuilder builder,
+            @Qualifier("paymentProcessorRequestFactory") ClientHttpRequestFactory requestFactory,
+            @Qualifier("paymentProcessorWireFormat") WireFormatNegotiator wireFormat,
+            DownstreamConcurrencyLimits concurrencyLimits,
+            HttpMessageConverters messageConverters,
+            Jackson2ObjectMapperBuilder jacksonBuilder) {
         return builder
-                .setConnectTimeout(Duration.ofSeconds(5))
-                .setReadTimeout(Duration.ofSeconds(10))
+                .requestFactory(() -> requestFactory)
+                .messageConverters(downstreamConverters(messageConverters, jacksonBuilder))
+                .additionalInterceptors(wireFormat, new ConcurrencyLimitInterceptor(
+                        concurrencyLimits, "paymentProcessorService", "Payment Processor"))
                 .build();
     }
+
+    @Bean
+    public HttpClient beneficiariesAsyncHttpClient(ExternalServicesProperties properties) {
+        return createAsyncHttpClient(properties.getBeneficiaries());
+    }
+
+    @Bean
+    public HttpClient paymentProcessorAsyncHttpClient(ExternalServicesProperties properties) {
+        return createAsyncHttpClient(properties.getPaymentProcessor());
+    }
+
+    /**
+     * Converters of a downstream RestTemplate: the application's, with the CBOR converter Spring
+     * builds from its own defaults replaced in place by one from the application's Jackson builder.
+     * Appending it instead would leave the default one first in line.
+     */
+    private List<HttpMessageConverter<?>> downstreamConverters(HttpMessageConverters messageConverters,
+                                                               Jackson2ObjectMapperBuilder jacksonBuilder) {
+        MappingJackson2CborHttpMessageConverter cbor =
+                JacksonConfig.cborHttpMessageConverter(jacksonBuilder, virtualThreadsEnabled);
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        boolean replaced = false;
+        for (HttpMessageConverter<?> converter : messageConverters.getConverters()) {
+            if (!(converter instanceof MappingJackson2CborHttpMessageConverter)) {
+                converters.add(converter);
+            } else if (!replaced) {
+                converters.add(cbor);
+                replaced = true;
+            }
+        }
+        if (!replaced) {
+            converters.add(cbor);
+        }
+        return converters;
+    }
+
+    /**
+     * Build the non-blocking JDK client used by the asynchronous downstream clients.
+     * Requests wait on the client's selector instead of a thread; the per-request
+     * timeout is the read timeout of the downstream.
+     */
+    private HttpClient createAsyncHttpClient(ExternalServicesProperties.Downstream settings) {
+        return HttpClient.newBuilder()
+                .version(settings.getProtocol() == ExternalServicesProperties.HttpProtocol.HTTP_2
+                        ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(settings.getConnectTimeout())
+                .build();
+    }
+
+    /**
+     * Build the request factory for one downstream.
+     * HTTP/1.1 uses a pooled Apache HttpClient whose pool gauges are published as
+     * {@code httpcomponents.httpclient.pool.*} tagged with {@code httpclient=<downstream>};
+     * HTTP/2 multiplexes over the JDK client's own connections.
+     */
+    private ClientHttpRequestFactory createRequestFactory(
+            String downstream, ExternalServicesProperties.Downstream settings, MeterRegistry meterRegistry) {
+        if (settings.getProtocol() == ExternalServicesProperties.HttpProtocol.HTTP_2) {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(settings.getConnectTimeout())
+                    .build();
+            JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+            requestFactory.setReadTimeout(settings.getReadTimeout());
+            return requestFactory;
+        }
+
+        ExternalServicesProperties.Pool pool = settings.getPool();
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(pool.getMaxTotal())
+                .setMaxConnPerRoute(pool.getMaxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(settings.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(settings.getReadTimeout()))
+                        .setTimeToLive(TimeValue.of(pool.getTimeToLive()))
+                        .setValidateAfterInactivity(TimeValue.of(pool.getValidateAfterInactivity()))
+                        .build())
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(pool.getConnectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(settings.getReadTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(pool.getIdleEviction()))
+                .setUserAgent(applicationName)
+                .build();
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, downstream).bindTo(meterRegistry);
+
+        // The factory is a DisposableBean, so the pool is closed with the context
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
 }
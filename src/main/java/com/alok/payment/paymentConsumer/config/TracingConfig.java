@@ -0,0 +1,54 @@
+package com.alok.payment.paymentConsumer.config;
+
+import com.alok.payment.paymentConsumer.tracing.OtlpFileSpanExporter;
+import com.alok.payment.paymentConsumer.tracing.TailSamplingSampler;
+import com.alok.payment.paymentConsumer.tracing.TailSamplingSpanProcessor;
+import com.alok.payment.paymentConsumer.tracing.TracesEndpoint;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for request tracing
+ * Spans come from Micrometer Tracing over OpenTelemetry: server requests and RestTemplate
+ * exchanges are observed by Spring Boot, which continues and propagates the W3C trace
+ * context. This adds tail sampling: every span is recorded, and kept traces go to the
+ * exporter chosen by {@code tracing.exporter.type}.
+ */
+@Configuration
+@EnableConfigurationProperties(TracingProperties.class)
+public class TracingConfig {
+
+    private static final String EXPORTER_TYPE = "tracing.exporter.type";
+
+    @Bean
+    public Sampler tailSamplingSampler(TracingProperties properties) {
+        return new TailSamplingSampler(properties.getSampleRatio(), properties.isRespectParentSampled());
+    }
+
+    @Bean
+    public TailSamplingSpanProcessor tailSamplingSpanProcessor(
+            TracingProperties properties, ObjectProvider<TracesEndpoint> tracesEndpoint,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        TracingProperties.Exporter settings = properties.getExporter();
+        SpanExporter exporter = switch (settings.getType()) {
+            case MEMORY -> tracesEndpoint.getObject().exporter();
+            case OTLP_FILE -> new OtlpFileSpanExporter(settings.getFile(), settings.getQueueCapacity(),
+                    objectMapper, meterRegistry);
+            case NONE -> SpanExporter.composite();
+        };
+        return new TailSamplingSpanProcessor(properties, exporter, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = EXPORTER_TYPE, havingValue = "memory", matchIfMissing = true)
+    public TracesEndpoint tracesEndpoint(TracingProperties properties, ObjectMapper objectMapper) {
+        return new TracesEndpoint(properties.getExporter().getMemoryCapacity(), objectMapper);
+    }
+}
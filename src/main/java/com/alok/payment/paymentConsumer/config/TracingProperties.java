@@ -0,0 +1,108 @@
+package com.alok.payment.paymentConsumer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for tail sampling and export of traces under {@code tracing}
+ * Tracing as a whole is switched by {@code management.tracing.enabled}.
+ */
+@ConfigurationProperties(prefix = "tracing")
+public class TracingProperties {
+
+    private Duration slowThreshold = Duration.ofMillis(500);
+    private double sampleRatio = 0.0;
+    private boolean respectParentSampled = true;
+    private int maxSpansPerTrace = 256;
+    private final Exporter exporter = new Exporter();
+
+    public Duration getSlowThreshold() {
+        return slowThreshold;
+    }
+
+    public void setSlowThreshold(Duration slowThreshold) {
+        this.slowThreshold = slowThreshold;
+    }
+
+    public double getSampleRatio() {
+        return sampleRatio;
+    }
+
+    public void setSampleRatio(double sampleRatio) {
+        this.sampleRatio = sampleRatio;
+    }
+
+    public boolean isRespectParentSampled() {
+        return respectParentSampled;
+    }
+
+    public void setRespectParentSampled(boolean respectParentSampled) {
+        this.respectParentSampled = respectParentSampled;
+    }
+
+    public int getMaxSpansPerTrace() {
+        return maxSpansPerTrace;
+    }
+
+    public void setMaxSpansPerTrace(int maxSpansPerTrace) {
+        this.maxSpansPerTrace = maxSpansPerTrace;
+    }
+
+    public Exporter getExporter() {
+        return exporter;
+    }
+
+    public enum ExporterType {
+        /** Latest kept traces in memory, served by the {@code traces} actuator endpoint */
+        MEMORY,
+        /** OTLP/JSON lines appended to a file, one kept trace per line */
+        OTLP_FILE,
+        /** Kept traces are counted only */
+        NONE
+    }
+
+    /**
+     * Where kept traces go
+     */
+    public static class Exporter {
+
+        private ExporterType type = ExporterType.MEMORY;
+        private int memoryCapacity = 200;
+        private Path file = Path.of("data", "traces.otlp.jsonl");
+        private int queueCapacity = 1024;
+
+        public ExporterType getType() {
+            return type;
+        }
+
+        public void setType(ExporterType type) {
+            this.type = type;
+        }
+
+        public int getMemoryCapacity() {
+            return memoryCapacity;
+        }
+
+        public void setMemoryCapacity(int memoryCapacity) {
+            this.memoryCapacity = memoryCapacity;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public void setFile(Path file) {
+            this.file = file;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+}
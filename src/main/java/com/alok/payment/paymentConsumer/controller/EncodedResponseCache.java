@@ -0,0 +1,208 @@
+package com.alok.payment.paymentConsumer.controller;
+
+import com.alok.payment.paymentConsumer.config.ResponseCacheProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of encoded JSON response bodies, reused while the entity they encode is unchanged
+ *
+ * Entries are keyed by resource and ID and remember the version of the entity they were
+ * encoded from: a read with the same version reuses the bytes, any other re-encodes and
+ * replaces the entry, so a changed entity needs no explicit invalidation. An entity with a
+ * negative version has none to compare and is encoded without being cached. Bodies at least as
+ * large as the server's compression threshold are also kept gzipped for clients accepting
+ * gzip; the container leaves a response that already has a content encoding alone. A body's
+ * weak ETag is the digest of its JSON, so a conditional read of an unchanged entity is
+ * answered 304 without a body.
+ */
+@Component
+public class EncodedResponseCache {
+
+    /**
+     * Cached resources
+     */
+    public enum Resource {
+        ACCOUNT("account"),
+        BENEFICIARIES("beneficiaries");
+
+        private final String tag;
+
+        Resource(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Key, Entry> entries;
+    private final long gzipMinSize;
+    private final Map<Resource, Counter> hits = new EnumMap<>(Resource.class);
+    private final Map<Resource, Counter> misses = new EnumMap<>(Resource.class);
+
+    @Autowired
+    public EncodedResponseCache(ObjectMapper objectMapper, ResponseCacheProperties properties,
+                                ServerProperties serverProperties, MeterRegistry meterRegistry) {
+        this(objectMapper, properties, serverProperties.getCompression(), meterRegistry);
+    }
+
+    EncodedResponseCache(ObjectMapper objectMapper, ResponseCacheProperties properties, Compression compression,
+                         MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.entries = properties.isEnabled()
+                ? Caffeine.newBuilder().maximumSize(properties.getMaximumEntries()).build()
+                : null;
+        this.gzipMinSize = compression.getEnabled()
+                && Arrays.asList(compression.getMimeTypes()).contains(MediaType.APPLICATION_JSON_VALUE)
+                ? compression.getMinResponseSize().toBytes()
+                : Long.MAX_VALUE;
+        for (Resource resource : Resource.values()) {
+            hits.put(resource, counter(meterRegistry, resource, "hit"));
+            misses.put(resource, counter(meterRegistry, resource, "miss"));
+        }
+    }
+
+    /**
+     * Answer a read with the encoded entity, from the cache while its version is unchanged
+     * Spring answers 304 instead when the request's If-None-Match matches the ETag.
+     *
+     * @param resource Resource read
+     * @param id ID of the entity within the resource
+     * @param version Version of the entity, read no later than the entity, or negative if it has none
+     * @param value Entity to encode on a miss
+     * @param acceptEncoding Accept-Encoding header of the request, if any
+     * @return 200 response with the JSON or gzipped JSON body
+     */
+    public ResponseEntity<byte[]> respond(Resource resource, Object id, long version, Object value,
+                                          String acceptEncoding) {
+        Body body = body(resource, id, version, value);
+        boolean gzip = body.gzip() != null && acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(body.etag());
+        if (body.gzip() != null) {
+            response.varyBy(HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzip ? body.gzip() : body.json());
+    }
+
+    Body body(Resource resource, Object id, long version, Object value) {
+        if (entries == null || version < 0) {
+            misses.get(resource).increment();
+            return encode(value);
+        }
+        Key key = new Key(resource, id);
+        Entry entry = entries.getIfPresent(key);
+        if (entry != null && entry.version() == version) {
+            hits.get(resource).increment();
+            return entry.body();
+        }
+        misses.get(resource).increment();
+        Body body = encode(value);
+        entries.put(key, new Entry(version, body));
+        return body;
+    }
+
+    private Body encode(Object value) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot encode response body", ex);
+        }
+        byte[] gzip = json.length >= gzipMinSize ? gzip(json) : null;
+        String etag = "W/\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+        return new Body(json, gzip != null && gzip.length < json.length ? gzip : null, etag);
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Whether an Accept-Encoding header accepts gzip, by name or through {@code *}
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip")) {
+                return accepted(parts);
+            }
+            if (name.equals("*")) {
+                wildcard = accepted(parts);
+            }
+        }
+        return wildcard;
+    }
+
+    private static boolean accepted(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) > 0;
+                } catch (NumberFormatException ex) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, Resource resource, String outcome) {
+        return Counter.builder("api.response.cache")
+                .description("Account and beneficiary reads by whether their encoded body was reused")
+                .tag("resource", resource.tag)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Encoded body of an entity
+     *
+     * @param json JSON encoding
+     * @param gzip Gzipped JSON, or null when too small to compress
+     * @param etag Weak ETag of the JSON
+     */
+    record Body(byte[] json, byte[] gzip, String etag) {
+    }
+
+    private record Key(Resource resource, Object id) {
+    }
+
+    private record Entry(long version, Body body) {
+    }
+}
@@ -1,17 +1,31 @@
 package com.alok.payment.paymentConsumer.controller;
 
+import com.alok.payment.paymentConsumer.controller.EncodedResponseCache.Resource;
+import com.alok.payment.paymentConsumer.dto.BatchPaymentRequest;
+import com.alok.payment.paymentConsumer.dto.BatchPaymentResponse;
 import com.alok.payment.paymentConsumer.dto.PaymentRequest;
 import com.alok.payment.paymentConsumer.dto.PaymentResponse;
+import com.alok.payment.paymentConsumer.exception.ResourceNotFoundException;
 import com.alok.payment.paymentConsumer.model.Account;
 import com.alok.payment.paymentConsumer.model.Beneficiary;
+import com.alok.payment.paymentConsumer.service.BatchPaymentService;
+import com.alok.payment.paymentConsumer.service.IdempotencyStore;
 import com.alok.payment.paymentConsumer.service.PaymentConsumerService;
+import com.alok.payment.paymentConsumer.service.PaymentStatusWatcher;
+import com.alok.payment.paymentConsumer.service.StreamingPaymentService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -25,26 +39,47 @@ public class PaymentConsumerController {
     private static final Logger log = LoggerFactory.getLogger(PaymentConsumerController.class);
     
     private final PaymentConsumerService paymentConsumerService;
+    private final BatchPaymentService batchPaymentService;
+    private final StreamingPaymentService streamingPaymentService;
+    private final PaymentStatusWatcher paymentStatusWatcher;
+    private final IdempotencyStore idempotencyStore;
+    private final EncodedResponseCache encodedResponses;
     
-    public PaymentConsumerController(PaymentConsumerService paymentConsumerService) {
+    public PaymentConsumerController(
+            PaymentConsumerService paymentConsumerService,
+            BatchPaymentService batchPaymentService,
+            StreamingPaymentService streamingPaymentService,
+            PaymentStatusWatcher paymentStatusWatcher,
+            IdempotencyStore idempotencyStore,
+            EncodedResponseCache encodedResponses) {
         this.paymentConsumerService = paymentConsumerService;
+        this.batchPaymentService = batchPaymentService;
+        this.streamingPaymentService = streamingPaymentService;
+        this.paymentStatusWatcher = paymentStatusWatcher;
+        this.idempotencyStore = idempotencyStore;
+        this.encodedResponses = encodedResponses;
     }
     
     /**
      * Get customer account details
+     * The body is reused while the account is unchanged; its ETag answers If-None-Match with 304
      * 
      * @param customerId Customer ID
+     * @param acceptEncoding Accept-Encoding header (optional)
      * @return Account details
      */
     @GetMapping("/accounts/{customerId}")
-    public ResponseEntity<Account> getAccountDetails(@PathVariable String customerId) {
-        log.info("REST request to get account details for customer: {}", customerId);
+    public ResponseEntity<byte[]> getAccountDetails(
+            @PathVariable String customerId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.debug("REST request to get account details for customer: {}", customerId);
         
         if (customerId == null || customerId.trim().isEmpty()) {
             log.warn("Invalid customer ID provided");
             return ResponseEntity.badRequest().build();
         }
         
+        long version = paymentConsumerService.getAccountVersion(customerId);
         Account account = paymentConsumerService.getAccountDetails(customerId);
         
         if (account == null) {
@@ -52,21 +87,24 @@ public class PaymentConsumerController {
             return ResponseEntity.notFound().build();
         }
         
-        return ResponseEntity.ok(account);
+        return encodedResponses.respond(Resource.ACCOUNT, customerId, version, account, acceptEncoding);
     }
     
     /**
      * Get beneficiaries for a customer
+     * The body is reused until the cached list is refreshed; its ETag answers If-None-Match with 304
      * 
      * @param customerId Customer ID
      * @param accountNumber Account number (optional)
+     * @param acceptEncoding Accept-Encoding header (optional)
      * @return List of beneficiaries
      */
     @GetMapping("/beneficiaries")
-    public ResponseEntity<List<Beneficiary>> getBeneficiaries(
+    public ResponseEntity<byte[]> getBeneficiaries(
             @RequestParam(required = true) String customerId,
-            @RequestParam(required = false) String accountNumber) {
-        log.info("REST request to get beneficiaries for customer: {}, account: {}", 
+            @RequestParam(required = false) String accountNumber,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.debug("REST request to get beneficiaries for customer: {}, account: {}", 
                 customerId, accountNumber);
         
         if (customerId == null || customerId.trim().isEmpty()) {
@@ -74,31 +112,41 @@ public class PaymentConsumerController {
             return ResponseEntity.badRequest().build();
         }
         
+        long version = paymentConsumerService.getBeneficiariesVersion(customerId, accountNumber);
         List<Beneficiary> beneficiaries = paymentConsumerService.getBeneficiaries(customerId, accountNumber);
         
         if (beneficiaries == null || beneficiaries.isEmpty()) {
-            log.info("No beneficiaries found for customer: {}", customerId);
-            return ResponseEntity.ok(List.of());
+            log.debug("No beneficiaries found for customer: {}", customerId);
+            beneficiaries = List.of();
         }
         
-        return ResponseEntity.ok(beneficiaries);
+        return encodedResponses.respond(Resource.BENEFICIARIES, List.of(customerId, String.valueOf(accountNumber)),
+                version, beneficiaries, acceptEncoding);
     }
     
     /**
      * Process a payment
+     * With an Idempotency-Key header, a repeated request gets the first response back
+     * without the payment being submitted again
      * 
      * @param paymentRequest Payment request details
+     * @param idempotencyKey Client-chosen key identifying this payment (optional)
      * @return Payment response
      */
     @PostMapping("/payments")
-    public ResponseEntity<PaymentResponse> processPayment(@Valid @RequestBody PaymentRequest paymentRequest) {
-        log.info("REST request to process payment for customer: {} from {} to {} for amount {}", 
+    public ResponseEntity<PaymentResponse> processPayment(
+            @Valid @RequestBody PaymentRequest paymentRequest,
+            @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        log.debug("REST request to process payment for customer: {} from {} to {} for amount {}", 
                 paymentRequest.getCustomerId(),
                 paymentRequest.getFromAccount(),
                 paymentRequest.getToAccount(),
                 paymentRequest.getAmount());
         
-        PaymentResponse response = paymentConsumerService.processPayment(paymentRequest);
+        IdempotencyStore.Outcome outcome = idempotencyStore.execute(
+                paymentRequest.getCustomerId(), idempotencyKey, paymentRequest,
+                () -> paymentConsumerService.processPayment(paymentRequest));
+        PaymentResponse response = outcome.response();
         
         if (response == null) {
             log.error("Payment service returned null response");
@@ -106,17 +154,59 @@ public class PaymentConsumerController {
         }
         
         // Return appropriate status based on payment result
+        HttpStatus status;
         if (response.getStatus() != null && 
             response.getStatus().toString().contains("COMPLETED")) {
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            status = HttpStatus.CREATED;
         } else if (response.getStatus() != null && 
                    (response.getStatus().toString().contains("FAILED") ||
                     response.getStatus().toString().contains("FRAUD") ||
                     response.getStatus().toString().contains("INSUFFICIENT"))) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+            status = HttpStatus.BAD_REQUEST;
         } else {
-            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+            status = HttpStatus.ACCEPTED;
         }
+        
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status);
+        if (outcome.replayed()) {
+            builder.header(IdempotencyStore.REPLAYED_HEADER, "true");
+        }
+        return builder.body(response);
+    }
+    
+    /**
+     * Process a batch of payments
+     * Invalid or failed items are reported per item and do not abort the batch
+     * 
+     * @param batchRequest Payments to process
+     * @return Per-item payment responses and a batch summary
+     */
+    @PostMapping("/payments/batch")
+    public ResponseEntity<BatchPaymentResponse> processPaymentBatch(
+            @Valid @RequestBody BatchPaymentRequest batchRequest) {
+        log.debug("REST request to process payment batch of {} payments", batchRequest.getPayments().size());
+        
+        BatchPaymentResponse response = batchPaymentService.processBatch(batchRequest.getPayments());
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Process a stream of newline-delimited payment requests
+     * Results are streamed back as NDJSON while the request body is still being read
+     * 
+     * @param request Request carrying one payment request per line
+     * @param response Response receiving one payment result per line, in completion order
+     */
+    @PostMapping(value = "/payments/stream",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamPayments(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("REST request to stream payments");
+        
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        streamingPaymentService.ingest(request.getInputStream(), response.getOutputStream());
     }
     
     /**
@@ -130,7 +220,7 @@ public class PaymentConsumerController {
     public ResponseEntity<PaymentResponse> getPaymentStatus(
             @PathVariable String transactionId,
             @RequestParam(required = true) String customerId) {
-        log.info("REST request to get payment status for transaction: {} and customer: {}", 
+        log.debug("REST request to get payment status for transaction: {} and customer: {}", 
                 transactionId, customerId);
         
         if (transactionId == null || transactionId.trim().isEmpty()) {
@@ -153,6 +243,47 @@ public class PaymentConsumerController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Subscribe to payment status changes as Server-Sent Events
+     * One "status" event per change, starting with the current status; the stream ends
+     * after a final status, or with an "error" event if the transaction is unknown
+     * 
+     * @param transactionId Transaction ID
+     * @param customerId Customer ID
+     * @return Event stream of payment responses
+     */
+    @GetMapping("/payments/{transactionId}/events")
+    public ResponseEntity<SseEmitter> streamPaymentStatus(
+            @PathVariable String transactionId,
+            @RequestParam(required = true) String customerId) {
+        log.debug("REST request to stream payment status for transaction: {} and customer: {}", 
+                transactionId, customerId);
+        
+        if (transactionId == null || transactionId.trim().isEmpty()) {
+            log.warn("Invalid transaction ID provided");
+            return ResponseEntity.badRequest().build();
+        }
+        
+        if (customerId == null || customerId.trim().isEmpty()) {
+            log.warn("Invalid customer ID provided");
+            return ResponseEntity.badRequest().build();
+        }
+        
+        // Event-stream clients cannot accept the JSON error body, so answer with the bare status
+        SseEmitter emitter;
+        try {
+            emitter = paymentStatusWatcher.subscribe(transactionId, customerId);
+        } catch (ResourceNotFoundException ex) {
+            log.warn("Account not found for customer: {}", customerId);
+            return ResponseEntity.notFound().build();
+        }
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .header("Cache-Control", "no-cache")
+                .body(emitter);
+    }
+    
     /**
      * Health check endpoint
      * 
@@ -0,0 +1,30 @@
+package com.alok.payment.paymentConsumer.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * DTO for a batch of payment requests
+ * Items are validated individually so one invalid item does not reject the batch
+ */
+public class BatchPaymentRequest {
+
+    @NotEmpty(message = "Payments are required")
+    private List<PaymentRequest> payments;
+
+    public BatchPaymentRequest() {
+    }
+
+    public BatchPaymentRequest(List<PaymentRequest> payments) {
+        this.payments = payments;
+    }
+
+    public List<PaymentRequest> getPayments() {
+        return payments;
+    }
+
+    public void setPayments(List<PaymentRequest> payments) {
+        this.payments = payments;
+    }
+}
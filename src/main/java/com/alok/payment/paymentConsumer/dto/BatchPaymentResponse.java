@@ -0,0 +1,112 @@
+package com.alok.payment.paymentConsumer.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for batch payment response
+ * Results are in the same order as the submitted payments
+ */
+public class BatchPaymentResponse {
+
+    private List<PaymentResponse> results;
+    private Summary summary;
+    private LocalDateTime timestamp;
+
+    public BatchPaymentResponse() {
+        this.timestamp = LocalDateTime.now();
+    }
+
+    public BatchPaymentResponse(List<PaymentResponse> results, Summary summary) {
+        this();
+        this.results = results;
+        this.summary = summary;
+    }
+
+    public List<PaymentResponse> getResults() {
+        return results;
+    }
+
+    public void setResults(List<PaymentResponse> results) {
+        this.results = results;
+    }
+
+    public Summary getSummary() {
+        return summary;
+    }
+
+    public void setSummary(Summary summary) {
+        this.summary = summary;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Outcome counts of a batch
+     */
+    public static class Summary {
+
+        private int total;
+        private int completed;
+        private int failed;
+        private int pending;
+        private long durationMillis;
+
+        public Summary() {
+        }
+
+        public Summary(int total, int completed, int failed, int pending, long durationMillis) {
+            this.total = total;
+            this.completed = completed;
+            this.failed = failed;
+            this.pending = pending;
+            this.durationMillis = durationMillis;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public void setTotal(int total) {
+            this.total = total;
+        }
+
+        public int getCompleted() {
+            return completed;
+        }
+
+        public void setCompleted(int completed) {
+            this.completed = completed;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public void setFailed(int failed) {
+            this.failed = failed;
+        }
+
+        public int getPending() {
+            return pending;
+        }
+
+        public void setPending(int pending) {
+            this.pending = pending;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public void setDurationMillis(long durationMillis) {
+            this.durationMillis = durationMillis;
+        }
+    }
+}
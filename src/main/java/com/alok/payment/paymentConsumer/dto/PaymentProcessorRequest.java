@@ -0,0 +1,106 @@
+package com.alok.payment.paymentConsumer.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * DTO for payment request sent to the payment processor
+ * Written by a dedicated serializer with pre-encoded field names instead of per-call reflection;
+ * the description is omitted when absent
+ */
+@JsonSerialize(using = PaymentProcessorRequest.Serializer.class)
+public record PaymentProcessorRequest(String fromAccount, String toAccount, BigDecimal amount, String currency,
+                                      String paymentType, String description) {
+
+    public PaymentProcessorRequest {
+        if (fromAccount == null) {
+            throw new IllegalArgumentException("From account is required");
+        }
+        if (toAccount == null) {
+            throw new IllegalArgumentException("To account is required");
+        }
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount is required");
+        }
+    }
+
+    public static PaymentProcessorRequest from(PaymentRequest paymentRequest) {
+        return new PaymentProcessorRequest(
+                paymentRequest.getFromAccount(),
+                paymentRequest.getToAccount(),
+                paymentRequest.getAmount(),
+                paymentRequest.getCurrency(),
+                paymentRequest.getPaymentType() == null ? null : paymentRequest.getPaymentType().toString(),
+                paymentRequest.getDescription());
+    }
+
+    /**
+     * Convert the untyped request map accepted by earlier versions of the processor client
+     */
+    public static PaymentProcessorRequest fromMap(Map<String, Object> paymentRequest) {
+        return new PaymentProcessorRequest(
+                text(paymentRequest.get("fromAccount")),
+                text(paymentRequest.get("toAccount")),
+                amount(paymentRequest.get("amount")),
+                text(paymentRequest.get("currency")),
+                text(paymentRequest.get("paymentType")),
+                text(paymentRequest.get("description")));
+    }
+
+    private static String text(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static BigDecimal amount(Object value) {
+        if (value == null || value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        try {
+            return new BigDecimal(value.toString());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Amount is not a number: " + value);
+        }
+    }
+
+    static final class Serializer extends StdSerializer<PaymentProcessorRequest> {
+
+        private static final SerializedString FROM_ACCOUNT = new SerializedString("fromAccount");
+        private static final SerializedString TO_ACCOUNT = new SerializedString("toAccount");
+        private static final SerializedString AMOUNT = new SerializedString("amount");
+        private static final SerializedString CURRENCY = new SerializedString("currency");
+        private static final SerializedString PAYMENT_TYPE = new SerializedString("paymentType");
+        private static final SerializedString DESCRIPTION = new SerializedString("description");
+
+        Serializer() {
+            super(PaymentProcessorRequest.class);
+        }
+
+        @Override
+        public void serialize(PaymentProcessorRequest request, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject(request);
+            generator.writeFieldName(FROM_ACCOUNT);
+            generator.writeString(request.fromAccount());
+            generator.writeFieldName(TO_ACCOUNT);
+            generator.writeString(request.toAccount());
+            generator.writeFieldName(AMOUNT);
+            generator.writeNumber(request.amount());
+            generator.writeFieldName(CURRENCY);
+            generator.writeString(request.currency());
+            generator.writeFieldName(PAYMENT_TYPE);
+            generator.writeString(request.paymentType());
+            if (request.description() != null) {
+                generator.writeFieldName(DESCRIPTION);
+                generator.writeString(request.description());
+            }
+            generator.writeEndObject();
+        }
+    }
+}
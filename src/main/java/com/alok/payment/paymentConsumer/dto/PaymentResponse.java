@@ -33,6 +33,22 @@ public class PaymentResponse {
         this.message = message;
     }
 
+    /**
+     * Failed response echoing the details of the request it answers
+     */
+    public static PaymentResponse failed(PaymentRequest request, String message, String failureReason) {
+        PaymentResponse response = new PaymentResponse(null, PaymentStatus.FAILED, message);
+        response.setFailureReason(failureReason);
+        if (request != null) {
+            response.setFromAccount(request.getFromAccount());
+            response.setToAccount(request.getToAccount());
+            response.setAmount(request.getAmount());
+            response.setCurrency(request.getCurrency());
+            response.setPaymentType(request.getPaymentType());
+        }
+        return response;
+    }
+
     public String getTransactionId() {
         return transactionId;
     }
@@ -0,0 +1,41 @@
+package com.alok.payment.paymentConsumer.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * DTO for one result of a streamed payment ingestion
+ * A payment response tagged with the input line it answers, since results complete out of order
+ */
+@JsonPropertyOrder({"line"})
+public class PaymentStreamResult {
+
+    private long line;
+
+    @JsonUnwrapped
+    private PaymentResponse payment;
+
+    public PaymentStreamResult() {
+    }
+
+    public PaymentStreamResult(long line, PaymentResponse payment) {
+        this.line = line;
+        this.payment = payment;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public PaymentResponse getPayment() {
+        return payment;
+    }
+
+    public void setPayment(PaymentResponse payment) {
+        this.payment = payment;
+    }
+}
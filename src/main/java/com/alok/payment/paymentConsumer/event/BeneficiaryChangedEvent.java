@@ -0,0 +1,15 @@
+package com.alok.payment.paymentConsumer.event;
+
+/**
+ * Published when beneficiaries of a customer were created, updated or removed,
+ * so cached copies can be dropped
+ *
+ * @param customerId Customer whose beneficiaries changed
+ * @param beneficiaryId Changed beneficiary, or null when the whole list changed
+ */
+public record BeneficiaryChangedEvent(String customerId, Long beneficiaryId) {
+
+    public static BeneficiaryChangedEvent forCustomer(String customerId) {
+        return new BeneficiaryChangedEvent(customerId, null);
+    }
+}
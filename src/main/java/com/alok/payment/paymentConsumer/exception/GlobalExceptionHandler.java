@@ -13,16 +13,25 @@ import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
  * Global exception handler for the application
+ * 
+ * Downstream outages fail every request the same way, so their handlers log through a
+ * {@link RateLimitedLogger}, leave stack traces to debug level and reuse the error messages
+ * of each downstream instead of formatting them per request.
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
     
     private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+    private static final RateLimitedLogger outageLog = new RateLimitedLogger(log);
+    
+    private final Map<String, String> unavailableMessages = new ConcurrentHashMap<>();
     
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleResourceNotFoundException(
@@ -42,12 +51,14 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(ServiceUnavailableException.class)
     public ResponseEntity<ErrorResponse> handleServiceUnavailableException(
             ServiceUnavailableException ex, HttpServletRequest request) {
-        log.error("Service unavailable - {}: {}", ex.getServiceName(), ex.getMessage(), ex);
+        outageLog.error("Service unavailable - {}: {}", ex.getServiceName(), ex.getMessage());
+        log.debug("Service unavailable - {}", ex.getServiceName(), ex);
         
+        String serviceName = ex.getServiceName() != null ? ex.getServiceName() : "Downstream";
         ErrorResponse error = new ErrorResponse(
                 "Service Unavailable",
-                String.format("%s service is currently unavailable. Please try again later.", 
-                             ex.getServiceName() != null ? ex.getServiceName() : "Downstream"),
+                unavailableMessages.computeIfAbsent(serviceName, name ->
+                        name + " service is currently unavailable. Please try again later."),
                 request.getRequestURI(),
                 HttpStatus.SERVICE_UNAVAILABLE.value()
         );
@@ -70,10 +81,25 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
     
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyMismatchException(
+            IdempotencyKeyMismatchException ex, HttpServletRequest request) {
+        log.warn("Idempotency key reused: {}", ex.getMessage());
+        
+        ErrorResponse error = new ErrorResponse(
+                "Idempotency Key Mismatch",
+                ex.getMessage(),
+                request.getRequestURI(),
+                HttpStatus.UNPROCESSABLE_ENTITY.value()
+        );
+        
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(error);
+    }
+    
     @ExceptionHandler(CallNotPermittedException.class)
     public ResponseEntity<ErrorResponse> handleCallNotPermittedException(
             CallNotPermittedException ex, HttpServletRequest request) {
-        log.error("Circuit breaker is open: {}", ex.getMessage());
+        outageLog.error("Circuit breaker is open: {}", ex.getMessage());
         
         ErrorResponse error = new ErrorResponse(
                 "Service Circuit Breaker Open",
@@ -88,7 +114,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(TimeoutException.class)
     public ResponseEntity<ErrorResponse> handleTimeoutException(
             TimeoutException ex, HttpServletRequest request) {
-        log.error("Request timeout: {}", ex.getMessage());
+        outageLog.error("Request timeout: {}", ex.getMessage());
         
         ErrorResponse error = new ErrorResponse(
                 "Request Timeout",
@@ -0,0 +1,18 @@
+package com.alok.payment.paymentConsumer.exception;
+
+/**
+ * Exception thrown when an idempotency key is reused with a different payment request
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    private final String idempotencyKey;
+
+    public IdempotencyKeyMismatchException(String idempotencyKey) {
+        super(String.format("Idempotency key '%s' was already used for a different payment request", idempotencyKey));
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+}
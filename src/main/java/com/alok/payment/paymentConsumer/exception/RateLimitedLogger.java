@@ -0,0 +1,103 @@
+package com.alok.payment.paymentConsumer.exception;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Logger for failures that repeat on every request during a downstream outage
+ *
+ * Writes a message template at most once per interval; the next line written for the
+ * template reports how many were skipped in between. Templates are the format strings of
+ * the call sites, so the number of tracked templates is bounded by the code.
+ */
+public final class RateLimitedLogger {
+
+    private static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(10);
+    private static final String SUPPRESSED = " ({} similar suppressed)";
+
+    private final Logger delegate;
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    public RateLimitedLogger(Logger delegate) {
+        this(delegate, DEFAULT_INTERVAL);
+    }
+
+    public RateLimitedLogger(Logger delegate, Duration interval) {
+        this(delegate, interval, System::nanoTime);
+    }
+
+    RateLimitedLogger(Logger delegate, Duration interval, LongSupplier nanoClock) {
+        this.delegate = delegate;
+        this.intervalNanos = interval.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    public void error(String format, Object... arguments) {
+        if (delegate.isErrorEnabled()) {
+            long suppressed = admit(format);
+            if (suppressed == 0) {
+                delegate.error(format, arguments);
+            } else if (suppressed > 0) {
+                delegate.error(format + SUPPRESSED, withSuppressed(arguments, suppressed));
+            }
+        }
+    }
+
+    public void warn(String format, Object... arguments) {
+        if (delegate.isWarnEnabled()) {
+            long suppressed = admit(format);
+            if (suppressed == 0) {
+                delegate.warn(format, arguments);
+            } else if (suppressed > 0) {
+                delegate.warn(format + SUPPRESSED, withSuppressed(arguments, suppressed));
+            }
+        }
+    }
+
+    /**
+     * Skipped count to report if the template may be written now, or -1 if it is skipped
+     */
+    private long admit(String format) {
+        long now = nanoClock.getAsLong();
+        Window window = windows.computeIfAbsent(format, key -> new Window(now));
+        long next = window.next.get();
+        if (now - next >= 0 && window.next.compareAndSet(next, now + intervalNanos)) {
+            return window.suppressed.sumThenReset();
+        }
+        window.suppressed.increment();
+        return -1;
+    }
+
+    private static Object[] withSuppressed(Object[] arguments, long suppressed) {
+        // A trailing throwable must stay last for SLF4J to log it as the exception
+        int count = arguments.length;
+        boolean throwable = count > 0 && arguments[count - 1] instanceof Throwable;
+        Object[] extended = Arrays.copyOf(arguments, count + 1);
+        if (throwable) {
+            extended[count] = arguments[count - 1];
+            extended[count - 1] = suppressed;
+        } else {
+            extended[count] = suppressed;
+        }
+        return extended;
+    }
+
+    private static final class Window {
+
+        private final AtomicLong next;
+        private final LongAdder suppressed = new LongAdder();
+
+        private Window(long now) {
+            this.next = new AtomicLong(now);
+        }
+    }
+}
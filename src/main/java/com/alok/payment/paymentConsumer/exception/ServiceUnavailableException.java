@@ -6,18 +6,63 @@ package com.alok.payment.paymentConsumer.exception;
 public class ServiceUnavailableException extends RuntimeException {
     
     private final String serviceName;
+    private final boolean notSent;
     
     public ServiceUnavailableException(String serviceName, String message) {
         super(message);
         this.serviceName = serviceName;
+        this.notSent = false;
     }
     
     public ServiceUnavailableException(String serviceName, String message, Throwable cause) {
         super(message, cause);
         this.serviceName = serviceName;
+        this.notSent = false;
+    }
+    
+    private ServiceUnavailableException(String serviceName, String message, Throwable cause,
+                                        boolean writableStackTrace, boolean notSent) {
+        super(message, cause, false, writableStackTrace);
+        this.serviceName = serviceName;
+        this.notSent = notSent;
+    }
+    
+    /**
+     * Exception for an expected failure of a downstream, such as an open circuit, a full
+     * concurrency limit or a timeout
+     * 
+     * Skips capturing the stack trace, which is the bulk of the cost of an exception and tells
+     * nothing new when the cause is known; a cause keeps its own stack trace.
+     * 
+     * @param serviceName Display name of the downstream
+     * @param message Error message
+     * @param cause Underlying failure, or null
+     * @return Exception without stack trace
+     */
+    public static ServiceUnavailableException withoutStackTrace(String serviceName, String message, Throwable cause) {
+        return new ServiceUnavailableException(serviceName, message, cause, false, false);
+    }
+    
+    /**
+     * Exception for a call turned away before anything was sent to the downstream, such as
+     * one beyond its concurrency limit; like {@link #withoutStackTrace} it has no stack trace
+     * 
+     * @param serviceName Display name of the downstream
+     * @param message Error message
+     * @return Exception without stack trace
+     */
+    public static ServiceUnavailableException notSent(String serviceName, String message) {
+        return new ServiceUnavailableException(serviceName, message, null, false, true);
     }
     
     public String getServiceName() {
         return serviceName;
     }
+    
+    /**
+     * Whether the call was turned away before anything was sent to the downstream
+     */
+    public boolean isNotSent() {
+        return notSent;
+    }
 }
@@ -0,0 +1,33 @@
+package com.alok.payment.paymentConsumer.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes the log lines shed by the logging pipeline as {@code logging.events.dropped}
+ *
+ * Tagged by reason: {@code sampled} for lines left out by {@link SamplingTurboFilter},
+ * {@code discarded} for INFO-and-below lines shed by {@link MeteredAsyncAppender} once its
+ * queue is nearly full, and {@code queue-full} for lines of any level that found it full.
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        register(registry, "sampled", SamplingTurboFilter.sampledOut());
+        register(registry, "discarded", MeteredAsyncAppender.discarded());
+        register(registry, "queue-full", MeteredAsyncAppender.queueFull());
+    }
+
+    private static void register(MeterRegistry registry, String reason, LongAdder count) {
+        FunctionCounter.builder("logging.events.dropped", count, LongAdder::sum)
+                .description("Log lines not written, by reason")
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
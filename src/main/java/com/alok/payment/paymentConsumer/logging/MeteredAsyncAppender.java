@@ -0,0 +1,49 @@
+package com.alok.payment.paymentConsumer.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback async appender that counts the events it sheds
+ *
+ * Behaves like {@link AsyncAppender}: once the queue is nearly full, events at INFO and
+ * below are discarded, and with {@code neverBlock} any event that finds the queue full is
+ * dropped instead of stalling the request thread. Both are counted here, for
+ * {@link LoggingMetrics} to publish; logback creates appenders before the application
+ * context exists, hence the static counters. Counts are approximate while the queue
+ * drains concurrently.
+ */
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    private static final LongAdder discarded = new LongAdder();
+    private static final LongAdder queueFull = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (isQueueBelowDiscardingThreshold() && isDiscardable(event)) {
+            discarded.increment();
+            return;
+        }
+        if (isNeverBlock() && getRemainingCapacity() == 0) {
+            queueFull.increment();
+            return;
+        }
+        super.append(event);
+    }
+
+    /**
+     * Events at INFO and below discarded because the queue was nearly full
+     */
+    static LongAdder discarded() {
+        return discarded;
+    }
+
+    /**
+     * Events dropped because the queue was full
+     */
+    static LongAdder queueFull() {
+        return queueFull;
+    }
+}
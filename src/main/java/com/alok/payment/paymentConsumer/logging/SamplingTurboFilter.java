@@ -0,0 +1,85 @@
+package com.alok.payment.paymentConsumer.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback turbo filter keeping one in {@code rate} INFO-and-below lines of each sampled logger
+ *
+ * Meant for loggers that write a line or two per request. Sampling is counted per logger,
+ * so a quiet logger under a sampled package still gets its share. WARN and ERROR lines,
+ * lines carrying an exception and lines of other loggers always pass. Runs before the event
+ * is built, so a sampled-out line costs a counter increment.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private static final LongAdder sampledOut = new LongAdder();
+
+    private List<String> loggers = List.of();
+    private int rate = 1;
+    private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Comma-separated logger names or package prefixes to sample
+     */
+    public void setLoggers(String loggers) {
+        this.loggers = Arrays.stream(loggers.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Keep one line in this many; 1 keeps every line
+     */
+    public void setRate(int rate) {
+        if (rate < 1) {
+            throw new IllegalArgumentException("Log sampling rate must be at least 1: " + rate);
+        }
+        this.rate = rate;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+                              Throwable t) {
+        // A null format is a level check (isInfoEnabled, atInfo), not a line; turbo filters
+        // run before the level check, so lines below the logger's level are not counted either
+        if (rate == 1 || format == null || t != null || level.toInt() > Level.INFO_INT
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel()) || !sampled(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        long count = counters.computeIfAbsent(logger.getName(), name -> new AtomicLong()).getAndIncrement();
+        if (count % rate == 0) {
+            return FilterReply.NEUTRAL;
+        }
+        sampledOut.increment();
+        return FilterReply.DENY;
+    }
+
+    private boolean sampled(String loggerName) {
+        for (String prefix : loggers) {
+            if (loggerName.startsWith(prefix)
+                    && (loggerName.length() == prefix.length() || loggerName.charAt(prefix.length()) == '.')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lines left out by sampling
+     */
+    static LongAdder sampledOut() {
+        return sampledOut;
+    }
+}
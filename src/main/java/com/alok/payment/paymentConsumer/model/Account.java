@@ -30,6 +30,16 @@ public class Account {
         this.status = status;
     }
 
+    /**
+     * Copy of another account
+     */
+    public Account(Account other) {
+        this(other.customerId, other.accountNumber, other.accountType, other.balance, other.currency, other.status);
+        this.customerName = other.customerName;
+        this.email = other.email;
+        this.phoneNumber = other.phoneNumber;
+    }
+
     public String getCustomerId() {
         return customerId;
     }
@@ -7,5 +7,22 @@ public enum PaymentStatus {
     ACCOUNT_VALIDATION_FAILED,
     PROCESSING,
     COMPLETED,
-    FAILED
+    FAILED;
+
+    /**
+     * Whether the payment ended unsuccessfully
+     */
+    public boolean isFailure() {
+        return this == FAILED
+                || this == FRAUD_CHECK_FAILED
+                || this == INSUFFICIENT_BALANCE
+                || this == ACCOUNT_VALIDATION_FAILED;
+    }
+
+    /**
+     * Whether the payment reached a final status that will not change any more
+     */
+    public boolean isTerminal() {
+        return this == COMPLETED || isFailure();
+    }
 }
@@ -0,0 +1,46 @@
+package com.alok.payment.paymentConsumer.repository;
+
+import com.alok.payment.paymentConsumer.model.Account;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+/**
+ * Durable storage of customer accounts
+ * A customer holds one account and account numbers are unique, so both lookups are by key
+ */
+public interface AccountStore {
+
+    /**
+     * Find the account of a customer
+     *
+     * @param customerId Customer ID
+     * @return Account, or empty if the customer has none
+     */
+    Optional<Account> findByCustomerId(String customerId);
+
+    /**
+     * Find an account by its account number
+     *
+     * @param accountNumber Account number
+     * @return Account, or empty if there is no such account
+     */
+    Optional<Account> findByAccountNumber(String accountNumber);
+
+    /**
+     * Create or update the account of a customer
+     *
+     * @param account Account to save
+     * @return Saved account
+     */
+    Account save(Account account);
+
+    /**
+     * Subtract an amount from the balance of a customer's account in one atomic step
+     *
+     * @param customerId Customer ID
+     * @param amount Amount to subtract
+     * @return Account with its new balance, or empty if the customer has none
+     */
+    Optional<Account> debit(String customerId, BigDecimal amount);
+}
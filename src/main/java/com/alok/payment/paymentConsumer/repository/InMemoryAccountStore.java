@@ -0,0 +1,116 @@
+package com.alok.payment.paymentConsumer.repository;
+
+import com.alok.payment.paymentConsumer.model.Account;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory account store for local runs and tests
+ * Not durable; every account is held on the heap. Stored accounts are never changed: saves
+ * keep a copy and debits replace the account, so accounts handed out can be shared safely.
+ */
+public class InMemoryAccountStore implements AccountStore {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryAccountStore.class);
+
+    private final Map<String, Account> accountsById = new ConcurrentHashMap<>();
+    private final Map<String, String> customerIdsByAccountNumber = new ConcurrentHashMap<>();
+
+    /**
+     * Store seeded with the demo accounts
+     */
+    public static InMemoryAccountStore withDemoAccounts() {
+        InMemoryAccountStore store = new InMemoryAccountStore();
+        store.initializeDemoAccounts();
+        return store;
+    }
+
+    @Override
+    public Optional<Account> findByCustomerId(String customerId) {
+        return Optional.ofNullable(accountsById.get(customerId));
+    }
+
+    @Override
+    public Optional<Account> findByAccountNumber(String accountNumber) {
+        return Optional.ofNullable(customerIdsByAccountNumber.get(accountNumber))
+                .map(accountsById::get)
+                .filter(account -> Objects.equals(account.getAccountNumber(), accountNumber));
+    }
+
+    @Override
+    public Account save(Account account) {
+        account = new Account(account);
+        Account previous = accountsById.put(account.getCustomerId(), account);
+        if (previous != null && !Objects.equals(previous.getAccountNumber(), account.getAccountNumber())) {
+            customerIdsByAccountNumber.remove(previous.getAccountNumber(), previous.getCustomerId());
+        }
+        if (account.getAccountNumber() != null) {
+            customerIdsByAccountNumber.put(account.getAccountNumber(), account.getCustomerId());
+        }
+        return account;
+    }
+
+    @Override
+    public Optional<Account> debit(String customerId, BigDecimal amount) {
+        return Optional.ofNullable(accountsById.computeIfPresent(customerId, (id, account) -> {
+            Account debited = new Account(account);
+            debited.setBalance(account.getBalance().subtract(amount));
+            return debited;
+        }));
+    }
+
+    /**
+     * Initialize demo accounts for testing
+     */
+    private void initializeDemoAccounts() {
+        // Demo account 1
+        Account account1 = new Account(
+                "CUST001",
+                "ACC001",
+                "SAVINGS",
+                new BigDecimal("10000.00"),
+                "USD",
+                "ACTIVE"
+        );
+        account1.setCustomerName("John Doe");
+        account1.setEmail("john.doe@example.com");
+        account1.setPhoneNumber("+1234567890");
+        save(account1);
+
+        // Demo account 2
+        Account account2 = new Account(
+                "CUST002",
+                "ACC002",
+                "CHECKING",
+                new BigDecimal("5000.00"),
+                "USD",
+                "ACTIVE"
+        );
+        account2.setCustomerName("Jane Smith");
+        account2.setEmail("jane.smith@example.com");
+        account2.setPhoneNumber("+1234567891");
+        save(account2);
+
+        // Demo account 3
+        Account account3 = new Account(
+                "CUST003",
+                "ACC003",
+                "SAVINGS",
+                new BigDecimal("15000.00"),
+                "USD",
+                "ACTIVE"
+        );
+        account3.setCustomerName("Bob Johnson");
+        account3.setEmail("bob.johnson@example.com");
+        account3.setPhoneNumber("+1234567892");
+        save(account3);
+
+        log.info("Initialized {} demo accounts", accountsById.size());
+    }
+}
@@ -0,0 +1,103 @@
+package com.alok.payment.paymentConsumer.repository;
+
+import com.alok.payment.paymentConsumer.model.Account;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+/**
+ * Account store on the relational {@code accounts} table
+ *
+ * Both lookups hit a unique index (customer_id, account_number), so the table can grow
+ * to millions of rows without the service holding them in memory.
+ */
+public class JdbcAccountStore implements AccountStore {
+
+    private static final String COLUMNS = "customer_id, account_number, account_type, balance, currency, status, "
+            + "customer_name, email, phone_number";
+
+    private static final RowMapper<Account> ACCOUNT_MAPPER = (rs, rowNum) -> {
+        Account account = new Account(
+                rs.getString("customer_id"),
+                rs.getString("account_number"),
+                rs.getString("account_type"),
+                rs.getBigDecimal("balance"),
+                rs.getString("currency"),
+                rs.getString("status"));
+        account.setCustomerName(rs.getString("customer_name"));
+        account.setEmail(rs.getString("email"));
+        account.setPhoneNumber(rs.getString("phone_number"));
+        return account;
+    };
+
+    private final JdbcClient jdbcClient;
+
+    public JdbcAccountStore(JdbcClient jdbcClient) {
+        this.jdbcClient = jdbcClient;
+    }
+
+    @Override
+    public Optional<Account> findByCustomerId(String customerId) {
+        return jdbcClient.sql("SELECT " + COLUMNS + " FROM accounts WHERE customer_id = :customerId")
+                .param("customerId", customerId)
+                .query(ACCOUNT_MAPPER)
+                .optional();
+    }
+
+    @Override
+    public Optional<Account> findByAccountNumber(String accountNumber) {
+        return jdbcClient.sql("SELECT " + COLUMNS + " FROM accounts WHERE account_number = :accountNumber")
+                .param("accountNumber", accountNumber)
+                .query(ACCOUNT_MAPPER)
+                .optional();
+    }
+
+    @Override
+    public Account save(Account account) {
+        // Update first: saves of existing accounts are the common case and need no upsert syntax
+        if (update(account) == 0) {
+            try {
+                insert(account);
+            } catch (DuplicateKeyException ex) {
+                // Inserted concurrently by another writer
+                if (update(account) == 0) {
+                    throw ex;
+                }
+            }
+        }
+        return account;
+    }
+
+    @Override
+    public Optional<Account> debit(String customerId, BigDecimal amount) {
+        // Relative update, so concurrent debits of one account never overwrite each other
+        int updated = jdbcClient.sql("""
+                        UPDATE accounts SET balance = balance - :amount, updated_at = CURRENT_TIMESTAMP
+                        WHERE customer_id = :customerId""")
+                .param("amount", amount)
+                .param("customerId", customerId)
+                .update();
+        return updated == 0 ? Optional.empty() : findByCustomerId(customerId);
+    }
+
+    private int update(Account account) {
+        return jdbcClient.sql("""
+                        UPDATE accounts SET account_number = :accountNumber, account_type = :accountType,
+                               balance = :balance, currency = :currency, status = :status,
+                               customer_name = :customerName, email = :email, phone_number = :phoneNumber,
+                               updated_at = CURRENT_TIMESTAMP
+                        WHERE customer_id = :customerId""")
+                .paramSource(account)
+                .update();
+    }
+
+    private void insert(Account account) {
+        jdbcClient.sql("INSERT INTO accounts (" + COLUMNS + ") VALUES (:customerId, :accountNumber, :accountType, "
+                        + ":balance, :currency, :status, :customerName, :email, :phoneNumber)")
+                .paramSource(account)
+                .update();
+    }
+}
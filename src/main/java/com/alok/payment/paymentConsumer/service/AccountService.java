@@ -1,35 +1,89 @@
 package com.alok.payment.paymentConsumer.service;
 
+import com.alok.payment.paymentConsumer.config.AccountStoreProperties;
+import com.alok.payment.paymentConsumer.exception.PaymentProcessingException;
+import com.alok.payment.paymentConsumer.exception.ResourceNotFoundException;
 import com.alok.payment.paymentConsumer.model.Account;
+import com.alok.payment.paymentConsumer.model.PaymentStatus;
+import com.alok.payment.paymentConsumer.repository.AccountStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.Clock;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service for managing customer accounts
- * In-memory implementation for demo purposes
- * In production, this would connect to an account database or service
+ *
+ * Accounts are read from the {@link AccountStore} through a bounded cache of hot accounts
+ * keyed by customer ID, with a secondary index from account number to customer ID, so the
+ * heap holds only recently used accounts however many the store has. Concurrent misses for
+ * the same key share one store read. Saves go to the store and then refresh both caches;
+ * changes made directly in the store are picked up once the cached entry expires. A cached
+ * account gets a new version on every save, debit or eviction, so readers can tell whether
+ * it changed without comparing it. Cached accounts are shared with callers and never
+ * changed; a debit caches the account the store returns in their place.
+ *
+ * Payments hold their amount on the customer's balance before the processor is called
+ * and settle the hold from the processor's answer: completed payments are debited,
+ * failed ones released, and holds nobody settles, including those of payments whose
+ * processor call ended without a certain outcome, expire after a timeout.
  */
 @Service
 public class AccountService {
     
     private static final Logger log = LoggerFactory.getLogger(AccountService.class);
     
-    // In-memory storage for demo purposes
-    private final Map<String, Account> accountsById = new ConcurrentHashMap<>();
+    private final AccountStore accountStore;
+    private final Cache<String, Account> accountsById;
+    private final Cache<String, String> customerIdsByAccountNumber;
+    private final Cache<String, Long> versions;
+    private final AtomicLong lastVersion = new AtomicLong();
+    private final BalanceReservations reservations;
     
-    public AccountService() {
-        // Initialize with some demo accounts
-        initializeDemoAccounts();
+    @Autowired
+    public AccountService(AccountStore accountStore, AccountStoreProperties properties, MeterRegistry meterRegistry) {
+        this(accountStore, properties, meterRegistry, Clock.systemUTC());
+    }
+    
+    AccountService(AccountStore accountStore, AccountStoreProperties properties, MeterRegistry meterRegistry,
+                   Clock clock) {
+        this.accountStore = accountStore;
+        // A dropped version is never reissued, so readers holding it see a change
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(properties.getCache().getMaximumAccounts())
+                .build();
+        this.accountsById = Caffeine.newBuilder()
+                .maximumSize(properties.getCache().getMaximumAccounts())
+                .expireAfterWrite(properties.getCache().getExpireAfterWrite())
+                .evictionListener((String customerId, Account account, RemovalCause cause) ->
+                        versions.invalidate(customerId))
+                .recordStats()
+                .build();
+        this.customerIdsByAccountNumber = Caffeine.newBuilder()
+                .maximumSize(properties.getCache().getMaximumAccounts())
+                .expireAfterWrite(properties.getCache().getExpireAfterWrite())
+                .recordStats()
+                .build();
+        
+        CaffeineCacheMetrics.monitor(meterRegistry, accountsById, "accounts");
+        CaffeineCacheMetrics.monitor(meterRegistry, customerIdsByAccountNumber, "accounts.byNumber");
+        this.reservations = new BalanceReservations(properties.getHolds().getTimeout(),
+                properties.getHolds().getSweepInterval(), clock, meterRegistry);
     }
     
     /**
      * Get account by customer ID
-     * 
+     *
      * @param customerId Customer ID
      * @return Account or null if not found
      */
@@ -39,12 +93,41 @@ public class AccountService {
             return null;
         }
         
-        Account account = accountsById.get(customerId);
+        Account account = accountsById.get(customerId, id -> accountStore.findByCustomerId(id).orElse(null));
         
         if (account == null) {
             log.warn("No account found for customer ID: {}", customerId);
         } else {
-            log.info("Found account for customer ID: {}", customerId);
+            log.debug("Found account for customer ID: {}", customerId);
+        }
+        
+        return account;
+    }
+    
+    /**
+     * Get account by account number
+     *
+     * @param accountNumber Account number
+     * @return Account or null if not found
+     */
+    public Account getAccountByAccountNumber(String accountNumber) {
+        if (accountNumber == null || accountNumber.trim().isEmpty()) {
+            log.warn("Null or empty account number provided");
+            return null;
+        }
+        
+        String customerId = customerIdsByAccountNumber.get(accountNumber, this::loadCustomerIdByAccountNumber);
+        Account account = customerId == null ? null : getAccountByCustomerId(customerId);
+        
+        if (account != null && !accountNumber.equals(account.getAccountNumber())) {
+            // The customer's account number changed since it was indexed
+            customerIdsByAccountNumber.invalidate(accountNumber);
+            customerId = customerIdsByAccountNumber.get(accountNumber, this::loadCustomerIdByAccountNumber);
+            account = customerId == null ? null : accountsById.getIfPresent(customerId);
+        }
+        
+        if (account == null) {
+            log.warn("No account found for account number: {}", accountNumber);
         }
         
         return account;
@@ -52,7 +135,7 @@ public class AccountService {
     
     /**
      * Create or update an account
-     * 
+     *
      * @param account Account to save
      * @return Saved account
      */
@@ -64,58 +147,158 @@ public class AccountService {
             throw new IllegalArgumentException("Customer ID cannot be null or empty");
         }
         
-        accountsById.put(account.getCustomerId(), account);
+        Account saved = accountStore.save(account);
+        accountsById.put(saved.getCustomerId(), saved);
+        versions.invalidate(saved.getCustomerId());
+        reservations.rebase(saved.getCustomerId(), saved.getBalance());
+        if (saved.getAccountNumber() != null) {
+            customerIdsByAccountNumber.put(saved.getAccountNumber(), saved.getCustomerId());
+        }
         log.info("Account saved for customer ID: {}", account.getCustomerId());
         
-        return account;
+        return saved;
     }
     
     /**
-     * Initialize demo accounts for testing
+     * Version of a customer's account, changed whenever the cached account is saved, debited,
+     * replaced by a store read or evicted
+     * Read the version before the account: an account read after its version is at least as
+     * recent as that version.
+     *
+     * @param customerId Customer ID
+     * @return Version, comparable for equality only
      */
-    private void initializeDemoAccounts() {
-        // Demo account 1
-        Account account1 = new Account(
-                "CUST001",
-                "ACC001",
-                "SAVINGS",
-                new BigDecimal("10000.00"),
-                "USD",
-                "ACTIVE"
-        );
-        account1.setCustomerName("John Doe");
-        account1.setEmail("john.doe@example.com");
-        account1.setPhoneNumber("+1234567890");
-        accountsById.put(account1.getCustomerId(), account1);
-        
-        // Demo account 2
-        Account account2 = new Account(
-                "CUST002",
-                "ACC002",
-                "CHECKING",
-                new BigDecimal("5000.00"),
-                "USD",
-                "ACTIVE"
-        );
-        account2.setCustomerName("Jane Smith");
-        account2.setEmail("jane.smith@example.com");
-        account2.setPhoneNumber("+1234567891");
-        accountsById.put(account2.getCustomerId(), account2);
+    public long getAccountVersion(String customerId) {
+        return versions.get(customerId, id -> lastVersion.incrementAndGet());
+    }
+    
+    /**
+     * Hold an amount on a customer's available balance
+     *
+     * @param customerId Customer ID
+     * @param amount Amount to hold
+     * @return Hold to settle once the payment has an outcome
+     * @throws PaymentProcessingException if the available balance does not cover the amount
+     */
+    public BalanceHold reserveBalance(String customerId, BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Amount to hold must be positive");
+        }
+        if (getAccountByCustomerId(customerId) == null) {
+            throw new ResourceNotFoundException("Account not found for customer: " + customerId);
+        }
         
-        // Demo account 3
-        Account account3 = new Account(
-                "CUST003",
-                "ACC003",
-                "SAVINGS",
-                new BigDecimal("15000.00"),
-                "USD",
-                "ACTIVE"
-        );
-        account3.setCustomerName("Bob Johnson");
-        account3.setEmail("bob.johnson@example.com");
-        account3.setPhoneNumber("+1234567892");
-        accountsById.put(account3.getCustomerId(), account3);
+        BalanceHold hold = reservations.reserve(customerId, amount, id -> {
+            // The version is read first, so an unchanged version means the balance is still current
+            long version = getAccountVersion(id);
+            BigDecimal balance = Objects.requireNonNullElse(settledBalance(id), BigDecimal.ZERO);
+            return new BalanceReservations.SettledBalance(balance, () -> getAccountVersion(id) == version);
+        });
+        if (hold == null) {
+            log.warn("Available balance of customer {} does not cover {}", customerId, amount);
+            throw new PaymentProcessingException("Insufficient balance");
+        }
         
-        log.info("Initialized {} demo accounts", accountsById.size());
+        return hold;
+    }
+    
+    /**
+     * Settle a hold from the processor's answer
+     * Completed payments are debited and failed ones released; any other status keeps the
+     * hold until a status lookup of the transaction reports a final status, or it expires.
+     *
+     * @param hold Hold placed for the payment
+     * @param status Payment status reported by the processor
+     * @param transactionId Processor transaction ID, if any
+     */
+    public void settleHold(BalanceHold hold, PaymentStatus status, String transactionId) {
+        if (status == PaymentStatus.COMPLETED) {
+            reservations.commit(hold, () -> debit(hold));
+        } else if (status != null && status.isFailure()) {
+            reservations.release(hold);
+        } else if (transactionId != null) {
+            reservations.awaitTransaction(hold, transactionId);
+        }
+    }
+    
+    /**
+     * Settle the hold waiting on a processor transaction, if there is one
+     *
+     * @param transactionId Processor transaction ID
+     * @param status Latest payment status reported by the processor
+     */
+    public void settleHold(String transactionId, PaymentStatus status) {
+        BalanceHold hold = reservations.forTransaction(transactionId);
+        if (hold != null) {
+            settleHold(hold, status, transactionId);
+        }
+    }
+    
+    /**
+     * Release a hold whose payment certainly did not reach the processor or was refused by it
+     * A payment whose outcome is unknown keeps its hold until it expires.
+     *
+     * @param hold Hold to release
+     */
+    public void releaseHold(BalanceHold hold) {
+        reservations.release(hold);
+    }
+    
+    /**
+     * Balance of a customer's account that is not held by payments in flight
+     *
+     * @param customerId Customer ID
+     * @return Available balance or null if the customer has no account
+     */
+    public BigDecimal getAvailableBalance(String customerId) {
+        BigDecimal available = reservations.available(customerId);
+        return available != null ? available : settledBalance(customerId);
+    }
+    
+    int activeHolds() {
+        return reservations.activeHolds();
+    }
+    
+    /**
+     * Write a committed hold to the store and refresh the cached account
+     * A failed write is logged rather than thrown: the processor has already moved the money.
+     *
+     * @return Balance the store holds after the debit, or null if unknown
+     */
+    private BigDecimal debit(BalanceHold hold) {
+        try {
+            Account account = accountStore.debit(hold.getCustomerId(), hold.getAmount()).orElse(null);
+            if (account == null) {
+                accountsById.invalidate(hold.getCustomerId());
+                return null;
+            }
+            accountsById.put(account.getCustomerId(), account);
+            return account.getBalance();
+        } catch (RuntimeException ex) {
+            accountsById.invalidate(hold.getCustomerId());
+            log.error("Failed to record debit of {} for customer {} (hold {})",
+                    hold.getAmount(), hold.getCustomerId(), hold.getId(), ex);
+            return null;
+        } finally {
+            versions.invalidate(hold.getCustomerId());
+        }
+    }
+    
+    private BigDecimal settledBalance(String customerId) {
+        Account account = getAccountByCustomerId(customerId);
+        return account == null ? null : account.getBalance();
+    }
+    
+    /**
+     * Resolve an account number from the store, caching the account it finds on the way
+     */
+    private String loadCustomerIdByAccountNumber(String accountNumber) {
+        return accountStore.findByAccountNumber(accountNumber)
+                .map(account -> {
+                    accountsById.put(account.getCustomerId(), account);
+                    versions.invalidate(account.getCustomerId());
+                    return account.getCustomerId();
+                })
+                .orElse(null);
     }
 }
@@ -0,0 +1,274 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.client.AsyncBeneficiariesClient;
+import com.alok.payment.paymentConsumer.client.AsyncPaymentProcessorClient;
+import com.alok.payment.paymentConsumer.client.DownstreamFailures;
+import com.alok.payment.paymentConsumer.dto.PaymentProcessorRequest;
+import com.alok.payment.paymentConsumer.dto.PaymentRequest;
+import com.alok.payment.paymentConsumer.dto.PaymentResponse;
+import com.alok.payment.paymentConsumer.exception.ResourceNotFoundException;
+import com.alok.payment.paymentConsumer.model.Account;
+import com.alok.payment.paymentConsumer.model.Beneficiary;
+import com.alok.payment.paymentConsumer.service.PaymentStageMetrics.Stage;
+import com.alok.payment.paymentConsumer.tracing.CurrentTrace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Non-blocking variant of {@link PaymentConsumerService}
+ *
+ * Downstream calls go through the asynchronous clients and are composed as futures, so no
+ * thread waits on the beneficiaries or payment processor services. Account work that
+ * follows a downstream answer, i.e. holding the balance after the beneficiary check and
+ * settling or releasing the hold after the processor call, may hit the account store, so it
+ * continues on a virtual thread of its own rather than on the HTTP client's completion
+ * threads. Beneficiary lookups go straight to the service instead of through
+ * {@link BeneficiaryCache}; payment statuses share the {@link PaymentStatusCache} of the
+ * blocking service. Failures complete the returned future with the same exceptions the
+ * blocking service throws.
+ *
+ * The REST API is served by the blocking service; this bean is the entry point for callers
+ * composing payments in code.
+ */
+@Service
+public class AsyncPaymentConsumerService {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncPaymentConsumerService.class);
+
+    private final AsyncBeneficiariesClient beneficiariesClient;
+    private final AsyncPaymentProcessorClient paymentProcessorClient;
+    private final AccountService accountService;
+    private final PaymentValidationStage validationStage;
+    private final PaymentStatusCache statusCache;
+    private final PaymentStageMetrics stageMetrics;
+    private final Executor accountStoreExecutor;
+
+    public AsyncPaymentConsumerService(
+            AsyncBeneficiariesClient beneficiariesClient,
+            AsyncPaymentProcessorClient paymentProcessorClient,
+            AccountService accountService,
+            PaymentValidationStage validationStage,
+            PaymentStatusCache statusCache,
+            PaymentStageMetrics stageMetrics) {
+        this.beneficiariesClient = beneficiariesClient;
+        this.paymentProcessorClient = paymentProcessorClient;
+        this.accountService = accountService;
+        this.validationStage = validationStage;
+        this.statusCache = statusCache;
+        this.stageMetrics = stageMetrics;
+        Executor virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+        this.accountStoreExecutor = task -> virtualThreads.execute(CurrentTrace.wrap(task));
+    }
+
+    /**
+     * Get beneficiaries for a customer
+     *
+     * @param customerId Customer ID
+     * @param accountNumber Account number (optional)
+     * @return List of beneficiaries
+     */
+    public CompletableFuture<List<Beneficiary>> getBeneficiaries(String customerId, String accountNumber) {
+        if (customerId == null || customerId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Customer ID cannot be null or empty");
+        }
+
+        log.atInfo()
+                .addKeyValue("customerId", customerId)
+                .addKeyValue("accountNumber", accountNumber)
+                .log("Retrieving beneficiaries");
+
+        try {
+            requireAccount(customerId);
+            return beneficiariesClient.getBeneficiaries(customerId, accountNumber);
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Process a payment
+     *
+     * The beneficiary lookup is started first and the account is checked while it is in
+     * flight; the balance is held and the payment submitted once both checks pass.
+     *
+     * @param paymentRequest Payment request
+     * @return Payment response
+     */
+    public CompletableFuture<PaymentResponse> processPayment(PaymentRequest paymentRequest) {
+        if (paymentRequest == null) {
+            throw new IllegalArgumentException("Payment request cannot be null");
+        }
+
+        log.atInfo()
+                .addKeyValue("customerId", paymentRequest.getCustomerId())
+                .addKeyValue("fromAccount", paymentRequest.getFromAccount())
+                .addKeyValue("toAccount", paymentRequest.getToAccount())
+                .addKeyValue("amount", paymentRequest.getAmount())
+                .log("Processing payment");
+
+        PaymentStageMetrics.Recording recording = stageMetrics.start(paymentRequest.getPaymentType());
+        CompletableFuture<Void> beneficiaryCheck = validateBeneficiary(paymentRequest);
+        try {
+            validationStage.validatePaymentRequest(paymentRequest);
+        } catch (RuntimeException ex) {
+            beneficiaryCheck.cancel(false);
+            recording.fail(ex);
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        return beneficiaryCheck
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        recording.fail(error);
+                    }
+                })
+                .thenComposeAsync(ignored -> {
+                    recording.stage(Stage.VALIDATION);
+                    return submitValidatedPayment(paymentRequest, recording);
+                }, accountStoreExecutor);
+    }
+
+    /**
+     * Submit an already validated payment to the payment processor
+     *
+     * @param paymentRequest Validated payment request
+     * @return Payment response
+     */
+    public CompletableFuture<PaymentResponse> submitValidatedPayment(PaymentRequest paymentRequest) {
+        return submitValidatedPayment(paymentRequest, stageMetrics.start(paymentRequest.getPaymentType()));
+    }
+
+    private CompletableFuture<PaymentResponse> submitValidatedPayment(PaymentRequest paymentRequest,
+                                                                      PaymentStageMetrics.Recording recording) {
+        PaymentProcessorRequest processorRequest;
+        BalanceHold hold;
+        try {
+            processorRequest = PaymentProcessorRequest.from(paymentRequest);
+            recording.stage(Stage.REQUEST_BUILDING);
+            // Hold the amount first, so concurrent payments from one account cannot spend the same balance
+            hold = accountService.reserveBalance(paymentRequest.getCustomerId(), paymentRequest.getAmount());
+            recording.stage(Stage.BALANCE_HOLD);
+        } catch (RuntimeException ex) {
+            recording.fail(ex);
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        CompletableFuture<PaymentResponse> response;
+        try {
+            response = paymentProcessorClient.processPayment(processorRequest);
+        } catch (RuntimeException ex) {
+            accountService.releaseHold(hold);
+            recording.fail(ex);
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        return response.whenCompleteAsync((processed, error) -> {
+            recording.stage(Stage.PROCESSOR_CALL);
+            if (error != null) {
+                // A timed out or dropped call may still have moved the money; its hold then stays until it expires
+                if (DownstreamFailures.isDefiniteFailure(error)) {
+                    accountService.releaseHold(hold);
+                }
+                recording.fail(error);
+                return;
+            }
+            accountService.settleHold(hold, processed.getStatus(), processed.getTransactionId());
+            statusCache.put(processed);
+            recording.stage(Stage.SETTLEMENT);
+            recording.finish(processed.getStatus());
+            log.atInfo()
+                    .addKeyValue("customerId", paymentRequest.getCustomerId())
+                    .addKeyValue("transactionId", processed.getTransactionId())
+                    .addKeyValue("status", processed.getStatus())
+                    .log("Payment processed");
+        }, accountStoreExecutor);
+    }
+
+    /**
+     * Get payment status
+     *
+     * @param transactionId Transaction ID
+     * @param customerId Customer ID
+     * @return Payment response with status
+     */
+    public CompletableFuture<PaymentResponse> getPaymentStatus(String transactionId, String customerId) {
+        if (transactionId == null || transactionId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Transaction ID cannot be null or empty");
+        }
+        if (customerId == null || customerId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Customer ID cannot be null or empty");
+        }
+
+        log.atInfo()
+                .addKeyValue("transactionId", transactionId)
+                .addKeyValue("customerId", customerId)
+                .log("Retrieving payment status");
+
+        CompletableFuture<PaymentResponse> response;
+        try {
+            requireAccount(customerId);
+            PaymentResponse cached = statusCache.get(transactionId);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+            response = paymentProcessorClient.getPaymentStatus(transactionId);
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        return response.thenApplyAsync(status -> {
+            if (status == null) {
+                throw new ResourceNotFoundException("Payment not found for transaction ID: " + transactionId);
+            }
+            // A payment still pending at submission settles its balance hold once it reaches a final status
+            accountService.settleHold(transactionId, status.getStatus());
+            statusCache.put(status);
+            return status;
+        }, accountStoreExecutor);
+    }
+
+    /**
+     * Check the beneficiary, if one is given, with the same graceful degradation as
+     * {@link PaymentValidationStage#validateBeneficiary(PaymentRequest, java.util.function.Supplier)}
+     */
+    private CompletableFuture<Void> validateBeneficiary(PaymentRequest paymentRequest) {
+        if (paymentRequest.getBeneficiaryId() == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Beneficiary> lookup;
+        try {
+            lookup = beneficiariesClient.getBeneficiaryById(
+                    paymentRequest.getBeneficiaryId(), paymentRequest.getCustomerId());
+        } catch (RuntimeException ex) {
+            lookup = CompletableFuture.failedFuture(ex);
+        }
+
+        return lookup.handle((beneficiary, error) -> {
+            validationStage.validateBeneficiary(paymentRequest, () -> {
+                if (error == null) {
+                    return beneficiary;
+                }
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                throw cause instanceof RuntimeException runtimeException
+                        ? runtimeException : new CompletionException(cause);
+            });
+            return null;
+        });
+    }
+
+    private void requireAccount(String customerId) {
+        Account account = accountService.getAccountByCustomerId(customerId);
+        if (account == null) {
+            throw new ResourceNotFoundException("Account not found for customer: " + customerId);
+        }
+    }
+}
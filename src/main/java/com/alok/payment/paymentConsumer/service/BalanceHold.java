@@ -0,0 +1,84 @@
+package com.alok.payment.paymentConsumer.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Amount set aside on a customer's balance for one payment in flight
+ *
+ * A hold ends exactly once: committed when the payment completes, released when it fails,
+ * or expired when it is not settled before its deadline.
+ */
+public final class BalanceHold {
+
+    enum State {
+        ACTIVE,
+        COMMITTED,
+        RELEASED,
+        EXPIRED
+    }
+
+    private final String id;
+    private final String customerId;
+    private final BigDecimal amount;
+    private final Instant expiresAt;
+    private final AtomicReference<State> state = new AtomicReference<>(State.ACTIVE);
+    private volatile String transactionId;
+
+    BalanceHold(String id, String customerId, BigDecimal amount, Instant expiresAt) {
+        this.id = id;
+        this.customerId = customerId;
+        this.amount = amount;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Processor transaction the hold waits on, once the processor has accepted the payment
+     */
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public boolean isActive() {
+        return state.get() == State.ACTIVE;
+    }
+
+    State state() {
+        return state.get();
+    }
+
+    void setTransactionId(String transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    boolean transition(State from, State to) {
+        return state.compareAndSet(from, to);
+    }
+
+    boolean isExpiredAt(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+
+    @Override
+    public String toString() {
+        return "BalanceHold{id=" + id + ", customerId=" + customerId + ", amount=" + amount
+                + ", state=" + state.get() + "}";
+    }
+}
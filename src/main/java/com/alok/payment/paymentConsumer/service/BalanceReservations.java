@@ -0,0 +1,285 @@
+package com.alok.payment.paymentConsumer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Holds on available balance, per customer account
+ *
+ * Each account with open holds has a position of its settled balance and the total held
+ * against it. A position changes only inside {@link ConcurrentHashMap#compute}, which
+ * serializes updates per key without a lock around the whole ledger, so payments on
+ * different accounts never wait for each other and payments on one account cannot both
+ * spend the same balance. Only in-memory arithmetic runs there: balances are read from
+ * the account cache or store beforehand. A position is dropped once nothing is held, so
+ * memory follows the payments in flight rather than the number of accounts.
+ *
+ * A commit subtracts the amount from the store before it leaves the position, so a
+ * position rebuilt from the account cache afterwards already sees the new balance. A
+ * position being created checks that the balance it was read with is still current, and
+ * is read again otherwise. Saves and debits refresh the settled balance of an existing
+ * position, so changes made in the store meanwhile show in the available balance.
+ */
+final class BalanceReservations {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceReservations.class);
+
+    private final Map<String, Position> positions = new ConcurrentHashMap<>();
+    private final Map<String, BalanceHold> holds = new ConcurrentHashMap<>();
+    private final Map<String, BalanceHold> holdsByTransaction = new ConcurrentHashMap<>();
+    private final Duration timeout;
+    private final long sweepIntervalMillis;
+    private final Clock clock;
+    private final AtomicLong nextSweep;
+    private final AtomicLong holdIds = new AtomicLong();
+    private final Counter reserved;
+    private final Counter rejected;
+    private final Counter committed;
+    private final Counter released;
+    private final Counter expired;
+
+    BalanceReservations(Duration timeout, Duration sweepInterval, Clock clock, MeterRegistry meterRegistry) {
+        this.timeout = timeout;
+        this.sweepIntervalMillis = sweepInterval.toMillis();
+        this.clock = clock;
+        this.nextSweep = new AtomicLong(clock.millis() + sweepIntervalMillis);
+        this.reserved = counter(meterRegistry, "reserved");
+        this.rejected = counter(meterRegistry, "rejected");
+        this.committed = counter(meterRegistry, "committed");
+        this.released = counter(meterRegistry, "released");
+        this.expired = counter(meterRegistry, "expired");
+        Gauge.builder("accounts.holds.active", holds, Map::size)
+                .description("Balance holds waiting to be settled")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hold an amount if the account's available balance covers it
+     *
+     * @param customerId Customer ID
+     * @param amount Amount to hold
+     * @param settledBalance Reads the current balance of the account, for when it has no position yet
+     * @return Hold, or null if the available balance is too low
+     */
+    BalanceHold reserve(String customerId, BigDecimal amount, Function<String, SettledBalance> settledBalance) {
+        sweepIfDue();
+
+        AtomicBoolean granted = new AtomicBoolean();
+        AtomicBoolean stale = new AtomicBoolean();
+        do {
+            SettledBalance settled = settledBalance.apply(customerId);
+            stale.set(false);
+            positions.compute(customerId, (id, position) -> {
+                if (position == null && !settled.current().getAsBoolean()) {
+                    stale.set(true);
+                    return null;
+                }
+                Position current = position != null ? position : new Position(settled.balance(), BigDecimal.ZERO, 0);
+                if (current.available().compareTo(amount) < 0) {
+                    return position;
+                }
+                granted.set(true);
+                return new Position(current.balance(), current.held().add(amount), current.debiting());
+            });
+        } while (stale.get());
+
+        if (!granted.get()) {
+            rejected.increment();
+            return null;
+        }
+
+        BalanceHold hold = new BalanceHold(Long.toString(holdIds.incrementAndGet()), customerId, amount,
+                clock.instant().plus(timeout));
+        holds.put(hold.getId(), hold);
+        reserved.increment();
+        return hold;
+    }
+
+    /**
+     * Turn a hold into a debit of the settled balance
+     * A hold that already expired is still debited: the processor moved the money regardless.
+     *
+     * @param hold Hold to commit
+     * @param debit Writes the debit to the account store and returns the balance it leaves,
+     *              or null if that is unknown
+     * @return Whether this call committed the hold
+     */
+    boolean commit(BalanceHold hold, Supplier<BigDecimal> debit) {
+        BigDecimal stillHeld;
+        if (hold.transition(BalanceHold.State.ACTIVE, BalanceHold.State.COMMITTED)) {
+            stillHeld = hold.getAmount();
+        } else if (hold.transition(BalanceHold.State.EXPIRED, BalanceHold.State.COMMITTED)) {
+            log.warn("Committing expired balance hold {} for customer: {}", hold.getId(), hold.getCustomerId());
+            stillHeld = BigDecimal.ZERO;
+        } else {
+            return false;
+        }
+
+        AtomicBoolean counted = new AtomicBoolean();
+        positions.computeIfPresent(hold.getCustomerId(), (id, position) -> {
+            counted.set(true);
+            return new Position(position.balance(), position.held(), position.debiting() + 1);
+        });
+        BigDecimal balance = null;
+        try {
+            balance = debit.get();
+        } finally {
+            settle(hold, hold.getAmount(), stillHeld, counted.get() ? balance : null, counted.get());
+            committed.increment();
+        }
+        return true;
+    }
+
+    /**
+     * Give a held amount back to the available balance
+     *
+     * @param hold Hold to release
+     * @return Whether this call released the hold
+     */
+    boolean release(BalanceHold hold) {
+        if (!hold.transition(BalanceHold.State.ACTIVE, BalanceHold.State.RELEASED)) {
+            return false;
+        }
+        settle(hold, BigDecimal.ZERO, hold.getAmount(), null, false);
+        released.increment();
+        return true;
+    }
+
+    /**
+     * Keep a hold open until the processor reports a final status for its transaction
+     */
+    void awaitTransaction(BalanceHold hold, String transactionId) {
+        hold.setTransactionId(transactionId);
+        holdsByTransaction.put(transactionId, hold);
+        if (!hold.isActive()) {
+            // Settled or swept while being registered
+            holdsByTransaction.remove(transactionId, hold);
+        }
+    }
+
+    /**
+     * Open hold waiting on a processor transaction
+     *
+     * @return Hold, or null if none is waiting on the transaction
+     */
+    BalanceHold forTransaction(String transactionId) {
+        sweepIfDue();
+        BalanceHold hold = holdsByTransaction.get(transactionId);
+        return hold != null && hold.isActive() ? hold : null;
+    }
+
+    /**
+     * Take a saved balance as the settled balance of the account's position, if it has one
+     * A save racing a debit of the same account loses that debit in the store as well.
+     */
+    void rebase(String customerId, BigDecimal balance) {
+        if (balance != null) {
+            positions.computeIfPresent(customerId,
+                    (id, position) -> new Position(balance, position.held(), position.debiting()));
+        }
+    }
+
+    /**
+     * Balance of the account not yet held, or null if it has no open holds
+     */
+    BigDecimal available(String customerId) {
+        Position position = positions.get(customerId);
+        return position == null ? null : position.available();
+    }
+
+    int activeHolds() {
+        return holds.size();
+    }
+
+    /**
+     * Expire every hold past its deadline
+     */
+    void sweep() {
+        Instant now = clock.instant();
+        int swept = 0;
+        for (BalanceHold hold : holds.values()) {
+            if (hold.isExpiredAt(now) && hold.transition(BalanceHold.State.ACTIVE, BalanceHold.State.EXPIRED)) {
+                settle(hold, BigDecimal.ZERO, hold.getAmount(), null, false);
+                expired.increment();
+                swept++;
+            }
+        }
+        if (swept > 0) {
+            log.warn("Expired {} unsettled balance holds", swept);
+        }
+    }
+
+    /**
+     * Sweep on the calling thread when the interval has passed; only one caller wins each interval
+     */
+    private void sweepIfDue() {
+        long now = clock.millis();
+        long due = nextSweep.get();
+        if (now >= due && nextSweep.compareAndSet(due, now + sweepIntervalMillis)) {
+            sweep();
+        }
+    }
+
+    /**
+     * Apply a settled hold to its position and forget it
+     *
+     * @param balance Balance the store reported after the debit, if known. It replaces the
+     *                position's balance only when no other debit of the account is in flight,
+     *                since it may or may not include theirs; otherwise the debit is subtracted.
+     * @param counted Whether the debit was counted in flight on the position
+     */
+    private void settle(BalanceHold hold, BigDecimal debited, BigDecimal unheld, BigDecimal balance,
+                        boolean counted) {
+        positions.computeIfPresent(hold.getCustomerId(), (id, position) -> {
+            int debiting = counted ? position.debiting() - 1 : position.debiting();
+            BigDecimal settled = balance != null && debiting == 0
+                    ? balance : position.balance().subtract(debited);
+            Position next = new Position(settled, position.held().subtract(unheld), debiting);
+            return next.held().signum() == 0 && debiting == 0 ? null : next;
+        });
+        holds.remove(hold.getId());
+        if (hold.getTransactionId() != null) {
+            holdsByTransaction.remove(hold.getTransactionId(), hold);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("accounts.holds")
+                .description("Balance holds by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Balance of an account read before reserving, and whether it is still the latest
+     *
+     * @param current Checked under the position's lock, so it must not block
+     */
+    record SettledBalance(BigDecimal balance, BooleanSupplier current) {
+    }
+
+    /**
+     * Settled balance of an account, the total held against it and the debits being written
+     */
+    private record Position(BigDecimal balance, BigDecimal held, int debiting) {
+
+        BigDecimal available() {
+            return balance.subtract(held);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.client.RequestCoalescer;
+import com.alok.payment.paymentConsumer.dto.BatchPaymentResponse;
+import com.alok.payment.paymentConsumer.dto.PaymentRequest;
+import com.alok.payment.paymentConsumer.dto.PaymentResponse;
+import com.alok.payment.paymentConsumer.exception.PaymentProcessingException;
+import com.alok.payment.paymentConsumer.model.Account;
+import com.alok.payment.paymentConsumer.model.Beneficiary;
+import com.alok.payment.paymentConsumer.model.PaymentStatus;
+import com.alok.payment.paymentConsumer.tracing.CurrentTrace;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Batch payment submission
+ *
+ * All items are validated in one pass before anything is sent: each customer's account is
+ * read once, and each distinct beneficiary is looked up once however many items name it.
+ * Valid items are then submitted to the payment processor with bounded parallelism. A
+ * rejected or failed item is reported in its own result and never aborts the batch.
+ */
+@Service
+public class BatchPaymentService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchPaymentService.class);
+
+    private final AccountService accountService;
+    private final BeneficiaryCache beneficiaryCache;
+    private final PaymentValidationStage validationStage;
+    private final PaymentConsumerService paymentConsumerService;
+    private final Validator validator;
+    private final int maxBatchSize;
+    private final int parallelism;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public BatchPaymentService(
+            AccountService accountService,
+            BeneficiaryCache beneficiaryCache,
+            PaymentValidationStage validationStage,
+            PaymentConsumerService paymentConsumerService,
+            Validator validator,
+            @Value("${payments.batch.max-size:1000}") int maxBatchSize,
+            @Value("${payments.batch.parallelism:16}") int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Batch parallelism must be at least 1");
+        }
+        this.accountService = accountService;
+        this.beneficiaryCache = beneficiaryCache;
+        this.validationStage = validationStage;
+        this.paymentConsumerService = paymentConsumerService;
+        this.validator = validator;
+        this.maxBatchSize = maxBatchSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Process a batch of payments
+     *
+     * @param payments Payment requests
+     * @return Per-item results, in request order, and a batch summary
+     */
+    public BatchPaymentResponse processBatch(List<PaymentRequest> payments) {
+        if (payments == null || payments.isEmpty()) {
+            throw new IllegalArgumentException("Payments cannot be null or empty");
+        }
+        if (payments.size() > maxBatchSize) {
+            throw new IllegalArgumentException(
+                    "Batch of " + payments.size() + " payments exceeds the maximum of " + maxBatchSize);
+        }
+
+        long started = System.nanoTime();
+        log.info("Processing payment batch of {} payments", payments.size());
+
+        PaymentResponse[] results = new PaymentResponse[payments.size()];
+        Semaphore permits = new Semaphore(parallelism);
+
+        validateAccounts(payments, results);
+        validateBeneficiaries(payments, results, permits);
+        submitValid(payments, results, permits);
+
+        List<PaymentResponse> ordered = Arrays.asList(results);
+        BatchPaymentResponse.Summary summary = summarize(ordered, Duration.ofNanos(System.nanoTime() - started));
+        log.info("Payment batch finished: {} completed, {} failed, {} pending of {}",
+                summary.getCompleted(), summary.getFailed(), summary.getPending(), summary.getTotal());
+
+        return new BatchPaymentResponse(ordered, summary);
+    }
+
+    /**
+     * Field and account checks, reading each customer's account once
+     */
+    private void validateAccounts(List<PaymentRequest> payments, PaymentResponse[] results) {
+        Map<String, Optional<Account>> accounts = new HashMap<>();
+        for (int i = 0; i < payments.size(); i++) {
+            PaymentRequest payment = payments.get(i);
+            if (payment == null) {
+                results[i] = rejected(null, "Payment request cannot be null");
+                continue;
+            }
+
+            Set<ConstraintViolation<PaymentRequest>> violations = validator.validate(payment);
+            if (!violations.isEmpty()) {
+                results[i] = rejected(payment, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                continue;
+            }
+
+            Account account = accounts.computeIfAbsent(payment.getCustomerId(),
+                    customerId -> Optional.ofNullable(accountService.getAccountByCustomerId(customerId)))
+                    .orElse(null);
+            try {
+                validationStage.checkAccount(payment, account);
+            } catch (RuntimeException ex) {
+                results[i] = rejected(payment, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Beneficiary checks for the items still valid, one concurrent lookup per distinct beneficiary
+     */
+    private void validateBeneficiaries(List<PaymentRequest> payments, PaymentResponse[] results, Semaphore permits) {
+        Map<BeneficiaryCache.BeneficiaryKey, CompletableFuture<Beneficiary>> lookups = new HashMap<>();
+        for (int i = 0; i < payments.size(); i++) {
+            PaymentRequest payment = payments.get(i);
+            if (results[i] == null && payment.getBeneficiaryId() != null) {
+                lookups.computeIfAbsent(
+                        new BeneficiaryCache.BeneficiaryKey(payment.getBeneficiaryId(), payment.getCustomerId()),
+                        key -> submit(permits, () -> beneficiaryCache.getBeneficiary(key.beneficiaryId(), key.customerId())));
+            }
+        }
+
+        for (int i = 0; i < payments.size(); i++) {
+            PaymentRequest payment = payments.get(i);
+            if (results[i] == null && payment.getBeneficiaryId() != null) {
+                CompletableFuture<Beneficiary> lookup = lookups.get(
+                        new BeneficiaryCache.BeneficiaryKey(payment.getBeneficiaryId(), payment.getCustomerId()));
+                try {
+                    validationStage.validateBeneficiary(payment, () -> RequestCoalescer.await(lookup));
+                } catch (RuntimeException ex) {
+                    results[i] = rejected(payment, ex.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Submit every item that passed validation, at most {@code parallelism} at a time
+     */
+    private void submitValid(List<PaymentRequest> payments, PaymentResponse[] results, Semaphore permits) {
+        List<CompletableFuture<Void>> submissions = new ArrayList<>();
+        for (int i = 0; i < payments.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            int index = i;
+            PaymentRequest payment = payments.get(i);
+            submissions.add(submit(permits, () -> paymentConsumerService.submitValidatedPayment(payment))
+                    .handle((response, ex) -> {
+                        results[index] = ex == null ? response : failed(payment, ex);
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(submissions.toArray(CompletableFuture[]::new)).join();
+    }
+
+    /**
+     * Run a call on a virtual thread once a permit is free; blocks the caller until then
+     */
+    private <T> CompletableFuture<T> submit(Semaphore permits, Supplier<T> call) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new PaymentProcessingException("Payment batch was interrupted", ex);
+        }
+        try {
+            Supplier<T> traced = CurrentTrace.wrap(call);
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return traced.get();
+                } finally {
+                    permits.release();
+                }
+            }, executor);
+        } catch (RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    private static BatchPaymentResponse.Summary summarize(List<PaymentResponse> results, Duration elapsed) {
+        int completed = 0;
+        int failed = 0;
+        for (PaymentResponse result : results) {
+            PaymentStatus status = result.getStatus();
+            if (status == PaymentStatus.COMPLETED) {
+                completed++;
+            } else if (status != null && status.isFailure()) {
+                failed++;
+            }
+        }
+        return new BatchPaymentResponse.Summary(
+                results.size(), completed, failed, results.size() - completed - failed, elapsed.toMillis());
+    }
+
+    private static PaymentResponse rejected(PaymentRequest payment, String reason) {
+        return PaymentResponse.failed(payment, "Payment rejected", reason);
+    }
+
+    private static PaymentResponse failed(PaymentRequest payment, Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        log.warn("Batch payment submission failed for customer: {}: {}", payment.getCustomerId(), cause.getMessage());
+        return PaymentResponse.failed(payment, "Payment submission failed", cause.getMessage());
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,227 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.client.BeneficiariesClient;
+import com.alok.payment.paymentConsumer.client.DownstreamCallExecutor;
+import com.alok.payment.paymentConsumer.client.RequestCoalescer;
+import com.alok.payment.paymentConsumer.config.BeneficiaryCacheProperties;
+import com.alok.payment.paymentConsumer.event.BeneficiaryChangedEvent;
+import com.alok.payment.paymentConsumer.model.Beneficiary;
+import com.alok.payment.paymentConsumer.tracing.CurrentTrace;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache in front of {@link BeneficiariesClient}
+ *
+ * Lists are cached per (customerId, accountNumber) and single beneficiaries per
+ * (beneficiaryId, customerId). A single-beneficiary miss is answered from the customer's
+ * cached full list when there is one, before going to the remote service. Entries are
+ * bounded by size, expire after write, and hot entries are refreshed in the background
+ * once they are older than the refresh interval.
+ *
+ * The caches hold the in-flight load, so concurrent misses for the same key share one
+ * remote call and its result or failure. With the cache disabled the same single-flight
+ * behaviour comes from a {@link RequestCoalescer}. Every list loaded gets a new version,
+ * so readers can tell whether a list changed without comparing it.
+ */
+@Service
+public class BeneficiaryCache {
+
+    private static final Logger log = LoggerFactory.getLogger(BeneficiaryCache.class);
+
+    /**
+     * Version reported while no list is cached; a response built without one must not be reused
+     */
+    public static final long UNVERSIONED = -1;
+
+    private final BeneficiariesClient beneficiariesClient;
+    private final DownstreamCallExecutor downstreamCalls;
+    private final boolean enabled;
+    private final AsyncLoadingCache<ListKey, VersionedList> lists;
+    private final AsyncLoadingCache<BeneficiaryKey, Beneficiary> beneficiaries;
+    private final RequestCoalescer<ListKey, VersionedList> listCalls;
+    private final RequestCoalescer<BeneficiaryKey, Beneficiary> beneficiaryCalls;
+    private final Counter servedFromList;
+    private final AtomicLong lastVersion = new AtomicLong();
+
+    public BeneficiaryCache(
+            BeneficiariesClient beneficiariesClient,
+            DownstreamCallExecutor downstreamCalls,
+            BeneficiaryCacheProperties properties,
+            MeterRegistry meterRegistry) {
+        this.beneficiariesClient = beneficiariesClient;
+        this.downstreamCalls = downstreamCalls;
+        this.enabled = properties.isEnabled();
+
+        // Loads block on the remote call, so keep them off the common pool; a load joins the
+        // trace of the request that missed
+        Executor virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+        Executor loadExecutor = task -> virtualThreads.execute(CurrentTrace.wrap(task));
+
+        this.lists = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumLists())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .refreshAfterWrite(properties.getRefreshAfterWrite())
+                .executor(loadExecutor)
+                .recordStats()
+                .buildAsync(key -> fetchBeneficiaries(key.customerId(), key.accountNumber()));
+
+        this.beneficiaries = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumBeneficiaries())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .refreshAfterWrite(properties.getRefreshAfterWrite())
+                .executor(loadExecutor)
+                .recordStats()
+                .buildAsync(this::loadBeneficiary);
+
+        this.listCalls = new RequestCoalescer<>("beneficiaries", "getBeneficiaries", meterRegistry);
+        this.beneficiaryCalls = new RequestCoalescer<>("beneficiaries", "getBeneficiaryById", meterRegistry);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, lists.synchronous(), "beneficiaries.lists");
+        CaffeineCacheMetrics.monitor(meterRegistry, beneficiaries.synchronous(), "beneficiaries.byId");
+        this.servedFromList = Counter.builder("beneficiaries.cache.served.from.list")
+                .description("Single-beneficiary lookups answered from a cached list")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get beneficiaries for a customer
+     *
+     * @param customerId Customer ID
+     * @param accountNumber Account number (optional)
+     * @return List of beneficiaries
+     */
+    public List<Beneficiary> getBeneficiaries(String customerId, String accountNumber) {
+        ListKey key = new ListKey(customerId, normalize(accountNumber));
+        VersionedList list = enabled
+                ? RequestCoalescer.await(lists.get(key))
+                : listCalls.execute(key, () -> fetchBeneficiaries(key.customerId(), key.accountNumber()));
+        return list == null ? null : list.beneficiaries();
+    }
+
+    /**
+     * Version of a customer's cached list, changed whenever the list is loaded again
+     * Read it before the list it versions. Without a cached list, always the case when the
+     * cache is disabled, it is {@link #UNVERSIONED} and nothing is loaded.
+     *
+     * @param customerId Customer ID
+     * @param accountNumber Account number (optional)
+     * @return List version
+     */
+    public long getBeneficiariesVersion(String customerId, String accountNumber) {
+        VersionedList cached = peek(new ListKey(customerId, normalize(accountNumber)));
+        return cached != null ? cached.version() : UNVERSIONED;
+    }
+
+    /**
+     * Get a single beneficiary of a customer
+     *
+     * @param beneficiaryId Beneficiary ID
+     * @param customerId Customer ID
+     * @return Beneficiary or null if not found
+     */
+    public Beneficiary getBeneficiary(Long beneficiaryId, String customerId) {
+        BeneficiaryKey key = new BeneficiaryKey(beneficiaryId, customerId);
+        if (!enabled) {
+            return beneficiaryCalls.execute(key, () -> fetchBeneficiary(beneficiaryId, customerId));
+        }
+        return RequestCoalescer.await(beneficiaries.get(key));
+    }
+
+    /**
+     * Drop every cached entry of a customer
+     */
+    public void invalidateCustomer(String customerId) {
+        lists.asMap().keySet().removeIf(key -> Objects.equals(key.customerId(), customerId));
+        beneficiaries.asMap().keySet().removeIf(key -> Objects.equals(key.customerId(), customerId));
+        log.debug("Invalidated cached beneficiaries for customer: {}", customerId);
+    }
+
+    /**
+     * Drop a single beneficiary together with the lists that may contain it
+     */
+    public void invalidateBeneficiary(Long beneficiaryId, String customerId) {
+        beneficiaries.synchronous().invalidate(new BeneficiaryKey(beneficiaryId, customerId));
+        lists.asMap().keySet().removeIf(key -> Objects.equals(key.customerId(), customerId));
+        log.debug("Invalidated cached beneficiary ID: {} for customer: {}", beneficiaryId, customerId);
+    }
+
+    /**
+     * Drop all cached beneficiaries
+     */
+    public void invalidateAll() {
+        lists.synchronous().invalidateAll();
+        beneficiaries.synchronous().invalidateAll();
+    }
+
+    @EventListener
+    public void onBeneficiaryChanged(BeneficiaryChangedEvent event) {
+        if (event.beneficiaryId() != null) {
+            invalidateBeneficiary(event.beneficiaryId(), event.customerId());
+        } else {
+            invalidateCustomer(event.customerId());
+        }
+    }
+
+    private Beneficiary loadBeneficiary(BeneficiaryKey key) {
+        VersionedList cachedList = peek(new ListKey(key.customerId(), null));
+        if (cachedList != null) {
+            for (Beneficiary beneficiary : cachedList.beneficiaries()) {
+                if (Objects.equals(beneficiary.getId(), key.beneficiaryId())) {
+                    servedFromList.increment();
+                    return beneficiary;
+                }
+            }
+        }
+        return fetchBeneficiary(key.beneficiaryId(), key.customerId());
+    }
+
+    /**
+     * Loaded list of a key, without touching the list statistics or triggering a refresh
+     */
+    private VersionedList peek(ListKey key) {
+        CompletableFuture<VersionedList> cached = lists.asMap().get(key);
+        return cached != null && cached.isDone() && !cached.isCompletedExceptionally() ? cached.getNow(null) : null;
+    }
+
+    private VersionedList fetchBeneficiaries(String customerId, String accountNumber) {
+        List<Beneficiary> fetched = downstreamCalls.execute("beneficiariesService", "Beneficiaries",
+                () -> beneficiariesClient.getBeneficiaries(customerId, accountNumber));
+        return fetched == null ? null : new VersionedList(List.copyOf(fetched), lastVersion.incrementAndGet());
+    }
+
+    private Beneficiary fetchBeneficiary(Long beneficiaryId, String customerId) {
+        return downstreamCalls.execute("beneficiariesService", "Beneficiaries",
+                () -> beneficiariesClient.getBeneficiaryById(beneficiaryId, customerId));
+    }
+
+    private static String normalize(String accountNumber) {
+        return accountNumber == null || accountNumber.trim().isEmpty() ? null : accountNumber;
+    }
+
+    record ListKey(String customerId, String accountNumber) {
+    }
+
+    record BeneficiaryKey(Long beneficiaryId, String customerId) {
+    }
+
+    /**
+     * Immutable list as loaded, with the version it was given
+     */
+    private record VersionedList(List<Beneficiary> beneficiaries, long version) {
+    }
+}
@@ -0,0 +1,137 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.dto.PaymentResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * On-disk copy of completed idempotency keys, one small JSON file per key
+ *
+ * Files are written to a temporary name and moved into place, so a reader never sees a
+ * partial entry. They are not fsync'd: the store makes client retries cheap and safe
+ * across restarts, it is not a ledger. Each file is stamped with its write time, and expired
+ * files are removed when read, on startup and by {@link #purgeExpired()}, which the owning
+ * store runs on a schedule so keys that are never retried do not pile up.
+ * I/O failures are logged and treated as a miss, so a broken disk never fails a payment.
+ */
+class IdempotencyDiskStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyDiskStore.class);
+
+    private static final String SUFFIX = ".json";
+
+    private final Path directory;
+    private final Duration ttl;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    IdempotencyDiskStore(Path directory, Duration ttl, ObjectMapper objectMapper, Clock clock) {
+        this.directory = directory;
+        this.ttl = ttl;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Cannot create idempotency store directory: " + directory, ex);
+        }
+        purgeExpired();
+    }
+
+    /**
+     * Completed entry stored under a file name, if there is one that has not expired
+     */
+    Optional<StoredPayment> read(String fileName) {
+        Path file = directory.resolve(fileName + SUFFIX);
+        try {
+            StoredPayment stored = objectMapper.readValue(file.toFile(), StoredPayment.class);
+            if (isExpired(stored.storedAt())) {
+                Files.deleteIfExists(file);
+                return Optional.empty();
+            }
+            return Optional.of(stored);
+        } catch (NoSuchFileException ex) {
+            return Optional.empty();
+        } catch (IOException ex) {
+            if (Files.exists(file)) {
+                log.warn("Unreadable idempotency entry {}: {}", file, ex.getMessage());
+            }
+            return Optional.empty();
+        }
+    }
+
+    void write(String fileName, String fingerprint, PaymentResponse response) {
+        Path file = directory.resolve(fileName + SUFFIX);
+        try {
+            Path temp = Files.createTempFile(directory, fileName, ".tmp");
+            try {
+                long storedAt = clock.millis();
+                objectMapper.writeValue(temp.toFile(), new StoredPayment(fingerprint, storedAt, response));
+                // Lets the purge judge expiry from the directory listing alone
+                Files.setLastModifiedTime(temp, FileTime.fromMillis(storedAt));
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException ex) {
+            log.warn("Could not persist idempotency entry {}: {}", file, ex.getMessage());
+        }
+    }
+
+    /**
+     * Delete the files whose write time is older than the TTL
+     */
+    void purgeExpired() {
+        try (Stream<Path> files = Files.list(directory)) {
+            long purged = files
+                    .filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .filter(this::isExpiredFile)
+                    .filter(this::deleteQuietly)
+                    .count();
+            if (purged > 0) {
+                log.info("Purged {} expired idempotency entries from {}", purged, directory);
+            }
+        } catch (IOException | UncheckedIOException ex) {
+            log.warn("Could not purge idempotency store {}: {}", directory, ex.getMessage());
+        }
+    }
+
+    private boolean isExpiredFile(Path file) {
+        try {
+            return isExpired(Files.getLastModifiedTime(file).toMillis());
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    private boolean isExpired(long storedAt) {
+        return clock.millis() - storedAt >= ttl.toMillis();
+    }
+
+    private boolean deleteQuietly(Path file) {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Completed payment as persisted: request fingerprint, write time in epoch millis, and response
+     */
+    record StoredPayment(String fingerprint, long storedAt, PaymentResponse response) {
+    }
+}
@@ -0,0 +1,227 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.client.RequestCoalescer;
+import com.alok.payment.paymentConsumer.config.IdempotencyProperties;
+import com.alok.payment.paymentConsumer.dto.PaymentRequest;
+import com.alok.payment.paymentConsumer.dto.PaymentResponse;
+import com.alok.payment.paymentConsumer.exception.IdempotencyKeyMismatchException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-key store for payment submissions
+ *
+ * The first request with a key runs the payment; its response is kept for the TTL and
+ * replayed to later requests with the same key without calling the payment processor.
+ * Concurrent duplicates wait on the first execution and share its outcome. Keys are
+ * scoped to the customer, and a key reused with a different request body is rejected.
+ *
+ * Only responses are remembered. When the payment throws, the key is released so that
+ * a retry runs the payment again. Entries live in a bounded in-memory cache and, when
+ * enabled, in an {@link IdempotencyDiskStore} consulted on a memory miss and purged of
+ * expired files every {@code disk.purge-interval}.
+ */
+@Service
+public class IdempotencyStore implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final boolean enabled;
+    private final ObjectMapper objectMapper;
+    private final Cache<StoreKey, Entry> entries;
+    private final IdempotencyDiskStore diskStore;
+    private final ScheduledExecutorService purger;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter joined;
+    private final Counter mismatched;
+
+    @Autowired
+    public IdempotencyStore(IdempotencyProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this(properties, objectMapper, meterRegistry, Clock.systemUTC());
+    }
+
+    IdempotencyStore(IdempotencyProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                     Clock clock) {
+        this.enabled = properties.isEnabled();
+        this.objectMapper = objectMapper;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumKeys())
+                .expireAfterWrite(properties.getTtl())
+                .ticker(() -> clock.millis() * 1_000_000)
+                .recordStats()
+                .build();
+        this.diskStore = properties.getDisk().isEnabled()
+                ? new IdempotencyDiskStore(properties.getDisk().getDirectory(), properties.getTtl(), objectMapper, clock)
+                : null;
+        if (diskStore != null) {
+            long purgeIntervalMillis = properties.getDisk().getPurgeInterval().toMillis();
+            this.purger = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("idempotency-purger").daemon().factory());
+            purger.scheduleWithFixedDelay(diskStore::purgeExpired, purgeIntervalMillis, purgeIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.purger = null;
+        }
+
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "payments.idempotency");
+        this.executed = requests(meterRegistry, "executed");
+        this.replayed = requests(meterRegistry, "replayed");
+        this.joined = requests(meterRegistry, "joined");
+        this.mismatched = requests(meterRegistry, "mismatched");
+        Gauge.builder("payments.idempotency.hit.ratio", this, IdempotencyStore::hitRatio)
+                .description("Share of keyed payment requests answered without running the payment")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run a payment at most once per idempotency key
+     *
+     * @param customerId Customer the key belongs to
+     * @param idempotencyKey Client-supplied key, or null to run the payment unconditionally
+     * @param request Payment request, compared with the one first seen under the key
+     * @param payment Runs the payment
+     * @return Payment response and whether it was replayed from an earlier request
+     */
+    public Outcome execute(String customerId, String idempotencyKey, PaymentRequest request,
+                           Supplier<PaymentResponse> payment) {
+        if (idempotencyKey == null || !enabled) {
+            return new Outcome(payment.get(), false);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                    IDEMPOTENCY_KEY_HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        StoreKey key = new StoreKey(customerId, idempotencyKey);
+        String fingerprint = fingerprint(request);
+        Entry created = new Entry(fingerprint, new CompletableFuture<>());
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null) {
+            // The disk is read outside the cache's compute so a slow read does not block other keys
+            Entry candidate = restore(key).orElse(created);
+            Entry present = entries.asMap().putIfAbsent(key, candidate);
+            entry = present != null ? present : candidate;
+        }
+
+        if (!entry.fingerprint().equals(fingerprint)) {
+            mismatched.increment();
+            throw new IdempotencyKeyMismatchException(idempotencyKey);
+        }
+        if (entry != created) {
+            (entry.response().isDone() ? replayed : joined).increment();
+            log.debug("Replaying payment response for idempotency key {} of customer {}", idempotencyKey, customerId);
+            return new Outcome(RequestCoalescer.await(entry.response()), true);
+        }
+
+        executed.increment();
+        PaymentResponse response;
+        try {
+            response = payment.get();
+        } catch (RuntimeException | Error ex) {
+            entries.asMap().remove(key, entry);
+            entry.response().completeExceptionally(ex);
+            throw ex;
+        }
+        entry.response().complete(response);
+        if (diskStore != null && response != null) {
+            diskStore.write(key.fileName(), fingerprint, response);
+        }
+        return new Outcome(response, false);
+    }
+
+    /**
+     * Number of keys held in memory
+     */
+    public long size() {
+        entries.cleanUp();
+        return entries.estimatedSize();
+    }
+
+    @Override
+    public void destroy() {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+    }
+
+    private Optional<Entry> restore(StoreKey key) {
+        if (diskStore == null) {
+            return Optional.empty();
+        }
+        return diskStore.read(key.fileName())
+                .map(stored -> new Entry(stored.fingerprint(), CompletableFuture.completedFuture(stored.response())));
+    }
+
+    private String fingerprint(PaymentRequest request) {
+        try {
+            return sha256(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot fingerprint payment request", ex);
+        }
+    }
+
+    private double hitRatio() {
+        double answered = replayed.count() + joined.count();
+        double total = answered + executed.count() + mismatched.count();
+        return total == 0 ? 0 : answered / total;
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("payments.idempotency.requests")
+                .description("Payment requests carrying an idempotency key, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /**
+     * Payment response and whether it was replayed rather than produced by this request
+     */
+    public record Outcome(PaymentResponse response, boolean replayed) {
+    }
+
+    record StoreKey(String customerId, String idempotencyKey) {
+
+        String fileName() {
+            return sha256((customerId + '\n' + idempotencyKey).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<PaymentResponse> response) {
+    }
+}
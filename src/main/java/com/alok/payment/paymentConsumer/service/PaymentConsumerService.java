@@ -1,7 +1,10 @@
 package com.alok.payment.paymentConsumer.service;
 
-import com.alok.payment.paymentConsumer.client.BeneficiariesClient;
+import com.alok.payment.paymentConsumer.client.DownstreamCallExecutor;
+import com.alok.payment.paymentConsumer.client.DownstreamFailures;
 import com.alok.payment.paymentConsumer.client.PaymentProcessorClient;
+import com.alok.payment.paymentConsumer.client.RequestCoalescer;
+import com.alok.payment.paymentConsumer.dto.PaymentProcessorRequest;
 import com.alok.payment.paymentConsumer.dto.PaymentRequest;
 import com.alok.payment.paymentConsumer.dto.PaymentResponse;
 import com.alok.payment.paymentConsumer.exception.PaymentProcessingException;
@@ -9,14 +12,14 @@ import com.alok.payment.paymentConsumer.exception.ResourceNotFoundException;
 import com.alok.payment.paymentConsumer.model.Account;
 import com.alok.payment.paymentConsumer.model.Beneficiary;
 import com.alok.payment.paymentConsumer.model.PaymentStatus;
+import com.alok.payment.paymentConsumer.service.PaymentStageMetrics.Stage;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Main orchestration service for payment consumer
@@ -27,17 +30,32 @@ public class PaymentConsumerService {
     
     private static final Logger log = LoggerFactory.getLogger(PaymentConsumerService.class);
     
-    private final BeneficiariesClient beneficiariesClient;
+    private final BeneficiaryCache beneficiaryCache;
     private final PaymentProcessorClient paymentProcessorClient;
     private final AccountService accountService;
+    private final DownstreamCallExecutor downstreamCalls;
+    private final PaymentValidationStage validationStage;
+    private final PaymentStatusCache statusCache;
+    private final PaymentStageMetrics stageMetrics;
+    private final RequestCoalescer<String, PaymentResponse> statusCalls;
     
     public PaymentConsumerService(
-            BeneficiariesClient beneficiariesClient,
+            BeneficiaryCache beneficiaryCache,
             PaymentProcessorClient paymentProcessorClient,
-            AccountService accountService) {
-        this.beneficiariesClient = beneficiariesClient;
+            AccountService accountService,
+            DownstreamCallExecutor downstreamCalls,
+            PaymentValidationStage validationStage,
+            PaymentStatusCache statusCache,
+            PaymentStageMetrics stageMetrics,
+            MeterRegistry meterRegistry) {
+        this.beneficiaryCache = beneficiaryCache;
         this.paymentProcessorClient = paymentProcessorClient;
         this.accountService = accountService;
+        this.downstreamCalls = downstreamCalls;
+        this.validationStage = validationStage;
+        this.statusCache = statusCache;
+        this.stageMetrics = stageMetrics;
+        this.statusCalls = new RequestCoalescer<>("payment-processor", "getPaymentStatus", meterRegistry);
     }
     
     /**
@@ -51,7 +69,7 @@ public class PaymentConsumerService {
             throw new IllegalArgumentException("Customer ID cannot be null or empty");
         }
         
-        log.info("Retrieving account details for customer: {}", customerId);
+        log.atInfo().addKeyValue("customerId", customerId).log("Retrieving account details");
         
         Account account = accountService.getAccountByCustomerId(customerId);
         
@@ -62,6 +80,29 @@ public class PaymentConsumerService {
         return account;
     }
     
+    /**
+     * Version of a customer's account, changed whenever the account may have changed
+     * Read it before the account it versions.
+     * 
+     * @param customerId Customer ID
+     * @return Account version
+     */
+    public long getAccountVersion(String customerId) {
+        return accountService.getAccountVersion(customerId);
+    }
+    
+    /**
+     * Version of a customer's beneficiary list, changed whenever the cached list is replaced
+     * Read it before the list it versions. {@link BeneficiaryCache#UNVERSIONED} while no list is cached.
+     * 
+     * @param customerId Customer ID
+     * @param accountNumber Account number (optional)
+     * @return List version
+     */
+    public long getBeneficiariesVersion(String customerId, String accountNumber) {
+        return beneficiaryCache.getBeneficiariesVersion(customerId, accountNumber);
+    }
+    
     /**
      * Get beneficiaries for a customer
      * 
@@ -74,7 +115,10 @@ public class PaymentConsumerService {
             throw new IllegalArgumentException("Customer ID cannot be null or empty");
         }
         
-        log.info("Retrieving beneficiaries for customer: {}, account: {}", customerId, accountNumber);
+        log.atInfo()
+                .addKeyValue("customerId", customerId)
+                .addKeyValue("accountNumber", accountNumber)
+                .log("Retrieving beneficiaries");
         
         // Validate customer has an account
         Account account = accountService.getAccountByCustomerId(customerId);
@@ -82,15 +126,15 @@ public class PaymentConsumerService {
             throw new ResourceNotFoundException("Account not found for customer: " + customerId);
         }
         
-        // Fetch beneficiaries from beneficiaries service
-        List<Beneficiary> beneficiaries = beneficiariesClient.getBeneficiaries(customerId, accountNumber);
+        // Fetch beneficiaries (read-through cache in front of the beneficiaries service)
+        List<Beneficiary> beneficiaries = beneficiaryCache.getBeneficiaries(customerId, accountNumber);
         
         if (beneficiaries == null) {
             log.warn("Null beneficiaries list returned for customer: {}", customerId);
             throw new ResourceNotFoundException("No beneficiaries found for customer: " + customerId);
         }
         
-        log.info("Found {} beneficiaries for customer: {}", beneficiaries.size(), customerId);
+        log.debug("Found {} beneficiaries for customer: {}", beneficiaries.size(), customerId);
         return beneficiaries;
     }
     
@@ -105,33 +149,88 @@ public class PaymentConsumerService {
             throw new IllegalArgumentException("Payment request cannot be null");
         }
         
-        log.info("Processing payment for customer: {} from {} to {} for amount {}", 
-                paymentRequest.getCustomerId(),
-                paymentRequest.getFromAccount(),
-                paymentRequest.getToAccount(),
-                paymentRequest.getAmount());
+        log.atInfo()
+                .addKeyValue("customerId", paymentRequest.getCustomerId())
+                .addKeyValue("fromAccount", paymentRequest.getFromAccount())
+                .addKeyValue("toAccount", paymentRequest.getToAccount())
+                .addKeyValue("amount", paymentRequest.getAmount())
+                .log("Processing payment");
         
-        // Validate customer and account
-        validatePaymentRequest(paymentRequest);
+        PaymentStageMetrics.Recording recording = stageMetrics.start(paymentRequest.getPaymentType());
+        try {
+            // Validate customer, account and (if provided) beneficiary concurrently
+            validationStage.validate(paymentRequest);
+        } catch (RuntimeException ex) {
+            recording.fail(ex);
+            throw ex;
+        }
+        recording.stage(Stage.VALIDATION);
         
-        // If beneficiary ID is provided, validate it exists
-        if (paymentRequest.getBeneficiaryId() != null) {
-            validateBeneficiary(paymentRequest);
+        return submitValidatedPayment(paymentRequest, recording);
+    }
+    
+    /**
+     * Submit an already validated payment to the payment processor
+     * 
+     * @param paymentRequest Validated payment request
+     * @return Payment response
+     */
+    public PaymentResponse submitValidatedPayment(PaymentRequest paymentRequest) {
+        return submitValidatedPayment(paymentRequest, stageMetrics.start(paymentRequest.getPaymentType()));
+    }
+    
+    private PaymentResponse submitValidatedPayment(PaymentRequest paymentRequest,
+                                                   PaymentStageMetrics.Recording recording) {
+        PaymentResponse response;
+        try {
+            response = submit(paymentRequest, recording);
+        } catch (RuntimeException ex) {
+            recording.fail(ex);
+            throw ex;
         }
+        recording.finish(response.getStatus());
         
+        log.atInfo()
+                .addKeyValue("customerId", paymentRequest.getCustomerId())
+                .addKeyValue("transactionId", response.getTransactionId())
+                .addKeyValue("status", response.getStatus())
+                .log("Payment processed");
+        
+        return response;
+    }
+    
+    private PaymentResponse submit(PaymentRequest paymentRequest, PaymentStageMetrics.Recording recording) {
         // Prepare payment request for payment processor
-        Map<String, Object> processorRequest = buildPaymentProcessorRequest(paymentRequest);
+        PaymentProcessorRequest processorRequest = buildPaymentProcessorRequest(paymentRequest);
+        recording.stage(Stage.REQUEST_BUILDING);
+        
+        // Hold the amount first, so concurrent payments from one account cannot spend the same balance
+        BalanceHold hold = accountService.reserveBalance(paymentRequest.getCustomerId(), paymentRequest.getAmount());
+        recording.stage(Stage.BALANCE_HOLD);
         
         // Call payment processor
-        PaymentResponse response = paymentProcessorClient.processPayment(processorRequest);
+        PaymentResponse response;
+        try {
+            response = downstreamCalls.executeSubmission("paymentProcessorService", "Payment Processor",
+                    () -> paymentProcessorClient.processPayment(processorRequest));
+        } catch (RuntimeException ex) {
+            // A timed out or dropped call may still have moved the money; its hold then stays until it expires
+            if (DownstreamFailures.isDefiniteFailure(ex)) {
+                accountService.releaseHold(hold);
+            }
+            throw ex;
+        } finally {
+            recording.stage(Stage.PROCESSOR_CALL);
+        }
         
         if (response == null) {
             throw new PaymentProcessingException("Payment processor returned null response");
         }
         
-        log.info("Payment processed with status: {} for customer: {}", 
-                response.getStatus(), 
-                paymentRequest.getCustomerId());
+        accountService.settleHold(hold, response.getStatus(), response.getTransactionId());
+        // The first status poll after submission is answered from here
+        statusCache.put(response);
+        recording.stage(Stage.SETTLEMENT);
         
         return response;
     }
@@ -151,8 +250,10 @@ public class PaymentConsumerService {
             throw new IllegalArgumentException("Customer ID cannot be null or empty");
         }
         
-        log.info("Retrieving payment status for transaction: {} and customer: {}", 
-                transactionId, customerId);
+        log.atInfo()
+                .addKeyValue("transactionId", transactionId)
+                .addKeyValue("customerId", customerId)
+                .log("Retrieving payment status");
         
         // Validate customer exists
         Account account = accountService.getAccountByCustomerId(customerId);
@@ -160,94 +261,43 @@ public class PaymentConsumerService {
             throw new ResourceNotFoundException("Account not found for customer: " + customerId);
         }
         
-        PaymentResponse response = paymentProcessorClient.getPaymentStatus(transactionId);
-        
-        if (response == null) {
-            throw new ResourceNotFoundException("Payment not found for transaction ID: " + transactionId);
-        }
-        
-        return response;
+        return fetchPaymentStatus(transactionId);
     }
     
     /**
-     * Validate payment request
+     * Get the current payment status, without customer validation
+     * Served from the status cache when possible, otherwise from the payment processor;
+     * settles the balance hold of the payment once it reaches a final status
+     * 
+     * @param transactionId Transaction ID
+     * @return Payment response with current status
      */
-    private void validatePaymentRequest(PaymentRequest paymentRequest) {
-        // Validate customer exists
-        Account account = accountService.getAccountByCustomerId(paymentRequest.getCustomerId());
-        if (account == null) {
-            throw new ResourceNotFoundException("Account not found for customer: " + paymentRequest.getCustomerId());
+    public PaymentResponse fetchPaymentStatus(String transactionId) {
+        PaymentResponse cached = statusCache.get(transactionId);
+        if (cached != null) {
+            return cached;
         }
         
-        // Validate from account belongs to customer
-        if (!account.getAccountNumber().equals(paymentRequest.getFromAccount())) {
-            throw new PaymentProcessingException("From account does not belong to customer");
-        }
+        // Concurrent lookups of the same transaction share one downstream call
+        PaymentResponse response = statusCalls.execute(transactionId,
+                () -> downstreamCalls.execute("paymentProcessorService", "Payment Processor",
+                        () -> paymentProcessorClient.getPaymentStatus(transactionId)));
         
-        // Validate account is active
-        if (account.getStatus() == null || !account.getStatus().equalsIgnoreCase("ACTIVE")) {
-            throw new PaymentProcessingException("Account is not active");
+        if (response == null) {
+            throw new ResourceNotFoundException("Payment not found for transaction ID: " + transactionId);
         }
         
-        // Validate sufficient balance (simplified check)
-        if (account.getBalance() != null && 
-            account.getBalance().compareTo(paymentRequest.getAmount()) < 0) {
-            throw new PaymentProcessingException("Insufficient balance");
-        }
-    }
-    
-    /**
-     * Validate beneficiary exists and belongs to customer
-     */
-    private void validateBeneficiary(PaymentRequest paymentRequest) {
-        try {
-            Beneficiary beneficiary = beneficiariesClient.getBeneficiaryById(
-                    paymentRequest.getBeneficiaryId(), 
-                    paymentRequest.getCustomerId()
-            );
-            
-            if (beneficiary == null) {
-                throw new ResourceNotFoundException(
-                        "Beneficiary not found with ID: " + paymentRequest.getBeneficiaryId());
-            }
-            
-            // Validate beneficiary account matches payment to account
-            if (beneficiary.getBeneficiaryAccountNumber() != null && 
-                !beneficiary.getBeneficiaryAccountNumber().equals(paymentRequest.getToAccount())) {
-                throw new PaymentProcessingException(
-                        "Beneficiary account number does not match payment to account");
-            }
-            
-            // Validate beneficiary is active
-            if (beneficiary.getStatus() == null || 
-                !beneficiary.getStatus().equalsIgnoreCase("ACTIVE")) {
-                throw new PaymentProcessingException("Beneficiary is not active");
-            }
-            
-        } catch (ResourceNotFoundException ex) {
-            throw ex;
-        } catch (Exception ex) {
-            log.error("Error validating beneficiary: {}", ex.getMessage(), ex);
-            // Continue without beneficiary validation if service is unavailable
-            // This is a graceful degradation
-        }
+        // A payment still pending at submission settles its balance hold once it reaches a final status
+        accountService.settleHold(transactionId, response.getStatus());
+        statusCache.put(response);
+        
+        return response;
     }
     
     /**
      * Build payment processor request from payment request
      */
-    private Map<String, Object> buildPaymentProcessorRequest(PaymentRequest paymentRequest) {
-        Map<String, Object> request = new HashMap<>();
-        request.put("fromAccount", paymentRequest.getFromAccount());
-        request.put("toAccount", paymentRequest.getToAccount());
-        request.put("amount", paymentRequest.getAmount());
-        request.put("currency", paymentRequest.getCurrency());
-        request.put("paymentType", paymentRequest.getPaymentType().toString());
-        
-        if (paymentRequest.getDescription() != null) {
-            request.put("description", paymentRequest.getDescription());
-        }
-        
-        return request;
+    PaymentProcessorRequest buildPaymentProcessorRequest(PaymentRequest paymentRequest) {
+        return PaymentProcessorRequest.from(paymentRequest);
     }
 }
@@ -0,0 +1,149 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.config.PaymentStatusCacheProperties;
+import com.alok.payment.paymentConsumer.dto.PaymentResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Cache of payment statuses reported by the payment processor
+ *
+ * A terminal status never changes, so it is pinned for {@code terminal-ttl} in a size-bounded
+ * cache; when enabled, entries evicted for size move to a {@link PaymentStatusSpillFile}
+ * instead of being lost. Pending and processing statuses are kept only for {@code pending-ttl},
+ * which absorbs bursts of polls without hiding a transition for long. A terminal entry is
+ * never replaced by a non-terminal one. Filled from both submissions and status lookups, so
+ * the first poll after a payment is answered without calling the processor.
+ */
+@Service
+public class PaymentStatusCache implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentStatusCache.class);
+
+    private final boolean enabled;
+    private final Cache<String, PaymentResponse> terminal;
+    private final Cache<String, PaymentResponse> pending;
+    private final PaymentStatusSpillFile spillFile;
+    private final Counter spilled;
+    private final Counter spillHits;
+
+    @Autowired
+    public PaymentStatusCache(PaymentStatusCacheProperties properties, ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        this(properties, objectMapper, meterRegistry, ForkJoinPool.commonPool());
+    }
+
+    PaymentStatusCache(PaymentStatusCacheProperties properties, ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry, Executor maintenanceExecutor) {
+        this.enabled = properties.isEnabled();
+        PaymentStatusCacheProperties.Spill spill = properties.getSpill();
+        this.spillFile = enabled && spill.isEnabled()
+                ? new PaymentStatusSpillFile(spill.getFile(), spill.getSize().toBytes(), spill.getMaximumEntries(),
+                        properties.getTerminalTtl(), objectMapper)
+                : null;
+
+        this.terminal = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumTerminal())
+                .expireAfterWrite(properties.getTerminalTtl())
+                .executor(maintenanceExecutor)
+                .removalListener((String transactionId, PaymentResponse response, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE && response != null) {
+                        spill(response);
+                    }
+                })
+                .recordStats()
+                .build();
+        this.pending = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumPending())
+                .expireAfterWrite(properties.getPendingTtl())
+                .executor(maintenanceExecutor)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, terminal, "payments.status.terminal");
+        CaffeineCacheMetrics.monitor(meterRegistry, pending, "payments.status.pending");
+        this.spilled = spillCounter(meterRegistry, "written");
+        this.spillHits = spillCounter(meterRegistry, "hit");
+        if (spillFile != null) {
+            Gauge.builder("payments.status.spill.entries", spillFile, PaymentStatusSpillFile::size)
+                    .description("Terminal payment statuses indexed in the spill file")
+                    .register(meterRegistry);
+            log.info("Terminal payment statuses spill to {} ({})", spill.getFile(), spill.getSize());
+        }
+    }
+
+    /**
+     * Cached status of a payment
+     *
+     * @param transactionId Transaction ID
+     * @return Last known status, or null if none is cached
+     */
+    public PaymentResponse get(String transactionId) {
+        if (!enabled || transactionId == null) {
+            return null;
+        }
+        PaymentResponse response = terminal.getIfPresent(transactionId);
+        if (response == null && spillFile != null) {
+            response = spillFile.read(transactionId);
+            if (response != null) {
+                spillHits.increment();
+            }
+        }
+        if (response == null) {
+            response = pending.getIfPresent(transactionId);
+        }
+        return response;
+    }
+
+    /**
+     * Remember a status reported by the payment processor
+     *
+     * @param response Payment response carrying a transaction ID and status
+     */
+    public void put(PaymentResponse response) {
+        if (!enabled || response == null || response.getTransactionId() == null || response.getStatus() == null) {
+            return;
+        }
+        String transactionId = response.getTransactionId();
+        if (response.getStatus().isTerminal()) {
+            terminal.put(transactionId, response);
+            pending.invalidate(transactionId);
+        } else if (terminal.getIfPresent(transactionId) == null) {
+            pending.put(transactionId, response);
+        }
+    }
+
+    private void spill(PaymentResponse response) {
+        if (spillFile != null && spillFile.write(response)) {
+            spilled.increment();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (spillFile != null) {
+            spillFile.close();
+        }
+    }
+
+    private static Counter spillCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("payments.status.spill")
+                .description("Terminal payment statuses written to and read back from the spill file")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
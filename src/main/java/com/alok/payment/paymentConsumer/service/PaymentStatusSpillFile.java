@@ -0,0 +1,150 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.dto.PaymentResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ * Memory-mapped ring of terminal payment statuses that no longer fit in memory
+ *
+ * Each status is appended as its JSON length and bytes; an on-heap index maps the transaction
+ * ID to the record's absolute position, which keeps the heap cost per entry to a key and a
+ * long. Once the ring is full new records overwrite the oldest; a reader detects that its
+ * record was overwritten from the write position and treats it as a miss. Writes and the
+ * copy out of a read hold the file's monitor, so a read never sees a record half
+ * overwritten; spill reads are rare, and the JSON is parsed after the lock is released. The
+ * file is scratch space: it is truncated on startup and deleted on close, and its contents
+ * are lost with the index on restart.
+ */
+class PaymentStatusSpillFile implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentStatusSpillFile.class);
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private final Cache<String, Long> index;
+    // Absolute position up to which space has been handed out; only ever grows. Guarded by this
+    private long head;
+
+    PaymentStatusSpillFile(Path file, long size, long maximumEntries, Duration ttl, ObjectMapper objectMapper) {
+        if (size < 1024 || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Status spill file size must be between 1KB and 2GB: " + size);
+        }
+        this.file = file;
+        this.capacity = (int) size;
+        this.writer = objectMapper.writerFor(PaymentResponse.class);
+        this.reader = objectMapper.readerFor(PaymentResponse.class);
+        this.index = Caffeine.newBuilder()
+                .maximumSize(maximumEntries)
+                .expireAfterWrite(ttl)
+                .build();
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Cannot map payment status spill file: " + file, ex);
+        }
+    }
+
+    synchronized boolean write(PaymentResponse response) {
+        byte[] payload;
+        try {
+            payload = writer.writeValueAsBytes(response);
+        } catch (IOException ex) {
+            log.warn("Could not spill status of transaction {}: {}", response.getTransactionId(), ex.getMessage());
+            return false;
+        }
+        int length = Integer.BYTES + payload.length;
+        if (length > capacity) {
+            return false;
+        }
+
+        long start = head;
+        int offset = (int) (start % capacity);
+        if (offset + length > capacity) {
+            // Records never wrap; skip the tail of the ring
+            start += capacity - offset;
+            offset = 0;
+        }
+        head = start + length;
+        buffer.putInt(offset, payload.length);
+        buffer.put(offset + Integer.BYTES, payload);
+        index.put(response.getTransactionId(), start);
+        return true;
+    }
+
+    PaymentResponse read(String transactionId) {
+        Long start = index.getIfPresent(transactionId);
+        if (start == null) {
+            return null;
+        }
+        byte[] payload = copy(start);
+        if (payload == null) {
+            index.asMap().remove(transactionId, start);
+            return null;
+        }
+
+        try {
+            PaymentResponse response = reader.readValue(payload);
+            return transactionId.equals(response.getTransactionId()) ? response : null;
+        } catch (IOException ex) {
+            log.warn("Unreadable spilled status of transaction {}: {}", transactionId, ex.getMessage());
+            index.asMap().remove(transactionId, start);
+            return null;
+        }
+    }
+
+    /**
+     * Bytes of the record written at an absolute position, or null once it has been overwritten
+     */
+    private synchronized byte[] copy(long start) {
+        if (head > start + capacity) {
+            return null;
+        }
+        int offset = (int) (start % capacity);
+        int length = buffer.getInt(offset);
+        if (length < 0 || length > capacity - offset - Integer.BYTES) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(offset + Integer.BYTES, payload);
+        return payload;
+    }
+
+    long size() {
+        return index.estimatedSize();
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Could not remove payment status spill file {}: {}", file, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.dto.ErrorResponse;
+import com.alok.payment.paymentConsumer.dto.PaymentResponse;
+import com.alok.payment.paymentConsumer.exception.RateLimitedLogger;
+import com.alok.payment.paymentConsumer.exception.ResourceNotFoundException;
+import com.alok.payment.paymentConsumer.model.Account;
+import com.alok.payment.paymentConsumer.model.PaymentStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+/**
+ * Pushes payment status transitions to Server-Sent Event subscribers
+ *
+ * All subscribers of a transaction share one watch, which polls the payment processor on a
+ * virtual thread and sends an event only when the status changes. The polling interval starts
+ * at {@code initial-interval}, grows by {@code backoff-multiplier} while the status stays the
+ * same, up to {@code max-interval}, and goes back to the start after every change. Once the
+ * status is terminal the streams are completed; the watch stops as soon as its last subscriber
+ * leaves. Open streams are async requests and hold no thread while waiting.
+ */
+@Service
+public class PaymentStatusWatcher implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentStatusWatcher.class);
+    private static final RateLimitedLogger failureLog = new RateLimitedLogger(log);
+
+    static final String STATUS_EVENT = "status";
+    static final String ERROR_EVENT = "error";
+
+    private final PaymentConsumerService paymentConsumerService;
+    private final AccountService accountService;
+    private final ObservationRegistry observationRegistry;
+    private final long initialIntervalNanos;
+    private final long maxIntervalNanos;
+    private final double backoffMultiplier;
+    private final long streamTimeoutMillis;
+    private final LongFunction<SseEmitter> emitterFactory;
+
+    private final Map<String, Watch> watches = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("payment-status-watcher").daemon().factory());
+    private final ExecutorService pollers = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Counter changedPolls;
+    private final Counter unchangedPolls;
+    private final Counter failedPolls;
+
+    @Autowired
+    public PaymentStatusWatcher(
+            PaymentConsumerService paymentConsumerService,
+            AccountService accountService,
+            ObservationRegistry observationRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${payments.status-stream.initial-interval:500ms}") Duration initialInterval,
+            @Value("${payments.status-stream.max-interval:10s}") Duration maxInterval,
+            @Value("${payments.status-stream.backoff-multiplier:1.5}") double backoffMultiplier,
+            @Value("${payments.status-stream.timeout:10m}") Duration streamTimeout) {
+        this(paymentConsumerService, accountService, observationRegistry, meterRegistry, initialInterval, maxInterval,
+                backoffMultiplier, streamTimeout, SseEmitter::new);
+    }
+
+    PaymentStatusWatcher(
+            PaymentConsumerService paymentConsumerService,
+            AccountService accountService,
+            ObservationRegistry observationRegistry,
+            MeterRegistry meterRegistry,
+            Duration initialInterval,
+            Duration maxInterval,
+            double backoffMultiplier,
+            Duration streamTimeout,
+            LongFunction<SseEmitter> emitterFactory) {
+        if (initialInterval.isNegative() || initialInterval.isZero() || maxInterval.compareTo(initialInterval) < 0) {
+            throw new IllegalArgumentException("Status stream intervals must satisfy 0 < initial <= max: "
+                    + initialInterval + ".." + maxInterval);
+        }
+        if (backoffMultiplier < 1) {
+            throw new IllegalArgumentException("Status stream backoff multiplier must be at least 1: " + backoffMultiplier);
+        }
+        this.paymentConsumerService = paymentConsumerService;
+        this.accountService = accountService;
+        this.observationRegistry = observationRegistry;
+        this.initialIntervalNanos = initialInterval.toNanos();
+        this.maxIntervalNanos = maxInterval.toNanos();
+        this.backoffMultiplier = backoffMultiplier;
+        this.streamTimeoutMillis = streamTimeout.toMillis();
+        this.emitterFactory = emitterFactory;
+
+        Gauge.builder("payments.status.streams", subscribers, AtomicInteger::get)
+                .description("Open payment status event streams")
+                .register(meterRegistry);
+        Gauge.builder("payments.status.watched", watches, Map::size)
+                .description("Transactions whose status is being polled for event streams")
+                .register(meterRegistry);
+        this.changedPolls = pollCounter(meterRegistry, "changed");
+        this.unchangedPolls = pollCounter(meterRegistry, "unchanged");
+        this.failedPolls = pollCounter(meterRegistry, "failed");
+    }
+
+    /**
+     * Subscribe to the status transitions of a payment
+     * The current status is sent right away, then every change until the status is terminal
+     *
+     * @param transactionId Transaction ID
+     * @param customerId Customer ID
+     * @return Event stream of the payment's status
+     */
+    public SseEmitter subscribe(String transactionId, String customerId) {
+        if (transactionId == null || transactionId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Transaction ID cannot be null or empty");
+        }
+        if (customerId == null || customerId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Customer ID cannot be null or empty");
+        }
+
+        // Validate customer exists, once per stream rather than once per poll
+        Account account = accountService.getAccountByCustomerId(customerId);
+        if (account == null) {
+            throw new ResourceNotFoundException("Account not found for customer: " + customerId);
+        }
+
+        SseEmitter emitter = emitterFactory.apply(streamTimeoutMillis);
+        Watch watch;
+        while (true) {
+            Watch candidate = watches.computeIfAbsent(transactionId, Watch::new);
+            if (candidate.join(emitter)) {
+                watch = candidate;
+                break;
+            }
+            // Finished while we joined it; make room for a fresh watch
+            watches.remove(transactionId, candidate);
+        }
+        log.atInfo()
+                .addKeyValue("transactionId", transactionId)
+                .addKeyValue("customerId", customerId)
+                .log("Status stream opened");
+
+        emitter.onCompletion(() -> watch.remove(emitter));
+        emitter.onTimeout(() -> watch.remove(emitter));
+        emitter.onError(error -> watch.remove(emitter));
+        return emitter;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        pollers.shutdownNow();
+        watches.values().forEach(Watch::completeAll);
+    }
+
+    private static SseEmitter.SseEventBuilder statusEvent(PaymentResponse response) {
+        return SseEmitter.event()
+                .name(STATUS_EVENT)
+                .id(response.getStatus() != null ? response.getStatus().name() : null)
+                .data(response, MediaType.APPLICATION_JSON);
+    }
+
+    private static Counter pollCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("payments.status.polls")
+                .description("Payment processor status polls made for event streams")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Polling of one transaction on behalf of all its subscribers
+     */
+    private final class Watch {
+
+        private final String transactionId;
+        private final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+        private volatile PaymentResponse last;
+        private long intervalNanos = initialIntervalNanos;
+        private ScheduledFuture<?> next;
+        private boolean started;
+        private boolean closed;
+
+        private Watch(String transactionId) {
+            this.transactionId = transactionId;
+        }
+
+        /**
+         * Add a subscriber, greeting it with the status known so far
+         * The emitter is not handed to the container yet, so sending only buffers; doing it
+         * under the monitor keeps it ahead of any status change broadcast later
+         */
+        synchronized boolean join(SseEmitter emitter) {
+            if (closed) {
+                return false;
+            }
+            emitters.add(emitter);
+            subscribers.incrementAndGet();
+            // A reconnect time commits the response headers even before there is a status to send
+            send(emitter, last != null
+                    ? statusEvent(last).reconnectTime(reconnectMillis())
+                    : SseEmitter.event().reconnectTime(reconnectMillis()));
+            if (!started) {
+                started = true;
+                schedule(0);
+            }
+            return true;
+        }
+
+        /**
+         * Drop a subscriber, closing the watch with the last one
+         * The check for the last one and the closing happen under the monitor {@link #join}
+         * takes, so a subscriber cannot join a watch that is about to close
+         */
+        void remove(SseEmitter emitter) {
+            synchronized (this) {
+                if (!emitters.remove(emitter)) {
+                    return;
+                }
+                subscribers.decrementAndGet();
+                if (!emitters.isEmpty() || !markClosed()) {
+                    return;
+                }
+            }
+            watches.remove(transactionId, this);
+        }
+
+        synchronized void schedule(long delayNanos) {
+            if (closed) {
+                return;
+            }
+            try {
+                // The scheduler only hands over; the blocking poll runs on a virtual thread
+                next = scheduler.schedule(() -> pollers.execute(this::poll), delayNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException ex) {
+                log.debug("Status watch for transaction {} not rescheduled: shutting down", transactionId);
+            }
+        }
+
+        /**
+         * Poll once, as a trace of its own: no request is waiting on it
+         */
+        private void poll() {
+            Observation observation = Observation.createNotStarted("payments.status.poll", observationRegistry)
+                    .contextualName("payment status poll")
+                    .highCardinalityKeyValue("transactionId", transactionId);
+            observation.observe(() -> poll(observation));
+        }
+
+        private void poll(Observation observation) {
+            PaymentResponse response;
+            try {
+                response = paymentConsumerService.fetchPaymentStatus(transactionId);
+            } catch (ResourceNotFoundException ex) {
+                failedPolls.increment();
+                SseEmitter.SseEventBuilder event = SseEmitter.event()
+                        .name(ERROR_EVENT)
+                        .data(new ErrorResponse("Resource Not Found", ex.getMessage(), null,
+                                HttpStatus.NOT_FOUND.value()), MediaType.APPLICATION_JSON);
+                emitters.forEach(emitter -> send(emitter, event));
+                completeAll();
+                return;
+            } catch (RuntimeException ex) {
+                // Downstream trouble: keep the streams open and try again later
+                failedPolls.increment();
+                observation.error(ex);
+                failureLog.warn("Status poll for transaction {} failed: {}", transactionId, ex.getMessage());
+                schedule(backOff());
+                return;
+            }
+
+            PaymentStatus status = response.getStatus();
+            observation.highCardinalityKeyValue("payment.status", String.valueOf(status));
+            PaymentResponse previous = last;
+            if (previous == null || previous.getStatus() != status) {
+                changedPolls.increment();
+                intervalNanos = initialIntervalNanos;
+                // Subscribers joining from here on are greeted with the new status
+                List<SseEmitter> targets;
+                synchronized (this) {
+                    last = response;
+                    targets = List.copyOf(emitters);
+                }
+                SseEmitter.SseEventBuilder event = statusEvent(response);
+                targets.forEach(emitter -> send(emitter, event));
+            } else {
+                unchangedPolls.increment();
+                backOff();
+            }
+
+            if (status != null && status.isTerminal()) {
+                completeAll();
+            } else {
+                schedule(intervalNanos);
+            }
+        }
+
+        private long reconnectMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(initialIntervalNanos);
+        }
+
+        private long backOff() {
+            intervalNanos = Math.min(maxIntervalNanos, (long) (intervalNanos * backoffMultiplier));
+            return intervalNanos;
+        }
+
+        void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException ex) {
+                // The client went away; the container reports it through the emitter callbacks too
+                log.debug("Dropping status stream of transaction {}: {}", transactionId, ex.getMessage());
+                remove(emitter);
+            }
+        }
+
+        void completeAll() {
+            close();
+            emitters.forEach(emitter -> {
+                emitter.complete();
+                remove(emitter);
+            });
+        }
+
+        private void close() {
+            if (markClosed()) {
+                watches.remove(transactionId, this);
+            }
+        }
+
+        /**
+         * Stop polling and refuse new subscribers
+         *
+         * @return Whether this call closed the watch
+         */
+        private synchronized boolean markClosed() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            if (next != null) {
+                next.cancel(false);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.dto.PaymentRequest;
+import com.alok.payment.paymentConsumer.exception.PaymentProcessingException;
+import com.alok.payment.paymentConsumer.exception.RateLimitedLogger;
+import com.alok.payment.paymentConsumer.exception.ResourceNotFoundException;
+import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
+import com.alok.payment.paymentConsumer.model.Account;
+import com.alok.payment.paymentConsumer.model.Beneficiary;
+import com.alok.payment.paymentConsumer.tracing.CurrentTrace;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Validation stage of the payment pipeline
+ *
+ * Account and beneficiary checks are independent, so when a beneficiary is given they run
+ * concurrently on virtual threads. The first rejection fails the stage and cancels the checks
+ * that are still running, which keeps the beneficiary round-trip off the critical path.
+ * Each check is timed as {@code payment.validation.stage{stage=account|beneficiary|total}}.
+ */
+@Component
+public class PaymentValidationStage implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentValidationStage.class);
+    private static final RateLimitedLogger failureLog = new RateLimitedLogger(log);
+
+    private final AccountService accountService;
+    private final BeneficiaryCache beneficiaryCache;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Timer accountTimer;
+    private final Timer beneficiaryTimer;
+    private final Timer totalTimer;
+
+    public PaymentValidationStage(
+            AccountService accountService,
+            BeneficiaryCache beneficiaryCache,
+            MeterRegistry meterRegistry) {
+        this.accountService = accountService;
+        this.beneficiaryCache = beneficiaryCache;
+        this.accountTimer = stageTimer(meterRegistry, "account");
+        this.beneficiaryTimer = stageTimer(meterRegistry, "beneficiary");
+        this.totalTimer = stageTimer(meterRegistry, "total");
+    }
+
+    /**
+     * Validate a payment request, failing on the first rejected check
+     *
+     * @param paymentRequest Payment request
+     */
+    public void validate(PaymentRequest paymentRequest) {
+        if (paymentRequest.getBeneficiaryId() == null) {
+            totalTimer.record(() -> accountTimer.record(() -> validatePaymentRequest(paymentRequest)));
+            return;
+        }
+
+        totalTimer.record(() -> runAll(List.of(
+                () -> accountTimer.record(() -> validatePaymentRequest(paymentRequest)),
+                () -> beneficiaryTimer.record(() -> validateBeneficiary(paymentRequest)))));
+    }
+
+    /**
+     * Run the checks concurrently and wait until all pass or one fails
+     */
+    private void runAll(List<Runnable> checks) {
+        CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<Void>> running = new ArrayList<>(checks.size());
+        try {
+            for (Runnable check : checks) {
+                running.add(completionService.submit(CurrentTrace.wrap(check), null));
+            }
+            for (int i = 0; i < checks.size(); i++) {
+                completionService.take().get();
+            }
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new PaymentProcessingException("Payment validation failed", cause);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new PaymentProcessingException("Payment validation was interrupted", ex);
+        } finally {
+            // No-op for completed checks; interrupts the siblings of a failed one
+            running.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Validate payment request against the customer's account
+     *
+     * @param paymentRequest Payment request
+     */
+    public void validatePaymentRequest(PaymentRequest paymentRequest) {
+        // Resolve the from account through the account-number index
+        Account account = accountService.getAccountByAccountNumber(paymentRequest.getFromAccount());
+        if (account == null || !Objects.equals(account.getCustomerId(), paymentRequest.getCustomerId())) {
+            // Not the customer's account; look the customer up to report the right rejection
+            account = accountService.getAccountByCustomerId(paymentRequest.getCustomerId());
+        }
+        checkAccount(paymentRequest, account);
+    }
+
+    /**
+     * Check a payment request against the customer's account
+     *
+     * @param paymentRequest Payment request
+     * @param account Account of the customer, or null if there is none
+     */
+    public void checkAccount(PaymentRequest paymentRequest, Account account) {
+        // Validate customer exists
+        if (account == null) {
+            throw new ResourceNotFoundException("Account not found for customer: " + paymentRequest.getCustomerId());
+        }
+
+        // Validate from account belongs to customer
+        if (!account.getAccountNumber().equals(paymentRequest.getFromAccount())) {
+            throw new PaymentProcessingException("From account does not belong to customer");
+        }
+
+        // Validate account is active
+        if (account.getStatus() == null || !account.getStatus().equalsIgnoreCase("ACTIVE")) {
+            throw new PaymentProcessingException("Account is not active");
+        }
+
+        // Validate sufficient balance (simplified check)
+        if (account.getBalance() != null &&
+            account.getBalance().compareTo(paymentRequest.getAmount()) < 0) {
+            throw new PaymentProcessingException("Insufficient balance");
+        }
+    }
+
+    /**
+     * Validate beneficiary exists and belongs to customer
+     */
+    private void validateBeneficiary(PaymentRequest paymentRequest) {
+        validateBeneficiary(paymentRequest, () -> beneficiaryCache.getBeneficiary(
+                paymentRequest.getBeneficiaryId(),
+                paymentRequest.getCustomerId()
+        ));
+    }
+
+    /**
+     * Validate a payment request against the beneficiary returned by the lookup
+     *
+     * Only a missing beneficiary rejects the payment; lookup and check failures are logged
+     * and the payment continues without beneficiary validation.
+     *
+     * @param paymentRequest Payment request
+     * @param lookup Beneficiary lookup, returning null if not found
+     */
+    public void validateBeneficiary(PaymentRequest paymentRequest, Supplier<Beneficiary> lookup) {
+        try {
+            checkBeneficiary(paymentRequest, lookup.get());
+        } catch (ResourceNotFoundException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            if (Thread.currentThread().isInterrupted()) {
+                log.debug("Beneficiary validation cancelled: {}", ex.getMessage());
+                return;
+            }
+            if (ex instanceof ServiceUnavailableException) {
+                failureLog.error("Error validating beneficiary: {}", ex.getMessage());
+            } else {
+                log.error("Error validating beneficiary: {}", ex.getMessage(), ex);
+            }
+            // Continue without beneficiary validation if service is unavailable
+            // This is a graceful degradation
+        }
+    }
+
+    private void checkBeneficiary(PaymentRequest paymentRequest, Beneficiary beneficiary) {
+        if (beneficiary == null) {
+            throw new ResourceNotFoundException(
+                    "Beneficiary not found with ID: " + paymentRequest.getBeneficiaryId());
+        }
+
+        // Validate beneficiary account matches payment to account
+        if (beneficiary.getBeneficiaryAccountNumber() != null &&
+            !beneficiary.getBeneficiaryAccountNumber().equals(paymentRequest.getToAccount())) {
+            throw new PaymentProcessingException(
+                    "Beneficiary account number does not match payment to account");
+        }
+
+        // Validate beneficiary is active
+        if (beneficiary.getStatus() == null ||
+            !beneficiary.getStatus().equalsIgnoreCase("ACTIVE")) {
+            throw new PaymentProcessingException("Beneficiary is not active");
+        }
+    }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("payment.validation.stage")
+                .description("Time spent in each payment validation check")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,409 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.dto.BatchPaymentResponse;
+import com.alok.payment.paymentConsumer.dto.PaymentRequest;
+import com.alok.payment.paymentConsumer.dto.PaymentResponse;
+import com.alok.payment.paymentConsumer.dto.PaymentStreamResult;
+import com.alok.payment.paymentConsumer.exception.PaymentProcessingException;
+import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
+import com.alok.payment.paymentConsumer.model.PaymentStatus;
+import com.alok.payment.paymentConsumer.tracing.CurrentTrace;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming ingestion of newline-delimited payment requests
+ *
+ * Lines are read one at a time and each payment is processed on its own virtual thread.
+ * A window of permits bounds the lines being answered, from the moment they are read until
+ * their result has been written; when it is full the reader stops reading, so a fast
+ * producer and a slow consumer are both held back by TCP flow control and heap use does
+ * not grow with the size of the input. Results are written as NDJSON in completion order,
+ * each tagged with its input line. The stream ends only once every payment has answered;
+ * payments still running after the drain timeout are written as PENDING.
+ */
+@Service
+public class StreamingPaymentService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingPaymentService.class);
+
+    private static final PaymentStreamResult END_OF_STREAM = new PaymentStreamResult();
+
+    private final PaymentConsumerService paymentConsumerService;
+    private final Validator validator;
+    private final ObjectReader requestReader;
+    private final ObjectWriter resultWriter;
+    private final MeterRegistry meterRegistry;
+    private final int window;
+    private final int maxLineLength;
+    private final Duration drainTimeout;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public StreamingPaymentService(
+            PaymentConsumerService paymentConsumerService,
+            Validator validator,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${payments.stream.window:64}") int window,
+            @Value("${payments.stream.max-line-length:65536}") int maxLineLength,
+            @Value("${payments.stream.drain-timeout:60s}") Duration drainTimeout) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Stream window must be at least 1");
+        }
+        this.paymentConsumerService = paymentConsumerService;
+        this.validator = validator;
+        this.requestReader = objectMapper.readerFor(PaymentRequest.class);
+        this.resultWriter = objectMapper.writerFor(PaymentStreamResult.class);
+        this.meterRegistry = meterRegistry;
+        this.window = window;
+        this.maxLineLength = maxLineLength;
+        this.drainTimeout = drainTimeout;
+    }
+
+    /**
+     * Process every payment request in the input and write one result line per request
+     *
+     * @param input NDJSON payment requests
+     * @param output NDJSON payment results, in completion order
+     * @return Summary of the processed stream
+     */
+    public BatchPaymentResponse.Summary ingest(InputStream input, OutputStream output) throws IOException {
+        long started = System.nanoTime();
+        Semaphore permits = new Semaphore(window);
+        ResultWriter writer = new ResultWriter(new BufferedOutputStream(output), permits);
+        Future<?> writing = executor.submit(writer);
+
+        long lines = 0;
+        long answered = 0;
+        try {
+            LineReader reader = new LineReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+            String line;
+            while (!writer.hasFailed() && (line = reader.readLine()) != null) {
+                lines++;
+                if (line.isBlank() && !reader.wasTruncated()) {
+                    continue;
+                }
+                permits.acquire();
+                if (writer.hasFailed()) {
+                    break;
+                }
+                dispatch(lines, line, reader.wasTruncated(), writer);
+                answered++;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new PaymentProcessingException("Payment stream was interrupted", ex);
+        } finally {
+            writer.finish(answered);
+            awaitWriter(writing);
+        }
+
+        if (writer.failure != null) {
+            throw writer.failure;
+        }
+        BatchPaymentResponse.Summary summary = new BatchPaymentResponse.Summary(
+                writer.total, writer.completed, writer.failed, writer.total - writer.completed - writer.failed,
+                (System.nanoTime() - started) / 1_000_000);
+        log.info("Payment stream finished: {} lines, {} completed, {} failed, {} pending",
+                lines, summary.getCompleted(), summary.getFailed(), summary.getPending());
+        return summary;
+    }
+
+    /**
+     * Parse and validate a line, then process it on a virtual thread
+     *
+     * Every dispatched line is answered by exactly one result, whose permit the writer
+     * returns once the result has been written.
+     */
+    private void dispatch(long lineNumber, String line, boolean truncated, ResultWriter writer) {
+        if (truncated) {
+            writer.add(new PaymentStreamResult(lineNumber, PaymentResponse.failed(null, "Payment rejected",
+                    "Payment request exceeds " + maxLineLength + " characters")));
+            return;
+        }
+
+        PaymentRequest request;
+        try {
+            request = requestReader.readValue(line);
+        } catch (JsonProcessingException ex) {
+            writer.add(new PaymentStreamResult(lineNumber, PaymentResponse.failed(null, "Payment rejected",
+                    "Malformed payment request: " + ex.getOriginalMessage())));
+            return;
+        }
+        if (request == null) {
+            writer.add(new PaymentStreamResult(lineNumber, PaymentResponse.failed(null, "Payment rejected",
+                    "Payment request cannot be null")));
+            return;
+        }
+
+        Set<ConstraintViolation<PaymentRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            writer.add(new PaymentStreamResult(lineNumber, PaymentResponse.failed(request, "Payment rejected",
+                    violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .sorted()
+                            .collect(Collectors.joining(", ")))));
+            return;
+        }
+
+        Runnable payment = () -> {
+            PaymentResponse response = null;
+            try {
+                response = process(request);
+            } finally {
+                // Also reached when the payment dies with an Error or is interrupted
+                writer.add(new PaymentStreamResult(lineNumber, response != null ? response
+                        : PaymentResponse.failed(request, "Payment rejected", "Payment processing failed")));
+            }
+        };
+        writer.inFlight.put(lineNumber, request);
+        try {
+            executor.execute(CurrentTrace.wrap(payment));
+        } catch (RejectedExecutionException ex) {
+            writer.inFlight.remove(lineNumber);
+            writer.add(new PaymentStreamResult(lineNumber, PaymentResponse.failed(request,
+                    "Payment submission failed", "Payment consumer is shutting down")));
+        }
+    }
+
+    private PaymentResponse process(PaymentRequest request) {
+        try {
+            return paymentConsumerService.processPayment(request);
+        } catch (ServiceUnavailableException ex) {
+            return PaymentResponse.failed(request, "Payment submission failed", ex.getMessage());
+        } catch (RuntimeException ex) {
+            return PaymentResponse.failed(request, "Payment rejected", ex.getMessage());
+        }
+    }
+
+    private static void awaitWriter(Future<?> writing) {
+        try {
+            writing.get();
+        } catch (ExecutionException ex) {
+            log.error("Payment stream writer failed: {}", ex.getCause().getMessage(), ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Writes results as they complete, flushing whenever it has caught up, and returns each
+     * result's permit once it is written
+     *
+     * Every queued result holds a permit, so the queue never holds more than the window.
+     * After a write failure it keeps draining results so their counts are complete; the
+     * reader stops reading once it sees the failure. If the writer itself is interrupted it
+     * returns a whole window of permits so a reader waiting for one sees the failure.
+     */
+    private final class ResultWriter implements Runnable {
+
+        private final BlockingQueue<PaymentStreamResult> results = new LinkedBlockingQueue<>(window + 1);
+        /** Payments started but not yet written, by input line */
+        private final Map<Long, PaymentRequest> inFlight = new ConcurrentSkipListMap<>();
+        private final OutputStream output;
+        private final Semaphore permits;
+        private volatile IOException failure;
+        private long answered;
+        private int total;
+        private int completed;
+        private int failed;
+
+        private ResultWriter(OutputStream output, Semaphore permits) {
+            this.output = output;
+            this.permits = permits;
+        }
+
+        private boolean hasFailed() {
+            return failure != null;
+        }
+
+        /**
+         * Queue a result, which holds its line's permit until it is written
+         */
+        private void add(PaymentStreamResult result) {
+            if (!results.offer(result)) {
+                // Only once the writer has stopped; nothing would write the result anyway
+                permits.release();
+            }
+        }
+
+        /**
+         * Mark the end of the input, once the reader has dispatched all its lines
+         *
+         * @param answered Number of results the dispatched lines will produce
+         */
+        private void finish(long answered) {
+            this.answered = answered;
+            results.offer(END_OF_STREAM);
+        }
+
+        @Override
+        public void run() {
+            try {
+                boolean ending = false;
+                long deadline = 0;
+                while (!ending || total < answered) {
+                    PaymentStreamResult result;
+                    if (!ending) {
+                        result = results.take();
+                    } else {
+                        result = results.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (result == null) {
+                            writePending();
+                            break;
+                        }
+                    }
+                    if (result == END_OF_STREAM) {
+                        ending = true;
+                        deadline = System.nanoTime() + drainTimeout.toNanos();
+                        continue;
+                    }
+                    write(result);
+                    permits.release();
+                    if (results.isEmpty()) {
+                        flush();
+                    }
+                }
+                flush();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                if (failure == null) {
+                    failure = new InterruptedIOException("Payment stream writer was interrupted");
+                }
+                permits.release(window);
+            }
+        }
+
+        /**
+         * Answer the payments still running after the drain timeout; their outcome is unknown,
+         * and results arriving later are not written
+         */
+        private void writePending() {
+            log.warn("Payment stream ended with {} payments unfinished after {}", inFlight.size(), drainTimeout);
+            for (Map.Entry<Long, PaymentRequest> payment : inFlight.entrySet()) {
+                PaymentResponse pending = PaymentResponse.failed(payment.getValue(), "Payment outcome unknown",
+                        "Payment was still being processed when the stream ended");
+                pending.setStatus(PaymentStatus.PENDING);
+                write(new PaymentStreamResult(payment.getKey(), pending));
+            }
+        }
+
+        private void write(PaymentStreamResult result) {
+            inFlight.remove(result.getLine());
+            PaymentStatus status = result.getPayment().getStatus();
+            total++;
+            if (status == PaymentStatus.COMPLETED) {
+                completed++;
+            } else if (status != null && status.isFailure()) {
+                failed++;
+            }
+            meterRegistry.counter("payments.stream.results",
+                    "status", status == null ? "UNKNOWN" : status.name()).increment();
+
+            if (failure != null) {
+                return;
+            }
+            try {
+                output.write(resultWriter.writeValueAsBytes(result));
+                output.write('\n');
+            } catch (IOException ex) {
+                failure = ex;
+                log.warn("Payment stream client went away: {}", ex.getMessage());
+            }
+        }
+
+        private void flush() {
+            if (failure != null) {
+                return;
+            }
+            try {
+                output.flush();
+            } catch (IOException ex) {
+                failure = ex;
+                log.warn("Payment stream client went away: {}", ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads lines of bounded length; longer lines are consumed but not kept
+     */
+    private final class LineReader {
+
+        private final Reader reader;
+        private final StringBuilder line = new StringBuilder();
+        private boolean truncated;
+
+        private LineReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        private String readLine() throws IOException {
+            line.setLength(0);
+            truncated = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (c == '\n') {
+                    return current();
+                }
+                if (line.length() < maxLineLength) {
+                    line.append((char) c);
+                } else {
+                    truncated = true;
+                }
+            }
+            return line.isEmpty() && !truncated ? null : current();
+        }
+
+        private String current() {
+            int end = line.length();
+            if (end > 0 && line.charAt(end - 1) == '\r') {
+                end--;
+            }
+            return truncated ? "" : line.substring(0, end);
+        }
+
+        private boolean wasTruncated() {
+            return truncated;
+        }
+    }
+}
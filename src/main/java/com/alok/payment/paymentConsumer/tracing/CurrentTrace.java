@@ -0,0 +1,59 @@
+package com.alok.payment.paymentConsumer.tracing;
+
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Carries the current observation, and with it the current span and the {@code traceId}
+ * and {@code spanId} log fields, onto the threads work is handed to
+ *
+ * That is how a payment's trace follows it onto the hedging, validation, batch and
+ * downstream call threads; the HTTP exchanges made there become children of its span.
+ */
+public final class CurrentTrace {
+
+    private static final ContextSnapshotFactory snapshots = ContextSnapshotFactory.builder().build();
+    static final String FALLBACK_OBSERVATION = "downstream.fallback";
+
+    private CurrentTrace() {
+    }
+
+    /**
+     * Record a resilience fallback as a short child span of the current one, failed with its
+     * cause, which keeps the trace through tail sampling
+     *
+     * @param observationRegistry Registry the fallback observation is made in
+     * @param operation Client operation whose fallback ran
+     * @param cause Failure that triggered the fallback
+     */
+    public static void fallback(ObservationRegistry observationRegistry, String operation, Throwable cause) {
+        Observation observation = Observation.createNotStarted(FALLBACK_OBSERVATION, observationRegistry)
+                .contextualName(operation + " fallback")
+                .lowCardinalityKeyValue("operation", operation)
+                .start();
+        observation.error(cause);
+        observation.stop();
+    }
+
+    public static Runnable wrap(Runnable task) {
+        return snapshots.captureAll().wrap(task);
+    }
+
+    public static <V> Callable<V> wrap(Callable<V> task) {
+        return snapshots.captureAll().wrap(task);
+    }
+
+    public static <V> Supplier<V> wrap(Supplier<V> task) {
+        ContextSnapshot snapshot = snapshots.captureAll();
+        return () -> {
+            try (ContextSnapshot.Scope scope = snapshot.setThreadLocals()) {
+                return task.get();
+            }
+        };
+    }
+}
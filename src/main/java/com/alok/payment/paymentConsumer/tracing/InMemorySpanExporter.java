@@ -0,0 +1,53 @@
+package com.alok.payment.paymentConsumer.tracing;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the latest exported traces in memory, for the {@code traces} actuator endpoint and tests
+ */
+public class InMemorySpanExporter implements SpanExporter {
+
+    private final int capacity;
+    private final Deque<List<SpanData>> traces = new ArrayDeque<>();
+
+    public InMemorySpanExporter(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Trace memory capacity must be at least 1: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        if (traces.size() == capacity) {
+            traces.removeFirst();
+        }
+        traces.addLast(List.copyOf(spans));
+        return CompletableResultCode.ofSuccess();
+    }
+
+    /**
+     * Exported traces, oldest first; spans ending after their root count as a trace of their own
+     */
+    public synchronized List<List<SpanData>> traces() {
+        return new ArrayList<>(traces);
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return CompletableResultCode.ofSuccess();
+    }
+}
@@ -0,0 +1,125 @@
+package com.alok.payment.paymentConsumer.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends kept traces to a file as OTLP/JSON lines, one {@code ExportTraceServiceRequest}
+ * per trace, for the collector's file receiver or an offline viewer
+ *
+ * Traces are handed to a writer thread through a bounded queue; when it is full, as in an
+ * outage where every trace fails and is kept, traces are dropped and counted as
+ * {@code tracing.spans.dropped{reason=export-queue-full}} rather than slowing requests down.
+ */
+public class OtlpFileSpanExporter implements SpanExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(OtlpFileSpanExporter.class);
+
+    private final ObjectMapper objectMapper;
+    private final BufferedWriter writer;
+    private final BlockingQueue<Collection<SpanData>> queue;
+    private final Thread worker;
+    private final Counter queueFull;
+    private volatile boolean closed;
+
+    public OtlpFileSpanExporter(Path file, int queueCapacity, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.queueFull = Counter.builder("tracing.spans.dropped")
+                .description("Spans of kept traces not exported")
+                .tag("reason", "export-queue-full")
+                .register(meterRegistry);
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot open trace file " + file, ex);
+        }
+        this.worker = Thread.ofPlatform().name("trace-exporter").daemon().start(this::drain);
+        log.info("Exporting kept traces to {}", file.toAbsolutePath());
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        if (closed || !queue.offer(spans)) {
+            queueFull.increment(spans.size());
+            return CompletableResultCode.ofFailure();
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    private void drain() {
+        List<Collection<SpanData>> batch = new ArrayList<>();
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Collection<SpanData> first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch);
+                for (Collection<SpanData> trace : batch) {
+                    writer.write(objectMapper.writeValueAsString(OtlpJson.encode(objectMapper, trace)));
+                    writer.newLine();
+                }
+                writer.flush();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException ex) {
+                log.warn("Failed to write {} traces: {}", batch.size(), ex.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        if (closed) {
+            return CompletableResultCode.ofSuccess();
+        }
+        closed = true;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            writer.close();
+        } catch (IOException ex) {
+            log.warn("Failed to close trace file: {}", ex.getMessage());
+            return CompletableResultCode.ofFailure();
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+}
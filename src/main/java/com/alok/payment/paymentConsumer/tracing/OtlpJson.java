@@ -0,0 +1,93 @@
+package com.alok.payment.paymentConsumer.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes spans as an OTLP/JSON {@code ExportTraceServiceRequest}, the format the
+ * OpenTelemetry collector's file receiver and most trace viewers read
+ */
+final class OtlpJson {
+
+    private OtlpJson() {
+    }
+
+    static ObjectNode encode(ObjectMapper objectMapper, Collection<SpanData> spans) {
+        Map<Resource, Map<InstrumentationScopeInfo, List<SpanData>>> grouped = new LinkedHashMap<>();
+        for (SpanData span : spans) {
+            grouped.computeIfAbsent(span.getResource(), resource -> new LinkedHashMap<>())
+                    .computeIfAbsent(span.getInstrumentationScopeInfo(), scope -> new ArrayList<>())
+                    .add(span);
+        }
+        ObjectNode request = objectMapper.createObjectNode();
+        ArrayNode resourceSpans = request.putArray("resourceSpans");
+        grouped.forEach((resource, scopes) -> {
+            ObjectNode resourceNode = resourceSpans.addObject();
+            addAttributes(resourceNode.putObject("resource"), resource.getAttributes());
+            ArrayNode scopeSpans = resourceNode.putArray("scopeSpans");
+            scopes.forEach((scope, scopeSpanData) -> {
+                ObjectNode scopeNode = scopeSpans.addObject();
+                scopeNode.putObject("scope").put("name", scope.getName());
+                ArrayNode spanNodes = scopeNode.putArray("spans");
+                scopeSpanData.forEach(span -> encode(spanNodes.addObject(), span));
+            });
+        });
+        return request;
+    }
+
+    private static void encode(ObjectNode node, SpanData span) {
+        node.put("traceId", span.getTraceId());
+        node.put("spanId", span.getSpanId());
+        if (span.getParentSpanContext().isValid()) {
+            node.put("parentSpanId", span.getParentSpanId());
+        }
+        node.put("name", span.getName());
+        // OTLP numbers kinds from 1 and status codes from 0, in the SDK's enum order
+        node.put("kind", span.getKind().ordinal() + 1);
+        // 64-bit integers are strings in OTLP/JSON
+        node.put("startTimeUnixNano", Long.toString(span.getStartEpochNanos()));
+        node.put("endTimeUnixNano", Long.toString(span.getEndEpochNanos()));
+        addAttributes(node, span.getAttributes());
+        if (!span.getEvents().isEmpty()) {
+            ArrayNode events = node.putArray("events");
+            for (EventData event : span.getEvents()) {
+                ObjectNode eventNode = events.addObject();
+                eventNode.put("timeUnixNano", Long.toString(event.getEpochNanos()));
+                eventNode.put("name", event.getName());
+                addAttributes(eventNode, event.getAttributes());
+            }
+        }
+        ObjectNode status = node.putObject("status");
+        status.put("code", span.getStatus().getStatusCode().ordinal());
+        if (!span.getStatus().getDescription().isEmpty()) {
+            status.put("message", span.getStatus().getDescription());
+        }
+    }
+
+    private static void addAttributes(ObjectNode node, Attributes attributes) {
+        ArrayNode array = node.putArray("attributes");
+        attributes.forEach((key, value) -> {
+            ObjectNode attribute = array.addObject();
+            attribute.put("key", key.getKey());
+            ObjectNode valueNode = attribute.putObject("value");
+            switch (key.getType()) {
+                case LONG -> valueNode.put("intValue", value.toString());
+                case DOUBLE -> valueNode.put("doubleValue", (Double) value);
+                case BOOLEAN -> valueNode.put("boolValue", (Boolean) value);
+                default -> valueNode.put("stringValue", String.valueOf(value));
+            }
+        });
+    }
+}
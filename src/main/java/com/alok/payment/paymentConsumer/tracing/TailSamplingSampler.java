@@ -0,0 +1,57 @@
+package com.alok.payment.paymentConsumer.tracing;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+import java.util.List;
+
+/**
+ * Takes the up-front sampling decision, but records every span either way
+ *
+ * A trace is sampled up front by the caller's {@code traceparent} flag if
+ * {@code respect-parent-sampled} is set, or by the {@code sample-ratio}; spans under a local
+ * parent follow it. Sampled spans carry the sampled flag downstream. The others are recorded
+ * unsampled, so the {@link TailSamplingSpanProcessor} still sees them and can keep their trace
+ * when it turns out failed or slow, while downstreams are not asked to sample it.
+ */
+public class TailSamplingSampler implements Sampler {
+
+    private final Sampler ratio;
+    private final boolean respectParentSampled;
+
+    public TailSamplingSampler(double sampleRatio, boolean respectParentSampled) {
+        if (sampleRatio < 0 || sampleRatio > 1) {
+            throw new IllegalArgumentException("Trace sample ratio must be between 0 and 1: " + sampleRatio);
+        }
+        this.ratio = Sampler.traceIdRatioBased(sampleRatio);
+        this.respectParentSampled = respectParentSampled;
+    }
+
+    @Override
+    public SamplingResult shouldSample(Context parentContext, String traceId, String name, SpanKind spanKind,
+                                       Attributes attributes, List<LinkData> parentLinks) {
+        SpanContext parent = Span.fromContext(parentContext).getSpanContext();
+        boolean sampled;
+        if (parent.isValid() && !parent.isRemote()) {
+            sampled = parent.isSampled();
+        } else {
+            sampled = (parent.isValid() && respectParentSampled && parent.isSampled())
+                    || ratio.shouldSample(parentContext, traceId, name, spanKind, attributes, parentLinks)
+                            .getDecision() == SamplingDecision.RECORD_AND_SAMPLE;
+        }
+        return sampled ? SamplingResult.recordAndSample() : SamplingResult.recordOnly();
+    }
+
+    @Override
+    public String getDescription() {
+        return "TailSamplingSampler{ratio=" + ratio.getDescription()
+                + ",respectParentSampled=" + respectParentSampled + "}";
+    }
+}
@@ -0,0 +1,247 @@
+package com.alok.payment.paymentConsumer.tracing;
+
+import com.alok.payment.paymentConsumer.config.TracingProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Takes the tail sampling decision on each trace and exports the kept ones
+ *
+ * The spans of a trace are buffered until its local root ends, i.e. the server span of a
+ * request or the root of background work. The trace is kept when any of its spans failed
+ * (error status, a recorded exception, or a {@code SERVER_ERROR} HTTP outcome), when the root
+ * took at least the slow threshold, or when it was sampled up front by the
+ * {@link TailSamplingSampler}; otherwise it is dropped. Spans ending after the root follow
+ * the decision one by one. Decisions are counted as
+ * {@code tracing.traces{outcome=error|slow|sampled|dropped}}.
+ *
+ * The exporter is owned by this processor rather than registered as a bean, so kept traces
+ * are not exported a second time by the batch processor Spring Boot sets up for exporter beans.
+ */
+public class TailSamplingSpanProcessor implements SpanProcessor {
+
+    private static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("outcome");
+    private static final String EXCEPTION_EVENT = "exception";
+    // How long a kept trace's late spans are still exported after its root ended
+    private static final Duration LATE_SPAN_WINDOW = Duration.ofMinutes(1);
+
+    private final long slowThresholdNanos;
+    private final int maxSpansPerTrace;
+    private final SpanExporter exporter;
+    private final Map<String, Trace> traces = new ConcurrentHashMap<>();
+    private final Cache<String, Boolean> keptTraces = Caffeine.newBuilder()
+            .expireAfterWrite(LATE_SPAN_WINDOW)
+            .maximumSize(10_000)
+            .build();
+    private final AtomicBoolean shutdown = new AtomicBoolean();
+
+    private final Counter keptError;
+    private final Counter keptSlow;
+    private final Counter keptSampled;
+    private final Counter dropped;
+    private final Counter droppedSpans;
+
+    public TailSamplingSpanProcessor(TracingProperties properties, SpanExporter exporter, MeterRegistry meterRegistry) {
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+        this.maxSpansPerTrace = properties.getMaxSpansPerTrace();
+        this.exporter = exporter;
+
+        this.keptError = traceCounter(meterRegistry, "error");
+        this.keptSlow = traceCounter(meterRegistry, "slow");
+        this.keptSampled = traceCounter(meterRegistry, "sampled");
+        this.dropped = traceCounter(meterRegistry, "dropped");
+        this.droppedSpans = Counter.builder("tracing.spans.dropped")
+                .description("Spans of kept traces not exported")
+                .tag("reason", "trace-limit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+        if (isLocalRoot(span.getParentSpanContext())) {
+            // Concurrent requests of one caller's trace share a buffer, settled by the last to end
+            traces.compute(span.getSpanContext().getTraceId(),
+                    (traceId, trace) -> Trace.rootStarted(trace));
+        }
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return true;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        SpanData data = span.toSpanData();
+        String traceId = data.getTraceId();
+        if (isLocalRoot(data.getParentSpanContext())) {
+            Trace trace = traces.get(traceId);
+            if (trace != null) {
+                rootEnded(traceId, trace, data);
+            }
+            return;
+        }
+        Trace trace = traces.get(traceId);
+        Decision decision = trace == null ? Decision.PENDING : trace.add(data, isError(data), maxSpansPerTrace);
+        // A trace no longer buffered had its root end already
+        if (decision == Decision.KEPT || (trace == null && keptTraces.getIfPresent(traceId) != null)) {
+            exporter.export(List.of(data));
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    private void rootEnded(String traceId, Trace trace, SpanData root) {
+        List<SpanData> export;
+        int overLimit;
+        synchronized (trace) {
+            trace.roots.add(root);
+            if (--trace.openRoots > 0) {
+                return;
+            }
+            trace.decision = decide(trace);
+            export = trace.decision == Decision.KEPT ? trace.spans() : null;
+            overLimit = trace.droppedSpans;
+            trace.roots.clear();
+            trace.spans.clear();
+        }
+        if (export != null) {
+            // Remembered before the buffer goes, so no late span misses the decision
+            keptTraces.put(traceId, Boolean.TRUE);
+        }
+        traces.remove(traceId, trace);
+        if (export == null) {
+            return;
+        }
+        if (overLimit > 0) {
+            droppedSpans.increment(overLimit);
+        }
+        exporter.export(export);
+    }
+
+    private Decision decide(Trace trace) {
+        if (trace.error || trace.roots.stream().anyMatch(TailSamplingSpanProcessor::isError)) {
+            keptError.increment();
+            return Decision.KEPT;
+        }
+        if (trace.roots.stream().anyMatch(root -> root.getEndEpochNanos() - root.getStartEpochNanos()
+                >= slowThresholdNanos)) {
+            keptSlow.increment();
+            return Decision.KEPT;
+        }
+        if (trace.roots.stream().anyMatch(root -> root.getSpanContext().isSampled())) {
+            keptSampled.increment();
+            return Decision.KEPT;
+        }
+        dropped.increment();
+        return Decision.DROPPED;
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return exporter.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        if (!shutdown.compareAndSet(false, true)) {
+            return CompletableResultCode.ofSuccess();
+        }
+        return exporter.shutdown();
+    }
+
+    private static boolean isLocalRoot(SpanContext parent) {
+        return !parent.isValid() || parent.isRemote();
+    }
+
+    private static boolean isError(SpanData span) {
+        return span.getStatus().getStatusCode() == StatusCode.ERROR
+                || "SERVER_ERROR".equals(span.getAttributes().get(OUTCOME))
+                || span.getEvents().stream().anyMatch(event -> EXCEPTION_EVENT.equals(event.getName()));
+    }
+
+    private static Counter traceCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("tracing.traces")
+                .description("Tail sampling decisions: traces kept for an error, for being slow, sampled up front, or dropped")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private enum Decision { PENDING, KEPT, DROPPED }
+
+    /**
+     * Spans of one trace that ended before its local roots; guarded by its monitor
+     */
+    private static final class Trace {
+
+        private final List<SpanData> roots = new ArrayList<>(1);
+        private final List<SpanData> spans = new ArrayList<>();
+        private Decision decision = Decision.PENDING;
+        private int openRoots;
+        private boolean error;
+        private int droppedSpans;
+
+        /**
+         * Buffer of a trace whose local root just started: the pending one, or a new one
+         */
+        static Trace rootStarted(Trace pending) {
+            Trace trace = pending;
+            if (trace == null) {
+                trace = new Trace();
+            }
+            synchronized (trace) {
+                if (trace.decision != Decision.PENDING) {
+                    // Settled but not yet removed; the new root starts a buffer of its own
+                    trace = new Trace();
+                }
+                trace.openRoots++;
+            }
+            return trace;
+        }
+
+        synchronized Decision add(SpanData span, boolean failed, int maxSpans) {
+            if (decision != Decision.PENDING) {
+                return decision;
+            }
+            error |= failed;
+            if (spans.size() < maxSpans) {
+                spans.add(span);
+            } else {
+                droppedSpans++;
+            }
+            return Decision.PENDING;
+        }
+
+        /**
+         * Local roots first, then the spans under them
+         */
+        List<SpanData> spans() {
+            List<SpanData> all = new ArrayList<>(roots.size() + spans.size());
+            all.addAll(roots);
+            all.addAll(spans);
+            return all;
+        }
+    }
+}
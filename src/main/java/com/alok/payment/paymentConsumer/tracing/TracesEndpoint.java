@@ -0,0 +1,41 @@
+package com.alok.payment.paymentConsumer.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@code traces} actuator endpoint listing the traces kept in memory as one OTLP/JSON
+ * {@code ExportTraceServiceRequest}
+ *
+ * The endpoint owns the memory the tail sampling processor exports to.
+ */
+@Endpoint(id = "traces")
+public class TracesEndpoint {
+
+    private final InMemorySpanExporter exporter;
+    private final ObjectMapper objectMapper;
+
+    public TracesEndpoint(int capacity, ObjectMapper objectMapper) {
+        this.exporter = new InMemorySpanExporter(capacity);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Exporter keeping the traces this endpoint lists
+     */
+    public InMemorySpanExporter exporter() {
+        return exporter;
+    }
+
+    @ReadOperation
+    public ObjectNode traces() {
+        List<SpanData> spans = exporter.traces().stream().flatMap(Collection::stream).toList();
+        return OtlpJson.encode(objectMapper, spans);
+    }
+}
@@ -0,0 +1,144 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.config.ExternalServicesProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Adaptive Concurrency Limiter Tests")
+class AdaptiveConcurrencyLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExternalServicesProperties.ConcurrencyLimit settings;
+    private final AtomicLong clock = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        settings = new ExternalServicesProperties.ConcurrencyLimit();
+        settings.setInitialLimit(10);
+        settings.setMinLimit(2);
+        settings.setMaxLimit(50);
+    }
+
+    @Test
+    @DisplayName("Should reject calls beyond the limit until a slot is released")
+    void shouldRejectAtLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter();
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            permits.add(limiter.tryAcquire());
+        }
+
+        assertThat(permits).doesNotContainNull();
+        assertThat(limiter.tryAcquire()).isNull();
+        assertThat(meterRegistry.get("downstream.concurrency.rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("downstream.concurrency.inflight").gauge().value()).isEqualTo(10);
+
+        permits.get(0).ignore();
+
+        assertThat(limiter.tryAcquire()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should grow the limit while response times stay steady under full use")
+    void shouldGrowUnderSteadyResponseTimes() {
+        AdaptiveConcurrencyLimiter limiter = limiter();
+
+        for (int round = 0; round < 20; round++) {
+            completeRound(limiter, 10);
+        }
+
+        assertThat(limiter.getLimit()).isGreaterThan(10);
+        assertThat(meterRegistry.get("downstream.concurrency.limit").gauge().value()).isEqualTo(limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should not grow the limit from calls that left most of it unused")
+    void shouldNotGrowWhenApplicationLimited() {
+        AdaptiveConcurrencyLimiter limiter = limiter();
+
+        for (int round = 0; round < 20; round++) {
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+            permit.success();
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should shrink the limit when response times rise well above the long-term average")
+    void shouldShrinkWhenResponseTimesRise() {
+        AdaptiveConcurrencyLimiter limiter = limiter();
+        for (int round = 0; round < 10; round++) {
+            completeRound(limiter, 10);
+        }
+        int steadyLimit = limiter.getLimit();
+
+        for (int round = 0; round < 10; round++) {
+            completeRound(limiter, 200);
+        }
+
+        assertThat(limiter.getLimit()).isLessThan(steadyLimit);
+    }
+
+    @Test
+    @DisplayName("Should back off on dropped calls down to the minimum")
+    void shouldBackOffOnDrops() {
+        AdaptiveConcurrencyLimiter limiter = limiter();
+
+        limiter.tryAcquire().dropped();
+        assertThat(limiter.getLimit()).isEqualTo(9);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire().dropped();
+        }
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should release a permit only once")
+    void shouldReleaseOnce() {
+        AdaptiveConcurrencyLimiter limiter = limiter();
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+
+        permit.dropped();
+        permit.dropped();
+        permit.success();
+
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(limiter.getLimit()).isEqualTo(9);
+    }
+
+    private AdaptiveConcurrencyLimiter limiter() {
+        return new AdaptiveConcurrencyLimiter("paymentProcessorService", settings, meterRegistry, clock::get);
+    }
+
+    /**
+     * Fill the current limit and let every call answer after the given time
+     */
+    private void completeRound(AdaptiveConcurrencyLimiter limiter, long rttMillis) {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = acquireAll(limiter);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(rttMillis));
+        permits.forEach(AdaptiveConcurrencyLimiter.Permit::success);
+    }
+
+    private static List<AdaptiveConcurrencyLimiter.Permit> acquireAll(AdaptiveConcurrencyLimiter limiter) {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        AdaptiveConcurrencyLimiter.Permit permit;
+        while ((permit = limiter.tryAcquire()) != null) {
+            permits.add(permit);
+        }
+        return permits;
+    }
+}
@@ -0,0 +1,122 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.config.ExternalServicesProperties;
+import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Async Downstream Call Executor Tests")
+class AsyncDownstreamCallExecutorTest {
+
+    private static final String INSTANCE = "paymentProcessorService";
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private DownstreamConcurrencyLimits concurrencyLimits;
+    private AsyncDownstreamCallExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        RetryRegistry retryRegistry = RetryRegistry.of(RetryConfig.custom()
+                .maxAttempts(3)
+                .waitDuration(Duration.ofMillis(10))
+                .retryExceptions(ConnectException.class)
+                .build());
+        TimeLimiterRegistry timeLimiterRegistry = TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+                .timeoutDuration(Duration.ofMillis(100))
+                .build());
+        concurrencyLimits = new DownstreamConcurrencyLimits(new ExternalServicesProperties(), new SimpleMeterRegistry());
+        executor = new AsyncDownstreamCallExecutor(circuitBreakerRegistry, retryRegistry, timeLimiterRegistry,
+                concurrencyLimits,
+                new DownstreamCallMetrics(new SimpleMeterRegistry()),
+                Executors.newSingleThreadScheduledExecutor());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    @DisplayName("Should fail a call that outlives the time limiter and cancel its attempt")
+    void shouldEnforceTimeLimiter() {
+        CompletableFuture<String> attempt = new CompletableFuture<>();
+        CompletableFuture<String> result = executor.execute(INSTANCE, "Payment Processor", () -> attempt);
+
+        assertThatThrownBy(result::join)
+                .isInstanceOf(CompletionException.class)
+                .cause()
+                .isInstanceOf(ServiceUnavailableException.class)
+                .hasMessageContaining("did not respond in time");
+        assertThat(attempt).isCancelled();
+        // The slot is given back as the attempt is cancelled, as a timeout
+        assertThat(concurrencyLimits.limiter(INSTANCE).getInFlight()).isZero();
+        assertThat(concurrencyLimits.limiter(INSTANCE).getLimit()).isEqualTo(18);
+    }
+
+    @Test
+    @DisplayName("Should retry connection failures without blocking the caller")
+    void shouldRetryConnectionFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> result = executor.execute(INSTANCE, "Payment Processor", () ->
+                attempts.incrementAndGet() < 3
+                        ? CompletableFuture.failedFuture(new ConnectException("Connection refused"))
+                        : CompletableFuture.completedFuture("TXN-1"));
+
+        assertThat(result.join()).isEqualTo("TXN-1");
+        assertThat(attempts).hasValue(3);
+        // Each failed attempt held a slot of its own and made the limit back off
+        assertThat(concurrencyLimits.limiter(INSTANCE).getLimit()).isEqualTo(16);
+        assertThat(concurrencyLimits.limiter(INSTANCE).getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject calls while the circuit is open")
+    void shouldRejectCallsWhenCircuitOpen() {
+        circuitBreakerRegistry.circuitBreaker(INSTANCE).transitionToOpenState();
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> result = executor.execute(INSTANCE, "Payment Processor", () -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.completedFuture("TXN-1");
+        });
+
+        assertThatThrownBy(result::join)
+                .cause()
+                .isInstanceOf(ServiceUnavailableException.class)
+                .hasMessageContaining("currently unavailable");
+        assertThat(attempts).hasValue(0);
+        assertThat(concurrencyLimits.limiter(INSTANCE).getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Should pass application failures through unchanged")
+    void shouldPassApplicationFailuresThrough() {
+        CompletableFuture<String> result = executor.execute(INSTANCE, "Payment Processor", () ->
+                CompletableFuture.failedFuture(new IllegalArgumentException("Amount is required")));
+
+        assertThatThrownBy(result::join)
+                .cause()
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Amount is required");
+    }
+}
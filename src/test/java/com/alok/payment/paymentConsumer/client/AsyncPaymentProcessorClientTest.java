@@ -0,0 +1,189 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.config.ExternalServicesProperties;
+import com.alok.payment.paymentConsumer.dto.PaymentProcessorRequest;
+import com.alok.payment.paymentConsumer.dto.PaymentResponse;
+import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
+import com.alok.payment.paymentConsumer.model.PaymentStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Async Payment Processor Client Tests")
+class AsyncPaymentProcessorClientTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicReference<String> receivedBody = new AtomicReference<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 201;
+
+    private HttpServer server;
+    private HttpClient httpClient;
+    private AsyncDownstreamCallExecutor downstreamCalls;
+    private AsyncPaymentProcessorClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/api/payments", exchange -> {
+            requests.incrementAndGet();
+            receivedBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            byte[] body = status < 400
+                    ? "{\"transactionId\":\"TXN-1\",\"status\":\"COMPLETED\"}".getBytes(StandardCharsets.UTF_8)
+                    : "{\"error\":\"down\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        downstreamCalls = new AsyncDownstreamCallExecutor(
+                CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                        .recordExceptions(HttpServerErrorException.class)
+                        .build()),
+                RetryRegistry.of(RetryConfig.custom().maxAttempts(1).build()),
+                TimeLimiterRegistry.ofDefaults(),
+                new DownstreamConcurrencyLimits(new ExternalServicesProperties(), new SimpleMeterRegistry()),
+                new DownstreamCallMetrics(new SimpleMeterRegistry()),
+                Executors.newSingleThreadScheduledExecutor());
+        client = new AsyncPaymentProcessorClient(httpClient, objectMapper, downstreamCalls,
+                new ExternalServicesProperties(), OpenTelemetry.noop(),
+                "http://localhost:" + server.getAddress().getPort(), "/api/payments");
+    }
+
+    @AfterEach
+    void tearDown() {
+        downstreamCalls.destroy();
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should post the processor request and decode the response")
+    void shouldProcessPayment() throws IOException {
+        CompletableFuture<PaymentResponse> result = client.processPayment(request());
+
+        PaymentResponse response = result.join();
+        assertThat(response.getTransactionId()).isEqualTo("TXN-1");
+        assertThat(response.getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(objectMapper.readTree(receivedBody.get()).get("fromAccount").asText()).isEqualTo("ACC001");
+    }
+
+    @Test
+    @DisplayName("Should fail with service unavailable on server errors")
+    void shouldFailOnServerError() {
+        status = 503;
+
+        CompletableFuture<PaymentResponse> result = client.processPayment(request());
+
+        assertThatThrownBy(result::join)
+                .cause()
+                .isInstanceOf(ServiceUnavailableException.class)
+                .hasRootCauseInstanceOf(HttpServerErrorException.class);
+        assertThat(requests).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should reject a missing request without calling the processor")
+    void shouldRejectNullRequest() {
+        assertThatThrownBy(() -> client.processPayment(null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(requests).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Should abort the request of an attempt that outlives the time limiter")
+    void shouldAbortTimedOutRequest() {
+        HttpClient stalled = mock(HttpClient.class);
+        CompletableFuture<HttpResponse<byte[]>> exchange = new CompletableFuture<>();
+        when(stalled.sendAsync(any(), any(HttpResponse.BodyHandler.class))).thenReturn(exchange);
+        AsyncDownstreamCallExecutor timedCalls = new AsyncDownstreamCallExecutor(
+                CircuitBreakerRegistry.ofDefaults(),
+                RetryRegistry.of(RetryConfig.custom().maxAttempts(1).build()),
+                TimeLimiterRegistry.of(TimeLimiterConfig.custom().timeoutDuration(Duration.ofMillis(100)).build()),
+                new DownstreamConcurrencyLimits(new ExternalServicesProperties(), new SimpleMeterRegistry()),
+                new DownstreamCallMetrics(new SimpleMeterRegistry()),
+                Executors.newSingleThreadScheduledExecutor());
+        try {
+            AsyncPaymentProcessorClient stalledClient = new AsyncPaymentProcessorClient(stalled, objectMapper,
+                    timedCalls, new ExternalServicesProperties(), OpenTelemetry.noop(), "http://processor",
+                    "/api/payments");
+
+            assertThatThrownBy(() -> stalledClient.getPaymentStatus("TXN-1").join())
+                    .cause()
+                    .isInstanceOf(ServiceUnavailableException.class)
+                    .hasMessageContaining("did not respond in time");
+            assertThat(exchange).isCancelled();
+        } finally {
+            timedCalls.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Should not cut short a payment submission at the time limit")
+    void shouldNotAbortSubmissionAtTimeLimit() throws Exception {
+        HttpClient stalled = mock(HttpClient.class);
+        CompletableFuture<HttpResponse<byte[]>> exchange = new CompletableFuture<>();
+        when(stalled.sendAsync(any(), any(HttpResponse.BodyHandler.class))).thenReturn(exchange);
+        AsyncDownstreamCallExecutor timedCalls = new AsyncDownstreamCallExecutor(
+                CircuitBreakerRegistry.ofDefaults(),
+                RetryRegistry.of(RetryConfig.custom().maxAttempts(1).build()),
+                TimeLimiterRegistry.of(TimeLimiterConfig.custom().timeoutDuration(Duration.ofMillis(100)).build()),
+                new DownstreamConcurrencyLimits(new ExternalServicesProperties(), new SimpleMeterRegistry()),
+                new DownstreamCallMetrics(new SimpleMeterRegistry()),
+                Executors.newSingleThreadScheduledExecutor());
+        try {
+            AsyncPaymentProcessorClient stalledClient = new AsyncPaymentProcessorClient(stalled, objectMapper,
+                    timedCalls, new ExternalServicesProperties(), OpenTelemetry.noop(), "http://processor",
+                    "/api/payments");
+
+            CompletableFuture<PaymentResponse> result = stalledClient.processPayment(request());
+            Thread.sleep(300);
+
+            assertThat(result).isNotDone();
+            assertThat(exchange).isNotCancelled();
+        } finally {
+            timedCalls.destroy();
+        }
+    }
+
+    private static PaymentProcessorRequest request() {
+        return new PaymentProcessorRequest("ACC001", "ACC002", new BigDecimal("10.00"), "USD",
+                "DOMESTIC_TRANSFER", null);
+    }
+}
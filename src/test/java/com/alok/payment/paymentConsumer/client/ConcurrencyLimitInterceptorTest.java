@@ -0,0 +1,106 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.config.ExternalServicesProperties;
+import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withException;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@DisplayName("Concurrency Limit Interceptor Tests")
+class ConcurrencyLimitInterceptorTest {
+
+    private static final String INSTANCE = "paymentProcessorService";
+    private static final String URL = "http://processor/api/payments/TXN-1";
+
+    private DownstreamConcurrencyLimits concurrencyLimits;
+    private RestTemplate restTemplate;
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        ExternalServicesProperties properties = new ExternalServicesProperties();
+        properties.getPaymentProcessor().getConcurrencyLimit().setInitialLimit(10);
+        concurrencyLimits = new DownstreamConcurrencyLimits(properties, new SimpleMeterRegistry());
+        restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(
+                new ConcurrencyLimitInterceptor(concurrencyLimits, INSTANCE, "Payment Processor"));
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @Test
+    @DisplayName("Should back off on timed out exchanges only, releasing every slot")
+    void shouldBackOffOnTimeoutsOnly() {
+        server.expect(requestTo(URL)).andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+        server.expect(requestTo(URL)).andRespond(withException(new InterruptedIOException("Cancelled")));
+        server.expect(requestTo(URL)).andRespond(withException(new SocketTimeoutException("Read timed out")));
+        server.expect(requestTo(URL)).andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+        assertThatThrownBy(() -> restTemplate.getForObject(URL, String.class))
+                .isInstanceOf(HttpServerErrorException.class);
+        assertThatThrownBy(() -> restTemplate.getForObject(URL, String.class))
+                .isInstanceOf(ResourceAccessException.class);
+        assertThat(limiter().getLimit()).isEqualTo(10);
+
+        assertThatThrownBy(() -> restTemplate.getForObject(URL, String.class))
+                .isInstanceOf(ResourceAccessException.class);
+        assertThat(limiter().getLimit()).isEqualTo(9);
+
+        assertThat(restTemplate.getForObject(URL, String.class)).isEqualTo("{}");
+        assertThat(limiter().getInFlight()).isZero();
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Should hold the slot until the response body has been read")
+    void shouldHoldSlotUntilResponseClosed() {
+        server.expect(requestTo(URL)).andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+        Integer inFlightWhileReading = restTemplate.execute(URL, HttpMethod.GET, null,
+                response -> limiter().getInFlight());
+
+        assertThat(inFlightWhileReading).isEqualTo(1);
+        assertThat(limiter().getInFlight()).isZero();
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Should reject an exchange beyond the limit without sending it")
+    void shouldRejectAtLimit() {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            permits.add(concurrencyLimits.acquire(INSTANCE, "Payment Processor"));
+        }
+
+        assertThatThrownBy(() -> restTemplate.getForObject(URL, String.class))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .hasMessageContaining("concurrency limit");
+        server.verify();
+
+        permits.forEach(AdaptiveConcurrencyLimiter.Permit::ignore);
+        assertThat(limiter().getLimit()).isEqualTo(10);
+    }
+
+    private AdaptiveConcurrencyLimiter limiter() {
+        return concurrencyLimits.limiter(INSTANCE);
+    }
+}
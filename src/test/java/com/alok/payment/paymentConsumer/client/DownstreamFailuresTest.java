@@ -0,0 +1,53 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Downstream Failures Tests")
+class DownstreamFailuresTest {
+
+    @Test
+    @DisplayName("Should treat calls turned away before sending or refused with a 4xx as failed")
+    void shouldRecogniseDefiniteFailures() {
+        CallNotPermittedException openCircuit =
+                CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("test"));
+
+        assertThat(DownstreamFailures.isDefiniteFailure(unavailable(openCircuit))).isTrue();
+        assertThat(DownstreamFailures.isDefiniteFailure(
+                ServiceUnavailableException.notSent("Payment Processor", "At its concurrency limit"))).isTrue();
+        assertThat(DownstreamFailures.isDefiniteFailure(unavailable(
+                new ResourceAccessException("I/O error", new ConnectException("Connection refused"))))).isTrue();
+        assertThat(DownstreamFailures.isDefiniteFailure(new CompletionException(unavailable(
+                HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "", null, null, null))))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should treat timeouts and server errors as of unknown outcome")
+    void shouldTreatTimeoutsAsUncertain() {
+        assertThat(DownstreamFailures.isDefiniteFailure(unavailable(new TimeoutException()))).isFalse();
+        assertThat(DownstreamFailures.isDefiniteFailure(unavailable(
+                new ResourceAccessException("I/O error", new SocketTimeoutException("Read timed out"))))).isFalse();
+        assertThat(DownstreamFailures.isDefiniteFailure(unavailable(
+                HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "", null, null, null)))).isFalse();
+        assertThat(DownstreamFailures.isDefiniteFailure(
+                new ServiceUnavailableException("Payment Processor", "Failed"))).isFalse();
+    }
+
+    private static ServiceUnavailableException unavailable(Throwable cause) {
+        return ServiceUnavailableException.withoutStackTrace("Payment Processor", "Failed", cause);
+    }
+}
@@ -0,0 +1,138 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Request Coalescer Tests")
+class RequestCoalescerTest {
+
+    private static final int CALLERS = 20;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestCoalescer<String, String> coalescer;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new RequestCoalescer<>("payment-processor", "getPaymentStatus", meterRegistry);
+        callers = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should share one downstream call between concurrent identical reads")
+    void shouldShareOneCallBetweenConcurrentReads() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submitConcurrently(() -> {
+            calls.incrementAndGet();
+            await(release);
+            return "COMPLETED";
+        });
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("COMPLETED");
+        }
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.get("downstream.requests.coalesced").counter().count())
+                .isEqualTo(CALLERS - 1);
+        assertThat(coalescer.inFlightCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should propagate a failed call to every waiter")
+    void shouldPropagateFailureToEveryWaiter() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submitConcurrently(() -> {
+            calls.incrementAndGet();
+            await(release);
+            throw new ServiceUnavailableException("Payment Processor", "down");
+        });
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(ServiceUnavailableException.class);
+        }
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should call again once the previous call has completed")
+    void shouldNotCacheCompletedCalls() {
+        AtomicInteger calls = new AtomicInteger();
+
+        coalescer.execute("TXN-1", () -> "v" + calls.incrementAndGet());
+        String second = coalescer.execute("TXN-1", () -> "v" + calls.incrementAndGet());
+
+        assertThat(second).isEqualTo("v2");
+    }
+
+    @Test
+    @DisplayName("Should not coalesce reads with different keys")
+    void shouldKeepDifferentKeysApart() {
+        assertThat(coalescer.execute("TXN-1", () -> "one")).isEqualTo("one");
+        assertThat(coalescer.execute("TXN-2", () -> "two")).isEqualTo("two");
+        assertThat(meterRegistry.get("downstream.requests.coalesced").counter().count()).isZero();
+    }
+
+    /**
+     * Start all callers and return once every one of them has joined the in-flight call
+     */
+    private List<Future<String>> submitConcurrently(Supplier<String> call)
+            throws InterruptedException {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        results.add(callers.submit(() -> coalescer.execute("TXN-1", () -> {
+            leaderStarted.countDown();
+            return call.get();
+        })));
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 1; i < CALLERS; i++) {
+            results.add(callers.submit(() -> coalescer.execute("TXN-1", call)));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("downstream.requests.coalesced").counter().count() < CALLERS - 1
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
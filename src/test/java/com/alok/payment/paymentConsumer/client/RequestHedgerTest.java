@@ -0,0 +1,162 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.config.ExternalServicesProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Request Hedger Tests")
+class RequestHedgerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExternalServicesProperties.Hedging settings;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        settings = new ExternalServicesProperties.Hedging();
+        settings.setEnabled(true);
+        settings.setInitialDelay(Duration.ofMillis(20));
+        settings.setMinDelay(Duration.ofMillis(1));
+        settings.setBudgetPercent(100);
+    }
+
+    @Test
+    @DisplayName("Should call inline on the caller thread when disabled")
+    void shouldCallInlineWhenDisabled() {
+        settings.setEnabled(false);
+        RequestHedger hedger = hedger();
+        Thread caller = Thread.currentThread();
+
+        assertThat(hedger.execute(() -> Thread.currentThread() == caller)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should hedge a slow read, take the first answer and interrupt the other attempt")
+    void shouldHedgeSlowRead() throws InterruptedException {
+        RequestHedger hedger = hedger();
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch loserInterrupted = new CountDownLatch(1);
+
+        String result = hedger.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException ex) {
+                    loserInterrupted.countDown();
+                }
+                return "stalled";
+            }
+            return "hedge";
+        });
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(attempts).hasValue(2);
+        assertThat(loserInterrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(count("fired")).isEqualTo(1);
+        assertThat(count("won")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not hedge beyond the budget")
+    void shouldRespectBudget() {
+        settings.setBudgetPercent(0);
+        RequestHedger hedger = hedger();
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedger.execute(() -> {
+            attempts.incrementAndGet();
+            sleep(60);
+            return "primary";
+        });
+
+        assertThat(result).isEqualTo("primary");
+        assertThat(attempts).hasValue(1);
+        assertThat(count("fired")).isZero();
+        assertThat(count("budget_exhausted")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should answer with the other attempt when the first to finish fails")
+    void shouldFallBackToOtherAttemptOnFailure() {
+        RequestHedger hedger = hedger();
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedger.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                sleep(60);
+                return "primary";
+            }
+            throw new IllegalStateException("replica down");
+        });
+
+        assertThat(result).isEqualTo("primary");
+        assertThat(count("fired")).isEqualTo(1);
+        assertThat(count("won")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should derive the hedging delay from observed response times")
+    void shouldDeriveDelayFromPercentile() {
+        RequestHedger hedger = hedger();
+        assertThat(hedger.delay(TimeUnit.MILLISECONDS)).isEqualTo(20);
+
+        for (int i = 0; i < 128; i++) {
+            hedger.execute(() -> "fast");
+        }
+
+        assertThat(hedger.delay(TimeUnit.MILLISECONDS)).isLessThan(20);
+    }
+
+    @Test
+    @DisplayName("Should keep counting first attempts that lose to a hedge as slow")
+    void shouldRecordLosingFirstAttempts() throws InterruptedException {
+        RequestHedger hedger = hedger();
+        CountDownLatch losersInterrupted = new CountDownLatch(64);
+
+        for (int i = 0; i < 64; i++) {
+            AtomicInteger attempts = new AtomicInteger();
+            hedger.execute(() -> {
+                if (attempts.incrementAndGet() == 1) {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException ex) {
+                        losersInterrupted.countDown();
+                    }
+                    // As an interrupted socket read does
+                    throw new IllegalStateException("I/O error: interrupted");
+                }
+                return "hedge";
+            });
+        }
+
+        assertThat(losersInterrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        // The hedges answered at once, but the reads they rescued took at least the delay
+        assertThat(hedger.delay(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(20);
+        assertThat(count("won")).isEqualTo(64);
+    }
+
+    private RequestHedger hedger() {
+        return new RequestHedger("payment-processor", "getPaymentStatus", settings, meterRegistry);
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("downstream.requests.hedged").tag("outcome", outcome).counter().count();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.alok.payment.paymentConsumer.client;
+
+import com.alok.payment.paymentConsumer.config.ExternalServicesProperties;
+import com.alok.payment.paymentConsumer.dto.PaymentProcessorRequest;
+import com.alok.payment.paymentConsumer.model.PaymentStatus;
+import com.alok.payment.paymentConsumer.model.PaymentType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.RequestMatcher;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@DisplayName("Wire Format Negotiator Tests")
+class WireFormatNegotiatorTest {
+
+    private static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+    private static final String PAYMENTS = "http://processor/api/payments";
+    private static final Map<String, String> RESPONSE = Map.of("transactionId", "TXN-1", "status", "COMPLETED");
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+    private final PaymentProcessorRequest request = new PaymentProcessorRequest("ACC001", "ACC002",
+            new BigDecimal("125.50"), "USD", PaymentType.DOMESTIC_TRANSFER.name(), null);
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    @DisplayName("Should send CBOR bodies once a POST is answered in CBOR and JSON after a 415 until it expires")
+    void shouldNegotiateCborBodiesFromPostAnswers() throws Exception {
+        ExternalServicesProperties.Downstream downstream = new ExternalServicesProperties().getPaymentProcessor();
+        downstream.setBinaryEncodingTtl(Duration.ofMinutes(5));
+        RestTemplate restTemplate = new RestTemplate(List.of(new MappingJackson2HttpMessageConverter(objectMapper),
+                new MappingJackson2CborHttpMessageConverter(cborMapper)));
+        WireFormatNegotiator wireFormat = new WireFormatNegotiator(downstream, restTemplate.getMessageConverters(),
+                nanos::get);
+        restTemplate.getInterceptors().add(wireFormat);
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        PaymentProcessorClient client = client(restTemplate, wireFormat);
+        byte[] cborResponse = cborMapper.writeValueAsBytes(RESPONSE);
+        String jsonResponse = objectMapper.writeValueAsString(RESPONSE);
+
+        // Not yet known to take CBOR: JSON body, CBOR preferred for the answer
+        server.expect(requestTo(PAYMENTS))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(header(HttpHeaders.ACCEPT, startsWith("application/cbor, application/json;q=0.5")))
+                .andRespond(withSuccess(cborResponse, CBOR));
+        // A status read answered in JSON leaves the body format alone
+        server.expect(requestTo(PAYMENTS + "/TXN-1"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess(jsonResponse, MediaType.APPLICATION_JSON));
+        // The CBOR body is rejected and resent as JSON
+        server.expect(requestTo(PAYMENTS))
+                .andExpect(header(HttpHeaders.CONTENT_TYPE, CBOR.toString()))
+                .andExpect(cborBody())
+                .andRespond(withStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE));
+        server.expect(requestTo(PAYMENTS))
+                .andExpect(header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
+                .andRespond(withSuccess(cborResponse, CBOR));
+        server.expect(requestTo(PAYMENTS))
+                .andExpect(header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
+                .andRespond(withSuccess(cborResponse, CBOR));
+        // Once the rejection expires, CBOR is learnt again from the next answer
+        server.expect(requestTo(PAYMENTS))
+                .andExpect(header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
+                .andRespond(withSuccess(cborResponse, CBOR));
+        server.expect(requestTo(PAYMENTS))
+                .andExpect(header(HttpHeaders.CONTENT_TYPE, CBOR.toString()))
+                .andExpect(cborBody())
+                .andRespond(withSuccess(cborResponse, CBOR));
+
+        assertThat(client.processPayment(request).getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(wireFormat.requestContentType()).isEqualTo(CBOR);
+        assertThat(client.getPaymentStatus("TXN-1").getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(wireFormat.requestContentType()).isEqualTo(CBOR);
+
+        assertThat(client.processPayment(request).getTransactionId()).isEqualTo("TXN-1");
+        assertThat(wireFormat.requestContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        nanos.addAndGet(Duration.ofMinutes(4).toNanos());
+        assertThat(client.processPayment(request).getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(wireFormat.requestContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+
+        nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertThat(client.processPayment(request).getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(wireFormat.requestContentType()).isEqualTo(CBOR);
+        assertThat(client.processPayment(request).getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Should go back to JSON bodies when a POST is answered in JSON or the capability expires")
+    void shouldReturnToJsonBodies() throws Exception {
+        ExternalServicesProperties.Downstream downstream = new ExternalServicesProperties().getPaymentProcessor();
+        RestTemplate restTemplate = new RestTemplate(List.of(new MappingJackson2HttpMessageConverter(objectMapper),
+                new MappingJackson2CborHttpMessageConverter(cborMapper)));
+        WireFormatNegotiator wireFormat = new WireFormatNegotiator(downstream, restTemplate.getMessageConverters(),
+                nanos::get);
+        restTemplate.getInterceptors().add(wireFormat);
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        PaymentProcessorClient client = client(restTemplate, wireFormat);
+        byte[] cborResponse = cborMapper.writeValueAsBytes(RESPONSE);
+
+        server.expect(requestTo(PAYMENTS)).andRespond(withSuccess(cborResponse, CBOR));
+        server.expect(requestTo(PAYMENTS))
+                .andExpect(header(HttpHeaders.CONTENT_TYPE, CBOR.toString()))
+                .andRespond(withSuccess(objectMapper.writeValueAsString(RESPONSE), MediaType.APPLICATION_JSON));
+        server.expect(requestTo(PAYMENTS))
+                .andExpect(header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
+                .andRespond(withSuccess(cborResponse, CBOR));
+
+        client.processPayment(request);
+        client.processPayment(request);
+        assertThat(wireFormat.requestContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        client.processPayment(request);
+        assertThat(wireFormat.requestContentType()).isEqualTo(CBOR);
+        nanos.addAndGet(downstream.getBinaryEncodingTtl().toNanos());
+        assertThat(wireFormat.requestContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Should leave requests untouched when no binary codec is present or negotiation is off")
+    void shouldKeepJsonWithoutBinaryCodec() throws Exception {
+        List<HttpMessageConverter<?>> jsonOnly = List.of(new MappingJackson2HttpMessageConverter(objectMapper));
+        MappingJackson2CborHttpMessageConverter cbor = new MappingJackson2CborHttpMessageConverter(cborMapper);
+        ExternalServicesProperties.Downstream enabled = new ExternalServicesProperties().getPaymentProcessor();
+        ExternalServicesProperties.Downstream disabled = new ExternalServicesProperties().getPaymentProcessor();
+        disabled.setBinaryEncoding(false);
+
+        for (WireFormatNegotiator wireFormat : List.of(new WireFormatNegotiator(enabled, jsonOnly),
+                new WireFormatNegotiator(disabled, List.of(jsonOnly.get(0), cbor)))) {
+            RestTemplate restTemplate = new RestTemplate(List.of(jsonOnly.get(0), cbor));
+            restTemplate.getInterceptors().add(wireFormat);
+            MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+            server.expect(requestTo(PAYMENTS))
+                    .andExpect(header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
+                    .andExpect(header(HttpHeaders.ACCEPT, not(containsString("q="))))
+                    .andRespond(withSuccess(objectMapper.writeValueAsString(RESPONSE), MediaType.APPLICATION_JSON));
+
+            client(restTemplate, wireFormat).processPayment(request);
+
+            assertThat(wireFormat.requestContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+            assertThat(wireFormat.isBinary(CBOR)).isFalse();
+            server.verify();
+        }
+    }
+
+    /**
+     * The request body decodes as CBOR into the payment request sent
+     */
+    private RequestMatcher cborBody() {
+        return request -> assertThat(cborMapper.readValue(((MockClientHttpRequest) request).getBodyAsBytes(),
+                PaymentProcessorRequest.class)).isEqualTo(this.request);
+    }
+
+    private static PaymentProcessorClient client(RestTemplate restTemplate, WireFormatNegotiator wireFormat) {
+        return new PaymentProcessorClient(restTemplate, "http://processor", "/api/payments",
+                new ExternalServicesProperties(), new SimpleMeterRegistry(), ObservationRegistry.NOOP, wireFormat);
+    }
+}
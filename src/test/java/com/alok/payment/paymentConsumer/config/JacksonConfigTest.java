@@ -0,0 +1,117 @@
+package com.alok.payment.paymentConsumer.config;
+
+import com.alok.payment.paymentConsumer.dto.PaymentResponse;
+import com.alok.payment.paymentConsumer.dto.PaymentStreamResult;
+import com.alok.payment.paymentConsumer.model.PaymentStatus;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Jackson Config Tests")
+class JacksonConfigTest {
+
+    private final JacksonConfig config = new JacksonConfig();
+    private final ObjectMapper javaTime = builder().build();
+    private final ObjectMapper application = builder()
+            .modulesToInstall(config.blackbirdModule(), config.cachedLocalDateTimeModule())
+            .build();
+
+    @Test
+    @DisplayName("Should write timestamps as JavaTimeModule does")
+    void shouldWriteTimestampsLikeJavaTimeModule() throws Exception {
+        LocalDateTime second = LocalDateTime.of(2025, 3, 9, 7, 5, 4);
+        List<LocalDateTime> timestamps = List.of(
+                second,
+                second.withNano(100_000_000),
+                second.withNano(123_000_000),
+                second.withNano(120_000),
+                second.withNano(1),
+                second.withNano(999_999_999),
+                second.plusSeconds(1),
+                second,
+                LocalDateTime.of(1, 1, 1, 0, 0),
+                LocalDateTime.of(9999, 12, 31, 23, 59, 59, 999_000_000),
+                LocalDateTime.of(10_000, 1, 1, 0, 0, 0, 5),
+                LocalDateTime.of(-1, 6, 15, 12, 0),
+                LocalDateTime.now());
+
+        assertThat(application.getSerializerProviderInstance().findValueSerializer(LocalDateTime.class, null))
+                .isInstanceOf(CachedLocalDateTimeSerializer.class);
+        for (LocalDateTime timestamp : timestamps) {
+            assertThat(application.writeValueAsString(timestamp)).isEqualTo(javaTime.writeValueAsString(timestamp));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep array timestamps and @JsonFormat patterns")
+    void shouldHonourTimestampSettings() throws Exception {
+        LocalDateTime timestamp = LocalDateTime.of(2025, 3, 9, 7, 5, 4, 500_000_000);
+        Patterned patterned = new Patterned(timestamp);
+
+        assertThat(application.writer().with(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .writeValueAsString(timestamp)).isEqualTo("[2025,3,9,7,5,4,500000000]");
+        assertThat(application.writeValueAsString(patterned)).isEqualTo("{\"at\":\"09/03/2025 07:05\"}");
+        assertThat(application.writeValueAsString(patterned)).isEqualTo(javaTime.writeValueAsString(patterned));
+    }
+
+    @Test
+    @DisplayName("Should write and read payloads as the reflective mapper does")
+    void shouldBindPayloadsLikeReflectiveMapper() throws Exception {
+        PaymentResponse payment = new PaymentResponse("TXN-1", PaymentStatus.COMPLETED, "Payment completed");
+        payment.setTimestamp(LocalDateTime.of(2025, 3, 9, 7, 5, 4, 250_000_000));
+        PaymentStreamResult result = new PaymentStreamResult(7, payment);
+
+        JsonNode written = application.readTree(application.writeValueAsBytes(result));
+
+        assertThat(written).isEqualTo(javaTime.readTree(javaTime.writeValueAsBytes(result)));
+        assertThat(written.get("line").asLong()).isEqualTo(7);
+        assertThat(written.get("transactionId").asText()).isEqualTo("TXN-1");
+        assertThat(written.get("timestamp").asText()).isEqualTo("2025-03-09T07:05:04.25");
+        assertThat(written.has("failureReason")).isFalse();
+
+        PaymentStreamResult read = application.readValue(written.toString(), PaymentStreamResult.class);
+        assertThat(read.getLine()).isEqualTo(7);
+        assertThat(read.getPayment().getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(read.getPayment().getTimestamp()).isEqualTo(payment.getTimestamp());
+    }
+
+    @Test
+    @DisplayName("Should encode CBOR with the application's mapper settings and modules")
+    void shouldEncodeCborLikeJson() throws Exception {
+        MappingJackson2CborHttpMessageConverter converter = JacksonConfig.cborHttpMessageConverter(
+                builder().modulesToInstall(config.blackbirdModule(), config.cachedLocalDateTimeModule()), true);
+        ObjectMapper cbor = converter.getObjectMapper();
+        PaymentResponse payment = new PaymentResponse("TXN-1", PaymentStatus.COMPLETED, "Payment completed");
+        payment.setTimestamp(LocalDateTime.of(2025, 3, 9, 7, 5, 4, 250_000_000));
+        PaymentStreamResult result = new PaymentStreamResult(7, payment);
+
+        assertThat(cbor.getFactory()).isInstanceOf(CBORFactory.class);
+        assertThat(cbor.getSerializerProviderInstance().findValueSerializer(LocalDateTime.class, null))
+                .isInstanceOf(CachedLocalDateTimeSerializer.class);
+        JsonNode written = cbor.readTree(cbor.writeValueAsBytes(result));
+        assertThat(written).isEqualTo(application.readTree(application.writeValueAsBytes(result)));
+        assertThat(written.has("failureReason")).isFalse();
+        assertThat(written.get("timestamp").asText()).isEqualTo("2025-03-09T07:05:04.25");
+    }
+
+    private static Jackson2ObjectMapperBuilder builder() {
+        return Jackson2ObjectMapperBuilder.json()
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    record Patterned(@JsonFormat(pattern = "dd/MM/yyyy HH:mm") LocalDateTime at) {
+    }
+}
@@ -0,0 +1,165 @@
+package com.alok.payment.paymentConsumer.controller;
+
+import com.alok.payment.paymentConsumer.config.ResponseCacheProperties;
+import com.alok.payment.paymentConsumer.model.Account;
+import com.alok.payment.paymentConsumer.model.Beneficiary;
+import com.alok.payment.paymentConsumer.service.BatchPaymentService;
+import com.alok.payment.paymentConsumer.service.BeneficiaryCache;
+import com.alok.payment.paymentConsumer.service.IdempotencyStore;
+import com.alok.payment.paymentConsumer.service.PaymentConsumerService;
+import com.alok.payment.paymentConsumer.service.PaymentStatusWatcher;
+import com.alok.payment.paymentConsumer.service.StreamingPaymentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DisplayName("Encoded Response Cache Tests")
+class EncodedResponseCacheTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private PaymentConsumerService paymentConsumerService;
+    private SimpleMeterRegistry meterRegistry;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        paymentConsumerService = mock(PaymentConsumerService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        Compression compression = new Compression();
+        compression.setEnabled(true);
+        EncodedResponseCache cache = new EncodedResponseCache(objectMapper, new ResponseCacheProperties(),
+                compression, meterRegistry);
+        mockMvc = MockMvcBuilders.standaloneSetup(new PaymentConsumerController(paymentConsumerService,
+                mock(BatchPaymentService.class), mock(StreamingPaymentService.class),
+                mock(PaymentStatusWatcher.class), mock(IdempotencyStore.class), cache)).build();
+    }
+
+    @Test
+    @DisplayName("Should reuse the encoded account until its version changes and answer matching ETags with 304")
+    void shouldReuseEncodedAccountUntilVersionChanges() throws Exception {
+        Account account = new Account("CUST001", "ACC001", "CHECKING", new BigDecimal("100.00"), "USD", "ACTIVE");
+        when(paymentConsumerService.getAccountVersion("CUST001")).thenReturn(1L);
+        when(paymentConsumerService.getAccountDetails("CUST001")).thenReturn(account);
+
+        MvcResult first = mockMvc.perform(get("/api/v1/consumer/accounts/CUST001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(100.00))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("W/\"");
+        assertThat(first.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+
+        // Changed in place but not versioned yet: the cached body is still served
+        account.setBalance(new BigDecimal("40.00"));
+        mockMvc.perform(get("/api/v1/consumer/accounts/CUST001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(100.00));
+        MvcResult notModified = mockMvc.perform(get("/api/v1/consumer/accounts/CUST001")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andReturn();
+        assertThat(notModified.getResponse().getContentAsByteArray()).isEmpty();
+
+        when(paymentConsumerService.getAccountVersion("CUST001")).thenReturn(2L);
+        MvcResult changed = mockMvc.perform(get("/api/v1/consumer/accounts/CUST001")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(40.00))
+                .andReturn();
+        assertThat(changed.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+
+        assertThat(count("account", "hit")).isEqualTo(2);
+        assertThat(count("account", "miss")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should serve the cached gzip form of large beneficiary lists to clients accepting gzip")
+    void shouldServeGzippedBeneficiariesToClientsAcceptingGzip() throws Exception {
+        List<Beneficiary> beneficiaries = new ArrayList<>();
+        for (long i = 0; i < 50; i++) {
+            beneficiaries.add(new Beneficiary(i, "CUST001", "ACC001", "Beneficiary " + i,
+                    "BEN" + i, "TEST0001", "Test Bank", "EXTERNAL", "ACTIVE", null, null));
+        }
+        List<Beneficiary> cached = List.copyOf(beneficiaries);
+        when(paymentConsumerService.getBeneficiariesVersion("CUST001", null)).thenReturn(7L);
+        when(paymentConsumerService.getBeneficiaries("CUST001", null)).thenReturn(cached);
+
+        MvcResult plain = mockMvc.perform(get("/api/v1/consumer/beneficiaries").param("customerId", "CUST001"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(jsonPath("$.length()").value(50))
+                .andReturn();
+        assertThat(plain.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+
+        MvcResult gzipped = mockMvc.perform(get("/api/v1/consumer/beneficiaries").param("customerId", "CUST001")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, plain.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andReturn();
+        assertThat(gunzip(gzipped.getResponse().getContentAsByteArray()))
+                .isEqualTo(plain.getResponse().getContentAsByteArray());
+        assertThat(gzipped.getResponse().getContentAsByteArray().length)
+                .isLessThan(plain.getResponse().getContentAsByteArray().length);
+        assertThat(count("beneficiaries", "miss")).isEqualTo(1);
+
+        assertThat(EncodedResponseCache.acceptsGzip("gzip;q=0, *")).isFalse();
+        assertThat(EncodedResponseCache.acceptsGzip("deflate, *;q=0.5")).isTrue();
+        assertThat(EncodedResponseCache.acceptsGzip("identity")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should not cache the body of a beneficiary list read while no list was cached")
+    void shouldNotCacheUnversionedBeneficiaries() throws Exception {
+        when(paymentConsumerService.getBeneficiariesVersion("CUST001", null)).thenReturn(BeneficiaryCache.UNVERSIONED);
+        when(paymentConsumerService.getBeneficiaries("CUST001", null)).thenReturn(List.of());
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/v1/consumer/beneficiaries").param("customerId", "CUST001"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(0));
+        }
+        when(paymentConsumerService.getBeneficiariesVersion("CUST001", null)).thenReturn(3L);
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/v1/consumer/beneficiaries").param("customerId", "CUST001"))
+                    .andExpect(status().isOk());
+        }
+
+        assertThat(count("beneficiaries", "miss")).isEqualTo(3);
+        assertThat(count("beneficiaries", "hit")).isEqualTo(1);
+    }
+
+    private double count(String resource, String outcome) {
+        return meterRegistry.get("api.response.cache").tag("resource", resource).tag("outcome", outcome)
+                .counter().count();
+    }
+
+    private static byte[] gunzip(byte[] gzipped) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return in.readAllBytes();
+        }
+    }
+}
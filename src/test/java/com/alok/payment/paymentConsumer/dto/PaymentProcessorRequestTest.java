@@ -0,0 +1,73 @@
+package com.alok.payment.paymentConsumer.dto;
+
+import com.alok.payment.paymentConsumer.model.PaymentType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Payment Processor Request Tests")
+class PaymentProcessorRequestTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Should serialize to the same JSON as the request map it replaces")
+    void shouldSerializeLikeRequestMap() throws Exception {
+        PaymentRequest paymentRequest = new PaymentRequest("CUST001", "ACC001", "ACC002",
+                new BigDecimal("125.50"), "USD", PaymentType.DOMESTIC_TRANSFER);
+        paymentRequest.setDescription("Invoice 42");
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("fromAccount", "ACC001");
+        map.put("toAccount", "ACC002");
+        map.put("amount", new BigDecimal("125.50"));
+        map.put("currency", "USD");
+        map.put("paymentType", "DOMESTIC_TRANSFER");
+        map.put("description", "Invoice 42");
+
+        JsonNode typed = objectMapper.readTree(objectMapper.writeValueAsBytes(PaymentProcessorRequest.from(paymentRequest)));
+
+        assertThat(typed).isEqualTo(objectMapper.readTree(objectMapper.writeValueAsBytes(map)));
+        assertThat(typed.get("amount").decimalValue()).isEqualByComparingTo("125.50");
+    }
+
+    @Test
+    @DisplayName("Should omit the description when absent")
+    void shouldOmitMissingDescription() throws Exception {
+        PaymentProcessorRequest request = new PaymentProcessorRequest("ACC001", "ACC002", BigDecimal.TEN, "USD",
+                "DOMESTIC_TRANSFER", null);
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsBytes(request));
+
+        assertThat(json.has("description")).isFalse();
+        assertThat(json.size()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should convert and validate legacy request maps")
+    void shouldConvertRequestMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("fromAccount", "ACC001");
+        map.put("toAccount", "ACC002");
+        map.put("amount", 10);
+        map.put("paymentType", PaymentType.INTERBANK_TRANSFER);
+
+        PaymentProcessorRequest request = PaymentProcessorRequest.fromMap(map);
+
+        assertThat(request.amount()).isEqualByComparingTo("10");
+        assertThat(request.paymentType()).isEqualTo("INTERBANK_TRANSFER");
+
+        map.remove("toAccount");
+        assertThatThrownBy(() -> PaymentProcessorRequest.fromMap(map))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("To account is required");
+    }
+}
@@ -0,0 +1,100 @@
+package com.alok.payment.paymentConsumer.exception;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Rate Limited Logger Tests")
+class RateLimitedLoggerTest {
+
+    private Logger delegate;
+    private AtomicLong nanoTime;
+    private RateLimitedLogger logger;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(Logger.class);
+        when(delegate.isErrorEnabled()).thenReturn(true);
+        when(delegate.isWarnEnabled()).thenReturn(true);
+        nanoTime = new AtomicLong(1_000);
+        logger = new RateLimitedLogger(delegate, Duration.ofSeconds(10), nanoTime::get);
+    }
+
+    @Test
+    @DisplayName("Should write a template once per interval and report the skipped ones with the next line")
+    void shouldWriteOncePerIntervalAndReportSuppressed() {
+        for (int i = 0; i < 5; i++) {
+            logger.error("Error calling {} service: {}", "Beneficiaries", "Connection refused");
+        }
+        nanoTime.addAndGet(Duration.ofSeconds(10).toNanos());
+        logger.error("Error calling {} service: {}", "Beneficiaries", "Read timed out");
+
+        verify(delegate).error("Error calling {} service: {}", new Object[]{"Beneficiaries", "Connection refused"});
+        verify(delegate).error("Error calling {} service: {} ({} similar suppressed)",
+                new Object[]{"Beneficiaries", "Read timed out", 4L});
+        verify(delegate, times(2)).error(anyString(), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should limit each template on its own")
+    void shouldLimitTemplatesIndependently() {
+        logger.error("Circuit breaker is open: {}", "paymentProcessorService");
+        logger.warn("{} call rejected at concurrency limit {}", "Payment Processor", 20);
+        logger.error("Circuit breaker is open: {}", "paymentProcessorService");
+
+        verify(delegate, times(1)).error(anyString(), any(Object[].class));
+        verify(delegate, times(1)).warn(anyString(), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should keep a trailing throwable last when reporting suppressed lines")
+    void shouldKeepThrowableLast() {
+        IOException failure = new IOException("Connection reset");
+        logger.warn("Status poll for transaction {} failed", "TXN-1", failure);
+        logger.warn("Status poll for transaction {} failed", "TXN-2", failure);
+        nanoTime.addAndGet(Duration.ofSeconds(11).toNanos());
+        logger.warn("Status poll for transaction {} failed", "TXN-3", failure);
+
+        verify(delegate).warn("Status poll for transaction {} failed ({} similar suppressed)",
+                new Object[]{"TXN-3", 1L, failure});
+    }
+
+    @Test
+    @DisplayName("Should not count lines of a disabled level")
+    void shouldSkipDisabledLevel() {
+        when(delegate.isErrorEnabled()).thenReturn(false);
+
+        logger.error("Request timeout: {}", "5s");
+
+        verify(delegate, never()).error(anyString(), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should create expected downstream failures without a stack trace")
+    void shouldCreateStacklessServiceUnavailableException() {
+        IOException cause = new IOException("Connection refused");
+
+        ServiceUnavailableException ex = ServiceUnavailableException.withoutStackTrace("Beneficiaries",
+                "Beneficiaries service is currently unavailable", cause);
+
+        assertThat(ex.getStackTrace()).isEmpty();
+        assertThat(ex.getCause()).isSameAs(cause);
+        assertThat(cause.getStackTrace()).isNotEmpty();
+        assertThat(ex.getServiceName()).isEqualTo("Beneficiaries");
+        assertThat(new ServiceUnavailableException("Beneficiaries", "down").getStackTrace()).isNotEmpty();
+    }
+}
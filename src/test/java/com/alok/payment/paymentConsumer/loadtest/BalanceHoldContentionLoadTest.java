@@ -0,0 +1,137 @@
+package com.alok.payment.paymentConsumer.loadtest;
+
+import ch.qos.logback.classic.Level;
+import com.alok.payment.paymentConsumer.config.AccountStoreProperties;
+import com.alok.payment.paymentConsumer.exception.PaymentProcessingException;
+import com.alok.payment.paymentConsumer.model.Account;
+import com.alok.payment.paymentConsumer.model.PaymentStatus;
+import com.alok.payment.paymentConsumer.repository.InMemoryAccountStore;
+import com.alok.payment.paymentConsumer.service.AccountService;
+import com.alok.payment.paymentConsumer.service.BalanceHold;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Contention benchmark for balance holds.
+ * Many threads reserve, commit, release and leave pending holds on a handful of hot accounts,
+ * with enough volume to drain them, and the test checks that no account is ever debited past
+ * its balance and that every hold is settled. The volume can be changed with
+ * {@code -Dloadtest.holds.operations}.
+ */
+@DisplayName("Balance Hold Contention Load Test")
+class BalanceHoldContentionLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceHoldContentionLoadTest.class);
+
+    private static final int THREADS = 64;
+    private static final int HOT_ACCOUNTS = 4;
+    private static final int OPERATIONS = Integer.getInteger("loadtest.holds.operations", 1_000_000);
+    private static final long BALANCE_CENTS = 1_000_000_00L;
+
+    @BeforeAll
+    static void quietServiceLogging() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.alok.payment.paymentConsumer"))
+                .setLevel(Level.WARN);
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.alok.payment.paymentConsumer.loadtest"))
+                .setLevel(Level.INFO);
+    }
+
+    @Test
+    @DisplayName("Should never debit a hot account past its balance")
+    void shouldHoldBalancesUnderContention() throws Exception {
+        InMemoryAccountStore store = new InMemoryAccountStore();
+        AccountStoreProperties properties = new AccountStoreProperties();
+        properties.getHolds().setTimeout(Duration.ofMinutes(10));
+        AccountService accountService = new AccountService(store, properties, new SimpleMeterRegistry());
+        for (int i = 0; i < HOT_ACCOUNTS; i++) {
+            accountService.saveAccount(new Account(customerId(i), "HOT" + i, "CHECKING",
+                    BigDecimal.valueOf(BALANCE_CENTS, 2), "USD", "ACTIVE"));
+        }
+
+        LongAdder[] debitedCents = new LongAdder[HOT_ACCOUNTS];
+        for (int i = 0; i < HOT_ACCOUNTS; i++) {
+            debitedCents[i] = new LongAdder();
+        }
+        LongAdder rejected = new LongAdder();
+        AtomicLong transactions = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+
+        long started;
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int op = 0; op < OPERATIONS / THREADS; op++) {
+                        int account = random.nextInt(HOT_ACCOUNTS);
+                        long cents = random.nextLong(100, 2_001);
+                        BalanceHold hold;
+                        try {
+                            hold = accountService.reserveBalance(customerId(account), BigDecimal.valueOf(cents, 2));
+                        } catch (PaymentProcessingException ex) {
+                            rejected.increment();
+                            continue;
+                        }
+                        int outcome = random.nextInt(10);
+                        if (outcome < 7) {
+                            accountService.settleHold(hold, PaymentStatus.COMPLETED, null);
+                            debitedCents[account].add(cents);
+                        } else if (outcome < 9) {
+                            accountService.settleHold(hold, PaymentStatus.FAILED, null);
+                        } else {
+                            String transactionId = "TXN-" + transactions.incrementAndGet();
+                            accountService.settleHold(hold, PaymentStatus.PENDING, transactionId);
+                            accountService.settleHold(transactionId, PaymentStatus.COMPLETED);
+                            debitedCents[account].add(cents);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            started = System.nanoTime();
+            start.countDown();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+
+        int attempted = OPERATIONS / THREADS * THREADS;
+        log.info("{} hold attempts on {} accounts from {} threads in {} ms ({} ops/s), {} rejected for balance",
+                attempted, HOT_ACCOUNTS, THREADS, elapsed.toMillis(),
+                attempted * 1000L / Math.max(1, elapsed.toMillis()), rejected.sum());
+
+        for (int i = 0; i < HOT_ACCOUNTS; i++) {
+            BigDecimal expected = BigDecimal.valueOf(BALANCE_CENTS - debitedCents[i].sum(), 2);
+            BigDecimal stored = store.findByCustomerId(customerId(i)).orElseThrow().getBalance();
+            assertThat(stored).isEqualByComparingTo(expected);
+            assertThat(stored.signum()).isNotNegative();
+            assertThat(accountService.getAvailableBalance(customerId(i))).isEqualByComparingTo(stored);
+        }
+        // Enough volume to drain the accounts, so the rejection path is contended too
+        assertThat(rejected.sum()).isPositive();
+    }
+
+    private static String customerId(int account) {
+        return "HOT-CUST" + account;
+    }
+}
@@ -0,0 +1,159 @@
+package com.alok.payment.paymentConsumer.loadtest;
+
+import com.alok.payment.paymentConsumer.loadtest.support.DownstreamStandIn;
+import com.alok.payment.paymentConsumer.loadtest.support.NdjsonStreamClient;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test for streaming NDJSON payment ingestion.
+ * Pushes a few hundred thousand generated lines through the endpoint against a local
+ * processor stand-in while reading results concurrently, and checks that every line is
+ * answered once and that the in-flight window holds. The line count can be changed with
+ * {@code -Dloadtest.stream.lines}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "payments.stream.window=" + NdjsonPaymentStreamLoadTest.WINDOW,
+        // Measures the service's own concurrency, not the adaptive downstream limit
+        "external.services.payment-processor.concurrency-limit.enabled=false",
+        "external.services.beneficiaries.concurrency-limit.enabled=false",
+        "spring.autoconfigure.exclude="
+                + "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration,"
+                + "org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration",
+        "accounts.store.type=memory",
+        "logging.level.com.alok.payment.paymentConsumer=WARN",
+        "logging.level.com.alok.payment.paymentConsumer.loadtest=INFO"
+})
+@DisplayName("NDJSON Payment Stream Load Test")
+class NdjsonPaymentStreamLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(NdjsonPaymentStreamLoadTest.class);
+
+    static final int WINDOW = 32;
+    private static final int LINES = Integer.getInteger("loadtest.stream.lines", 200_000);
+    private static final int MALFORMED_EVERY = 10_000;
+    private static final String PAYMENT = "{\"customerId\":\"CUST001\",\"fromAccount\":\"ACC001\",\"toAccount\":\"ACC002\","
+            + "\"amount\":0.01,\"currency\":\"USD\",\"paymentType\":\"DOMESTIC_TRANSFER\",\"description\":\"Payroll %d\"}";
+
+    private static final DownstreamStandIn processor = startStandIn();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("external.services.payment-processor.url", processor::baseUrl);
+        registry.add("external.services.beneficiaries.url", processor::baseUrl);
+    }
+
+    @AfterAll
+    static void stopStandIn() {
+        processor.close();
+    }
+
+    @Test
+    @DisplayName("Should answer every line of a multi-hundred-thousand line stream within the window")
+    void shouldStreamLargeFileWithinWindow() throws Exception {
+        BitSet answered = new BitSet(LINES + 1);
+        AtomicLong completed = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong duplicates = new AtomicLong();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        AtomicLong peakHeap = new AtomicLong();
+
+        long started = System.nanoTime();
+        int status = NdjsonStreamClient.exchange(port, "/api/v1/consumer/payments/stream", generatedLines(),
+                line -> {
+                    JsonNode result = read(line);
+                    int lineNumber = result.get("line").asInt();
+                    if (answered.get(lineNumber)) {
+                        duplicates.incrementAndGet();
+                    }
+                    answered.set(lineNumber);
+                    if ("COMPLETED".equals(result.get("status").asText())) {
+                        completed.incrementAndGet();
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                    if (lineNumber % 10_000 == 0) {
+                        peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                    }
+                },
+                Duration.ofMinutes(10));
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        log.info("Streamed {} payments in {} ms, peak in-flight at processor: {}, peak heap sample: {} MB",
+                LINES, elapsed.toMillis(), processor.maxInFlight(), peakHeap.get() / (1024 * 1024));
+
+        int malformed = LINES / MALFORMED_EVERY;
+        assertThat(status).isEqualTo(200);
+        assertThat(duplicates).hasValue(0);
+        assertThat(answered.cardinality()).isEqualTo(LINES);
+        assertThat(answered.nextClearBit(1)).isEqualTo(LINES + 1);
+        assertThat(rejected).hasValue(malformed);
+        assertThat(completed).hasValue(LINES - malformed);
+        assertThat(processor.requestCount()).isEqualTo(LINES - malformed);
+        assertThat(processor.maxInFlight()).isLessThanOrEqualTo(WINDOW);
+    }
+
+    private Iterator<String> generatedLines() {
+        return new Iterator<>() {
+            private int next = 1;
+
+            @Override
+            public boolean hasNext() {
+                return next <= LINES;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int line = next++;
+                return line % MALFORMED_EVERY == 0 ? "{\"customerId\":" : String.format(PAYMENT, line);
+            }
+        };
+    }
+
+    private JsonNode read(String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static DownstreamStandIn startStandIn() {
+        try {
+            return DownstreamStandIn.start(Duration.ZERO);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
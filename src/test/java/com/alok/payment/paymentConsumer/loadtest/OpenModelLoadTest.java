@@ -0,0 +1,156 @@
+package com.alok.payment.paymentConsumer.loadtest;
+
+import com.alok.payment.paymentConsumer.loadtest.support.DownstreamStandIn;
+import com.alok.payment.paymentConsumer.loadtest.support.LoadStepResult;
+import com.alok.payment.paymentConsumer.loadtest.support.OpenLoadGenerator;
+import com.alok.payment.paymentConsumer.loadtest.support.StandInProfile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Open-model load test of the consumer API against embedded stand-ins for the beneficiaries
+ * and payment processor services, runnable offline.
+ *
+ * Drives a mix of payments, payment status, account and beneficiary requests at a series of
+ * constant arrival rates and reports HDR latency percentiles per rate and the highest rate
+ * sustained within the error and p99 budgets. Stops at the first rate that is not sustained.
+ * Percentile distributions are written to {@code target/loadtest}.
+ *
+ * Tunable with system properties:
+ * {@code loadtest.open.rates} (requests per second, comma separated),
+ * {@code loadtest.open.step} (time per rate),
+ * {@code loadtest.open.p99} and {@code loadtest.open.max-error-rate} (budgets), and
+ * {@code loadtest.processor.profile} / {@code loadtest.beneficiaries.profile}
+ * (stand-in behaviour, e.g. {@code latency=20ms,jitter=30ms,errors=0.01}).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.autoconfigure.exclude="
+                + "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration,"
+                + "org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration",
+        "accounts.store.type=memory",
+        "logging.level.com.alok.payment.paymentConsumer=WARN",
+        "logging.level.com.alok.payment.paymentConsumer.loadtest=INFO"
+})
+@DisplayName("Open Model Load Test")
+class OpenModelLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenModelLoadTest.class);
+
+    private static final double[] RATES = Arrays.stream(System.getProperty("loadtest.open.rates", "50,100,200,400")
+            .split(",")).mapToDouble(rate -> Double.parseDouble(rate.trim())).toArray();
+    private static final Duration STEP = DurationStyle.detectAndParse(System.getProperty("loadtest.open.step", "15s"));
+    private static final Duration WARM_UP = Duration.ofSeconds(10);
+    private static final Duration P99_BUDGET = DurationStyle.detectAndParse(System.getProperty("loadtest.open.p99", "500ms"));
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("loadtest.open.max-error-rate", "0.01"));
+    private static final int MAX_IN_FLIGHT = 5_000;
+
+    private static final DownstreamStandIn processor = startStandIn(
+            StandInProfile.fromSystemProperty("loadtest.processor.profile", "latency=20ms,jitter=30ms"));
+    private static final DownstreamStandIn beneficiaries = startStandIn(
+            StandInProfile.fromSystemProperty("loadtest.beneficiaries.profile", "latency=10ms,jitter=20ms"));
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("external.services.payment-processor.url", processor::baseUrl);
+        registry.add("external.services.beneficiaries.url", beneficiaries::baseUrl);
+    }
+
+    @AfterAll
+    static void stopStandIns() {
+        processor.close();
+        beneficiaries.close();
+    }
+
+    @Test
+    @DisplayName("Should report latency percentiles and the highest sustainable arrival rate")
+    void shouldFindMaxSustainableThroughput() throws IOException {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        OpenLoadGenerator generator = new OpenLoadGenerator(httpClient, MAX_IN_FLIGHT);
+
+        log.info("Warming up at {} req/s for {} s", RATES[0], WARM_UP.toSeconds());
+        generator.run(RATES[0], WARM_UP, this::request);
+
+        List<LoadStepResult> steps = new ArrayList<>();
+        double maxSustained = 0;
+        for (double rate : RATES) {
+            processor.resetStatistics();
+            LoadStepResult step = generator.run(rate, STEP, this::request);
+            steps.add(step);
+            step.writeDistribution(Path.of("target", "loadtest", "open-model-" + (long) rate + "rps.hgrm"));
+            log.info("{} (processor peak in-flight {})", step.summary(), processor.maxInFlight());
+            if (!step.sustained(MAX_ERROR_RATE, P99_BUDGET)) {
+                break;
+            }
+            maxSustained = rate;
+        }
+
+        log.info("Processor profile [{}], beneficiaries profile [{}]", processor.profile(), beneficiaries.profile());
+        log.info("Max sustainable throughput: {} req/s (p99 <= {} ms, errors <= {}%)",
+                maxSustained, P99_BUDGET.toMillis(), MAX_ERROR_RATE * 100);
+
+        assertThat(steps.get(0).sent()).isPositive();
+        assertThat(maxSustained)
+                .as("lowest rate should be sustained: %s", steps.get(0).summary())
+                .isGreaterThanOrEqualTo(RATES[0]);
+    }
+
+    /**
+     * Request mix: 40% payments, 20% payment status, 20% account and 20% beneficiary lookups
+     */
+    private HttpRequest request(long sequence) {
+        int customer = (int) (sequence % 3) + 1;
+        String base = "http://localhost:" + port + "/api/v1/consumer";
+        return switch ((int) (sequence % 10)) {
+            case 0, 1, 2, 3 -> HttpRequest.newBuilder(URI.create(base + "/payments"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(String.format(
+                            "{\"customerId\":\"CUST00%d\",\"fromAccount\":\"ACC00%d\",\"toAccount\":\"ACC00%d\","
+                                    + "\"amount\":0.01,\"currency\":\"USD\",\"paymentType\":\"DOMESTIC_TRANSFER\"}",
+                            customer, customer, customer % 3 + 1)))
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+            case 4, 5 -> get(base + "/payments/TXN-" + sequence + "?customerId=CUST00" + customer);
+            case 6, 7 -> get(base + "/accounts/CUST00" + customer);
+            default -> get(base + "/beneficiaries?customerId=CUST00" + customer);
+        };
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private static DownstreamStandIn startStandIn(StandInProfile profile) {
+        try {
+            return DownstreamStandIn.start(profile);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
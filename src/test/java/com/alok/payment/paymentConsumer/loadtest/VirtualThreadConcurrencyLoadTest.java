@@ -0,0 +1,124 @@
+package com.alok.payment.paymentConsumer.loadtest;
+
+import com.alok.payment.paymentConsumer.loadtest.support.DownstreamStandIn;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test for the virtual-thread execution mode.
+ * The processor stand-in sleeps on every call, so with Tomcat's platform pool (200 threads)
+ * no more than 200 payments could be in flight; on virtual threads all of them are.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "server.tomcat.threads.max=200",
+        "external.services.payment-processor.pool.max-total=1000",
+        "external.services.payment-processor.pool.max-per-route=1000",
+        // Measures the service's own concurrency, not the adaptive downstream limit
+        "external.services.payment-processor.concurrency-limit.enabled=false",
+        "external.services.beneficiaries.concurrency-limit.enabled=false",
+        "resilience4j.timelimiter.instances.paymentProcessorService.timeoutDuration=60s",
+        "external.services.payment-processor.read-timeout=60s",
+        "spring.autoconfigure.exclude="
+                + "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration,"
+                + "org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration",
+        "accounts.store.type=memory",
+        "logging.level.com.alok.payment.paymentConsumer=WARN"
+})
+@DisplayName("Virtual Thread Concurrency Load Test")
+class VirtualThreadConcurrencyLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConcurrencyLoadTest.class);
+
+    private static final int PLATFORM_THREAD_LIMIT = 200;
+    private static final int CONCURRENT_PAYMENTS = 400;
+    private static final int WARM_UP_PAYMENTS = 20;
+    private static final Duration PROCESSOR_DELAY = Duration.ofSeconds(10);
+
+    private static final DownstreamStandIn processor = startStandIn();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("external.services.payment-processor.url", processor::baseUrl);
+        registry.add("external.services.beneficiaries.url", processor::baseUrl);
+    }
+
+    @AfterAll
+    static void stopStandIn() {
+        processor.close();
+    }
+
+    @Test
+    @DisplayName("Should hold more in-flight payments than the platform thread pool allows")
+    void shouldScalePastPlatformThreadLimit() throws Exception {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String body = "{\"customerId\":\"CUST001\",\"fromAccount\":\"ACC001\",\"toAccount\":\"ACC002\","
+                + "\"amount\":1.00,\"currency\":\"USD\",\"paymentType\":\"DOMESTIC_TRANSFER\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/consumer/payments"))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(90))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        // Warm up the request path against an instant processor before the slow run
+        processor.setDelay(Duration.ZERO);
+        for (int i = 0; i < WARM_UP_PAYMENTS; i++) {
+            assertThat(httpClient.send(request, HttpResponse.BodyHandlers.ofString()).statusCode()).isEqualTo(201);
+        }
+        processor.setDelay(PROCESSOR_DELAY);
+        processor.resetStatistics();
+
+        long started = System.nanoTime();
+        List<Future<HttpResponse<String>>> responses = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENT_PAYMENTS; i++) {
+                responses.add(clients.submit(() -> httpClient.send(request, HttpResponse.BodyHandlers.ofString())));
+            }
+            for (Future<HttpResponse<String>> response : responses) {
+                assertThat(response.get().statusCode()).isEqualTo(201);
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        log.info("{} payments against a {} ms processor took {} ms, peak in-flight at processor: {}",
+                CONCURRENT_PAYMENTS, PROCESSOR_DELAY.toMillis(), elapsed.toMillis(), processor.maxInFlight());
+
+        assertThat(processor.requestCount()).isEqualTo(CONCURRENT_PAYMENTS);
+        assertThat(processor.maxInFlight()).isGreaterThan(PLATFORM_THREAD_LIMIT);
+    }
+
+    private static DownstreamStandIn startStandIn() {
+        try {
+            return DownstreamStandIn.start(PROCESSOR_DELAY);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.alok.payment.paymentConsumer.loadtest.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded HTTP stand-in for the payment processor and beneficiaries APIs.
+ * Serves every request on its own virtual thread after the latency of its
+ * {@link StandInProfile}, fails the profile's share of requests with a 503, and
+ * records how many requests were in flight at the same time.
+ */
+public class DownstreamStandIn implements AutoCloseable {
+
+    static {
+        // The JDK server writes headers and body separately; without this they stall on delayed ACKs
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private volatile StandInProfile profile;
+
+    private DownstreamStandIn(StandInProfile profile) throws IOException {
+        this.profile = profile;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        this.server.createContext("/api/payments", this::handlePayments);
+        this.server.createContext("/api/v1/beneficiaries", this::handleBeneficiaries);
+        this.server.setExecutor(executor);
+    }
+
+    /**
+     * Start a stand-in that answers every request after the given delay
+     */
+    public static DownstreamStandIn start(Duration delay) throws IOException {
+        return start(StandInProfile.fixed(delay));
+    }
+
+    /**
+     * Start a stand-in that answers with the latency, jitter and error rate of the profile
+     */
+    public static DownstreamStandIn start(StandInProfile profile) throws IOException {
+        DownstreamStandIn standIn = new DownstreamStandIn(profile);
+        standIn.server.start();
+        return standIn;
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public int maxInFlight() {
+        return maxInFlight.get();
+    }
+
+    public long requestCount() {
+        return requestCount.get();
+    }
+
+    public StandInProfile profile() {
+        return profile;
+    }
+
+    public long errorCount() {
+        return errorCount.get();
+    }
+
+    public void setDelay(Duration delay) {
+        this.profile = StandInProfile.fixed(delay);
+    }
+
+    public void setProfile(StandInProfile profile) {
+        this.profile = profile;
+    }
+
+    public void resetStatistics() {
+        maxInFlight.set(0);
+        requestCount.set(0);
+        errorCount.set(0);
+    }
+
+    private void handlePayments(HttpExchange exchange) throws IOException {
+        serve(exchange, () -> {
+            String path = exchange.getRequestURI().getPath();
+            String transactionId = "POST".equals(exchange.getRequestMethod())
+                    ? "TXN-" + UUID.randomUUID()
+                    : path.substring(path.lastIndexOf('/') + 1);
+            return "{\"transactionId\":\"" + transactionId + "\",\"status\":\"COMPLETED\","
+                    + "\"message\":\"Payment processed\"}";
+        });
+    }
+
+    private void handleBeneficiaries(HttpExchange exchange) throws IOException {
+        serve(exchange, () -> "[{\"id\":1,\"customerId\":\"CUST001\",\"accountNumber\":\"ACC001\","
+                + "\"beneficiaryName\":\"Jane Smith\",\"beneficiaryAccountNumber\":\"ACC002\","
+                + "\"status\":\"ACTIVE\"}]");
+    }
+
+    private void serve(HttpExchange exchange, BodySupplier body) throws IOException {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        requestCount.incrementAndGet();
+        try (exchange) {
+            try (InputStream in = exchange.getRequestBody()) {
+                in.readAllBytes();
+            }
+            StandInProfile current = profile;
+            Thread.sleep(current.nextDelay());
+            int status = 200;
+            byte[] bytes;
+            if (current.nextFails()) {
+                errorCount.incrementAndGet();
+                status = 503;
+                bytes = "{\"error\":\"Service Unavailable\"}".getBytes(StandardCharsets.UTF_8);
+            } else {
+                bytes = body.get().getBytes(StandardCharsets.UTF_8);
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface BodySupplier {
+        String get();
+    }
+}
@@ -0,0 +1,57 @@
+package com.alok.payment.paymentConsumer.loadtest.support;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Outcome of one constant-rate load step; latencies are recorded in microseconds
+ */
+public record LoadStepResult(double targetRate, long sent, long succeeded, long failed, Duration elapsed,
+                             Histogram latencies) {
+
+    /**
+     * Answered requests per second over the whole step, including the wait for the last answers
+     */
+    public double achievedRate() {
+        return (succeeded + failed) * 1_000_000_000.0 / Math.max(1, elapsed.toNanos());
+    }
+
+    public double errorRate() {
+        return sent == 0 ? 0 : (double) failed / sent;
+    }
+
+    public double percentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1_000.0;
+    }
+
+    /**
+     * Whether the step kept up with its rate within the error and p99 latency budgets
+     */
+    public boolean sustained(double maxErrorRate, Duration p99Budget) {
+        return achievedRate() >= targetRate * 0.95
+                && errorRate() <= maxErrorRate
+                && percentileMillis(99) <= p99Budget.toMillis();
+    }
+
+    public String summary() {
+        return String.format("%7.1f req/s target, %7.1f achieved, %d sent, %.2f%% errors, "
+                        + "p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, p99.9 %.1f ms, max %.1f ms",
+                targetRate, achievedRate(), sent, errorRate() * 100, percentileMillis(50), percentileMillis(90),
+                percentileMillis(99), percentileMillis(99.9), latencies.getMaxValue() / 1_000.0);
+    }
+
+    /**
+     * Write the HDR percentile distribution in milliseconds, plottable with the HdrHistogram plotter
+     */
+    public void writeDistribution(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            latencies.outputPercentileDistribution(out, 1_000.0);
+        }
+    }
+}
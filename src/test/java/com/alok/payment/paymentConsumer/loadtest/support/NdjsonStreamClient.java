@@ -0,0 +1,145 @@
+package com.alok.payment.paymentConsumer.loadtest.support;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Minimal full-duplex HTTP/1.1 client for NDJSON streaming endpoints.
+ * The request body is generated and sent with chunked encoding on one thread while the
+ * chunked response is decoded line by line on the caller's, so neither side is ever held
+ * in memory and the server's back-pressure reaches the sender.
+ */
+public final class NdjsonStreamClient {
+
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    private NdjsonStreamClient() {
+    }
+
+    /**
+     * Stream the lines to the endpoint and hand every response line to the consumer
+     *
+     * @return HTTP status code of the response
+     */
+    public static int exchange(int port, String path, Iterator<String> lines, Consumer<String> onResult,
+                               Duration timeout) throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setSoTimeout((int) timeout.toMillis());
+            OutputStream output = new BufferedOutputStream(socket.getOutputStream(), CHUNK_SIZE + 64);
+            output.write(("POST " + path + " HTTP/1.1\r\n"
+                    + "Host: localhost:" + port + "\r\n"
+                    + "Content-Type: application/x-ndjson\r\n"
+                    + "Accept: application/x-ndjson\r\n"
+                    + "Transfer-Encoding: chunked\r\n"
+                    + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+
+            AtomicReference<Exception> sendFailure = new AtomicReference<>();
+            Thread sender = Thread.ofVirtual().start(() -> {
+                try {
+                    send(lines, output);
+                } catch (Exception ex) {
+                    sendFailure.set(ex);
+                }
+            });
+
+            InputStream input = new BufferedInputStream(socket.getInputStream(), CHUNK_SIZE);
+            int status = readHead(input);
+            readChunkedLines(input, onResult);
+
+            sender.join(timeout.toMillis());
+            if (sendFailure.get() != null) {
+                throw sendFailure.get();
+            }
+            return status;
+        }
+    }
+
+    private static void send(Iterator<String> lines, OutputStream output) throws IOException {
+        ByteArrayOutputStream chunk = new ByteArrayOutputStream(CHUNK_SIZE + 1024);
+        while (lines.hasNext()) {
+            chunk.write(lines.next().getBytes(StandardCharsets.UTF_8));
+            chunk.write('\n');
+            if (chunk.size() >= CHUNK_SIZE) {
+                writeChunk(chunk, output);
+            }
+        }
+        writeChunk(chunk, output);
+        output.write("0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+        output.flush();
+    }
+
+    private static void writeChunk(ByteArrayOutputStream chunk, OutputStream output) throws IOException {
+        if (chunk.size() == 0) {
+            return;
+        }
+        output.write((Integer.toHexString(chunk.size()) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        chunk.writeTo(output);
+        output.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+        output.flush();
+        chunk.reset();
+    }
+
+    private static int readHead(InputStream input) throws IOException {
+        String statusLine = readAsciiLine(input);
+        boolean chunked = false;
+        String header;
+        while (!(header = readAsciiLine(input)).isEmpty()) {
+            if (header.toLowerCase(Locale.ROOT).startsWith("transfer-encoding:") && header.contains("chunked")) {
+                chunked = true;
+            }
+        }
+        if (!chunked) {
+            throw new IOException("Expected a chunked response: " + statusLine);
+        }
+        return Integer.parseInt(statusLine.split(" ")[1]);
+    }
+
+    private static void readChunkedLines(InputStream input, Consumer<String> onResult) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(1024);
+        int size;
+        while ((size = Integer.parseInt(readAsciiLine(input).split(";")[0].trim(), 16)) > 0) {
+            for (int i = 0; i < size; i++) {
+                int b = input.read();
+                if (b < 0) {
+                    throw new EOFException("Response ended inside a chunk");
+                }
+                if (b == '\n') {
+                    onResult.accept(line.toString(StandardCharsets.UTF_8));
+                    line.reset();
+                } else {
+                    line.write(b);
+                }
+            }
+            readAsciiLine(input);
+        }
+        if (line.size() > 0) {
+            onResult.accept(line.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String readAsciiLine(InputStream input) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = input.read()) != '\n') {
+            if (b < 0) {
+                throw new EOFException("Connection closed");
+            }
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+}
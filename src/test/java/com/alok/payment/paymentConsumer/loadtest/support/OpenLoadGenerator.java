@@ -0,0 +1,85 @@
+package com.alok.payment.paymentConsumer.loadtest.support;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Open-model load generator: sends requests at a constant arrival rate whether or not
+ * earlier ones have been answered, the way independent clients do.
+ *
+ * Latency is measured from the time a request was due to be sent, not the time it was
+ * sent, so a generator or server that falls behind shows up in the percentiles instead of
+ * silently lowering the rate (coordinated omission). Requests beyond the in-flight limit
+ * are not sent and count as failures.
+ */
+public class OpenLoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final HttpClient httpClient;
+    private final int maxInFlight;
+
+    public OpenLoadGenerator(HttpClient httpClient, int maxInFlight) {
+        this.httpClient = httpClient;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Send requests at the given rate for the given time and wait for the last answer
+     *
+     * @param ratePerSecond Requests started per second
+     * @param duration How long to keep sending
+     * @param requests Request to send, by sequence number
+     * @return Latency histogram and counts of the step
+     */
+    public LoadStepResult run(double ratePerSecond, Duration duration, LongFunction<HttpRequest> requests) {
+        Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        LongAdder succeeded = new LongAdder();
+        LongAdder failed = new LongAdder();
+        AtomicInteger inFlight = new AtomicInteger();
+        long total = (long) (ratePerSecond * duration.toNanos() / 1_000_000_000.0);
+        double intervalNanos = 1_000_000_000.0 / ratePerSecond;
+        CompletableFuture<?>[] answers = new CompletableFuture<?>[(int) total];
+
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intendedStart = start + (long) (i * intervalNanos);
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                failed.increment();
+                answers[(int) i] = CompletableFuture.completedFuture(null);
+                continue;
+            }
+            answers[(int) i] = httpClient.sendAsync(requests.apply(i), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        inFlight.decrementAndGet();
+                        long micros = (System.nanoTime() - intendedStart) / 1_000;
+                        latencies.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+                        if (error == null && response.statusCode() < 400) {
+                            succeeded.increment();
+                        } else {
+                            failed.increment();
+                        }
+                    });
+        }
+        CompletableFuture.allOf(answers).exceptionally(error -> null).join();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        return new LoadStepResult(ratePerSecond, total, succeeded.sum(), failed.sum(), elapsed, latencies);
+    }
+}
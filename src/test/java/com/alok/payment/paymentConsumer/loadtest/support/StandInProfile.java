@@ -0,0 +1,75 @@
+package com.alok.payment.paymentConsumer.loadtest.support;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How a downstream stand-in behaves: a base latency, a uniformly distributed jitter on top
+ * of it, and the share of requests answered with a 503.
+ *
+ * Profiles can be given on the command line as {@code latency=20ms,jitter=30ms,errors=0.01};
+ * omitted settings are zero.
+ */
+public record StandInProfile(Duration latency, Duration jitter, double errorRate) {
+
+    public StandInProfile {
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Error rate must be between 0 and 1: " + errorRate);
+        }
+    }
+
+    public static StandInProfile fixed(Duration latency) {
+        return new StandInProfile(latency, Duration.ZERO, 0);
+    }
+
+    /**
+     * Parse a profile such as {@code latency=20ms,jitter=30ms,errors=0.01}
+     */
+    public static StandInProfile parse(String profile) {
+        Duration latency = Duration.ZERO;
+        Duration jitter = Duration.ZERO;
+        double errorRate = 0;
+        for (String setting : profile.split(",")) {
+            if (setting.isBlank()) {
+                continue;
+            }
+            String[] pair = setting.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected name=value in stand-in profile: " + setting);
+            }
+            String value = pair[1].trim();
+            switch (pair[0].trim()) {
+                case "latency" -> latency = DurationStyle.detectAndParse(value);
+                case "jitter" -> jitter = DurationStyle.detectAndParse(value);
+                case "errors" -> errorRate = Double.parseDouble(value);
+                default -> throw new IllegalArgumentException("Unknown stand-in profile setting: " + pair[0]);
+            }
+        }
+        return new StandInProfile(latency, jitter, errorRate);
+    }
+
+    /**
+     * Profile from a system property, or the default when it is not set
+     */
+    public static StandInProfile fromSystemProperty(String name, String defaultProfile) {
+        return parse(System.getProperty(name, defaultProfile));
+    }
+
+    Duration nextDelay() {
+        if (jitter.isZero()) {
+            return latency;
+        }
+        return latency.plusNanos(ThreadLocalRandom.current().nextLong(jitter.toNanos() + 1));
+    }
+
+    boolean nextFails() {
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    @Override
+    public String toString() {
+        return "latency=" + latency.toMillis() + "ms,jitter=" + jitter.toMillis() + "ms,errors=" + errorRate;
+    }
+}
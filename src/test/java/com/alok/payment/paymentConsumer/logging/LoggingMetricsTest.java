@@ -0,0 +1,153 @@
+package com.alok.payment.paymentConsumer.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Logging Metrics Tests")
+class LoggingMetricsTest {
+
+    private LoggerContext context;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        meterRegistry = new SimpleMeterRegistry();
+        new LoggingMetrics().bindTo(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.stop();
+    }
+
+    @Test
+    @DisplayName("Should keep one in rate INFO lines per sampled logger and every other line")
+    void shouldSampleInfoLinesOfSampledLoggers() {
+        RecordingAppender recorded = recordingAppender();
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setLoggers("com.alok.payment.paymentConsumer.client, com.alok.payment.paymentConsumer.service.AccountService");
+        filter.setRate(10);
+        filter.start();
+        context.addTurboFilter(filter);
+        double sampledBefore = dropped("sampled");
+
+        Logger client = context.getLogger("com.alok.payment.paymentConsumer.client.PaymentProcessorClient");
+        client.setLevel(Level.DEBUG);
+        Logger accounts = context.getLogger("com.alok.payment.paymentConsumer.service.AccountService");
+        Logger similarlyNamed = context.getLogger("com.alok.payment.paymentConsumer.service.AccountServiceBenchmark");
+        for (int i = 0; i < 100; i++) {
+            client.info("Fetching payment status for transaction: {}", "TXN-" + i);
+            client.atInfo().addKeyValue("transactionId", "TXN-" + i).log("Payment processed");
+            accounts.info("Account saved");
+            similarlyNamed.info("Not sampled");
+            client.warn("Never sampled");
+            client.trace("Below the logger level");
+        }
+
+        assertThat(recorded.messages("Fetching payment status for transaction: {}")
+                + recorded.messages("Payment processed")).isEqualTo(20);
+        assertThat(recorded.messages("Account saved")).isEqualTo(10);
+        assertThat(recorded.messages("Not sampled")).isEqualTo(100);
+        assertThat(recorded.messages("Never sampled")).isEqualTo(100);
+        assertThat(dropped("sampled") - sampledBefore).isEqualTo(270);
+    }
+
+    @Test
+    @DisplayName("Should shed INFO lines near a full queue and drop, not block, once it is full")
+    void shouldCountShedLinesWithoutBlocking() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingAppender blocked = new BlockingAppender(release);
+        blocked.setContext(context);
+        blocked.start();
+        MeteredAsyncAppender async = new MeteredAsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(10);
+        async.setDiscardingThreshold(5);
+        async.setNeverBlock(true);
+        async.addAppender(blocked);
+        async.start();
+        Logger logger = context.getLogger("com.alok.payment.paymentConsumer.service.PaymentConsumerService");
+        logger.addAppender(async);
+        double discardedBefore = dropped("discarded");
+        double queueFullBefore = dropped("queue-full");
+
+        // The worker holds the first line in the blocked appender; the rest fill the queue
+        logger.error("line");
+        assertThat(blocked.taken.await(5, TimeUnit.SECONDS)).isTrue();
+        long start = System.nanoTime();
+        for (int i = 0; i < 50; i++) {
+            logger.info("info line");
+            logger.error("error line");
+        }
+        long elapsed = System.nanoTime() - start;
+        release.countDown();
+
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(elapsed)).isLessThan(1);
+        assertThat(dropped("discarded") - discardedBefore).isGreaterThan(0);
+        assertThat(dropped("queue-full") - queueFullBefore).isGreaterThan(0);
+    }
+
+    private RecordingAppender recordingAppender() {
+        RecordingAppender appender = new RecordingAppender();
+        appender.setContext(context);
+        appender.start();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(appender);
+        return appender;
+    }
+
+    private double dropped(String reason) {
+        return meterRegistry.get("logging.events.dropped").tag("reason", reason).functionCounter().count();
+    }
+
+    private static class RecordingAppender extends AppenderBase<ILoggingEvent> {
+
+        private final List<String> formats = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            formats.add(event.getMessage());
+        }
+
+        long messages(String format) {
+            return formats.stream().filter(format::equals).count();
+        }
+    }
+
+    private static class BlockingAppender extends AppenderBase<ILoggingEvent> {
+
+        private final CountDownLatch release;
+        private final CountDownLatch taken = new CountDownLatch(1);
+
+        BlockingAppender(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            taken.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
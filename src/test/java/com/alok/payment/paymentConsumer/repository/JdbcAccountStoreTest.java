@@ -0,0 +1,88 @@
+package com.alok.payment.paymentConsumer.repository;
+
+import com.alok.payment.paymentConsumer.model.Account;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the JDBC store against an embedded H2 database in PostgreSQL mode, seeded with the
+ * same accounts schema and data the container-based tests use
+ */
+@DisplayName("JDBC Account Store Tests")
+class JdbcAccountStoreTest {
+
+    private EmbeddedDatabase database;
+    private JdbcAccountStore store;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE")
+                .addScript("init.db")
+                // The script ends with a PostgreSQL sequence reset that H2 does not know
+                .continueOnError(true)
+                .build();
+        JdbcClient jdbcClient = JdbcClient.create(database);
+        jdbcClient.sql("ALTER TABLE accounts ALTER COLUMN id RESTART WITH 101").update();
+        store = new JdbcAccountStore(jdbcClient);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should find accounts by customer ID and by account number")
+    void shouldFindByEitherKey() {
+        Account byCustomer = store.findByCustomerId("CUST004").orElseThrow();
+        Account byNumber = store.findByAccountNumber("ACC004").orElseThrow();
+
+        assertThat(byCustomer.getAccountNumber()).isEqualTo("ACC004");
+        assertThat(byCustomer.getBalance()).isEqualByComparingTo("500.00");
+        assertThat(byCustomer.getCustomerName()).isEqualTo("Alice Brown");
+        assertThat(byNumber.getCustomerId()).isEqualTo("CUST004");
+        assertThat(store.findByCustomerId("CUST999")).isEmpty();
+        assertThat(store.findByAccountNumber("ACC999")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should insert new accounts and update existing ones")
+    void shouldUpsertAccounts() {
+        Account created = new Account("CUST100", "ACC100", "SAVINGS", new BigDecimal("42.00"), "USD", "ACTIVE");
+        store.save(created);
+        assertThat(store.findByAccountNumber("ACC100").orElseThrow().getCustomerId()).isEqualTo("CUST100");
+
+        Account updated = store.findByCustomerId("CUST001").orElseThrow();
+        updated.setBalance(new BigDecimal("1.50"));
+        updated.setStatus("INACTIVE");
+        store.save(updated);
+
+        Account reloaded = store.findByCustomerId("CUST001").orElseThrow();
+        assertThat(reloaded.getBalance()).isEqualByComparingTo("1.50");
+        assertThat(reloaded.getStatus()).isEqualTo("INACTIVE");
+    }
+
+    @Test
+    @DisplayName("Should debit balances relative to the stored value")
+    void shouldDebitRelativeToStoredBalance() {
+        store.debit("CUST002", new BigDecimal("100.25"));
+        Account debited = store.debit("CUST002", new BigDecimal("0.75")).orElseThrow();
+
+        assertThat(debited.getBalance()).isEqualByComparingTo("24899.00");
+        assertThat(store.findByCustomerId("CUST002").orElseThrow().getBalance()).isEqualByComparingTo("24899.00");
+        assertThat(store.debit("CUST999", BigDecimal.ONE)).isEmpty();
+    }
+}
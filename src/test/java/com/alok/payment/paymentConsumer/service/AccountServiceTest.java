@@ -0,0 +1,290 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.config.AccountStoreProperties;
+import com.alok.payment.paymentConsumer.exception.PaymentProcessingException;
+import com.alok.payment.paymentConsumer.model.Account;
+import com.alok.payment.paymentConsumer.model.PaymentStatus;
+import com.alok.payment.paymentConsumer.repository.InMemoryAccountStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("Account Service Tests")
+class AccountServiceTest {
+
+    private final MutableClock clock = new MutableClock();
+    private InMemoryAccountStore accountStore;
+    private AccountService accountService;
+
+    @BeforeEach
+    void setUp() {
+        accountStore = spy(InMemoryAccountStore.withDemoAccounts());
+        AccountStoreProperties properties = new AccountStoreProperties();
+        properties.getHolds().setTimeout(Duration.ofMinutes(2));
+        properties.getHolds().setSweepInterval(Duration.ofSeconds(30));
+        accountService = new AccountService(accountStore, properties, new SimpleMeterRegistry(), clock);
+    }
+
+    @Test
+    @DisplayName("Should serve repeated lookups of a hot account from the cache")
+    void shouldCacheHotAccounts() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(accountService.getAccountByCustomerId("CUST001").getAccountNumber()).isEqualTo("ACC001");
+        }
+
+        verify(accountStore, times(1)).findByCustomerId("CUST001");
+    }
+
+    @Test
+    @DisplayName("Should resolve accounts by account number through the index")
+    void shouldResolveByAccountNumber() {
+        assertThat(accountService.getAccountByAccountNumber("ACC002").getCustomerId()).isEqualTo("CUST002");
+        assertThat(accountService.getAccountByAccountNumber("ACC002").getCustomerId()).isEqualTo("CUST002");
+        assertThat(accountService.getAccountByCustomerId("CUST002").getAccountNumber()).isEqualTo("ACC002");
+
+        verify(accountStore, times(1)).findByAccountNumber("ACC002");
+        verify(accountStore, never()).findByCustomerId(anyString());
+        assertThat(accountService.getAccountByAccountNumber("ACC999")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should refresh both lookups when an account is saved")
+    void shouldRefreshCachesOnSave() {
+        accountService.getAccountByAccountNumber("ACC003");
+
+        Account moved = new Account("CUST003", "ACC033", "SAVINGS", new BigDecimal("15000.00"), "USD", "ACTIVE");
+        accountService.saveAccount(moved);
+
+        assertThat(accountService.getAccountByCustomerId("CUST003").getAccountNumber()).isEqualTo("ACC033");
+        assertThat(accountService.getAccountByAccountNumber("ACC033").getCustomerId()).isEqualTo("CUST003");
+        assertThat(accountService.getAccountByAccountNumber("ACC003")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject accounts without a customer ID")
+    void shouldRejectAccountWithoutCustomerId() {
+        assertThatThrownBy(() -> accountService.saveAccount(new Account()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Customer ID cannot be null or empty");
+        assertThat(accountService.getAccountByCustomerId(" ")).isNull();
+        assertThat(accountService.getAccountByAccountNumber(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should debit the store when a held payment completes")
+    void shouldDebitOnCommit() {
+        BalanceHold hold = accountService.reserveBalance("CUST002", new BigDecimal("1200.00"));
+        assertThat(accountService.getAvailableBalance("CUST002")).isEqualByComparingTo("3800.00");
+        assertThat(accountService.getAccountByCustomerId("CUST002").getBalance()).isEqualByComparingTo("5000.00");
+
+        accountService.settleHold(hold, PaymentStatus.COMPLETED, "TXN-1");
+        accountService.settleHold(hold, PaymentStatus.COMPLETED, "TXN-1");
+
+        verify(accountStore, times(1)).debit("CUST002", new BigDecimal("1200.00"));
+        assertThat(accountStore.findByCustomerId("CUST002").orElseThrow().getBalance()).isEqualByComparingTo("3800.00");
+        assertThat(accountService.getAvailableBalance("CUST002")).isEqualByComparingTo("3800.00");
+        assertThat(accountService.activeHolds()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should leave accounts already handed out unchanged when debiting")
+    void shouldNotChangeAccountsHandedOut() {
+        Account before = accountService.getAccountByCustomerId("CUST002");
+        BalanceHold hold = accountService.reserveBalance("CUST002", new BigDecimal("1200.00"));
+
+        accountService.settleHold(hold, PaymentStatus.COMPLETED, "TXN-1");
+
+        assertThat(before.getBalance()).isEqualByComparingTo("5000.00");
+        assertThat(accountService.getAccountByCustomerId("CUST002").getBalance()).isEqualByComparingTo("3800.00");
+    }
+
+    @Test
+    @DisplayName("Should follow saved and debited balances while holds are open")
+    void shouldRebaseOpenHoldsOnBalanceChanges() {
+        BalanceHold paid = accountService.reserveBalance("CUST002", new BigDecimal("1000.00"));
+        BalanceHold open = accountService.reserveBalance("CUST002", new BigDecimal("200.00"));
+        assertThat(accountService.getAvailableBalance("CUST002")).isEqualByComparingTo("3800.00");
+
+        accountService.saveAccount(new Account("CUST002", "ACC002", "CHECKING", new BigDecimal("6000.00"), "USD",
+                "ACTIVE"));
+        assertThat(accountService.getAvailableBalance("CUST002")).isEqualByComparingTo("4800.00");
+
+        // Debited by another instance; the next debit reads back the balance including it
+        accountStore.debit("CUST002", new BigDecimal("500.00"));
+        accountService.settleHold(paid, PaymentStatus.COMPLETED, "TXN-1");
+
+        assertThat(accountService.getAvailableBalance("CUST002")).isEqualByComparingTo("4300.00");
+        accountService.releaseHold(open);
+        assertThat(accountService.getAvailableBalance("CUST002")).isEqualByComparingTo("4500.00");
+    }
+
+    @Test
+    @DisplayName("Should change an account's version on saves and debits, and only then")
+    void shouldVersionAccountChanges() {
+        accountService.getAccountByCustomerId("CUST002");
+        long loaded = accountService.getAccountVersion("CUST002");
+        accountService.getAccountByCustomerId("CUST002");
+        assertThat(accountService.getAccountVersion("CUST002")).isEqualTo(loaded);
+
+        BalanceHold hold = accountService.reserveBalance("CUST002", new BigDecimal("200.00"));
+        assertThat(accountService.getAccountVersion("CUST002")).isEqualTo(loaded);
+        accountService.settleHold(hold, PaymentStatus.COMPLETED, "TXN-1");
+        long debited = accountService.getAccountVersion("CUST002");
+        assertThat(debited).isNotEqualTo(loaded);
+
+        accountService.saveAccount(accountService.getAccountByCustomerId("CUST002"));
+        assertThat(accountService.getAccountVersion("CUST002")).isNotIn(loaded, debited);
+    }
+
+    @Test
+    @DisplayName("Should give the amount back when a held payment fails")
+    void shouldReleaseOnFailure() {
+        BalanceHold first = accountService.reserveBalance("CUST002", new BigDecimal("3000.00"));
+
+        assertThatThrownBy(() -> accountService.reserveBalance("CUST002", new BigDecimal("2500.00")))
+                .isInstanceOf(PaymentProcessingException.class)
+                .hasMessage("Insufficient balance");
+
+        accountService.settleHold(first, PaymentStatus.INSUFFICIENT_BALANCE, "TXN-1");
+        BalanceHold second = accountService.reserveBalance("CUST002", new BigDecimal("2500.00"));
+
+        assertThat(second.isActive()).isTrue();
+        assertThat(accountService.getAvailableBalance("CUST002")).isEqualByComparingTo("2500.00");
+        verify(accountStore, never()).debit(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should keep pending payments held until their status is final")
+    void shouldSettlePendingHoldFromStatusLookup() {
+        BalanceHold hold = accountService.reserveBalance("CUST001", new BigDecimal("400.00"));
+        accountService.settleHold(hold, PaymentStatus.PENDING, "TXN-7");
+
+        accountService.settleHold("TXN-7", PaymentStatus.PROCESSING);
+        assertThat(hold.isActive()).isTrue();
+        assertThat(accountService.getAvailableBalance("CUST001")).isEqualByComparingTo("9600.00");
+
+        accountService.settleHold("TXN-7", PaymentStatus.COMPLETED);
+        accountService.settleHold("TXN-7", PaymentStatus.COMPLETED);
+
+        verify(accountStore, times(1)).debit("CUST001", new BigDecimal("400.00"));
+        assertThat(accountService.getAccountByCustomerId("CUST001").getBalance()).isEqualByComparingTo("9600.00");
+        assertThat(accountService.activeHolds()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should expire orphaned holds and still debit one that completes late")
+    void shouldExpireOrphanedHolds() {
+        BalanceHold orphan = accountService.reserveBalance("CUST003", new BigDecimal("10000.00"));
+        BalanceHold late = accountService.reserveBalance("CUST003", new BigDecimal("5000.00"));
+        assertThatThrownBy(() -> accountService.reserveBalance("CUST003", new BigDecimal("1.00")))
+                .isInstanceOf(PaymentProcessingException.class);
+
+        clock.advance(Duration.ofMinutes(3));
+        BalanceHold next = accountService.reserveBalance("CUST003", new BigDecimal("1.00"));
+
+        assertThat(orphan.isActive()).isFalse();
+        assertThat(late.isActive()).isFalse();
+        assertThat(accountService.getAvailableBalance("CUST003")).isEqualByComparingTo("14999.00");
+
+        accountService.settleHold(late, PaymentStatus.COMPLETED, "TXN-9");
+
+        assertThat(accountService.getAvailableBalance("CUST003")).isEqualByComparingTo("9999.00");
+        assertThat(accountStore.findByCustomerId("CUST003").orElseThrow().getBalance()).isEqualByComparingTo("10000.00");
+        accountService.releaseHold(next);
+        assertThat(accountService.activeHolds()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should never hold more than the balance under concurrent payments")
+    void shouldNotOverdrawUnderContention() throws Exception {
+        int threads = 16;
+        int attemptsPerThread = 200;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BigDecimal>> debited = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                debited.add(executor.submit(() -> {
+                    start.await();
+                    BigDecimal total = BigDecimal.ZERO;
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        BigDecimal amount = new BigDecimal("7.00");
+                        try {
+                            BalanceHold hold = accountService.reserveBalance("CUST002", amount);
+                            boolean completes = (thread + i) % 3 != 0;
+                            accountService.settleHold(hold,
+                                    completes ? PaymentStatus.COMPLETED : PaymentStatus.FAILED, "TXN-" + thread + "-" + i);
+                            if (completes) {
+                                total = total.add(amount);
+                            }
+                        } catch (PaymentProcessingException ex) {
+                            // Balance exhausted
+                        }
+                    }
+                    return total;
+                }));
+            }
+            start.countDown();
+        }
+
+        BigDecimal totalDebited = BigDecimal.ZERO;
+        for (Future<BigDecimal> future : debited) {
+            totalDebited = totalDebited.add(future.get());
+        }
+        BigDecimal balance = accountStore.findByCustomerId("CUST002").orElseThrow().getBalance();
+
+        assertThat(totalDebited).isLessThanOrEqualTo(new BigDecimal("5000.00"));
+        assertThat(balance).isEqualByComparingTo(new BigDecimal("5000.00").subtract(totalDebited));
+        assertThat(balance.signum()).isNotNegative();
+        assertThat(accountService.getAvailableBalance("CUST002")).isEqualByComparingTo(balance);
+        assertThat(accountService.activeHolds()).isZero();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.client.BeneficiariesClient;
+import com.alok.payment.paymentConsumer.client.DownstreamCallExecutor;
+import com.alok.payment.paymentConsumer.client.DownstreamCallMetrics;
+import com.alok.payment.paymentConsumer.config.AccountStoreProperties;
+import com.alok.payment.paymentConsumer.config.BeneficiaryCacheProperties;
+import com.alok.payment.paymentConsumer.dto.BatchPaymentResponse;
+import com.alok.payment.paymentConsumer.dto.PaymentRequest;
+import com.alok.payment.paymentConsumer.dto.PaymentResponse;
+import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
+import com.alok.payment.paymentConsumer.model.Beneficiary;
+import com.alok.payment.paymentConsumer.model.PaymentStatus;
+import com.alok.payment.paymentConsumer.model.PaymentType;
+import com.alok.payment.paymentConsumer.repository.InMemoryAccountStore;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Batch Payment Service Tests")
+class BatchPaymentServiceTest {
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private BeneficiariesClient beneficiariesClient;
+    private AccountService accountService;
+    private PaymentValidationStage validationStage;
+    private PaymentConsumerService paymentConsumerService;
+    private BatchPaymentService batchPaymentService;
+
+    @BeforeEach
+    void setUp() {
+        beneficiariesClient = mock(BeneficiariesClient.class);
+        accountService = spy(new AccountService(InMemoryAccountStore.withDemoAccounts(),
+                new AccountStoreProperties(), new SimpleMeterRegistry()));
+        paymentConsumerService = mock(PaymentConsumerService.class);
+        batchPaymentService = batchPaymentService(16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchPaymentService.destroy();
+        validationStage.destroy();
+    }
+
+    @Test
+    @DisplayName("Should report per-item results without aborting the batch on partial failure")
+    void shouldReportPartialFailurePerItem() {
+        PaymentRequest valid = payment("CUST001", "ACC001", "100.00");
+        PaymentRequest unknownCustomer = payment("CUST999", "ACC999", "100.00");
+        PaymentRequest missingAmount = payment("CUST002", "ACC002", "100.00");
+        missingAmount.setAmount(null);
+        PaymentRequest processorDown = payment("CUST003", "ACC003", "100.00");
+
+        when(paymentConsumerService.submitValidatedPayment(valid)).thenReturn(completed());
+        when(paymentConsumerService.submitValidatedPayment(processorDown))
+                .thenThrow(new ServiceUnavailableException("Payment Processor", "down"));
+
+        BatchPaymentResponse response = batchPaymentService.processBatch(
+                List.of(valid, unknownCustomer, missingAmount, processorDown));
+
+        List<PaymentResponse> results = response.getResults();
+        assertThat(results).extracting(PaymentResponse::getStatus).containsExactly(
+                PaymentStatus.COMPLETED, PaymentStatus.FAILED, PaymentStatus.FAILED, PaymentStatus.FAILED);
+        assertThat(results.get(1).getFailureReason()).isEqualTo("Account not found for customer: CUST999");
+        assertThat(results.get(2).getFailureReason()).isEqualTo("Amount is required");
+        assertThat(results.get(3).getMessage()).isEqualTo("Payment submission failed");
+        assertThat(results.get(3).getFromAccount()).isEqualTo("ACC003");
+
+        assertThat(response.getSummary().getTotal()).isEqualTo(4);
+        assertThat(response.getSummary().getCompleted()).isEqualTo(1);
+        assertThat(response.getSummary().getFailed()).isEqualTo(3);
+        assertThat(response.getSummary().getPending()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should read each account and each distinct beneficiary once")
+    void shouldDeduplicateLookups() {
+        when(beneficiariesClient.getBeneficiaryById(1L, "CUST001")).thenReturn(beneficiary(1L, "ACC002"));
+        when(paymentConsumerService.submitValidatedPayment(any())).thenReturn(completed());
+
+        List<PaymentRequest> payments = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            PaymentRequest payment = payment("CUST001", "ACC001", "10.00");
+            payment.setBeneficiaryId(1L);
+            payments.add(payment);
+        }
+
+        BatchPaymentResponse response = batchPaymentService.processBatch(payments);
+
+        assertThat(response.getSummary().getCompleted()).isEqualTo(10);
+        verify(accountService, times(1)).getAccountByCustomerId("CUST001");
+        verify(beneficiariesClient, times(1)).getBeneficiaryById(1L, "CUST001");
+    }
+
+    @Test
+    @DisplayName("Should reject only the items naming a missing beneficiary")
+    void shouldRejectItemsWithMissingBeneficiary() {
+        when(beneficiariesClient.getBeneficiaryById(1L, "CUST001")).thenReturn(beneficiary(1L, "ACC002"));
+        when(beneficiariesClient.getBeneficiaryById(9L, "CUST001")).thenReturn(null);
+        when(paymentConsumerService.submitValidatedPayment(any())).thenReturn(completed());
+
+        PaymentRequest known = payment("CUST001", "ACC001", "10.00");
+        known.setBeneficiaryId(1L);
+        PaymentRequest missing = payment("CUST001", "ACC001", "10.00");
+        missing.setBeneficiaryId(9L);
+
+        BatchPaymentResponse response = batchPaymentService.processBatch(List.of(known, missing));
+
+        assertThat(response.getResults().get(0).getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(response.getResults().get(1).getFailureReason()).isEqualTo("Beneficiary not found with ID: 9");
+        verify(paymentConsumerService, times(1)).submitValidatedPayment(argThat(p -> p.getBeneficiaryId() == 1L));
+    }
+
+    @Test
+    @DisplayName("Should never exceed the configured submission parallelism")
+    void shouldBoundSubmissionParallelism() {
+        batchPaymentService.destroy();
+        batchPaymentService = batchPaymentService(3);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(paymentConsumerService.submitValidatedPayment(any())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+                return completed();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+
+        List<PaymentRequest> payments = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            payments.add(payment("CUST001", "ACC001", "1.00"));
+        }
+
+        BatchPaymentResponse response = batchPaymentService.processBatch(payments);
+
+        assertThat(response.getSummary().getCompleted()).isEqualTo(30);
+        assertThat(maxInFlight.get()).isBetween(2, 3);
+    }
+
+    @Test
+    @DisplayName("Should reject batches over the maximum size")
+    void shouldRejectOversizedBatch() {
+        List<PaymentRequest> payments = new ArrayList<>();
+        for (int i = 0; i < 51; i++) {
+            payments.add(payment("CUST001", "ACC001", "1.00"));
+        }
+
+        assertThatThrownBy(() -> batchPaymentService.processBatch(payments))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Batch of 51 payments exceeds the maximum of 50");
+    }
+
+    private BatchPaymentService batchPaymentService(int parallelism) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BeneficiaryCache beneficiaryCache = new BeneficiaryCache(
+                beneficiariesClient,
+                new DownstreamCallExecutor(TimeLimiterRegistry.ofDefaults(),
+                        new DownstreamCallMetrics(new SimpleMeterRegistry()), false),
+                new BeneficiaryCacheProperties(),
+                meterRegistry);
+        if (validationStage != null) {
+            validationStage.destroy();
+        }
+        validationStage = new PaymentValidationStage(accountService, beneficiaryCache, meterRegistry);
+        return new BatchPaymentService(accountService, beneficiaryCache, validationStage,
+                paymentConsumerService, VALIDATOR, 50, parallelism);
+    }
+
+    private static PaymentRequest payment(String customerId, String fromAccount, String amount) {
+        return new PaymentRequest(customerId, fromAccount, "ACC002",
+                new BigDecimal(amount), "USD", PaymentType.DOMESTIC_TRANSFER);
+    }
+
+    private static PaymentResponse completed() {
+        return new PaymentResponse("TXN-" + UUID.randomUUID(), PaymentStatus.COMPLETED, "Payment completed");
+    }
+
+    private static Beneficiary beneficiary(Long id, String accountNumber) {
+        Beneficiary beneficiary = new Beneficiary();
+        beneficiary.setId(id);
+        beneficiary.setCustomerId("CUST001");
+        beneficiary.setBeneficiaryAccountNumber(accountNumber);
+        beneficiary.setStatus("ACTIVE");
+        return beneficiary;
+    }
+}
@@ -0,0 +1,144 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.client.BeneficiariesClient;
+import com.alok.payment.paymentConsumer.client.DownstreamCallExecutor;
+import com.alok.payment.paymentConsumer.client.DownstreamCallMetrics;
+import com.alok.payment.paymentConsumer.config.BeneficiaryCacheProperties;
+import com.alok.payment.paymentConsumer.event.BeneficiaryChangedEvent;
+import com.alok.payment.paymentConsumer.model.Beneficiary;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Beneficiary Cache Tests")
+class BeneficiaryCacheTest {
+
+    private BeneficiariesClient beneficiariesClient;
+    private SimpleMeterRegistry meterRegistry;
+    private BeneficiaryCache beneficiaryCache;
+
+    @BeforeEach
+    void setUp() {
+        beneficiariesClient = mock(BeneficiariesClient.class);
+        meterRegistry = new SimpleMeterRegistry();
+        beneficiaryCache = new BeneficiaryCache(
+                beneficiariesClient,
+                new DownstreamCallExecutor(TimeLimiterRegistry.ofDefaults(),
+                        new DownstreamCallMetrics(new SimpleMeterRegistry()), false),
+                new BeneficiaryCacheProperties(),
+                meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should fetch a customer's beneficiaries once and serve repeats from cache")
+    void shouldServeRepeatedListReadsFromCache() {
+        when(beneficiariesClient.getBeneficiaries("CUST001", null)).thenReturn(List.of(beneficiary(1L)));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(beneficiaryCache.getBeneficiaries("CUST001", " ")).hasSize(1);
+        }
+
+        verify(beneficiariesClient, times(1)).getBeneficiaries("CUST001", null);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "beneficiaries.lists")
+                .tag("result", "hit").functionCounter().count()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Should answer single-beneficiary lookups from a cached list")
+    void shouldServeSingleLookupFromCachedList() {
+        when(beneficiariesClient.getBeneficiaries("CUST001", null))
+                .thenReturn(List.of(beneficiary(1L), beneficiary(2L)));
+        beneficiaryCache.getBeneficiaries("CUST001", null);
+
+        assertThat(beneficiaryCache.getBeneficiary(2L, "CUST001").getId()).isEqualTo(2L);
+
+        verify(beneficiariesClient, never()).getBeneficiaryById(any(), anyString());
+        assertThat(meterRegistry.get("beneficiaries.cache.served.from.list").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not cache beneficiaries that were not found")
+    void shouldNotCacheMissingBeneficiary() {
+        when(beneficiariesClient.getBeneficiaryById(9L, "CUST001")).thenReturn(null);
+
+        assertThat(beneficiaryCache.getBeneficiary(9L, "CUST001")).isNull();
+        assertThat(beneficiaryCache.getBeneficiary(9L, "CUST001")).isNull();
+
+        verify(beneficiariesClient, times(2)).getBeneficiaryById(9L, "CUST001");
+    }
+
+    @Test
+    @DisplayName("Should drop a customer's entries when a change event is published")
+    void shouldInvalidateOnChangeEvent() {
+        when(beneficiariesClient.getBeneficiaries("CUST001", null)).thenReturn(List.of(beneficiary(1L)));
+        when(beneficiariesClient.getBeneficiaryById(1L, "CUST001")).thenReturn(beneficiary(1L));
+        beneficiaryCache.getBeneficiaries("CUST001", null);
+        beneficiaryCache.getBeneficiary(1L, "CUST001");
+
+        beneficiaryCache.onBeneficiaryChanged(BeneficiaryChangedEvent.forCustomer("CUST001"));
+        beneficiaryCache.getBeneficiary(1L, "CUST001");
+        beneficiaryCache.getBeneficiaries("CUST001", null);
+
+        verify(beneficiariesClient, times(2)).getBeneficiaries("CUST001", null);
+        verify(beneficiariesClient, times(1)).getBeneficiaryById(1L, "CUST001");
+    }
+
+    @Test
+    @DisplayName("Should keep a list's version until the list is loaded again")
+    void shouldVersionLoadedLists() {
+        when(beneficiariesClient.getBeneficiaries("CUST001", null)).thenReturn(List.of(beneficiary(1L)));
+
+        assertThat(beneficiaryCache.getBeneficiariesVersion("CUST001", null)).isEqualTo(BeneficiaryCache.UNVERSIONED);
+        beneficiaryCache.getBeneficiaries("CUST001", null);
+        long loaded = beneficiaryCache.getBeneficiariesVersion("CUST001", null);
+        beneficiaryCache.getBeneficiaries("CUST001", null);
+        assertThat(beneficiaryCache.getBeneficiariesVersion("CUST001", "")).isEqualTo(loaded).isNotNegative();
+
+        beneficiaryCache.invalidateCustomer("CUST001");
+        assertThat(beneficiaryCache.getBeneficiariesVersion("CUST001", null)).isEqualTo(BeneficiaryCache.UNVERSIONED);
+        beneficiaryCache.getBeneficiaries("CUST001", null);
+        assertThat(beneficiaryCache.getBeneficiariesVersion("CUST001", null)).isNotIn(BeneficiaryCache.UNVERSIONED, loaded);
+        verify(beneficiariesClient, times(2)).getBeneficiaries("CUST001", null);
+    }
+
+    @Test
+    @DisplayName("Should call the remote service every time when disabled")
+    void shouldBypassCacheWhenDisabled() {
+        BeneficiaryCacheProperties properties = new BeneficiaryCacheProperties();
+        properties.setEnabled(false);
+        BeneficiaryCache disabledCache = new BeneficiaryCache(
+                beneficiariesClient,
+                new DownstreamCallExecutor(TimeLimiterRegistry.ofDefaults(),
+                        new DownstreamCallMetrics(new SimpleMeterRegistry()), false),
+                properties,
+                new SimpleMeterRegistry());
+        when(beneficiariesClient.getBeneficiaries("CUST001", null)).thenReturn(List.of(beneficiary(1L)));
+
+        disabledCache.getBeneficiaries("CUST001", null);
+        disabledCache.getBeneficiaries("CUST001", null);
+
+        verify(beneficiariesClient, times(2)).getBeneficiaries("CUST001", null);
+    }
+
+    private static Beneficiary beneficiary(Long id) {
+        Beneficiary beneficiary = new Beneficiary();
+        beneficiary.setId(id);
+        beneficiary.setCustomerId("CUST001");
+        beneficiary.setBeneficiaryAccountNumber("ACC00" + (id + 1));
+        beneficiary.setStatus("ACTIVE");
+        return beneficiary;
+    }
+}
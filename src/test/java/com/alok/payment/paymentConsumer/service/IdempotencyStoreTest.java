@@ -0,0 +1,261 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.config.IdempotencyProperties;
+import com.alok.payment.paymentConsumer.dto.PaymentRequest;
+import com.alok.payment.paymentConsumer.dto.PaymentResponse;
+import com.alok.payment.paymentConsumer.exception.IdempotencyKeyMismatchException;
+import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
+import com.alok.payment.paymentConsumer.model.PaymentStatus;
+import com.alok.payment.paymentConsumer.model.PaymentType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Idempotency Store Tests")
+class IdempotencyStoreTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final MutableClock clock = new MutableClock();
+    private final AtomicInteger submissions = new AtomicInteger();
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyProperties properties;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new IdempotencyProperties();
+        properties.setTtl(Duration.ofHours(1));
+        properties.getDisk().setDirectory(directory);
+    }
+
+    @Test
+    @DisplayName("Should replay a completed key without running the payment again")
+    void shouldReplayCompletedKey() {
+        IdempotencyStore store = store();
+
+        IdempotencyStore.Outcome first = store.execute("CUST001", "key-1", request(100), this::submit);
+        IdempotencyStore.Outcome second = store.execute("CUST001", "key-1", request(100), this::submit);
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(second.replayed()).isTrue();
+        assertThat(second.response()).isSameAs(first.response());
+        assertThat(submissions).hasValue(1);
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(meterRegistry.get("payments.idempotency.hit.ratio").gauge().value()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("cache.size").tag("cache", "payments.idempotency").gauge().value())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should scope keys to the customer and run payments without a key every time")
+    void shouldScopeKeysToCustomer() {
+        IdempotencyStore store = store();
+
+        store.execute("CUST001", "key-1", request(100), this::submit);
+        store.execute("CUST002", "key-1", request(100), this::submit);
+        store.execute("CUST001", null, request(100), this::submit);
+        store.execute("CUST001", null, request(100), this::submit);
+
+        assertThat(submissions).hasValue(4);
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused for a different payment")
+    void shouldRejectKeyReuseWithDifferentRequest() {
+        IdempotencyStore store = store();
+        store.execute("CUST001", "key-1", request(100), this::submit);
+
+        assertThatThrownBy(() -> store.execute("CUST001", "key-1", request(250), this::submit))
+                .isInstanceOf(IdempotencyKeyMismatchException.class)
+                .hasMessageContaining("key-1");
+        assertThat(submissions).hasValue(1);
+        assertThat(meterRegistry.get("payments.idempotency.requests").tag("outcome", "mismatched").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should make concurrent duplicates wait on the first execution")
+    void shouldJoinInFlightExecution() throws Exception {
+        IdempotencyStore store = store();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 20;
+
+        List<Future<IdempotencyStore.Outcome>> outcomes = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < callers; i++) {
+                outcomes.add(executor.submit(() -> store.execute("CUST001", "key-1", request(100), () -> {
+                    awaitQuietly(release);
+                    return submit();
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            long replays = 0;
+            for (Future<IdempotencyStore.Outcome> outcome : outcomes) {
+                if (outcome.get(5, TimeUnit.SECONDS).replayed()) {
+                    replays++;
+                }
+            }
+            assertThat(replays).isEqualTo(callers - 1);
+        }
+        assertThat(submissions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should release the key when the payment fails so a retry runs it again")
+    void shouldReleaseKeyOnFailure() {
+        IdempotencyStore store = store();
+
+        assertThatThrownBy(() -> store.execute("CUST001", "key-1", request(100), () -> {
+            throw new ServiceUnavailableException("Payment Processor", "down");
+        })).isInstanceOf(ServiceUnavailableException.class);
+
+        IdempotencyStore.Outcome retry = store.execute("CUST001", "key-1", request(100), this::submit);
+        assertThat(retry.replayed()).isFalse();
+        assertThat(submissions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should expire keys after the TTL")
+    void shouldExpireKeys() {
+        IdempotencyStore store = store();
+        store.execute("CUST001", "key-1", request(100), this::submit);
+
+        clock.advance(Duration.ofHours(1).plusSeconds(1));
+
+        assertThat(store.execute("CUST001", "key-1", request(100), this::submit).replayed()).isFalse();
+        assertThat(submissions).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should replay from disk after a restart when the disk store is enabled")
+    void shouldReplayFromDiskAfterRestart() {
+        properties.getDisk().setEnabled(true);
+        store().execute("CUST001", "key-1", request(100), this::submit);
+
+        meterRegistry = new SimpleMeterRegistry();
+        IdempotencyStore restarted = store();
+        IdempotencyStore.Outcome outcome = restarted.execute("CUST001", "key-1", request(100), this::submit);
+
+        assertThat(outcome.replayed()).isTrue();
+        assertThat(outcome.response().getTransactionId()).isEqualTo("TXN-1");
+        assertThat(outcome.response().getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(submissions).hasValue(1);
+
+        clock.advance(Duration.ofHours(2));
+        assertThat(store().execute("CUST001", "key-1", request(100), this::submit).replayed()).isFalse();
+        assertThat(submissions).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should purge expired key files on a schedule")
+    void shouldPurgeExpiredFilesOnSchedule() throws Exception {
+        properties.getDisk().setEnabled(true);
+        properties.getDisk().setPurgeInterval(Duration.ofMillis(20));
+        IdempotencyStore store = store();
+        try {
+            store.execute("CUST001", "key-1", request(100), this::submit);
+            assertThat(jsonFiles()).hasSize(1);
+
+            clock.advance(Duration.ofHours(2));
+            Thread.sleep(200);
+
+            assertThat(jsonFiles()).isEmpty();
+        } finally {
+            store.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject blank and oversized keys")
+    void shouldRejectInvalidKeys() {
+        IdempotencyStore store = store();
+
+        assertThatThrownBy(() -> store.execute("CUST001", " ", request(100), this::submit))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.execute("CUST001", "k".repeat(256), request(100), this::submit))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(submissions).hasValue(0);
+    }
+
+    private IdempotencyStore store() {
+        return new IdempotencyStore(properties, objectMapper, meterRegistry, clock);
+    }
+
+    private List<Path> jsonFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".json")).toList();
+        }
+    }
+
+    private PaymentResponse submit() {
+        return new PaymentResponse("TXN-" + submissions.incrementAndGet(), PaymentStatus.COMPLETED, "Payment completed");
+    }
+
+    private static PaymentRequest request(int amount) {
+        return new PaymentRequest("CUST001", "ACC001", "ACC002", new BigDecimal(amount), "USD",
+                PaymentType.DOMESTIC_TRANSFER);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
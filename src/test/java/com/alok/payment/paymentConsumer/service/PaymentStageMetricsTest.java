@@ -0,0 +1,72 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.exception.PaymentProcessingException;
+import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
+import com.alok.payment.paymentConsumer.model.PaymentStatus;
+import com.alok.payment.paymentConsumer.model.PaymentType;
+import com.alok.payment.paymentConsumer.service.PaymentStageMetrics.Stage;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Payment Stage Metrics Tests")
+class PaymentStageMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentStageMetrics stageMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        stageMetrics = new PaymentStageMetrics(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should record every marked stage and the total under the processor's status")
+    void shouldRecordMarkedStagesWithFinalStatus() {
+        PaymentStageMetrics.Recording recording = stageMetrics.start(PaymentType.DOMESTIC_TRANSFER);
+        for (Stage stage : new Stage[] {Stage.VALIDATION, Stage.REQUEST_BUILDING, Stage.BALANCE_HOLD,
+                Stage.PROCESSOR_CALL, Stage.SETTLEMENT}) {
+            recording.stage(stage);
+        }
+        recording.finish(PaymentStatus.COMPLETED);
+        recording.finish(PaymentStatus.COMPLETED);
+
+        for (String stage : new String[] {"validation", "request-building", "balance-hold", "processor-call",
+                "settlement", "total"}) {
+            assertThat(timer(stage, "DOMESTIC_TRANSFER", "COMPLETED").count()).as(stage).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should record only the stages reached by a failed payment, tagged by failure kind")
+    void shouldTagFailuresByKind() {
+        PaymentStageMetrics.Recording rejected = stageMetrics.start(PaymentType.DOMESTIC_PAYMENT);
+        rejected.fail(new PaymentProcessingException("Insufficient balance"));
+
+        PaymentStageMetrics.Recording unavailable = stageMetrics.start(null);
+        unavailable.stage(Stage.VALIDATION);
+        unavailable.stage(Stage.REQUEST_BUILDING);
+        unavailable.fail(new CompletionException(
+                new ServiceUnavailableException("Payment Processor", "Payment Processor service is unavailable")));
+
+        assertThat(timer("total", "DOMESTIC_PAYMENT", "REJECTED").count()).isEqualTo(1);
+        assertThat(meterRegistry.find("payment.pipeline.stage").tag("stage", "validation")
+                .tag("outcome", "REJECTED").timer()).isNull();
+        assertThat(timer("validation", "UNKNOWN", "UNAVAILABLE").count()).isEqualTo(1);
+        assertThat(timer("request-building", "UNKNOWN", "UNAVAILABLE").count()).isEqualTo(1);
+        assertThat(timer("total", "UNKNOWN", "UNAVAILABLE").count()).isEqualTo(1);
+        assertThat(meterRegistry.find("payment.pipeline.stage").tag("stage", "balance-hold").timer()).isNull();
+    }
+
+    private Timer timer(String stage, String type, String outcome) {
+        return meterRegistry.get("payment.pipeline.stage")
+                .tag("stage", stage).tag("type", type).tag("outcome", outcome).timer();
+    }
+}
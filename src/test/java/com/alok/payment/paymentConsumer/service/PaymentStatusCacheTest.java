@@ -0,0 +1,133 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.config.PaymentStatusCacheProperties;
+import com.alok.payment.paymentConsumer.dto.PaymentResponse;
+import com.alok.payment.paymentConsumer.model.PaymentStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Payment Status Cache Tests")
+class PaymentStatusCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private PaymentStatusCacheProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentStatusCache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PaymentStatusCacheProperties();
+        properties.getSpill().setFile(directory.resolve("status.spill"));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (cache != null) {
+            cache.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Should pin terminal statuses and never replace them with a pending one")
+    void shouldPinTerminalStatus() {
+        cache = cache();
+
+        cache.put(response("TXN-1", PaymentStatus.PROCESSING));
+        cache.put(response("TXN-1", PaymentStatus.COMPLETED));
+        cache.put(response("TXN-1", PaymentStatus.PROCESSING));
+
+        assertThat(cache.get("TXN-1").getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(cache.get("TXN-2")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should only briefly reuse pending statuses")
+    void shouldExpirePendingStatus() throws InterruptedException {
+        properties.setPendingTtl(Duration.ofMillis(50));
+        cache = cache();
+
+        cache.put(response("TXN-1", PaymentStatus.PENDING));
+        assertThat(cache.get("TXN-1").getStatus()).isEqualTo(PaymentStatus.PENDING);
+
+        Thread.sleep(100);
+        assertThat(cache.get("TXN-1")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should keep terminal statuses evicted from memory in the spill file")
+    void shouldSpillEvictedTerminalStatuses() {
+        properties.setMaximumTerminal(10);
+        properties.getSpill().setEnabled(true);
+        cache = cache();
+
+        for (int i = 0; i < 100; i++) {
+            cache.put(response("TXN-" + i, i % 2 == 0 ? PaymentStatus.COMPLETED : PaymentStatus.FAILED));
+        }
+
+        assertThat(Files.exists(directory.resolve("status.spill"))).isTrue();
+        for (int i = 0; i < 100; i++) {
+            assertThat(cache.get("TXN-" + i)).as("TXN-" + i).isNotNull()
+                    .extracting(PaymentResponse::getTransactionId).isEqualTo("TXN-" + i);
+        }
+        assertThat(meterRegistry.get("payments.status.spill").tag("outcome", "written").counter().count())
+                .isGreaterThanOrEqualTo(90);
+        assertThat(meterRegistry.get("payments.status.spill").tag("outcome", "hit").counter().count())
+                .isGreaterThanOrEqualTo(90);
+    }
+
+    @Test
+    @DisplayName("Should miss rather than misread statuses overwritten in a full spill file")
+    void shouldMissOverwrittenSpilledStatuses() {
+        PaymentStatusSpillFile spillFile = new PaymentStatusSpillFile(directory.resolve("ring.spill"),
+                DataSize.ofKilobytes(1).toBytes(), 1_000, Duration.ofHours(1), objectMapper);
+        try {
+            for (int i = 0; i < 100; i++) {
+                assertThat(spillFile.write(response("TXN-" + i, PaymentStatus.COMPLETED))).isTrue();
+            }
+
+            assertThat(spillFile.read("TXN-0")).isNull();
+            assertThat(spillFile.read("TXN-99").getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        } finally {
+            spillFile.close();
+        }
+        assertThat(Files.exists(directory.resolve("ring.spill"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should cache nothing when disabled")
+    void shouldCacheNothingWhenDisabled() {
+        properties.setEnabled(false);
+        cache = cache();
+
+        cache.put(response("TXN-1", PaymentStatus.COMPLETED));
+
+        assertThat(cache.get("TXN-1")).isNull();
+    }
+
+    private PaymentStatusCache cache() {
+        // Evictions, and so spills, happen on the calling thread
+        return new PaymentStatusCache(properties, objectMapper, meterRegistry, Runnable::run);
+    }
+
+    private static PaymentResponse response(String transactionId, PaymentStatus status) {
+        return new PaymentResponse(transactionId, status, "Payment " + status.name().toLowerCase());
+    }
+}
@@ -0,0 +1,222 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.config.AccountStoreProperties;
+import com.alok.payment.paymentConsumer.dto.PaymentResponse;
+import com.alok.payment.paymentConsumer.exception.ResourceNotFoundException;
+import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
+import com.alok.payment.paymentConsumer.model.PaymentStatus;
+import com.alok.payment.paymentConsumer.repository.InMemoryAccountStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Payment Status Watcher Tests")
+class PaymentStatusWatcherTest {
+
+    private PaymentConsumerService paymentConsumerService;
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentStatusWatcher watcher;
+
+    @BeforeEach
+    void setUp() {
+        paymentConsumerService = mock(PaymentConsumerService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        watcher = watcher(Duration.ofMillis(10), Duration.ofMillis(40));
+    }
+
+    @AfterEach
+    void tearDown() {
+        watcher.destroy();
+    }
+
+    @Test
+    @DisplayName("Should push each status change to every subscriber from one shared poll until terminal")
+    void shouldPushTransitionsUntilTerminal() throws InterruptedException {
+        when(paymentConsumerService.fetchPaymentStatus("TXN-1"))
+                .thenReturn(response(PaymentStatus.PENDING))
+                .thenReturn(response(PaymentStatus.PENDING))
+                .thenReturn(response(PaymentStatus.PROCESSING))
+                .thenReturn(response(PaymentStatus.COMPLETED));
+
+        RecordingEmitter first = (RecordingEmitter) watcher.subscribe("TXN-1", "CUST001");
+        RecordingEmitter second = (RecordingEmitter) watcher.subscribe("TXN-1", "CUST002");
+
+        assertThat(first.awaitCompletion()).isTrue();
+        assertThat(second.awaitCompletion()).isTrue();
+        verify(paymentConsumerService, times(4)).fetchPaymentStatus("TXN-1");
+        assertThat(first.statuses()).containsExactly(
+                PaymentStatus.PENDING, PaymentStatus.PROCESSING, PaymentStatus.COMPLETED);
+        assertThat(second.statuses()).endsWith(PaymentStatus.PROCESSING, PaymentStatus.COMPLETED);
+        assertThat(meterRegistry.get("payments.status.polls").tag("outcome", "changed").counter().count())
+                .isEqualTo(3);
+        assertThat(gauge("payments.status.watched")).isZero();
+        assertThat(gauge("payments.status.streams")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should back off while the status is unchanged and stop polling when the last subscriber leaves")
+    void shouldBackOffAndStopWithoutSubscribers() throws InterruptedException {
+        when(paymentConsumerService.fetchPaymentStatus("TXN-1")).thenReturn(response(PaymentStatus.PENDING));
+
+        RecordingEmitter emitter = (RecordingEmitter) watcher.subscribe("TXN-1", "CUST001");
+        Thread.sleep(300);
+        emitter.disconnect();
+        // A poll already handed to a virtual thread may still finish
+        Thread.sleep(50);
+        int polls = polls();
+        Thread.sleep(100);
+
+        // Without back-off a 10ms interval would have polled about 30 times
+        assertThat(polls).isBetween(2, 12);
+        assertThat(polls()).isEqualTo(polls);
+        assertThat(emitter.statuses()).containsExactly(PaymentStatus.PENDING);
+        assertThat(gauge("payments.status.watched")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should never leave a subscriber on a watch its last other subscriber closed")
+    void shouldNotJoinClosingWatch() throws Exception {
+        when(paymentConsumerService.fetchPaymentStatus("TXN-1")).thenReturn(response(PaymentStatus.PENDING));
+
+        for (int round = 0; round < 200; round++) {
+            RecordingEmitter leaving = (RecordingEmitter) watcher.subscribe("TXN-1", "CUST001");
+            Thread disconnect = Thread.ofVirtual().start(leaving::disconnect);
+            RecordingEmitter joining = (RecordingEmitter) watcher.subscribe("TXN-1", "CUST002");
+            disconnect.join();
+
+            assertThat(gauge("payments.status.watched")).isEqualTo(1);
+            assertThat(gauge("payments.status.streams")).isEqualTo(1);
+            joining.disconnect();
+            assertThat(gauge("payments.status.watched")).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the stream open and poll again when the processor is unavailable")
+    void shouldRetryAfterDownstreamFailure() throws InterruptedException {
+        when(paymentConsumerService.fetchPaymentStatus("TXN-1"))
+                .thenThrow(new ServiceUnavailableException("Payment Processor", "down"))
+                .thenReturn(response(PaymentStatus.FAILED));
+
+        RecordingEmitter emitter = (RecordingEmitter) watcher.subscribe("TXN-1", "CUST001");
+
+        assertThat(emitter.awaitCompletion()).isTrue();
+        assertThat(emitter.statuses()).containsExactly(PaymentStatus.FAILED);
+        assertThat(meterRegistry.get("payments.status.polls").tag("outcome", "failed").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should send an error event and end the stream for an unknown transaction")
+    void shouldEndStreamForUnknownTransaction() throws InterruptedException {
+        when(paymentConsumerService.fetchPaymentStatus("TXN-404"))
+                .thenThrow(new ResourceNotFoundException("Payment not found for transaction ID: TXN-404"));
+
+        RecordingEmitter emitter = (RecordingEmitter) watcher.subscribe("TXN-404", "CUST001");
+
+        assertThat(emitter.awaitCompletion()).isTrue();
+        assertThat(emitter.events).hasSize(2);
+        assertThat(emitter.events.get(0)).startsWith("retry:10");
+        assertThat(emitter.events.get(1)).startsWith("event:" + PaymentStatusWatcher.ERROR_EVENT);
+        verify(paymentConsumerService, atMost(1)).fetchPaymentStatus("TXN-404");
+    }
+
+    @Test
+    @DisplayName("Should reject subscriptions of unknown customers before opening a stream")
+    void shouldRejectUnknownCustomer() {
+        assertThatThrownBy(() -> watcher.subscribe("TXN-1", "CUST999"))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Account not found for customer: CUST999");
+        assertThat(gauge("payments.status.watched")).isZero();
+    }
+
+    private PaymentStatusWatcher watcher(Duration initialInterval, Duration maxInterval) {
+        AccountService accountService = new AccountService(InMemoryAccountStore.withDemoAccounts(),
+                new AccountStoreProperties(), new SimpleMeterRegistry());
+        return new PaymentStatusWatcher(paymentConsumerService, accountService, ObservationRegistry.NOOP, meterRegistry,
+                initialInterval, maxInterval, 2.0, Duration.ofMinutes(1), RecordingEmitter::new);
+    }
+
+    private int polls() {
+        return (int) mockingDetails(paymentConsumerService).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("fetchPaymentStatus"))
+                .count();
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private static PaymentResponse response(PaymentStatus status) {
+        return new PaymentResponse("TXN-1", status, "Payment " + status.name().toLowerCase());
+    }
+
+    /**
+     * Emitter that records events instead of writing them, and completes like the container would
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final List<PaymentStatus> statuses = new CopyOnWriteArrayList<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile Runnable completionCallback = () -> { };
+
+        RecordingEmitter(long timeout) {
+            super(timeout);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> {
+                if (part.getData() instanceof PaymentResponse response) {
+                    statuses.add(response.getStatus());
+                }
+                event.append(part.getData());
+            });
+            events.add(event.toString());
+        }
+
+        @Override
+        public void onCompletion(Runnable callback) {
+            this.completionCallback = callback;
+        }
+
+        @Override
+        public void complete() {
+            completionCallback.run();
+            completed.countDown();
+        }
+
+        void disconnect() {
+            completionCallback.run();
+        }
+
+        boolean awaitCompletion() throws InterruptedException {
+            return completed.await(5, TimeUnit.SECONDS);
+        }
+
+        List<PaymentStatus> statuses() {
+            return statuses;
+        }
+    }
+}
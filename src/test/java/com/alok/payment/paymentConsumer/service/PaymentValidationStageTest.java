@@ -0,0 +1,138 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.client.BeneficiariesClient;
+import com.alok.payment.paymentConsumer.client.DownstreamCallExecutor;
+import com.alok.payment.paymentConsumer.client.DownstreamCallMetrics;
+import com.alok.payment.paymentConsumer.config.AccountStoreProperties;
+import com.alok.payment.paymentConsumer.config.BeneficiaryCacheProperties;
+import com.alok.payment.paymentConsumer.dto.PaymentRequest;
+import com.alok.payment.paymentConsumer.exception.PaymentProcessingException;
+import com.alok.payment.paymentConsumer.exception.ResourceNotFoundException;
+import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
+import com.alok.payment.paymentConsumer.model.Beneficiary;
+import com.alok.payment.paymentConsumer.model.PaymentType;
+import com.alok.payment.paymentConsumer.repository.InMemoryAccountStore;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Payment Validation Stage Tests")
+class PaymentValidationStageTest {
+
+    private BeneficiariesClient beneficiariesClient;
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentValidationStage validationStage;
+
+    @BeforeEach
+    void setUp() {
+        beneficiariesClient = mock(BeneficiariesClient.class);
+        meterRegistry = new SimpleMeterRegistry();
+        BeneficiaryCache beneficiaryCache = new BeneficiaryCache(
+                beneficiariesClient,
+                new DownstreamCallExecutor(TimeLimiterRegistry.ofDefaults(),
+                        new DownstreamCallMetrics(new SimpleMeterRegistry()), false),
+                new BeneficiaryCacheProperties(),
+                meterRegistry);
+        AccountService accountService = new AccountService(InMemoryAccountStore.withDemoAccounts(),
+                new AccountStoreProperties(), meterRegistry);
+        validationStage = new PaymentValidationStage(accountService, beneficiaryCache, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        validationStage.destroy();
+    }
+
+    @Test
+    @DisplayName("Should fail fast on account rejection without waiting for the beneficiary lookup")
+    void shouldFailFastWithoutWaitingForBeneficiaryLookup() {
+        CountDownLatch release = new CountDownLatch(1);
+        when(beneficiariesClient.getBeneficiaryById(any(), anyString())).thenAnswer(invocation -> {
+            release.await(30, TimeUnit.SECONDS);
+            return null;
+        });
+
+        PaymentRequest request = paymentRequest("CUST999", "ACC999");
+        long started = System.nanoTime();
+
+        try {
+            assertThatThrownBy(() -> validationStage.validate(request))
+                    .isInstanceOf(ResourceNotFoundException.class);
+            assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(5));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject when beneficiary is not found")
+    void shouldRejectUnknownBeneficiary() {
+        when(beneficiariesClient.getBeneficiaryById(any(), anyString())).thenReturn(null);
+
+        assertThatThrownBy(() -> validationStage.validate(paymentRequest("CUST001", "ACC001")))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Beneficiary not found");
+    }
+
+    @Test
+    @DisplayName("Should degrade gracefully when beneficiaries service is unavailable")
+    void shouldDegradeGracefullyWhenBeneficiariesUnavailable() {
+        when(beneficiariesClient.getBeneficiaryById(any(), anyString()))
+                .thenThrow(new ServiceUnavailableException("Beneficiaries", "down"));
+
+        validationStage.validate(paymentRequest("CUST001", "ACC001"));
+    }
+
+    @Test
+    @DisplayName("Should reject account that does not belong to customer")
+    void shouldRejectForeignAccount() {
+        when(beneficiariesClient.getBeneficiaryById(any(), anyString())).thenReturn(activeBeneficiary());
+
+        assertThatThrownBy(() -> validationStage.validate(paymentRequest("CUST001", "ACC002")))
+                .isInstanceOf(PaymentProcessingException.class)
+                .hasMessage("From account does not belong to customer");
+    }
+
+    @Test
+    @DisplayName("Should record timing for every validation stage")
+    void shouldRecordStageTimings() {
+        when(beneficiariesClient.getBeneficiaryById(any(), anyString())).thenReturn(activeBeneficiary());
+
+        validationStage.validate(paymentRequest("CUST001", "ACC001"));
+
+        for (String stage : new String[] {"account", "beneficiary", "total"}) {
+            assertThat(meterRegistry.get("payment.validation.stage").tag("stage", stage).timer().count())
+                    .isEqualTo(1);
+        }
+    }
+
+    private static PaymentRequest paymentRequest(String customerId, String fromAccount) {
+        PaymentRequest request = new PaymentRequest(customerId, fromAccount, "ACC002",
+                new BigDecimal("100.00"), "USD", PaymentType.DOMESTIC_TRANSFER);
+        request.setBeneficiaryId(1L);
+        return request;
+    }
+
+    private static Beneficiary activeBeneficiary() {
+        Beneficiary beneficiary = new Beneficiary();
+        beneficiary.setId(1L);
+        beneficiary.setBeneficiaryAccountNumber("ACC002");
+        beneficiary.setStatus("ACTIVE");
+        return beneficiary;
+    }
+}
@@ -0,0 +1,302 @@
+package com.alok.payment.paymentConsumer.service;
+
+import com.alok.payment.paymentConsumer.dto.BatchPaymentResponse;
+import com.alok.payment.paymentConsumer.dto.PaymentRequest;
+import com.alok.payment.paymentConsumer.dto.PaymentResponse;
+import com.alok.payment.paymentConsumer.exception.ResourceNotFoundException;
+import com.alok.payment.paymentConsumer.exception.ServiceUnavailableException;
+import com.alok.payment.paymentConsumer.model.PaymentStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Streaming Payment Service Tests")
+class StreamingPaymentServiceTest {
+
+    private static final String VALID = "{\"customerId\":\"CUST001\",\"fromAccount\":\"ACC001\",\"toAccount\":\"ACC002\","
+            + "\"amount\":%s,\"currency\":\"USD\",\"paymentType\":\"DOMESTIC_TRANSFER\"}";
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private PaymentConsumerService paymentConsumerService;
+    private SimpleMeterRegistry meterRegistry;
+    private StreamingPaymentService streamingPaymentService;
+
+    @BeforeEach
+    void setUp() {
+        paymentConsumerService = mock(PaymentConsumerService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        streamingPaymentService = streamingPaymentService(8, 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        streamingPaymentService.destroy();
+    }
+
+    @Test
+    @DisplayName("Should answer every non-blank line, tagging results with their line number")
+    void shouldAnswerEveryLine() throws Exception {
+        when(paymentConsumerService.processPayment(any(PaymentRequest.class))).thenAnswer(invocation -> {
+            PaymentRequest request = invocation.getArgument(0);
+            return switch (request.getAmount().intValue()) {
+                case 2 -> throw new ServiceUnavailableException("Payment Processor", "down");
+                case 3 -> throw new ResourceNotFoundException("Account not found for customer: CUST001");
+                default -> completed();
+            };
+        });
+
+        String input = String.format(VALID, 1) + "\n"
+                + "\n"
+                + "{not json\n"
+                + "{\"customerId\":\"CUST001\"}\r\n"
+                + String.format(VALID, 2) + "\n"
+                + "null\n"
+                + String.format(VALID, 3);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BatchPaymentResponse.Summary summary = streamingPaymentService.ingest(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+
+        Map<Long, JsonNode> results = parse(output);
+        assertThat(results).containsOnlyKeys(1L, 3L, 4L, 5L, 6L, 7L);
+        assertThat(results.get(1L).get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(results.get(3L).get("failureReason").asText()).startsWith("Malformed payment request");
+        assertThat(results.get(4L).get("failureReason").asText()).contains("Amount is required");
+        assertThat(results.get(5L).get("message").asText()).isEqualTo("Payment submission failed");
+        assertThat(results.get(6L).get("failureReason").asText()).isEqualTo("Payment request cannot be null");
+        assertThat(results.get(7L).get("message").asText()).isEqualTo("Payment rejected");
+
+        assertThat(summary.getTotal()).isEqualTo(6);
+        assertThat(summary.getCompleted()).isEqualTo(1);
+        assertThat(summary.getFailed()).isEqualTo(5);
+        assertThat(meterRegistry.get("payments.stream.results").tag("status", "FAILED").counter().count())
+                .isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should keep no more payments in flight than the window allows")
+    void shouldBoundInFlightPayments() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(paymentConsumerService.processPayment(any(PaymentRequest.class))).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+                return completed();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            input.append(String.format(VALID, 1)).append('\n');
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BatchPaymentResponse.Summary summary = streamingPaymentService.ingest(
+                new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8)), output);
+
+        assertThat(summary.getCompleted()).isEqualTo(200);
+        assertThat(parse(output)).hasSize(200);
+        assertThat(maxInFlight.get()).isBetween(2, 8);
+    }
+
+    @Test
+    @DisplayName("Should stop taking payments while a slow reader has not taken their results")
+    void shouldBoundResultsWaitingForSlowReader() throws Exception {
+        AtomicInteger processed = new AtomicInteger();
+        when(paymentConsumerService.processPayment(any(PaymentRequest.class))).thenAnswer(invocation -> {
+            processed.incrementAndGet();
+            return completed();
+        });
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            input.append(String.format(VALID, 1)).append('\n');
+        }
+        SlowOutputStream output = new SlowOutputStream();
+
+        try (ExecutorService caller = Executors.newSingleThreadExecutor()) {
+            Future<BatchPaymentResponse.Summary> ingesting = caller.submit(() -> streamingPaymentService.ingest(
+                    new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8)), output));
+            assertThat(output.blocked.await(5, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(200);
+
+            // Results handed to the blocked client plus at most one window queued behind them
+            assertThat(processed.get()).isLessThanOrEqualTo(output.lines.get() + 8);
+
+            output.reader.countDown();
+            assertThat(ingesting.get(5, TimeUnit.SECONDS).getCompleted()).isEqualTo(200);
+        }
+        assertThat(output.lines.get()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should answer payments still running after the drain timeout as pending")
+    void shouldAnswerUnfinishedPaymentsAsPending() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(paymentConsumerService.processPayment(any(PaymentRequest.class))).thenAnswer(invocation -> {
+            PaymentRequest request = invocation.getArgument(0);
+            if (request.getAmount().intValue() == 2) {
+                release.await();
+            }
+            return completed();
+        });
+        streamingPaymentService.destroy();
+        streamingPaymentService = new StreamingPaymentService(paymentConsumerService,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                objectMapper, meterRegistry, 8, 1024, Duration.ofMillis(200));
+        String input = String.format(VALID, 1) + "\n" + String.format(VALID, 2) + "\n";
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            BatchPaymentResponse.Summary summary = streamingPaymentService.ingest(
+                    new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+
+            Map<Long, JsonNode> results = parse(output);
+            assertThat(results.get(1L).get("status").asText()).isEqualTo("COMPLETED");
+            assertThat(results.get(2L).get("status").asText()).isEqualTo("PENDING");
+            assertThat(results.get(2L).get("fromAccount").asText()).isEqualTo("ACC001");
+            assertThat(summary.getPending()).isEqualTo(1);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should answer payments that die with an Error and still return their permits")
+    void shouldReturnPermitsOfPaymentsDyingWithError() throws Exception {
+        when(paymentConsumerService.processPayment(any(PaymentRequest.class))).thenThrow(new AssertionError("boom"));
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            input.append(String.format(VALID, 1)).append('\n');
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BatchPaymentResponse.Summary summary = streamingPaymentService.ingest(
+                new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8)), output);
+
+        assertThat(summary.getFailed()).isEqualTo(20);
+        assertThat(parse(output).get(20L).get("failureReason").asText()).isEqualTo("Payment processing failed");
+    }
+
+    @Test
+    @DisplayName("Should stop rather than hang when shutdown interrupts the stream's writer")
+    void shouldStopWhenWriterIsInterrupted() throws Exception {
+        when(paymentConsumerService.processPayment(any(PaymentRequest.class))).thenAnswer(invocation -> {
+            Thread.sleep(60_000);
+            return completed();
+        });
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            input.append(String.format(VALID, 1)).append('\n');
+        }
+
+        try (ExecutorService caller = Executors.newSingleThreadExecutor()) {
+            Future<BatchPaymentResponse.Summary> ingesting = caller.submit(() -> streamingPaymentService.ingest(
+                    new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8)),
+                    new ByteArrayOutputStream()));
+            Thread.sleep(200);
+            streamingPaymentService.destroy();
+
+            assertThatThrownBy(() -> ingesting.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(InterruptedIOException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject oversized lines without buffering them")
+    void shouldRejectOversizedLine() throws Exception {
+        when(paymentConsumerService.processPayment(any(PaymentRequest.class))).thenReturn(completed());
+        String input = "x".repeat(5000) + "\n" + String.format(VALID, 1) + "\n";
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        streamingPaymentService.ingest(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+
+        Map<Long, JsonNode> results = parse(output);
+        assertThat(results.get(1L).get("failureReason").asText()).isEqualTo("Payment request exceeds 1024 characters");
+        assertThat(results.get(2L).get("status").asText()).isEqualTo("COMPLETED");
+    }
+
+    private StreamingPaymentService streamingPaymentService(int window, int maxLineLength) {
+        return new StreamingPaymentService(paymentConsumerService,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                objectMapper, meterRegistry, window, maxLineLength, Duration.ofSeconds(2));
+    }
+
+    /**
+     * Client that takes its first response bytes and then stops reading until released
+     */
+    private static final class SlowOutputStream extends OutputStream {
+
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch reader = new CountDownLatch(1);
+        private final AtomicInteger lines = new AtomicInteger();
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            for (int i = offset; i < offset + length; i++) {
+                if (bytes[i] == '\n') {
+                    lines.incrementAndGet();
+                }
+            }
+            blocked.countDown();
+            try {
+                if (!reader.await(10, TimeUnit.SECONDS)) {
+                    throw new IOException("Reader never resumed");
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+    }
+
+    private Map<Long, JsonNode> parse(ByteArrayOutputStream output) throws Exception {
+        Map<Long, JsonNode> results = new HashMap<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode result = objectMapper.readTree(line);
+            assertThat(results.put(result.get("line").asLong(), result)).isNull();
+        }
+        return results;
+    }
+
+    private static PaymentResponse completed() {
+        return new PaymentResponse("TXN-1", PaymentStatus.COMPLETED, "Payment completed");
+    }
+}
@@ -0,0 +1,156 @@
+package com.alok.payment.paymentConsumer.tracing;
+
+import com.alok.payment.paymentConsumer.config.TracingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Tail Sampling Span Processor Tests")
+class TailSamplingSpanProcessorTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String PARENT_SPAN_ID = "00f067aa0ba902b7";
+
+    private InMemorySpanExporter exporter;
+    private SimpleMeterRegistry meterRegistry;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        TracingProperties properties = new TracingProperties();
+        properties.setSlowThreshold(Duration.ofSeconds(10));
+        properties.setMaxSpansPerTrace(1);
+        exporter = new InMemorySpanExporter(10);
+        meterRegistry = new SimpleMeterRegistry();
+        tracerProvider = SdkTracerProvider.builder()
+                .setSampler(new TailSamplingSampler(0.0, true))
+                .addSpanProcessor(new TailSamplingSpanProcessor(properties, exporter, meterRegistry))
+                .build();
+        tracer = tracerProvider.get("test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Test
+    @DisplayName("Should record unsampled spans without asking downstreams to sample them")
+    void shouldRecordUnsampledSpans() {
+        Span root = tracer.spanBuilder("GET /payments").startSpan();
+
+        assertThat(root.isRecording()).isTrue();
+        assertThat(root.getSpanContext().isSampled()).isFalse();
+        root.end();
+    }
+
+    @Test
+    @DisplayName("Should drop fast successful traces and keep failed, slow and parent-sampled ones whole")
+    void shouldTailSampleTraces() {
+        Span fast = tracer.spanBuilder("GET /fast").startSpan();
+        child(fast, "HTTP GET").end();
+        fast.end();
+
+        Span failed = tracer.spanBuilder("POST /payments").startSpan();
+        child(failed, "HTTP POST").setStatus(StatusCode.ERROR, "HTTP 503").end();
+        failed.end();
+
+        Span sampled = tracer.spanBuilder("GET /sampled")
+                .setParent(remoteParent(TraceFlags.getSampled()))
+                .startSpan();
+        sampled.end();
+
+        Instant start = Instant.now();
+        Span slow = tracer.spanBuilder("GET /slow").setStartTimestamp(start).startSpan();
+        slow.end(start.plusSeconds(11));
+
+        List<List<SpanData>> traces = exporter.traces();
+        assertThat(traces).extracting(trace -> trace.get(0).getName())
+                .containsExactly("POST /payments", "GET /sampled", "GET /slow");
+        assertThat(traces.get(0)).extracting(SpanData::getName).containsExactly("POST /payments", "HTTP POST");
+        assertThat(traces.get(0).get(1).getParentSpanId()).isEqualTo(failed.getSpanContext().getSpanId());
+        assertThat(traces.get(1).get(0).getTraceId()).isEqualTo(TRACE_ID);
+        assertThat(meterRegistry.get("tracing.traces").tag("outcome", "dropped").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("tracing.traces").tag("outcome", "error").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("tracing.traces").tag("outcome", "slow").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep a trace with a failed fallback span and cap the spans it buffers")
+    void shouldKeepTraceWithFallback() {
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultTracingObservationHandler(
+                new OtelTracer(tracer, new OtelCurrentTraceContext(), event -> { })));
+
+        Span root = tracer.spanBuilder("GET /payments/{transactionId}")
+                .setParent(remoteParent(TraceFlags.getDefault()))
+                .startSpan();
+        try (Scope scope = root.makeCurrent()) {
+            CurrentTrace.fallback(observationRegistry, "getPaymentStatus", new IllegalStateException("circuit open"));
+            child(root, "HTTP GET").end();
+        }
+        root.end();
+
+        List<SpanData> trace = exporter.traces().get(0);
+        assertThat(trace).extracting(SpanData::getName)
+                .containsExactly("GET /payments/{transactionId}", "getPaymentStatus fallback");
+        assertThat(trace.get(0).getParentSpanId()).isEqualTo(PARENT_SPAN_ID);
+        SpanData fallback = trace.get(1);
+        assertThat(fallback.getParentSpanId()).isEqualTo(root.getSpanContext().getSpanId());
+        assertThat(fallback.getStatus().getStatusCode()).isEqualTo(StatusCode.ERROR);
+        assertThat(fallback.getAttributes().get(AttributeKey.stringKey("operation"))).isEqualTo("getPaymentStatus");
+        assertThat(meterRegistry.get("tracing.spans.dropped").tag("reason", "trace-limit").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should export spans of a kept trace that end after its root")
+    void shouldExportLateSpansOfKeptTrace() {
+        Span root = tracer.spanBuilder("POST /payments/stream").startSpan();
+        Span late = child(root, "HTTP POST");
+        root.setStatus(StatusCode.ERROR);
+        root.end();
+        late.end();
+
+        Span dropped = tracer.spanBuilder("GET /fast").startSpan();
+        Span droppedLate = child(dropped, "HTTP GET");
+        dropped.end();
+        droppedLate.end();
+
+        assertThat(exporter.traces()).extracting(trace -> trace.get(0).getName())
+                .containsExactly("POST /payments/stream", "HTTP POST");
+    }
+
+    private Span child(Span parent, String name) {
+        return tracer.spanBuilder(name).setParent(Context.current().with(parent)).startSpan();
+    }
+
+    private static Context remoteParent(TraceFlags flags) {
+        return Context.root().with(Span.wrap(
+                SpanContext.createFromRemoteParent(TRACE_ID, PARENT_SPAN_ID, flags, TraceState.getDefault())));
+    }
+}